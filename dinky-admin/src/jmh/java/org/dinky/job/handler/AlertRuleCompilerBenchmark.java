@@ -0,0 +1,181 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.job.handler;
+
+import org.dinky.data.dto.AlertRuleDTO;
+import org.dinky.data.model.ext.JobAlertData;
+import org.dinky.data.options.JobAlertRuleOptions;
+import org.dinky.job.handler.AlertRuleCompiler.CompiledAlertRule;
+import org.dinky.utils.JsonUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.spel.SpELCondition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cn.hutool.core.text.StrFormatter;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+
+/**
+ * One monitoring round: every job of the round is checked against every alert rule, about 5% of the
+ * jobs changed since the previous round. Compares the SpEL conditions evaluated over a fact map, the
+ * compiled predicates, and the compiled predicates narrowed by {@link AlertRuleIndex}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AlertRuleCompilerBenchmark {
+
+    @Param("5000")
+    private int jobCount;
+
+    @Param("50")
+    private int ruleCount;
+
+    private List<SpELCondition> spelConditions;
+
+    private List<CompiledAlertRule> compiledRules;
+
+    private AlertRuleIndex index;
+
+    private JobAlertData[] previous;
+
+    private JobAlertData[] current;
+
+    @Setup
+    public void setup() {
+        spelConditions = new ArrayList<>();
+        compiledRules = new ArrayList<>();
+        for (int i = 0; i < ruleCount; i++) {
+            AlertRuleDTO rule;
+            switch (i % 3) {
+                case 0:
+                    rule = rule(" or ", item(JobAlertRuleOptions.FIELD_NAME_JOB_STATUS, "EQ", "'FAILED" + i + "'"));
+                    break;
+                case 1:
+                    rule = rule(
+                            " and ",
+                            item(JobAlertRuleOptions.FIELD_NAME_CHECKPOINT_FAILED_COUNT, "GT", String.valueOf(i)),
+                            item(JobAlertRuleOptions.FIELD_NAME_IS_EXCEPTION, "EQ", "true"));
+                    break;
+                default:
+                    rule = rule(" or ", item(JobAlertRuleOptions.FIELD_NAME_CHECKPOINT_COST_TIME, "GT", "60000"));
+            }
+            spelConditions.add(new SpELCondition(condition(rule)));
+            compiledRules.add(AlertRuleCompiler.compile(rule));
+        }
+        index = new AlertRuleIndex(compiledRules);
+
+        previous = new JobAlertData[jobCount];
+        current = new JobAlertData[jobCount];
+        for (int i = 0; i < jobCount; i++) {
+            previous[i] = data(i, 0, false);
+            current[i] = i % 20 == 0 ? data(i, 50, true) : data(i, 0, false);
+        }
+    }
+
+    @Benchmark
+    public int spel() {
+        int matches = 0;
+        for (JobAlertData job : current) {
+            Facts facts = new Facts();
+            JsonUtils.toMap(job).forEach(facts::put);
+            for (SpELCondition condition : spelConditions) {
+                matches += condition.evaluate(facts) ? 1 : 0;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int compiled() {
+        int matches = 0;
+        for (JobAlertData job : current) {
+            for (CompiledAlertRule rule : compiledRules) {
+                matches += rule.getCondition().test(job) ? 1 : 0;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int compiledAndIndexed() {
+        int matches = 0;
+        for (int i = 0; i < jobCount; i++) {
+            for (CompiledAlertRule rule : index.candidates(previous[i], current[i])) {
+                matches += rule.getCondition().test(current[i]) ? 1 : 0;
+            }
+        }
+        return matches;
+    }
+
+    private static String condition(AlertRuleDTO rule) {
+        List<String> items = new ArrayList<>();
+        for (Object item : JSONUtil.parseArray(rule.getRule())) {
+            JSONObject json = (JSONObject) item;
+            items.add(StrFormatter.format(
+                    " #{} {} {} ", json.getStr("ruleKey"), json.getStr("ruleOperator"), json.getStr("ruleValue")));
+        }
+        return StrFormatter.format("#{{}}", String.join(rule.getTriggerConditions(), items));
+    }
+
+    private static AlertRuleDTO rule(String triggerConditions, String... items) {
+        AlertRuleDTO rule = new AlertRuleDTO();
+        rule.setName("rule");
+        rule.setTriggerConditions(triggerConditions);
+        rule.setRule("[" + String.join(",", items) + "]");
+        return rule;
+    }
+
+    private static String item(String key, String operator, String value) {
+        return StrFormatter.format(
+                "{\"ruleKey\":\"{}\",\"ruleOperator\":\"{}\",\"ruleValue\":\"{}\"}",
+                key,
+                operator,
+                value.replace("'", "\\u0027"));
+    }
+
+    private static JobAlertData data(long jobId, long failedCheckpoints, boolean exception) {
+        return JobAlertData.builder()
+                .jobId(String.valueOf(jobId))
+                .jobStatus("RUNNING")
+                .checkpointFailedCount(failedCheckpoints)
+                .isCheckpointFailed(exception)
+                .isException(exception)
+                .build();
+    }
+}
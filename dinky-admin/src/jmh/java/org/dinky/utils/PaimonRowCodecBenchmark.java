@@ -0,0 +1,179 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import org.dinky.data.paimon.CacheData;
+import org.dinky.data.vo.MetricsVO;
+
+import org.apache.paimon.data.BinaryRow;
+import org.apache.paimon.data.BinaryRowWriter;
+import org.apache.paimon.data.BinaryString;
+import org.apache.paimon.data.BinaryWriter;
+import org.apache.paimon.data.InternalRow;
+import org.apache.paimon.data.Timestamp;
+import org.apache.paimon.types.DataField;
+import org.apache.paimon.types.DataType;
+import org.apache.paimon.types.DataTypeRoot;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cn.hutool.core.util.ReflectUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+
+/**
+ * Encodes and decodes one row with {@link PaimonRowCodec}, and with the per field reflection that
+ * PaimonUtil used before, for the metrics and the cache table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaimonRowCodecBenchmark {
+
+    private PaimonRowCodec<MetricsVO> metricsCodec;
+
+    private List<DataField> metricsFields;
+
+    private MetricsVO metrics;
+
+    private BinaryRow metricsRow;
+
+    private PaimonRowCodec<CacheData> cacheCodec;
+
+    private List<DataField> cacheFields;
+
+    private CacheData cacheData;
+
+    private BinaryRow cacheRow;
+
+    @Setup
+    public void setup() {
+        Map<String, Object> content = new HashMap<>();
+        content.put("cpu", 1);
+        content.put("heap", "1024");
+        metrics = new MetricsVO(LocalDateTime.of(2023, 9, 15, 14, 30, 1), "local", content, "2023-09-15");
+        metricsCodec = PaimonRowCodec.of(MetricsVO.class);
+        metricsFields = PaimonUtil.getSchemaByClass(MetricsVO.class).fields();
+        metricsRow = metricsCodec.toRow(metrics);
+
+        cacheData = CacheData.builder()
+                .cacheName("metadata_schema")
+                .key("key1")
+                .data("{\"id\":1}")
+                .build();
+        cacheCodec = PaimonRowCodec.of(CacheData.class);
+        cacheFields = PaimonUtil.getSchemaByClass(CacheData.class).fields();
+        cacheRow = cacheCodec.toRow(cacheData);
+    }
+
+    @Benchmark
+    public BinaryRow writeMetricsWithCodec() {
+        return metricsCodec.toRow(metrics);
+    }
+
+    @Benchmark
+    public BinaryRow writeMetricsWithReflection() {
+        return reflectToRow(metrics, metricsFields);
+    }
+
+    @Benchmark
+    public MetricsVO readMetricsWithCodec() {
+        return metricsCodec.fromRow(metricsRow);
+    }
+
+    @Benchmark
+    public MetricsVO readMetricsWithReflection() {
+        return reflectFromRow(metricsRow, MetricsVO.class, metricsFields);
+    }
+
+    @Benchmark
+    public BinaryRow writeCacheWithCodec() {
+        return cacheCodec.toRow(cacheData);
+    }
+
+    @Benchmark
+    public BinaryRow writeCacheWithReflection() {
+        return reflectToRow(cacheData, cacheFields);
+    }
+
+    @Benchmark
+    public CacheData readCacheWithCodec() {
+        return cacheCodec.fromRow(cacheRow);
+    }
+
+    @Benchmark
+    public CacheData readCacheWithReflection() {
+        return reflectFromRow(cacheRow, CacheData.class, cacheFields);
+    }
+
+    /** The conversion PaimonUtil.write did before {@link PaimonRowCodec}. */
+    private static BinaryRow reflectToRow(Object data, List<DataField> fields) {
+        BinaryRow row = new BinaryRow(fields.size());
+        BinaryRowWriter writer = new BinaryRowWriter(row);
+        for (int i = 0; i < fields.size(); i++) {
+            DataType type = fields.get(i).type();
+            Object fieldValue = ReflectUtil.getFieldValue(
+                    data, StrUtil.toCamelCase(fields.get(i).name()));
+            if (fieldValue == null) {
+                writer.setNullAt(i);
+            } else if (type.getTypeRoot() == DataTypeRoot.VARCHAR) {
+                BinaryWriter.write(writer, i, BinaryString.fromString(JSONUtil.toJsonStr(fieldValue)), type, null);
+            } else if (type.getTypeRoot() == DataTypeRoot.TIMESTAMP_WITHOUT_TIME_ZONE) {
+                BinaryWriter.write(writer, i, Timestamp.fromLocalDateTime((LocalDateTime) fieldValue), type, null);
+            } else {
+                BinaryWriter.write(writer, i, fieldValue, type, null);
+            }
+        }
+        writer.complete();
+        return row;
+    }
+
+    /** The conversion PaimonUtil.batchReadTable did before {@link PaimonRowCodec}. */
+    private static <T> T reflectFromRow(InternalRow row, Class<T> clazz, List<DataField> fields) {
+        T t = ReflectUtil.newInstance(clazz);
+        for (DataField f : fields) {
+            Object value = InternalRow.createFieldGetter(f.type(), f.id()).getFieldOrNull(row);
+            try {
+                ReflectUtil.setFieldValue(t, StrUtil.toCamelCase(f.name()), value);
+            } catch (Exception ignored) {
+                // the old conversion skipped the fields it could not set
+            }
+        }
+        return t;
+    }
+}
@@ -25,7 +25,7 @@ import org.dinky.data.enums.BusinessStatus;
 import org.dinky.data.model.OperateLog;
 import org.dinky.data.model.rbac.User;
 import org.dinky.data.result.Result;
-import org.dinky.service.impl.OperateLogServiceImpl;
+import org.dinky.service.OperateLogService;
 import org.dinky.utils.IpUtils;
 import org.dinky.utils.ServletUtils;
 
@@ -37,6 +37,7 @@ import java.util.Arrays;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import javax.annotation.Resource;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -47,13 +48,13 @@ import org.aspectj.lang.annotation.AfterThrowing;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.HandlerMapping;
 
 import cn.dev33.satoken.stp.StpUtil;
-import cn.hutool.extra.spring.SpringUtil;
 import cn.hutool.json.JSONUtil;
 import lombok.extern.slf4j.Slf4j;
 
@@ -63,6 +64,10 @@ import lombok.extern.slf4j.Slf4j;
 @Component
 public class LogAspect {
 
+    @Resource
+    @Lazy
+    private OperateLogService operateLogService;
+
     @Pointcut("@annotation(org.dinky.data.annotations.Log)")
     public void logPointCut() {}
 
@@ -100,14 +105,15 @@ public class LogAspect {
 
             // *========数据库日志=========*//
             OperateLog operLog = new OperateLog();
-            Result result = JSONUtil.toBean(JSONUtil.parseObj(jsonResult), Result.class);
-            operLog.setStatus(result.isSuccess() ? BusinessStatus.SUCCESS.ordinal() : BusinessStatus.FAIL.ordinal());
+            // the controllers return the Result itself, read its status instead of parsing it back from json
+            boolean success = e == null && (!(jsonResult instanceof Result) || ((Result<?>) jsonResult).isSuccess());
+            operLog.setStatus(success ? BusinessStatus.SUCCESS.ordinal() : BusinessStatus.FAIL.ordinal());
 
             // 请求的地址
             String ip = IpUtils.getIpAddr(ServletUtils.getRequest());
             operLog.setOperateIp(ip);
-            // 返回参数
-            operLog.setJsonResult(JSONUtil.toJsonStr(jsonResult));
+            // 返回参数，由日志写入线程序列化
+            operLog.setResult(jsonResult);
 
             operLog.setOperateUrl(ServletUtils.getRequest().getRequestURI());
             if (user != null) {
@@ -116,10 +122,8 @@ public class LogAspect {
             }
 
             if (e != null) {
-                operLog.setStatus(BusinessStatus.FAIL.ordinal());
                 operLog.setErrorMsg(StringUtils.substring(e.getMessage(), 0, 2000));
             }
-            operLog.setStatus(BusinessStatus.SUCCESS.ordinal());
             // 设置方法名称
             String className = joinPoint.getTarget().getClass().getName();
             String methodName = joinPoint.getSignature().getName();
@@ -131,8 +135,8 @@ public class LogAspect {
 
             operLog.setOperateTime(LocalDateTime.now());
 
-            // 保存数据库
-            SpringUtil.getBean(OperateLogServiceImpl.class).saveLog(operLog);
+            // 异步批量保存数据库
+            operateLogService.saveLog(operLog);
 
         } catch (Exception exp) {
             // 记录本地异常日志
@@ -39,6 +39,9 @@ public class FlinkWebProxyServletConfiguration implements EnvironmentAware {
         servletRegistrationBean.addUrlMappings("/api/flink_web/proxy/*", "/api/flink_web/*");
         servletRegistrationBean.addInitParameter(ProxyServlet.P_TARGET_URI, TARGET_URL);
         servletRegistrationBean.addInitParameter(ProxyServlet.P_LOG, "false");
+        servletRegistrationBean.addInitParameter(
+                ProxyServlet.P_MAXCONNECTIONS,
+                String.valueOf(FlinkWebURITemplateProxyServlet.MAX_CONNECTIONS_PER_JOB_MANAGER));
         return servletRegistrationBean;
     }
 
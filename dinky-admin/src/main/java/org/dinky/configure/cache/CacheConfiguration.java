@@ -19,14 +19,13 @@
 
 package org.dinky.configure.cache;
 
-import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class CacheConfiguration {
     @Bean
-    public CacheManager cacheManager() {
+    public PaimonCacheManager cacheManager() {
         return new PaimonCacheManager();
     }
 }
@@ -21,14 +21,16 @@ package org.dinky.configure.cache;
 
 import org.dinky.data.constant.PaimonTableConstant;
 import org.dinky.data.paimon.CacheData;
+import org.dinky.data.vo.CacheStatisticsVO;
 import org.dinky.utils.PaimonUtil;
 
 import org.apache.paimon.data.BinaryString;
 
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.cache.support.AbstractValueAdaptingCache;
 
@@ -36,21 +38,33 @@ import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONReader;
 import com.alibaba.fastjson2.JSONWriter;
 
-import cn.hutool.cache.impl.TimedCache;
 import cn.hutool.core.convert.Convert;
 
+/**
+ * A two tier cache, a bounded {@link TinyLfuCache} in memory in front of the paimon cache table. Misses are
+ * answered by a primary key lookup, keys that were never persisted are rejected by an in memory key index
+ * without touching paimon, and writes reach paimon asynchronously through the {@link PaimonCacheWriter}.
+ */
 public class PaimonCache extends AbstractValueAdaptingCache {
     private static final Class<CacheData> clazz = CacheData.class;
-    private final String cacheName;
     private static final String TABLE_NAME = PaimonTableConstant.DINKY_CACHE;
+    private final String cacheName;
+    private final TinyLfuCache<String, Object> cache;
+    private final PaimonCacheWriter writer;
+
     /**
-     * TIMEOUT CACHE
+     * Keys persisted in paimon, loaded by a key only scan of the cache partition on the first local miss.
      */
-    private final cn.hutool.cache.Cache<Object, Object> cache = new TimedCache<>(1000 * 60 * 30);
+    private volatile Set<String> persistedKeys;
+
+    private final AtomicLong loadHitCount = new AtomicLong();
+    private final AtomicLong loadMissCount = new AtomicLong();
 
-    public PaimonCache(String cacheName) {
+    public PaimonCache(String cacheName, PaimonCacheWriter writer, long maximumSize, long maximumWeight) {
         super(true);
         this.cacheName = cacheName;
+        this.writer = writer;
+        this.cache = new TinyLfuCache<>(maximumSize, maximumWeight);
     }
 
     @Override
@@ -63,62 +77,84 @@ public class PaimonCache extends AbstractValueAdaptingCache {
         return this;
     }
 
-    @Override
-    public <T> T get(Object key, Class<T> type) {
-        return (T) get(key).get();
-    }
-
     @Override
     protected Object lookup(Object key) {
         String strKey = Convert.toStr(key);
         Object o = cache.get(strKey);
-        if (o == null) {
-            PaimonUtil.createOrGetTable(TABLE_NAME, clazz);
-            List<CacheData> cacheData = PaimonUtil.batchReadTable(
-                    TABLE_NAME,
-                    clazz,
-                    x -> Arrays.asList(
-                            x.equal(x.indexOf("cache_name"), BinaryString.fromString(cacheName)),
-                            x.equal(x.indexOf("key"), BinaryString.fromString(strKey))));
-            if (cacheData.isEmpty()) {
-                return null;
-            }
-            return deserialize(cacheData.get(0).getData());
+        if (o != null) {
+            return o;
         }
-        return o;
+        String data = loadData(strKey);
+        if (data == null || data.isEmpty()) {
+            loadMissCount.incrementAndGet();
+            return null;
+        }
+        loadHitCount.incrementAndGet();
+        Object value = deserialize(data);
+        cache.put(strKey, value, weigh(strKey, data));
+        return value;
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <T> T get(Object key, Callable<T> valueLoader) {
-        return (T) get(key).get();
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
     }
 
     @Override
     public void put(Object key, Object value) {
         String strKey = Convert.toStr(key);
-        cache.put(strKey, value);
-        PaimonUtil.createOrGetTable(TABLE_NAME, clazz);
-        CacheData cacheData = CacheData.builder()
-                .cacheName(cacheName)
-                .key(strKey)
-                .data(serialize(value))
-                .build();
-        PaimonUtil.write(TABLE_NAME, Collections.singletonList(cacheData), clazz);
+        Object storeValue = toStoreValue(value);
+        String data = serialize(storeValue);
+        cache.put(strKey, storeValue, weigh(strKey, data));
+        writer.put(cacheName, strKey, data);
+        Set<String> keys = persistedKeys;
+        if (keys != null) {
+            keys.add(strKey);
+        }
     }
 
     @Override
     public void evict(Object key) {
         String strKey = Convert.toStr(key);
         cache.remove(strKey);
-        CacheData cacheData =
-                CacheData.builder().cacheName(cacheName).key(strKey).data("").build();
-        PaimonUtil.write(TABLE_NAME, Collections.singletonList(cacheData), clazz);
+        writer.delete(cacheName, strKey);
+        Set<String> keys = persistedKeys;
+        if (keys != null) {
+            keys.remove(strKey);
+        }
     }
 
     @Override
     public void clear() {
         cache.clear();
-        PaimonUtil.dropTable(TABLE_NAME);
+        writer.clear(cacheName);
+        persistedKeys = ConcurrentHashMap.newKeySet();
+    }
+
+    public CacheStatisticsVO getStatistics() {
+        return CacheStatisticsVO.builder()
+                .cacheName(cacheName)
+                .size(cache.size())
+                .weight(cache.weightedSize())
+                .hitCount(cache.getHitCount())
+                .missCount(cache.getMissCount())
+                .loadHitCount(loadHitCount.get())
+                .loadMissCount(loadMissCount.get())
+                .evictionCount(cache.getEvictionCount())
+                .pendingWrites(writer.getPendingCount(cacheName))
+                .build();
     }
 
     public String serialize(Object object) {
@@ -128,4 +164,56 @@ public class PaimonCache extends AbstractValueAdaptingCache {
     public Object deserialize(String json) {
         return JSON.parseObject(json, Object.class, JSONReader.Feature.SupportAutoType);
     }
+
+    /**
+     * Read the serialized value, the not yet persisted changes first, then paimon by primary key.
+     */
+    private String loadData(String key) {
+        CacheData pending = writer.getPending(cacheName, key);
+        if (pending != null) {
+            return pending.getData();
+        }
+        if (!getPersistedKeys().contains(key)) {
+            return null;
+        }
+        String[] data = new String[1];
+        // columns are cache_name, key and data; only the data column is read
+        PaimonUtil.readRows(
+                TABLE_NAME,
+                clazz,
+                x -> Arrays.asList(
+                        x.equal(0, BinaryString.fromString(cacheName)), x.equal(1, BinaryString.fromString(key))),
+                new int[] {2},
+                row -> data[0] = row.getString(0).toString());
+        return data[0];
+    }
+
+    private Set<String> getPersistedKeys() {
+        Set<String> keys = persistedKeys;
+        if (keys != null) {
+            return keys;
+        }
+        synchronized (this) {
+            if (persistedKeys == null) {
+                // no commit can run meanwhile, so the keys are either persisted or still pending
+                writer.withFlushLock(cacheName, pendingKeys -> {
+                    Set<String> loaded = ConcurrentHashMap.newKeySet();
+                    PaimonUtil.readRows(
+                            TABLE_NAME,
+                            clazz,
+                            x -> Arrays.asList(x.equal(0, BinaryString.fromString(cacheName))),
+                            new int[] {1},
+                            row -> loaded.add(row.getString(0).toString()));
+                    persistedKeys = loaded;
+                    loaded.addAll(pendingKeys);
+                    return loaded;
+                });
+            }
+            return persistedKeys;
+        }
+    }
+
+    private static int weigh(String key, String data) {
+        return key.length() + data.length();
+    }
 }
@@ -19,13 +19,25 @@
 
 package org.dinky.configure.cache;
 
+import org.dinky.data.vo.CacheStatisticsVO;
+
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashSet;
+import java.util.List;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.cache.Cache;
 import org.springframework.cache.support.AbstractCacheManager;
 
-public class PaimonCacheManager extends AbstractCacheManager {
+public class PaimonCacheManager extends AbstractCacheManager implements DisposableBean {
+
+    /** Bounds of the local tier of each cache, the weight is the serialized size in characters. */
+    private static final long MAXIMUM_SIZE = 10000;
+
+    private static final long MAXIMUM_WEIGHT = 64 * 1024 * 1024;
+
+    private final PaimonCacheWriter writer = new PaimonCacheWriter();
 
     @Override
     protected Collection<? extends Cache> loadCaches() {
@@ -39,6 +51,19 @@ public class PaimonCacheManager extends AbstractCacheManager {
 
     @Override
     protected Cache getMissingCache(String name) {
-        return new PaimonCache(name);
+        return new PaimonCache(name, writer, MAXIMUM_SIZE, MAXIMUM_WEIGHT);
+    }
+
+    public List<CacheStatisticsVO> getStatistics() {
+        List<CacheStatisticsVO> statistics = new ArrayList<>();
+        for (String cacheName : this.getCacheNames()) {
+            statistics.add(((PaimonCache) this.getCache(cacheName)).getStatistics());
+        }
+        return statistics;
+    }
+
+    @Override
+    public void destroy() {
+        writer.close();
     }
 }
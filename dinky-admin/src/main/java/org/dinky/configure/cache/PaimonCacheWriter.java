@@ -0,0 +1,161 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.configure.cache;
+
+import org.dinky.data.constant.PaimonTableConstant;
+import org.dinky.data.paimon.CacheData;
+import org.dinky.utils.PaimonUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import cn.hutool.core.map.MapUtil;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write-behind of the cache changes to paimon. Puts and evictions are coalesced per key and committed by a single
+ * thread once a second, or as soon as a cache has {@link #FLUSH_SIZE} pending changes, so a burst of puts costs one
+ * paimon commit instead of one commit per key. Pending changes stay visible through {@link #getPending} until their
+ * commit succeeded.
+ */
+@Slf4j
+class PaimonCacheWriter {
+
+    private static final String TABLE_NAME = PaimonTableConstant.DINKY_CACHE;
+    private static final Class<CacheData> CLAZZ = CacheData.class;
+    private static final long FLUSH_INTERVAL = 1000;
+    private static final int FLUSH_SIZE = 500;
+
+    /** cache name -> key -> pending row, a row with null data is a delete */
+    private final Map<String, Map<String, CacheData>> pending = new ConcurrentHashMap<>();
+
+    private final Object flushLock = new Object();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(
+            1,
+            ThreadFactoryBuilder.create()
+                    .setNamePrefix("paimon-cache-writer-")
+                    .setDaemon(true)
+                    .build());
+
+    PaimonCacheWriter() {
+        PaimonUtil.createOrGetTable(TABLE_NAME, CLAZZ);
+        executor.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL, FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    void put(String cacheName, String key, String data) {
+        enqueue(CacheData.builder().cacheName(cacheName).key(key).data(data).build());
+    }
+
+    void delete(String cacheName, String key) {
+        enqueue(CacheData.builder().cacheName(cacheName).key(key).build());
+    }
+
+    CacheData getPending(String cacheName, String key) {
+        return pending.getOrDefault(cacheName, Collections.emptyMap()).get(key);
+    }
+
+    int getPendingCount(String cacheName) {
+        return pending.getOrDefault(cacheName, Collections.emptyMap()).size();
+    }
+
+    /**
+     * Run the action while no commit is in flight, the pending changes can not be persisted meanwhile.
+     */
+    <T> T withFlushLock(String cacheName, Function<Set<String>, T> action) {
+        synchronized (flushLock) {
+            return action.apply(
+                    pending.getOrDefault(cacheName, Collections.emptyMap()).keySet());
+        }
+    }
+
+    /**
+     * Discard the pending changes of the cache and drop its partition.
+     */
+    void clear(String cacheName) {
+        synchronized (flushLock) {
+            pending.remove(cacheName);
+            PaimonUtil.dropPartitions(TABLE_NAME, Collections.singletonList(MapUtil.of("cache_name", cacheName)));
+        }
+    }
+
+    void close() {
+        executor.shutdown();
+        flush();
+    }
+
+    private void enqueue(CacheData cacheData) {
+        Map<String, CacheData> changes =
+                pending.computeIfAbsent(cacheData.getCacheName(), k -> new ConcurrentHashMap<>());
+        changes.put(cacheData.getKey(), cacheData);
+        if (changes.size() >= FLUSH_SIZE && !executor.isShutdown() && flushScheduled.compareAndSet(false, true)) {
+            executor.execute(this::flush);
+        }
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        synchronized (flushLock) {
+            List<CacheData> upserts = new ArrayList<>();
+            List<CacheData> deletes = new ArrayList<>();
+            pending.values().forEach(changes -> changes.values().forEach(cacheData -> {
+                if (cacheData.getData() == null) {
+                    deletes.add(CacheData.builder()
+                            .cacheName(cacheData.getCacheName())
+                            .key(cacheData.getKey())
+                            .data("")
+                            .build());
+                } else {
+                    upserts.add(cacheData);
+                }
+            }));
+            if (upserts.isEmpty() && deletes.isEmpty()) {
+                return;
+            }
+            try {
+                PaimonUtil.write(TABLE_NAME, upserts, deletes, CLAZZ);
+            } catch (Exception e) {
+                log.error(
+                        "Write cache to paimon failed, {} changes will be retried", upserts.size() + deletes.size(), e);
+                return;
+            }
+            // keep the changes that were replaced during the commit
+            upserts.forEach(cacheData -> removeCommitted(cacheData, (k, v) -> v == cacheData ? null : v));
+            deletes.forEach(cacheData -> removeCommitted(cacheData, (k, v) -> v.getData() == null ? null : v));
+        }
+    }
+
+    private void removeCommitted(CacheData cacheData, BiFunction<String, CacheData, CacheData> remapping) {
+        Map<String, CacheData> changes = pending.get(cacheData.getCacheName());
+        if (changes != null) {
+            changes.computeIfPresent(cacheData.getKey(), remapping);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.configure.cache;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import lombok.Getter;
+
+/**
+ * A size and weight bounded local cache with a W-TinyLFU policy. New entries enter a small LRU window, entries
+ * leaving the window are only admitted into the main segmented LRU when they were accessed more often than the
+ * main victim, so one-off reads, like a full listing, do not flush the entries that are really hot. Entries hit
+ * in the probation segment are promoted to the protected segment.
+ */
+class TinyLfuCache<K, V> {
+
+    private static final double WINDOW_RATIO = 0.01;
+    private static final double PROTECTED_RATIO = 0.8;
+
+    private final long maximumSize;
+    private final long maximumWeight;
+    private final long windowMaximumSize;
+    private final long windowMaximumWeight;
+    private final long protectedMaximumWeight;
+
+    private final Map<K, Node<V>> data = new HashMap<>();
+    /** Segments in LRU order, the eldest entry first. */
+    private final LinkedHashMap<K, Node<V>> window = new LinkedHashMap<>();
+
+    private final LinkedHashMap<K, Node<V>> probation = new LinkedHashMap<>();
+    private final LinkedHashMap<K, Node<V>> protect = new LinkedHashMap<>();
+    private final FrequencySketch sketch;
+
+    private long windowWeight;
+    private long probationWeight;
+    private long protectedWeight;
+
+    @Getter
+    private long hitCount;
+
+    @Getter
+    private long missCount;
+
+    @Getter
+    private long evictionCount;
+
+    TinyLfuCache(long maximumSize, long maximumWeight) {
+        this.maximumSize = maximumSize;
+        this.maximumWeight = maximumWeight;
+        this.windowMaximumSize = Math.max(1, (long) (maximumSize * WINDOW_RATIO));
+        this.windowMaximumWeight = Math.max(1, (long) (maximumWeight * WINDOW_RATIO));
+        this.protectedMaximumWeight = (long) ((maximumWeight - windowMaximumWeight) * PROTECTED_RATIO);
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    synchronized V get(K key) {
+        sketch.increment(key);
+        Node<V> node = data.get(key);
+        if (node == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        switch (node.segment) {
+            case WINDOW:
+                moveToTail(window, key, node);
+                break;
+            case PROBATION:
+                probation.remove(key);
+                probationWeight -= node.weight;
+                node.segment = Segment.PROTECTED;
+                protect.put(key, node);
+                protectedWeight += node.weight;
+                demoteProtected();
+                break;
+            default:
+                moveToTail(protect, key, node);
+        }
+        return node.value;
+    }
+
+    synchronized void put(K key, V value, int weight) {
+        sketch.increment(key);
+        remove(key);
+        if (weight > maximumWeight - windowMaximumWeight) {
+            return;
+        }
+        Node<V> node = new Node<>(value, weight);
+        data.put(key, node);
+        window.put(key, node);
+        windowWeight += weight;
+        evict();
+    }
+
+    synchronized void remove(K key) {
+        Node<V> node = data.remove(key);
+        if (node != null) {
+            unlink(key, node);
+        }
+    }
+
+    synchronized void clear() {
+        data.clear();
+        window.clear();
+        probation.clear();
+        protect.clear();
+        windowWeight = 0;
+        probationWeight = 0;
+        protectedWeight = 0;
+    }
+
+    synchronized long size() {
+        return data.size();
+    }
+
+    synchronized long weightedSize() {
+        return windowWeight + probationWeight + protectedWeight;
+    }
+
+    /**
+     * Move the window overflow into the main space, each candidate competes with the eldest main entry by
+     * frequency and the loser is evicted.
+     */
+    private void evict() {
+        while (windowWeight > windowMaximumWeight || window.size() > windowMaximumSize) {
+            Iterator<Map.Entry<K, Node<V>>> iterator = window.entrySet().iterator();
+            Map.Entry<K, Node<V>> candidate = iterator.next();
+            iterator.remove();
+            Node<V> node = candidate.getValue();
+            windowWeight -= node.weight;
+
+            boolean admitted = true;
+            while (probationWeight + protectedWeight + node.weight > maximumWeight - windowMaximumWeight
+                    || data.size() > maximumSize) {
+                Map.Entry<K, Node<V>> victim = eldest(probation.isEmpty() ? protect : probation);
+                if (victim == null) {
+                    break;
+                }
+                if (sketch.frequency(candidate.getKey()) > sketch.frequency(victim.getKey())) {
+                    evictEntry(victim.getKey(), victim.getValue());
+                } else {
+                    data.remove(candidate.getKey());
+                    evictionCount++;
+                    admitted = false;
+                    break;
+                }
+            }
+            if (admitted) {
+                node.segment = Segment.PROBATION;
+                probation.put(candidate.getKey(), node);
+                probationWeight += node.weight;
+            }
+        }
+    }
+
+    private void demoteProtected() {
+        while (protectedWeight > protectedMaximumWeight && protect.size() > 1) {
+            Map.Entry<K, Node<V>> eldest = eldest(protect);
+            protect.remove(eldest.getKey());
+            protectedWeight -= eldest.getValue().weight;
+            eldest.getValue().segment = Segment.PROBATION;
+            probation.put(eldest.getKey(), eldest.getValue());
+            probationWeight += eldest.getValue().weight;
+        }
+    }
+
+    private void evictEntry(K key, Node<V> node) {
+        data.remove(key);
+        unlink(key, node);
+        evictionCount++;
+    }
+
+    private void unlink(K key, Node<V> node) {
+        switch (node.segment) {
+            case WINDOW:
+                window.remove(key);
+                windowWeight -= node.weight;
+                break;
+            case PROBATION:
+                probation.remove(key);
+                probationWeight -= node.weight;
+                break;
+            default:
+                protect.remove(key);
+                protectedWeight -= node.weight;
+        }
+    }
+
+    private void moveToTail(LinkedHashMap<K, Node<V>> segment, K key, Node<V> node) {
+        segment.remove(key);
+        segment.put(key, node);
+    }
+
+    private Map.Entry<K, Node<V>> eldest(LinkedHashMap<K, Node<V>> segment) {
+        Iterator<Map.Entry<K, Node<V>>> iterator = segment.entrySet().iterator();
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    private enum Segment {
+        WINDOW,
+        PROBATION,
+        PROTECTED
+    }
+
+    private static class Node<V> {
+        private final V value;
+        private final int weight;
+        private Segment segment = Segment.WINDOW;
+
+        Node(V value, int weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
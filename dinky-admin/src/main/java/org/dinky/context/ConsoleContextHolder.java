@@ -33,22 +33,20 @@ import org.dinky.utils.LogUtil;
 
 import org.apache.http.util.TextUtils;
 
+import java.io.File;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
 
 import org.slf4j.MDC;
 
 import com.alibaba.fastjson2.JSONObject;
 
 import cn.hutool.core.io.FileUtil;
-import cn.hutool.core.lang.Assert;
 import cn.hutool.core.lang.UUID;
 import cn.hutool.core.text.StrFormatter;
 import lombok.extern.slf4j.Slf4j;
@@ -66,20 +64,25 @@ public class ConsoleContextHolder {
         return instance;
     }
 
-    private final Map<String, ProcessEntity> logPross = new ConcurrentHashMap<>();
+    private final Map<String, ProcessLog> logPross = new ConcurrentHashMap<>();
 
     /**
      * Get a list of all processes
      */
     public List<ProcessEntity> list() {
-        return new ArrayList<>(logPross.values());
+        return logPross.values().stream().map(ProcessLog::getProcess).collect(Collectors.toList());
     }
 
     public ProcessEntity getProcess(String processName) {
         if (logPross.containsKey(processName)) {
-            return logPross.get(processName);
+            return logPross.get(processName).getProcess();
         }
         try {
+            File journal = getJournal(processName);
+            if (journal.exists()) {
+                return ProcessLog.replay(journal);
+            }
+            // Processes finished before the journal was introduced are kept as a single json document
             String filePath = String.format("%s/tmp/log/%s.json", System.getProperty("user.dir"), processName);
             String string = FileUtil.readString(filePath, StandardCharsets.UTF_8);
             return JSONObject.parseObject(string, ProcessEntity.class);
@@ -98,27 +101,12 @@ public class ConsoleContextHolder {
      * @throws BusException Throws an exception if the process does not exist
      */
     public void appendLog(String processName, String stepPid, String log, boolean recordGlobal) {
-        if (!logPross.containsKey(processName)) {
-            throw new BusException(StrFormatter.format("process {} does not exist", processName));
-        }
-        ProcessEntity process = logPross.get(processName);
-        if (recordGlobal) {
-            process.appendLog(log);
-        }
-        if (stepPid != null) {
-            ProcessStepEntity stepNode = getStepNode(stepPid, getStepsMap(processName));
-            stepNode.appendLog(log);
-            process.setLastUpdateStep(stepNode);
-        }
-        //   /TOPIC/PROCESS_CONSOLE/FlinkSubmit/12
-        String topic = StrFormatter.format("{}/{}", SseTopic.PROCESS_CONSOLE.getValue(), processName);
-        CompletableFuture.runAsync(() -> {
-            SseSessionContextHolder.sendTopic(topic, process);
-        });
+        getProcessLog(processName).appendLog(stepPid, log, recordGlobal);
     }
 
     /**
      * Register a new process.
+     * The changes of the process are sent to the topic of the process and written to its journal under tmp/log.
      *
      * @param type        process type
      * @param processName process name
@@ -130,14 +118,21 @@ public class ConsoleContextHolder {
         }
         ProcessEntity entity = ProcessEntity.builder()
                 .key(UUID.fastUUID().toString())
-                .log(new StringBuilder())
                 .status(ProcessStatus.INITIALIZING)
                 .type(type)
                 .title(type.getValue())
                 .startTime(LocalDateTime.now())
-                .children(new CopyOnWriteArrayList<>())
                 .build();
-        logPross.put(processName, entity);
+        //   /TOPIC/PROCESS_CONSOLE/FlinkSubmit/12
+        String topic = StrFormatter.format("{}/{}", SseTopic.PROCESS_CONSOLE.getValue(), processName);
+        // the journal is only opened, and truncated, once the name is taken by this process
+        ProcessLog processLog = logPross.computeIfAbsent(
+                processName,
+                k -> ProcessLog.start(
+                        entity, getJournal(processName), delta -> SseSessionContextHolder.sendTopic(topic, delta)));
+        if (!entity.getKey().equals(processLog.getProcess().getKey())) {
+            throw new BusException(Status.PROCESS_REGISTER_EXITS);
+        }
         appendLog(processName, null, "Start Process:" + processName, true);
     }
 
@@ -154,26 +149,25 @@ public class ConsoleContextHolder {
         if (!logPross.containsKey(processName)) {
             throw new BusException(StrFormatter.format("Process {} does not exist", type));
         }
-        ProcessEntity process = logPross.get(processName);
-        process.setStatus(ProcessStatus.RUNNING);
+        ProcessLog processLog = logPross.get(processName);
+        if (processLog.getProcess().getStatus() != ProcessStatus.RUNNING) {
+            ProcessEntity header = header(processLog.getProcess());
+            header.setStatus(ProcessStatus.RUNNING);
+            processLog.update(header);
+        }
         ProcessStepEntity processStepEntity = ProcessStepEntity.builder()
                 .key(UUID.fastUUID().toString())
                 .status(ProcessStatus.RUNNING)
                 .startTime(LocalDateTime.now())
                 .type(type)
                 .title(type.getDesc().getMessage())
-                .log(new StringBuilder())
-                .children(new CopyOnWriteArrayList<>())
                 .build();
-
-        if (TextUtils.isEmpty(parentStepPid)) {
-            // parentStep为空表示为顶级节点
-            process.getChildren().add(processStepEntity);
-        } else {
-            ProcessStepEntity stepNode = getStepNode(parentStepPid, process.getChildren());
-            stepNode.getChildren().add(processStepEntity);
+        // parentStep为空表示为顶级节点
+        String parentKey = TextUtils.isEmpty(parentStepPid) ? null : parentStepPid;
+        if (parentKey != null && processLog.getStep(parentKey) == null) {
+            throwStepNotFound(parentKey);
         }
-        return processStepEntity;
+        return processLog.update(processStepEntity, parentKey);
     }
 
     /**
@@ -187,20 +181,18 @@ public class ConsoleContextHolder {
         if (!logPross.containsKey(processName)) {
             return;
         }
-        ProcessEntity process = logPross.get(processName);
-        process.setStatus(status);
-        process.setEndTime(LocalDateTime.now());
-        process.setTime(
-                Duration.between(process.getStartTime(), process.getEndTime()).toMillis());
+        ProcessLog processLog = logPross.get(processName);
         if (e != null) {
             appendLog(processName, null, LogUtil.getError(e.getCause()), true);
         }
-        String filePath = String.format("%s/tmp/log/%s.json", System.getProperty("user.dir"), processName);
-        if (FileUtil.exist(filePath)) {
-            Assert.isTrue(FileUtil.del(filePath));
-        }
-        FileUtil.writeUtf8String(JSONObject.toJSONString(process), filePath);
+        ProcessEntity header = header(processLog.getProcess());
+        header.setStatus(status);
+        header.setEndTime(LocalDateTime.now());
+        header.setTime(
+                Duration.between(header.getStartTime(), header.getEndTime()).toMillis());
+        processLog.update(header);
         appendLog(processName, null, StrFormatter.format("Process {} exit with status:{}", processName, status), true);
+        processLog.close();
         logPross.remove(processName);
     }
 
@@ -216,9 +208,18 @@ public class ConsoleContextHolder {
         if (!logPross.containsKey(processName)) {
             return;
         }
-        step.setStatus(status);
-        step.setEndTime(LocalDateTime.now());
-        step.setTime(Duration.between(step.getStartTime(), step.getEndTime()).toMillis());
+        ProcessLog processLog = logPross.get(processName);
+        ProcessStepEntity header = ProcessStepEntity.builder()
+                .key(step.getKey())
+                .title(step.getTitle())
+                .type(step.getType())
+                .startTime(step.getStartTime())
+                .status(status)
+                .endTime(LocalDateTime.now())
+                .build();
+        header.setTime(
+                Duration.between(header.getStartTime(), header.getEndTime()).toMillis());
+        processLog.update(header, null);
         if (e != null) {
             appendLog(processName, step.getKey(), LogUtil.getError(e.getCause()), false);
         }
@@ -229,38 +230,37 @@ public class ConsoleContextHolder {
                 true);
     }
 
-    private ProcessStepEntity getStepNode(String stepPid, CopyOnWriteArrayList<ProcessStepEntity> stepsMap) {
-        ProcessStepEntity stepNode = findStepNode(stepPid, stepsMap);
-        if (stepNode != null) {
-            return stepNode;
+    private ProcessLog getProcessLog(String processName) {
+        ProcessLog processLog = logPross.get(processName);
+        if (processLog == null) {
+            throw new BusException(StrFormatter.format("process {} does not exist", processName));
         }
+        return processLog;
+    }
+
+    private void throwStepNotFound(String stepPid) {
         String errorStr = StrFormatter.format(
                 "Get Parent Node Failed, This is most likely a Dinky bug, "
                         + "please report the following information back to the community：\nProcess:{},\nstep:{},\nprocessNam:{}",
-                JSONObject.toJSONString(logPross),
+                JSONObject.toJSONString(list()),
                 stepPid,
                 MDC.get(ProcessAspect.PROCESS_NAME));
         throw new DinkyException(errorStr);
     }
 
-    /**
-     * 递归查找节点
-     */
-    private ProcessStepEntity findStepNode(String stepPid, CopyOnWriteArrayList<ProcessStepEntity> stepsMap) {
-        for (ProcessStepEntity processStepEntity : stepsMap) {
-            if (processStepEntity.getKey().equals(stepPid)) {
-                return processStepEntity;
-            } else {
-                ProcessStepEntity stepNode = findStepNode(stepPid, processStepEntity.getChildren());
-                if (stepNode != null) {
-                    return stepNode;
-                }
-            }
-        }
-        return null;
+    private static ProcessEntity header(ProcessEntity process) {
+        return ProcessEntity.builder()
+                .key(process.getKey())
+                .title(process.getTitle())
+                .type(process.getType())
+                .status(process.getStatus())
+                .startTime(process.getStartTime())
+                .endTime(process.getEndTime())
+                .time(process.getTime())
+                .build();
     }
 
-    private CopyOnWriteArrayList<ProcessStepEntity> getStepsMap(String processName) {
-        return logPross.get(processName).getChildren();
+    private static File getJournal(String processName) {
+        return new File(String.format("%s/tmp/log/%s.jsonl", System.getProperty("user.dir"), processName));
     }
 }
@@ -25,16 +25,26 @@ import org.dinky.data.vo.MetricsVO;
 import org.dinky.utils.PaimonUtil;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import cn.hutool.core.text.StrFormatter;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * The MetricsContextHolder class is used to manage the metric context,
  * including operations such as storing and sending metric data.
+ * <p>
+ * Metrics are put into a bounded buffer and persisted to paimon by a single writer thread in batches,
+ * the SSE fan-out runs on its own thread, so a slow paimon commit never stalls the UI stream
+ * or the job monitoring threads. Metrics that do not fit into the buffers are dropped and counted.
+ * </p>
  */
 @Slf4j
 public class MetricsContextHolder {
@@ -45,31 +55,103 @@ public class MetricsContextHolder {
         return instance;
     }
 
+    private static final int BUFFER_CAPACITY = 10000;
+
     /**
-     * Temporary cache monitoring information, mainly to prevent excessive buffering of write IO,
-     * when metricsVOS data reaches 1000 or the time exceeds 5 seconds
+     * Dump the buffered monitoring information to paimon when it reaches 1000 or the time exceeds 5 seconds,
+     * mainly to prevent excessive write IO.
      */
-    private final List<MetricsVO> metricsVOS = Collections.synchronizedList(new ArrayList<>());
+    private static final int BATCH_SIZE = 1000;
+
+    private static final long BATCH_INTERVAL = 1000 * 5;
+
+    private final BlockingQueue<MetricsVO> buffer = new ArrayBlockingQueue<>(BUFFER_CAPACITY);
+
+    /** The batch being collected by the writer thread. */
+    private final List<MetricsVO> batch = new ArrayList<>(BATCH_SIZE);
+
+    @Getter
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    @Getter
+    private final AtomicLong sseDroppedCount = new AtomicLong();
+
+    @Getter
+    private final AtomicLong writtenCount = new AtomicLong();
+
+    @Getter
+    private final AtomicLong writeErrorCount = new AtomicLong();
 
-    private final Long lastDumpTime = System.currentTimeMillis();
+    private final ThreadPoolExecutor sseExecutor = new ThreadPoolExecutor(
+            1,
+            1,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(BUFFER_CAPACITY),
+            ThreadFactoryBuilder.create()
+                    .setNamePrefix("metrics-sse-")
+                    .setDaemon(true)
+                    .build(),
+            (r, executor) -> sseDroppedCount.incrementAndGet());
+
+    private MetricsContextHolder() {
+        Thread writer = new Thread(this::writeLoop, "metrics-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "metrics-writer-flush"));
+    }
 
     public void sendAsync(String key, MetricsVO o) {
-        CompletableFuture.runAsync(() -> {
-                    metricsVOS.add(o);
-                    long duration = System.currentTimeMillis() - lastDumpTime;
-                    synchronized (metricsVOS) {
-                        if (metricsVOS.size() > 1000 || duration > 1000 * 5) {
-                            PaimonUtil.write(PaimonTableConstant.DINKY_METRICS, metricsVOS, MetricsVO.class);
-                            metricsVOS.clear();
-                        }
+        if (!buffer.offer(o)) {
+            if (droppedCount.incrementAndGet() % BATCH_SIZE == 1) {
+                log.warn("Metrics buffer is full, {} metrics have been dropped", droppedCount.get());
+            }
+        }
+        String topic = StrFormatter.format("{}/{}", SseTopic.METRICS.getValue(), key);
+        sseExecutor.execute(() -> SseSessionContextHolder.sendTopic(topic, o));
+    }
+
+    private void writeLoop() {
+        long lastDumpTime = System.currentTimeMillis();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                long wait = lastDumpTime + BATCH_INTERVAL - System.currentTimeMillis();
+                MetricsVO metricsVO = buffer.poll(Math.max(wait, 0), TimeUnit.MILLISECONDS);
+                synchronized (batch) {
+                    if (metricsVO != null) {
+                        batch.add(metricsVO);
+                        buffer.drainTo(batch, BATCH_SIZE - batch.size());
                     }
-                    String topic = StrFormatter.format("{}/{}", SseTopic.METRICS.getValue(), key);
-                    SseSessionContextHolder.sendTopic(topic, o);
-                })
-                .whenComplete((v, t) -> {
-                    if (t != null) {
-                        log.error("send metrics async error", t);
+                    if (batch.size() >= BATCH_SIZE || System.currentTimeMillis() - lastDumpTime >= BATCH_INTERVAL) {
+                        write(batch);
+                        lastDumpTime = System.currentTimeMillis();
                     }
-                });
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void flush() {
+        synchronized (batch) {
+            buffer.drainTo(batch);
+            write(batch);
+        }
+    }
+
+    private void write(List<MetricsVO> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            PaimonUtil.write(PaimonTableConstant.DINKY_METRICS, batch, MetricsVO.class);
+            writtenCount.addAndGet(batch.size());
+        } catch (Exception e) {
+            writeErrorCount.addAndGet(batch.size());
+            log.error("write metrics error", e);
+        } finally {
+            batch.clear();
+        }
     }
 }
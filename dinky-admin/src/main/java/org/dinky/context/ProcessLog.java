@@ -0,0 +1,307 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.context;
+
+import org.dinky.data.exception.DinkyException;
+import org.dinky.data.model.ProcessEntity;
+import org.dinky.data.model.ProcessStepEntity;
+import org.dinky.data.vo.ProcessDeltaVo;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.alibaba.fastjson2.JSONObject;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.text.StrFormatter;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The console of a process.
+ * <p>
+ * Every change is a {@link ProcessDeltaVo} with the next sequence number: it is applied to the process tree,
+ * passed to the listener and appended to the journal file as a json line. The logs only grow, so a change
+ * of the log is addressed by the offset it is appended at. Steps are indexed by key.
+ * The journal can be tailed while the process runs and is replayed to read a finished process. Log lines are
+ * flushed every {@value #MAX_UNFLUSHED_LOGS} lines and at least once per {@value #FLUSH_INTERVAL_MS} ms, the other
+ * changes at once.
+ * </p>
+ */
+@Slf4j
+public class ProcessLog implements Closeable {
+
+    private static final int MAX_UNFLUSHED_LOGS = 64;
+    private static final long FLUSH_INTERVAL_MS = 1000;
+
+    private static final ScheduledExecutorService JOURNAL_FLUSHER =
+            Executors.newSingleThreadScheduledExecutor(ThreadFactoryBuilder.create()
+                    .setNamePrefix("process-journal-flusher-")
+                    .setDaemon(true)
+                    .build());
+
+    @Getter
+    private final ProcessEntity process = new ProcessEntity();
+
+    private final Map<String, ProcessStepEntity> steps = new HashMap<>();
+
+    private final Consumer<ProcessDeltaVo> listener;
+
+    private Writer journal;
+
+    private ScheduledFuture<?> flushTask;
+
+    private int unflushedLogs;
+
+    private long seq;
+
+    private ProcessLog(Consumer<ProcessDeltaVo> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Starts the console of a process, the journal file is truncated.
+     *
+     * @param header   The process without logs and steps.
+     * @param journal  The journal file, null to keep the process in memory only.
+     * @param listener Receives every change in order.
+     * @return The console.
+     */
+    public static ProcessLog start(ProcessEntity header, File journal, Consumer<ProcessDeltaVo> listener) {
+        ProcessLog processLog = new ProcessLog(listener);
+        if (journal != null) {
+            try {
+                FileUtil.mkParentDirs(journal);
+                processLog.journal = Files.newBufferedWriter(journal.toPath(), StandardCharsets.UTF_8);
+                processLog.flushTask = JOURNAL_FLUSHER.scheduleWithFixedDelay(
+                        processLog::flushLogs, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            } catch (IOException e) {
+                log.warn("Failed to open process journal {}: {}", journal, e.getMessage());
+            }
+        }
+        processLog.update(header);
+        return processLog;
+    }
+
+    /**
+     * Reads a finished process from its journal line by line.
+     *
+     * @param journal The journal file.
+     * @return The process.
+     * @throws IOException If the journal can not be read.
+     */
+    public static ProcessEntity replay(File journal) throws IOException {
+        ProcessLog processLog = new ProcessLog(delta -> {});
+        try (BufferedReader reader = Files.newBufferedReader(journal.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    processLog.apply(JSONObject.parseObject(line, ProcessDeltaVo.class));
+                }
+            }
+        }
+        return processLog.process;
+    }
+
+    /**
+     * Updates the header of the process.
+     *
+     * @param header The process without logs and steps.
+     */
+    public synchronized void update(ProcessEntity header) {
+        emit(ProcessDeltaVo.builder().type(ProcessDeltaVo.Type.PROCESS).process(header));
+    }
+
+    /**
+     * Adds a step, or updates the header of a step that exists.
+     *
+     * @param header    The step without logs and children.
+     * @param parentKey The key of the parent step, null for a top level step.
+     * @return The step in the process tree.
+     */
+    public synchronized ProcessStepEntity update(ProcessStepEntity header, String parentKey) {
+        if (parentKey != null && !steps.containsKey(parentKey)) {
+            throw new DinkyException(
+                    StrFormatter.format("Parent step {} of process {} does not exist", parentKey, process.getKey()));
+        }
+        emit(ProcessDeltaVo.builder()
+                .type(ProcessDeltaVo.Type.STEP)
+                .step(header)
+                .parentKey(parentKey));
+        return steps.get(header.getKey());
+    }
+
+    /**
+     * Appends a log line.
+     *
+     * @param stepKey The key of the step, null to only append to the process.
+     * @param log     The log line.
+     * @param global  Whether the line is also appended to the process.
+     */
+    public synchronized void appendLog(String stepKey, String log, boolean global) {
+        ProcessStepEntity step = null;
+        if (stepKey != null) {
+            step = steps.get(stepKey);
+            if (step == null) {
+                throw new DinkyException(
+                        StrFormatter.format("Step {} of process {} does not exist", stepKey, process.getKey()));
+            }
+        }
+        long offset = step != null ? step.getLog().length() : process.getLog().length();
+        emit(ProcessDeltaVo.builder()
+                .type(ProcessDeltaVo.Type.LOG)
+                .stepKey(stepKey)
+                .global(global)
+                .log(log)
+                .offset(offset));
+    }
+
+    /**
+     * Gets a step by key.
+     *
+     * @param stepKey The key of the step.
+     * @return The step, or null if it does not exist.
+     */
+    public synchronized ProcessStepEntity getStep(String stepKey) {
+        return steps.get(stepKey);
+    }
+
+    private void emit(ProcessDeltaVo.ProcessDeltaVoBuilder builder) {
+        ProcessDeltaVo delta = builder.seq(seq + 1).processKey(process.getKey()).build();
+        if (delta.getProcessKey() == null && delta.getProcess() != null) {
+            delta.setProcessKey(delta.getProcess().getKey());
+        }
+        apply(delta);
+        if (journal != null) {
+            try {
+                journal.write(JSONObject.toJSONString(delta));
+                journal.write('\n');
+                if (delta.getType() != ProcessDeltaVo.Type.LOG || ++unflushedLogs >= MAX_UNFLUSHED_LOGS) {
+                    journal.flush();
+                    unflushedLogs = 0;
+                }
+            } catch (IOException e) {
+                log.warn("Failed to write process journal of {}: {}", process.getKey(), e.getMessage());
+                closeJournal();
+            }
+        }
+        listener.accept(delta);
+    }
+
+    private void apply(ProcessDeltaVo delta) {
+        seq = delta.getSeq();
+        process.setSeq(seq);
+        switch (delta.getType()) {
+            case PROCESS:
+                ProcessEntity header = delta.getProcess();
+                if (process.getKey() == null) {
+                    process.setKey(header.getKey());
+                    process.setTitle(header.getTitle());
+                    process.setType(header.getType());
+                    process.setStartTime(header.getStartTime());
+                    process.setLog(new StringBuilder());
+                    process.setChildren(new CopyOnWriteArrayList<>());
+                }
+                process.setStatus(header.getStatus());
+                process.setEndTime(header.getEndTime());
+                process.setTime(header.getTime());
+                break;
+            case STEP:
+                ProcessStepEntity stepHeader = delta.getStep();
+                ProcessStepEntity step = steps.get(stepHeader.getKey());
+                if (step == null) {
+                    step = ProcessStepEntity.builder()
+                            .key(stepHeader.getKey())
+                            .title(stepHeader.getTitle())
+                            .type(stepHeader.getType())
+                            .startTime(stepHeader.getStartTime())
+                            .log(new StringBuilder())
+                            .children(new CopyOnWriteArrayList<>())
+                            .build();
+                    steps.put(step.getKey(), step);
+                    ProcessStepEntity parent = delta.getParentKey() == null ? null : steps.get(delta.getParentKey());
+                    (parent == null ? process.getChildren() : parent.getChildren()).add(step);
+                }
+                step.setStatus(stepHeader.getStatus());
+                step.setEndTime(stepHeader.getEndTime());
+                step.setTime(stepHeader.getTime());
+                break;
+            case LOG:
+                if (delta.isGlobal()) {
+                    process.appendLog(delta.getLog());
+                }
+                ProcessStepEntity logStep = delta.getStepKey() == null ? null : steps.get(delta.getStepKey());
+                if (logStep != null) {
+                    logStep.appendLog(delta.getLog());
+                    process.setLastUpdateStep(logStep);
+                }
+                break;
+            default:
+        }
+    }
+
+    private synchronized void flushLogs() {
+        if (journal == null || unflushedLogs == 0) {
+            return;
+        }
+        try {
+            journal.flush();
+            unflushedLogs = 0;
+        } catch (IOException e) {
+            log.warn("Failed to flush process journal of {}: {}", process.getKey(), e.getMessage());
+            closeJournal();
+        }
+    }
+
+    private void closeJournal() {
+        if (flushTask != null) {
+            flushTask.cancel(false);
+            flushTask = null;
+        }
+        try {
+            if (journal != null) {
+                journal.close();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to close process journal of {}: {}", process.getKey(), e.getMessage());
+        } finally {
+            journal = null;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closeJournal();
+    }
+}
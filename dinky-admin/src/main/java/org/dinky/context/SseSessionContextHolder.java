@@ -21,23 +21,77 @@ package org.dinky.context;
 
 import org.dinky.data.exception.BusException;
 import org.dinky.data.vo.SseDataVo;
+import org.dinky.data.vo.SseStatisticsVO;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import lombok.Data;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Holds the SSE sessions and the topics they subscribed to.
+ * <p>
+ * Messages are routed through a topic to session index and put into a bounded queue per session,
+ * the queues are drained by a shared executor, so a slow browser never blocks the producer.
+ * A coalesced message replaces the pending message of the same topic instead of queueing behind it.
+ * Messages that do not fit into a full queue are dropped and counted, and a session whose queue
+ * stays full for {@link #SLOW_CONSUMER_TIMEOUT} is evicted.
+ * </p>
+ */
 @Slf4j
 public class SseSessionContextHolder {
     private static final Map<String, TopicSubscriber> sessionMap = new ConcurrentHashMap<>();
 
+    /** Topic to the keys of the sessions subscribed to it. */
+    private static final Map<String, Set<String>> topicIndex = new ConcurrentHashMap<>();
+
+    /** Topic to the listener notified when a session subscribes to it. */
+    private static final Map<String, Runnable> subscribeListeners = new ConcurrentHashMap<>();
+
+    static final int QUEUE_CAPACITY = 1000;
+
+    private static final long SLOW_CONSUMER_TIMEOUT = 30 * 1000L;
+
+    private static final AtomicLong sentCount = new AtomicLong();
+
+    private static final AtomicLong droppedCount = new AtomicLong();
+
+    private static final AtomicLong evictedCount = new AtomicLong();
+
+    private static final ThreadPoolExecutor sendExecutor;
+
+    static {
+        sendExecutor = new ThreadPoolExecutor(
+                8,
+                8,
+                60,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                ThreadFactoryBuilder.create()
+                        .setNamePrefix("sse-send-")
+                        .setDaemon(true)
+                        .build());
+        sendExecutor.allowCoreThreadTimeOut(true);
+    }
+
     /**
      * Subscribes a session to the topics.
      * A session can subscribe to multiple topics
@@ -48,11 +102,45 @@ public class SseSessionContextHolder {
      * @throws BusException If the session does not exist.
      */
     public static Set<String> subscribeTopic(String sessionId, List<String> topics) {
-        if (exists(sessionId)) {
-            return sessionMap.get(sessionId).updateTopics(topics);
-        } else {
+        TopicSubscriber subscriber = sessionMap.get(sessionId);
+        if (subscriber == null) {
             throw new BusException("Session does not exist");
         }
+        Set<String> oldTopics;
+        Set<String> newTopics;
+        synchronized (subscriber) {
+            oldTopics = subscriber.getTopics();
+            newTopics = subscriber.updateTopics(topics);
+            oldTopics.stream().filter(topic -> !newTopics.contains(topic)).forEach(topic -> unindex(topic, sessionId));
+            newTopics.forEach(topic -> index(topic, sessionId));
+        }
+        newTopics.stream()
+                .filter(topic -> !oldTopics.contains(topic))
+                .map(subscribeListeners::get)
+                .filter(Objects::nonNull)
+                .forEach(Runnable::run);
+        return newTopics;
+    }
+
+    /**
+     * Registers a listener that runs whenever a session subscribes to the topic, so the producer of a topic
+     * only has to produce while it has subscribers.
+     *
+     * @param topic    The topic.
+     * @param listener The listener.
+     */
+    public static void onSubscribe(String topic, Runnable listener) {
+        subscribeListeners.put(topic, listener);
+    }
+
+    /**
+     * Checks whether any session is subscribed to the topic.
+     *
+     * @param topic The topic.
+     * @return true if the topic has subscribers.
+     */
+    public static boolean hasSubscribers(String topic) {
+        return topicIndex.containsKey(topic);
     }
 
     /**
@@ -77,10 +165,37 @@ public class SseSessionContextHolder {
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
-        sessionMap.put(sessionKey, TopicSubscriber.of(sseEmitter));
+        register(sessionKey, sseEmitter);
         return sseEmitter;
     }
 
+    /**
+     * Registers the emitter of a session without topics.
+     *
+     * @param sessionKey The session key of the new session.
+     * @param sseEmitter The SseEmitter of the session.
+     */
+    static void register(String sessionKey, SseEmitter sseEmitter) {
+        sessionMap.put(sessionKey, TopicSubscriber.of(sseEmitter));
+    }
+
+    /**
+     * Attaches an emitter that receives the bare content of one topic instead of {@link SseDataVo}s, such as the
+     * jvm metrics stream. It gets a session of its own, so it is sent through the same bounded send queue.
+     *
+     * @param sessionKey The session key of the emitter.
+     * @param emitter    The emitter.
+     * @param topic      The topic the emitter receives.
+     */
+    public static void attach(String sessionKey, SseEmitter emitter, String topic) {
+        emitter.onError(err -> onError(sessionKey, err));
+        emitter.onTimeout(() -> onTimeout(sessionKey));
+        emitter.onCompletion(() -> onCompletion(sessionKey));
+        TopicSubscriber subscriber = new TopicSubscriber(new HashSet<>(), emitter, true);
+        sessionMap.put(sessionKey, subscriber);
+        subscribeTopic(sessionKey, Collections.singletonList(topic));
+    }
+
     /**
      * Checks if a session with the given session key exists.
      *
@@ -113,7 +228,7 @@ public class SseSessionContextHolder {
             } catch (Exception e) {
                 log.warn("Failed to complete sseEmitter, Session Key: {}, Error: {}", sessionKey, e.getMessage());
             } finally {
-                sessionMap.remove(sessionKey);
+                removeSession(sessionKey);
             }
         }
     }
@@ -133,7 +248,7 @@ public class SseSessionContextHolder {
                 log.error("Failed to complete Sse With Error: {}", e.getMessage());
             }
         }
-        sessionMap.remove(sessionKey);
+        removeSession(sessionKey);
     }
 
     /**
@@ -153,17 +268,38 @@ public class SseSessionContextHolder {
      * @param content The content to send.
      */
     public static void sendTopic(String topic, Object content) {
-        sessionMap.forEach((sessionKey, topicSubscriber) -> {
-            if (topicSubscriber.getTopics().contains(topic)) {
-                try {
-                    SseDataVo data = new SseDataVo(sessionKey, topic, content);
-                    sendSse(sessionKey, data);
-                } catch (Exception e) {
-                    log.error("Error sending sse data", e);
-                    onError(sessionKey, e);
+        sendTopic(topic, content, false);
+    }
+
+    /**
+     * Sends the specified content to all subscribers of the given topic without waiting for the sessions.
+     *
+     * @param topic    The topic to send the content to.
+     * @param content  The content to send.
+     * @param coalesce Whether the content supersedes the pending content of the same topic,
+     *                 a session that has not received the previous content only gets the latest one.
+     */
+    public static void sendTopic(String topic, Object content, boolean coalesce) {
+        Set<String> sessionKeys = topicIndex.get(topic);
+        if (sessionKeys == null) {
+            return;
+        }
+        for (String sessionKey : sessionKeys) {
+            TopicSubscriber subscriber = sessionMap.get(sessionKey);
+            if (subscriber == null) {
+                continue;
+            }
+            if (subscriber.offer(new SseDataVo(sessionKey, topic, content), coalesce)) {
+                schedule(sessionKey, subscriber);
+            } else {
+                droppedCount.incrementAndGet();
+                if (subscriber.isStuck(SLOW_CONSUMER_TIMEOUT)) {
+                    log.warn("Sse session {} has not consumed any message for a while, evict it", sessionKey);
+                    evictedCount.incrementAndGet();
+                    closeSse(sessionKey);
                 }
             }
-        });
+        }
     }
 
     /**
@@ -182,13 +318,105 @@ public class SseSessionContextHolder {
     }
 
     /**
-     * Represents a topic subscriber with the subscribed topics and the associated SseEmitter.
+     * Gets the statistics of the sessions and their send queues.
+     *
+     * @return The statistics.
+     */
+    public static SseStatisticsVO getStatistics() {
+        int queueDepth = 0;
+        int maxQueueDepth = 0;
+        for (TopicSubscriber subscriber : sessionMap.values()) {
+            int depth = subscriber.getQueueDepth();
+            queueDepth += depth;
+            maxQueueDepth = Math.max(maxQueueDepth, depth);
+        }
+        return SseStatisticsVO.builder()
+                .sessions(sessionMap.size())
+                .topics(topicIndex.size())
+                .queueDepth(queueDepth)
+                .maxQueueDepth(maxQueueDepth)
+                .sentCount(sentCount.get())
+                .droppedCount(droppedCount.get())
+                .evictedCount(evictedCount.get())
+                .build();
+    }
+
+    private static void index(String topic, String sessionKey) {
+        topicIndex.compute(topic, (k, sessionKeys) -> {
+            Set<String> keys = sessionKeys == null ? ConcurrentHashMap.newKeySet() : sessionKeys;
+            keys.add(sessionKey);
+            return keys;
+        });
+    }
+
+    private static void unindex(String topic, String sessionKey) {
+        topicIndex.computeIfPresent(topic, (k, sessionKeys) -> {
+            sessionKeys.remove(sessionKey);
+            return sessionKeys.isEmpty() ? null : sessionKeys;
+        });
+    }
+
+    private static void removeSession(String sessionKey) {
+        TopicSubscriber subscriber = sessionMap.remove(sessionKey);
+        if (subscriber != null) {
+            synchronized (subscriber) {
+                subscriber.getTopics().forEach(topic -> unindex(topic, sessionKey));
+            }
+            subscriber.clear();
+        }
+    }
+
+    private static void schedule(String sessionKey, TopicSubscriber subscriber) {
+        if (subscriber.getDraining().compareAndSet(false, true)) {
+            sendExecutor.execute(() -> drain(sessionKey, subscriber));
+        }
+    }
+
+    /**
+     * Sends the queued messages of a session, only one drain of a session runs at a time.
+     */
+    private static void drain(String sessionKey, TopicSubscriber subscriber) {
+        try {
+            SseDataVo data;
+            while ((data = subscriber.poll()) != null) {
+                subscriber.getEmitter().send(subscriber.isPayloadOnly() ? data.getData() : data);
+                sentCount.incrementAndGet();
+            }
+        } catch (Exception e) {
+            log.error("Error sending sse data", e);
+            onError(sessionKey, e);
+            return;
+        }
+        subscriber.getDraining().set(false);
+        // A message may have been queued after the last poll but before the flag was cleared
+        if (subscriber.getQueueDepth() > 0 && sessionMap.get(sessionKey) == subscriber) {
+            schedule(sessionKey, subscriber);
+        }
+    }
+
+    /**
+     * Represents a topic subscriber with the subscribed topics, the associated SseEmitter and its send queue.
      */
-    @Data
+    @Getter
     public static class TopicSubscriber {
         private Set<String> topics;
         private final SseEmitter emitter;
 
+        /** Sends the content alone instead of the {@link SseDataVo}, see {@link #attach}. */
+        private final boolean payloadOnly;
+
+        /** Pending messages, a coalesced message is queued by its topic and kept in {@link #latest}. */
+        private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+
+        private final Map<String, SseDataVo> latest = new ConcurrentHashMap<>();
+
+        private final AtomicInteger queueDepth = new AtomicInteger();
+
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        /** The time the queue became full, 0 if it is not full. */
+        private volatile long fullSince;
+
         /**
          * Creates a new TopicSubscriber with the specified SseEmitter.
          *
@@ -196,8 +424,13 @@ public class SseSessionContextHolder {
          * @param emitter The SseEmitter associated with the subscriber.
          */
         public TopicSubscriber(Set<String> topics, SseEmitter emitter) {
+            this(topics, emitter, false);
+        }
+
+        TopicSubscriber(Set<String> topics, SseEmitter emitter, boolean payloadOnly) {
             this.topics = topics;
             this.emitter = emitter;
+            this.payloadOnly = payloadOnly;
         }
 
         /**
@@ -220,5 +453,77 @@ public class SseSessionContextHolder {
             this.topics = new HashSet<>(topics);
             return this.topics;
         }
+
+        /**
+         * Queues a message for the subscriber.
+         *
+         * @param data     The message.
+         * @param coalesce Whether the message replaces the pending message of the same topic.
+         * @return true if the message is queued or has replaced a pending one, false if the queue is full.
+         */
+        public boolean offer(SseDataVo data, boolean coalesce) {
+            if (coalesce && latest.put(data.getTopic(), data) != null) {
+                return true;
+            }
+            if (queueDepth.incrementAndGet() > QUEUE_CAPACITY) {
+                queueDepth.decrementAndGet();
+                if (coalesce) {
+                    latest.remove(data.getTopic(), data);
+                }
+                if (fullSince == 0) {
+                    fullSince = System.currentTimeMillis();
+                }
+                return false;
+            }
+            queue.offer(coalesce ? data.getTopic() : data);
+            return true;
+        }
+
+        /**
+         * Takes the next message to send.
+         *
+         * @return The message, or null if the queue is empty.
+         */
+        public SseDataVo poll() {
+            Object item;
+            while ((item = queue.poll()) != null) {
+                queueDepth.decrementAndGet();
+                fullSince = 0;
+                SseDataVo data = item instanceof String ? latest.remove(item) : (SseDataVo) item;
+                if (data != null) {
+                    return data;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Checks whether the queue has been full for longer than the timeout without any message being taken.
+         *
+         * @param timeout The timeout in milliseconds.
+         * @return true if the subscriber is stuck.
+         */
+        public boolean isStuck(long timeout) {
+            long since = fullSince;
+            return since > 0 && System.currentTimeMillis() - since > timeout;
+        }
+
+        /**
+         * Gets the number of pending messages.
+         *
+         * @return The number of pending messages.
+         */
+        public int getQueueDepth() {
+            return queueDepth.get();
+        }
+
+        /**
+         * Drops all pending messages.
+         */
+        public void clear() {
+            queue.clear();
+            latest.clear();
+            queueDepth.set(0);
+        }
     }
 }
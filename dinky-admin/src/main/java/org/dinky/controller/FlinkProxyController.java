@@ -63,14 +63,16 @@ public class FlinkProxyController {
             path = HttpUtil.urlWithForm(path, URLUtil.decode(query), StandardCharsets.UTF_8, true);
         }
         HttpRequest httpRequest = HttpUtil.createRequest(Method.valueOf(request.getMethod()), path);
-        try (HttpResponse httpResponse = httpRequest.execute()) {
+        // stream the body through instead of buffering the whole response in memory
+        try (HttpResponse httpResponse = httpRequest.executeAsync()) {
             writeToHttpServletResponse(httpResponse, resp);
         }
     }
 
     @SneakyThrows
     public void writeToHttpServletResponse(HttpResponse httpResponse, HttpServletResponse resp) {
-        if (httpResponse.body() != null) {
+        resp.setStatus(httpResponse.getStatus());
+        if (httpResponse.bodyStream() != null) {
             httpResponse.headers().forEach((k, v) -> resp.addHeader(k, v.get(0)));
             httpResponse.writeBody(resp.getOutputStream(), true, null);
         }
@@ -19,16 +19,23 @@
 
 package org.dinky.controller;
 
+import org.dinky.configure.cache.PaimonCacheManager;
+import org.dinky.context.SseSessionContextHolder;
 import org.dinky.data.annotations.Log;
 import org.dinky.data.dto.MetricsLayoutDTO;
+import org.dinky.data.dto.MetricsQueryDTO;
 import org.dinky.data.enums.BusinessType;
 import org.dinky.data.enums.MetricsType;
 import org.dinky.data.metrics.Jvm;
 import org.dinky.data.model.Metrics;
 import org.dinky.data.result.ProTableResult;
 import org.dinky.data.result.Result;
+import org.dinky.data.vo.CacheStatisticsVO;
+import org.dinky.data.vo.ClusterPollingVO;
 import org.dinky.data.vo.MetricsVO;
+import org.dinky.data.vo.SseStatisticsVO;
 import org.dinky.data.vo.task.JobInstanceVo;
+import org.dinky.job.handler.ClusterJobPoller;
 import org.dinky.service.JobInstanceService;
 import org.dinky.service.MonitorService;
 
@@ -36,8 +43,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -66,6 +75,7 @@ public class MonitorController {
 
     private final MonitorService monitorService;
     private final JobInstanceService jobInstanceService;
+    private final PaimonCacheManager cacheManager;
 
     @GetMapping("/getSysData")
     @ApiOperation("Get System Data")
@@ -103,6 +113,18 @@ public class MonitorController {
                 jids));
     }
 
+    @PostMapping("/queryMetrics")
+    @ApiOperation("Query Metrics History With Downsampling")
+    @ApiImplicitParam(
+            name = "query",
+            value = "Metrics Query",
+            required = true,
+            dataType = "MetricsQueryDTO",
+            paramType = "body")
+    public Result<List<MetricsVO>> queryMetrics(@Validated @RequestBody MetricsQueryDTO query) {
+        return Result.succeed(monitorService.queryMetrics(query));
+    }
+
     @PutMapping("/saveFlinkMetrics/{layout}")
     @ApiOperation("Save Flink Metrics")
     @Log(title = "Save Flink Metrics", businessType = BusinessType.INSERT)
@@ -135,6 +157,24 @@ public class MonitorController {
         return Result.succeed(monitorService.getMetricsLayoutByName(layoutName));
     }
 
+    @GetMapping("/getClusterPolling")
+    @ApiOperation("Get Flink Rest Polling Statistics Of Each Cluster")
+    public Result<List<ClusterPollingVO>> getClusterPolling() {
+        return Result.succeed(ClusterJobPoller.getStatistics());
+    }
+
+    @GetMapping("/getCacheStatistics")
+    @ApiOperation("Get Hit, Miss And Eviction Statistics Of Each Cache")
+    public Result<List<CacheStatisticsVO>> getCacheStatistics() {
+        return Result.succeed(cacheManager.getStatistics());
+    }
+
+    @GetMapping("/getSseStatistics")
+    @ApiOperation("Get Queue Depth And Dropped Messages Of The Sse Sessions")
+    public Result<SseStatisticsVO> getSseStatistics() {
+        return Result.succeed(SseSessionContextHolder.getStatistics());
+    }
+
     @GetMapping("/getJvmInfo")
     @ApiOperation("Get Jvm Data Display")
     public Result<Jvm> getJvmInfo() {
@@ -85,9 +85,25 @@ public class StudioController {
     /** 根据jobId获取数据 */
     @GetMapping("/getJobData")
     @ApiOperation("Get Job Plan")
-    @ApiImplicitParam(name = "jobId", value = "Get Job Plan", required = true, dataType = "String", paramType = "query")
-    public Result<SelectResult> getJobData(@RequestParam String jobId) {
-        return Result.succeed(studioService.getJobData(jobId));
+    @ApiImplicitParams({
+        @ApiImplicitParam(
+                name = "jobId",
+                value = "Get Job Plan",
+                required = true,
+                dataType = "String",
+                paramType = "query"),
+        @ApiImplicitParam(name = "offset", value = "First Row", dataType = "Integer", paramType = "query"),
+        @ApiImplicitParam(name = "limit", value = "Max Rows", dataType = "Integer", paramType = "query")
+    })
+    public Result<SelectResult> getJobData(
+            @RequestParam String jobId,
+            @RequestParam(required = false) Integer offset,
+            @RequestParam(required = false) Integer limit) {
+        if (offset == null && limit == null) {
+            return Result.succeed(studioService.getJobData(jobId));
+        }
+        return Result.succeed(studioService.getJobData(
+                jobId, offset == null ? 0 : offset, limit == null ? Integer.MAX_VALUE : limit));
     }
 
     /** 根据jobId获取数据 */
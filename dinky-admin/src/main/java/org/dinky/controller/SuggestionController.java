@@ -21,6 +21,7 @@ package org.dinky.controller;
 
 import org.dinky.data.dto.SuggestionDTO;
 import org.dinky.data.result.Result;
+import org.dinky.data.vo.suggestion.SuggestionDeltaVO;
 import org.dinky.data.vo.suggestion.SuggestionVO;
 import org.dinky.service.SuggestionService;
 
@@ -70,4 +71,12 @@ public class SuggestionController {
                 suggestionDTO.getSqlStatement(),
                 suggestionDTO.getPosition()));
     }
+
+    @PostMapping("/queryChangedSuggestions")
+    @ApiOperation(value = "QueryChangedSuggestions", notes = "queryChangedSuggestions")
+    @ApiImplicitParam(name = "suggestionDTO", value = "suggestionDTO", required = true, dataType = "SuggestionDTO")
+    public Result<SuggestionDeltaVO> queryChangedSuggestions(@RequestBody SuggestionDTO suggestionDTO) {
+        return Result.succeed(suggestionService.getSuggestionChanges(
+                suggestionDTO.isEnableSchemaSuggestion(), suggestionDTO.getVersion()));
+    }
 }
@@ -0,0 +1,80 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.data.dto;
+
+import java.util.List;
+
+import javax.validation.constraints.NotNull;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ApiModel(value = "MetricsQueryDTO", description = "DTO for querying the metrics history")
+public class MetricsQueryDTO {
+
+    @ApiModelProperty(
+            value = "Start Time",
+            dataType = "Long",
+            required = true,
+            example = "1694759400000",
+            notes = "Inclusive start of the time range, in epoch milliseconds")
+    @NotNull(message = "Start time cannot be null")
+    private Long startTime;
+
+    @ApiModelProperty(
+            value = "End Time",
+            dataType = "Long",
+            example = "1695364200000",
+            notes = "Inclusive end of the time range, in epoch milliseconds, defaults to now")
+    private Long endTime;
+
+    @ApiModelProperty(
+            value = "Models",
+            dataType = "List<String>",
+            required = true,
+            example = "[\"local\"]",
+            notes = "Metrics models to read, 'local' for the system metrics or the Flink job ids")
+    private List<String> models;
+
+    @ApiModelProperty(
+            value = "Fields",
+            dataType = "List<String>",
+            example = "[\"jvm.heapUsed\", \"cpu\"]",
+            notes = "Dot separated content paths to return, empty returns the whole content")
+    private List<String> fields;
+
+    @ApiModelProperty(
+            value = "Max Points",
+            dataType = "Integer",
+            example = "300",
+            notes = "Maximum number of points per model, the range is downsampled into buckets when set")
+    private Integer maxPoints;
+
+    @ApiModelProperty(
+            value = "Aggregation",
+            dataType = "String",
+            example = "avg",
+            notes = "How numeric values are merged inside a bucket, avg or max")
+    private String aggregation;
+}
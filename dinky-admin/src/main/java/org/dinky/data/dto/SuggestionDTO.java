@@ -31,4 +31,5 @@ public class SuggestionDTO {
     private String keyWord;
     private String sqlStatement;
     private int position;
+    private long version;
 }
@@ -23,9 +23,11 @@ import java.io.Serializable;
 import java.time.LocalDateTime;
 
 import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
 import com.baomidou.mybatisplus.annotation.TableName;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
@@ -107,6 +109,12 @@ public class OperateLog implements Serializable {
     @ApiModelProperty(value = "JSON Result", dataType = "String", notes = "JSON result or response of the operation")
     private String jsonResult;
 
+    /** The response of the operation, serialized into {@link #jsonResult} by the log writer thread. */
+    @JsonIgnore
+    @TableField(exist = false)
+    @ApiModelProperty(hidden = true)
+    private transient Object result;
+
     @ApiModelProperty(
             value = "Status",
             dataType = "Integer",
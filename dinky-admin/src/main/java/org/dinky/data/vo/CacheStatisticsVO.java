@@ -0,0 +1,64 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.data.vo;
+
+import java.io.Serializable;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@ApiModel(value = "CacheStatisticsVO", description = "Statistics of a spring cache")
+public class CacheStatisticsVO implements Serializable {
+
+    @ApiModelProperty(value = "Cache name", dataType = "String")
+    private String cacheName;
+
+    @ApiModelProperty(value = "Number of entries in the local tier", dataType = "Long")
+    private Long size;
+
+    @ApiModelProperty(value = "Weight of the entries in the local tier, in characters", dataType = "Long")
+    private Long weight;
+
+    @ApiModelProperty(value = "Number of local tier hits", dataType = "Long")
+    private Long hitCount;
+
+    @ApiModelProperty(value = "Number of local tier misses", dataType = "Long")
+    private Long missCount;
+
+    @ApiModelProperty(value = "Number of local tier misses found in paimon", dataType = "Long")
+    private Long loadHitCount;
+
+    @ApiModelProperty(value = "Number of local tier misses not found in paimon", dataType = "Long")
+    private Long loadMissCount;
+
+    @ApiModelProperty(value = "Number of entries evicted from the local tier", dataType = "Long")
+    private Long evictionCount;
+
+    @ApiModelProperty(value = "Number of changes waiting to be written to paimon", dataType = "Integer")
+    private Integer pendingWrites;
+}
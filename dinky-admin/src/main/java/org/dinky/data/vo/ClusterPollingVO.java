@@ -0,0 +1,53 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.data.vo;
+
+import java.io.Serializable;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ApiModel(value = "ClusterPollingVO", description = "Flink rest polling statistics of a JobManager")
+public class ClusterPollingVO implements Serializable {
+
+    @ApiModelProperty(value = "JobManager address", dataType = "String")
+    private String address;
+
+    @ApiModelProperty(value = "Number of monitored jobs", dataType = "Integer")
+    private Integer jobCount;
+
+    @ApiModelProperty(value = "Number of rest requests", dataType = "Long")
+    private Long requestCount;
+
+    @ApiModelProperty(value = "Number of failed rest requests", dataType = "Long")
+    private Long errorCount;
+
+    @ApiModelProperty(value = "Average latency of rest requests in milliseconds", dataType = "Long")
+    private Long avgLatency;
+
+    @ApiModelProperty(value = "Max latency of rest requests in milliseconds", dataType = "Long")
+    private Long maxLatency;
+}
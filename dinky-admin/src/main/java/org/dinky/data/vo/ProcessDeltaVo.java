@@ -0,0 +1,61 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.data.vo;
+
+import org.dinky.data.model.ProcessEntity;
+import org.dinky.data.model.ProcessStepEntity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A change of a process, the process console is sent to the browser and written to disk as a sequence of them.
+ * The sequence number increases by one per change, a gap means changes were missed
+ * and the process has to be fetched again.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProcessDeltaVo {
+
+    public enum Type {
+        /** The process is registered or its status changed, {@link #process} holds the process without logs. */
+        PROCESS,
+        /** A step is registered or its status changed, {@link #step} holds the step without logs. */
+        STEP,
+        /** A log line is appended to the process and/or the step {@link #stepKey}. */
+        LOG
+    }
+
+    private long seq;
+    private String processKey;
+    private Type type;
+    private ProcessEntity process;
+    private ProcessStepEntity step;
+    private String parentKey;
+    private String stepKey;
+    private boolean global;
+    private String log;
+    /** The length of the log of the step, or of the process if there is no step, before the line is appended. */
+    private long offset;
+}
@@ -0,0 +1,58 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.data.vo;
+
+import java.io.Serializable;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@ApiModel(value = "SseStatisticsVO", description = "Statistics of the sse sessions and their send queues")
+public class SseStatisticsVO implements Serializable {
+
+    @ApiModelProperty(value = "Number of connected sessions", dataType = "Integer")
+    private Integer sessions;
+
+    @ApiModelProperty(value = "Number of subscribed topics", dataType = "Integer")
+    private Integer topics;
+
+    @ApiModelProperty(value = "Number of messages waiting in all send queues", dataType = "Integer")
+    private Integer queueDepth;
+
+    @ApiModelProperty(value = "Number of messages waiting in the longest send queue", dataType = "Integer")
+    private Integer maxQueueDepth;
+
+    @ApiModelProperty(value = "Number of messages sent", dataType = "Long")
+    private Long sentCount;
+
+    @ApiModelProperty(value = "Number of messages dropped because a send queue was full", dataType = "Long")
+    private Long droppedCount;
+
+    @ApiModelProperty(value = "Number of sessions evicted because they stopped consuming", dataType = "Long")
+    private Long evictedCount;
+}
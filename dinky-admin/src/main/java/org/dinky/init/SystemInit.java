@@ -40,7 +40,9 @@ import org.dinky.function.pool.UdfCodePool;
 import org.dinky.job.ClearJobHistoryTask;
 import org.dinky.job.DynamicResizeFlinkJobPoolTask;
 import org.dinky.job.FlinkJobTask;
+import org.dinky.job.MetricsRetentionTask;
 import org.dinky.job.SystemMetricsTask;
+import org.dinky.job.handler.SystemMetricsSampler;
 import org.dinky.oss.OssTemplate;
 import org.dinky.scheduler.client.ProjectClient;
 import org.dinky.scheduler.exception.SchedulerException;
@@ -197,6 +199,8 @@ public class SystemInit implements ApplicationRunner {
                 schedule.removeSchedule(sysMetricsTask);
                 PeriodicTrigger trigger = new PeriodicTrigger(sysGatherTiming.getValue());
                 if (metricsSysEnable.getValue()) schedule.addSchedule(sysMetricsTask, trigger);
+                // The task also samples for the live viewers, otherwise the sampler does while someone subscribes
+                SystemMetricsSampler.getInstance().reschedule(metricsSysEnable.getValue());
             });
         };
         metricsListener.accept(metricsSysEnable);
@@ -207,6 +211,10 @@ public class SystemInit implements ApplicationRunner {
         DaemonTask clearJobHistoryTask = DaemonTask.build(new DaemonTaskConfig(ClearJobHistoryTask.TYPE));
         schedule.addSchedule(clearJobHistoryTask, new PeriodicTrigger(1, TimeUnit.HOURS));
 
+        // Init metrics retention and compaction task
+        DaemonTask metricsRetentionTask = DaemonTask.build(new DaemonTaskConfig(MetricsRetentionTask.TYPE));
+        schedule.addSchedule(metricsRetentionTask, new PeriodicTrigger(1, TimeUnit.DAYS));
+
         // Init flink job dynamic pool task
         DaemonTask flinkJobPoolTask = DaemonTask.build(new DaemonTaskConfig(DynamicResizeFlinkJobPoolTask.TYPE));
         schedule.addSchedule(flinkJobPoolTask, new PeriodicTrigger(FlinkTaskConstant.POLLING_GAP));
@@ -24,7 +24,9 @@ import org.dinky.context.SpringContextUtils;
 import org.dinky.daemon.constant.FlinkTaskConstant;
 import org.dinky.daemon.task.DaemonTask;
 import org.dinky.daemon.task.DaemonTaskConfig;
+import org.dinky.data.enums.JobStatus;
 import org.dinky.data.model.ext.JobInfoDetail;
+import org.dinky.data.model.job.JobInstance;
 import org.dinky.job.handler.JobAlertHandler;
 import org.dinky.job.handler.JobMetricsHandler;
 import org.dinky.job.handler.JobRefreshHandler;
@@ -46,9 +48,11 @@ public class FlinkJobTask implements DaemonTask {
     public static final String TYPE = FlinkJobTask.class.toString();
 
     private static final JobInstanceService jobInstanceService;
-    private long preDealTime;
     private long refreshCount = 0;
 
+    /** Refreshes in a row that ended in an error or unknown state. */
+    private int errorCount = 0;
+
     static {
         jobInstanceService = SpringContextUtils.getBean("jobInstanceServiceImpl", JobInstanceService.class);
     }
@@ -80,9 +84,8 @@ public class FlinkJobTask implements DaemonTask {
      */
     @Override
     public boolean dealTask() {
-        volatilityBalance();
-
         boolean isDone = JobRefreshHandler.refreshJob(jobInfoDetail, isNeedSave());
+        errorCount = isErrorState() ? errorCount + 1 : 0;
         if (Asserts.isAllNotNull(jobInfoDetail.getInstance(), jobInfoDetail.getClusterInstance())) {
             JobAlertHandler.getInstance().check(jobInfoDetail);
             JobMetricsHandler.writeFlinkMetrics(jobInfoDetail);
@@ -91,24 +94,45 @@ public class FlinkJobTask implements DaemonTask {
     }
 
     /**
-     * Volatility balance.
+     * Get the delay before the next refresh.
      * <p>
-     * This method is used to perform volatility equilibrium operations. Between each call,
-     * by calculating the time interval between the current time and the last processing time,
-     * If the interval is less than the set sleep time (TIME_SLEEP),
-     * The thread sleeps for a period of time. Then update the last processing time to the current time.
+     * A job in steady RUNNING state is polled slowly, while a job in a transition state
+     * (such as INITIALIZING, RESTARTING or CANCELLING) is polled quickly to catch its next state in time.
+     * A job whose state is unknown, failed or could not be fetched backs off exponentially from the transition
+     * delay up to {@link FlinkTaskConstant#MAX_ERROR_TIME_SLEEP}, so an unreachable cluster is not polled every second.
      * </p>
+     *
+     * @return the delay in milliseconds
      */
-    public void volatilityBalance() {
-        long gap = System.currentTimeMillis() - this.preDealTime;
-        if (gap < FlinkTaskConstant.TIME_SLEEP) {
-            try {
-                Thread.sleep(FlinkTaskConstant.TIME_SLEEP);
-            } catch (InterruptedException e) {
-                log.error(e.getMessage(), e);
-            }
+    @Override
+    public long getNextDelay() {
+        if (errorCount > 0) {
+            // 2^6 seconds is already above the cap, do not shift any further
+            long delay = (long) FlinkTaskConstant.TRANSITION_TIME_SLEEP << Math.min(errorCount - 1, 6);
+            return Math.min(delay, FlinkTaskConstant.MAX_ERROR_TIME_SLEEP);
+        }
+        JobInstance jobInstance = jobInfoDetail.getInstance();
+        if (Asserts.isNotNull(jobInstance) && JobStatus.RUNNING.equalVal(jobInstance.getStatus())) {
+            return FlinkTaskConstant.TIME_SLEEP;
+        }
+        return FlinkTaskConstant.TRANSITION_TIME_SLEEP;
+    }
+
+    private boolean isErrorState() {
+        JobInstance jobInstance = jobInfoDetail.getInstance();
+        if (Asserts.isNull(jobInstance)
+                || (Asserts.isNotNull(jobInfoDetail.getJobDataDto())
+                        && jobInfoDetail.getJobDataDto().isError())) {
+            return true;
+        }
+        switch (JobStatus.get(jobInstance.getStatus())) {
+            case UNKNOWN:
+            case FAILED:
+            case RECONNECTING:
+                return true;
+            default:
+                return false;
         }
-        preDealTime = System.currentTimeMillis();
     }
 
     /**
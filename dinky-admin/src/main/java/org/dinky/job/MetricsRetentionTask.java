@@ -0,0 +1,113 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.job;
+
+import org.dinky.daemon.task.DaemonTask;
+import org.dinky.daemon.task.DaemonTaskConfig;
+import org.dinky.data.constant.PaimonTableConstant;
+import org.dinky.data.vo.MetricsVO;
+import org.dinky.utils.PaimonUtil;
+
+import org.apache.paimon.CoreOptions;
+import org.apache.paimon.data.BinaryRow;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.map.MapUtil;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drops the metrics partitions older than the retention and fully compacts the closed daily partitions, which
+ * are written in many small appends while they are open. The retention is the {@code partition.expiration-time}
+ * of the metrics table declared on {@link MetricsVO}, paimon only applies it when a commit happens to check, so
+ * this task enforces the same value when no metrics are written.
+ */
+@Slf4j
+@Data
+public class MetricsRetentionTask implements DaemonTask {
+
+    public static final String TYPE = MetricsRetentionTask.class.toString();
+
+    /** the latest daily partition that was already compacted */
+    private static String compactedUntil = "";
+
+    @Override
+    public boolean dealTask() {
+        String today = DateUtil.today();
+        Duration retention = retention();
+        // without an expiration time every partition is kept
+        String expireBefore = retention == null
+                ? ""
+                : DateUtil.formatDate(DateUtil.date(System.currentTimeMillis() - retention.toMillis()));
+
+        List<Map<String, String>> expired = new ArrayList<>();
+        List<BinaryRow> closed = new ArrayList<>();
+        String latestClosed = compactedUntil;
+        // the partition keys of dinky_metrics are (model, date)
+        for (BinaryRow partition : PaimonUtil.listPartitions(PaimonTableConstant.DINKY_METRICS)) {
+            String model = partition.getString(0).toString();
+            String date = partition.getString(1).toString();
+            if (date.compareTo(expireBefore) < 0) {
+                expired.add(MapUtil.<String, String>builder("model", model)
+                        .put("date", date)
+                        .build());
+            } else if (date.compareTo(today) < 0 && date.compareTo(compactedUntil) > 0) {
+                closed.add(partition.copy());
+                latestClosed = date.compareTo(latestClosed) > 0 ? date : latestClosed;
+            }
+        }
+
+        try {
+            PaimonUtil.dropPartitions(PaimonTableConstant.DINKY_METRICS, expired);
+            PaimonUtil.compactPartitions(PaimonTableConstant.DINKY_METRICS, closed);
+            compactedUntil = latestClosed;
+            log.info(
+                    "Metrics retention: dropped {} partitions, compacted {} partitions", expired.size(), closed.size());
+        } catch (Exception e) {
+            log.error("Metrics retention failed", e);
+        }
+        return false;
+    }
+
+    static Duration retention() {
+        return CoreOptions.fromMap(PaimonUtil.getSchemaByClass(MetricsVO.class).options())
+                .partitionExpireTime();
+    }
+
+    @Override
+    public DaemonTask setConfig(DaemonTaskConfig config) {
+        return this;
+    }
+
+    @Override
+    public DaemonTaskConfig getConfig() {
+        return null;
+    }
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+}
@@ -0,0 +1,478 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.job.handler;
+
+import org.dinky.alert.Alert;
+import org.dinky.alert.AlertConfig;
+import org.dinky.alert.AlertResult;
+import org.dinky.assertion.Asserts;
+import org.dinky.context.FreeMarkerHolder;
+import org.dinky.context.SpringContextUtils;
+import org.dinky.context.TenantContextHolder;
+import org.dinky.data.dto.AlertRuleDTO;
+import org.dinky.data.dto.TaskDTO;
+import org.dinky.data.enums.JobLifeCycle;
+import org.dinky.data.model.alert.AlertGroup;
+import org.dinky.data.model.alert.AlertHistory;
+import org.dinky.data.model.alert.AlertInstance;
+import org.dinky.data.options.JobAlertRuleOptions;
+import org.dinky.service.AlertGroupService;
+import org.dinky.service.AlertHistoryService;
+import org.dinky.service.TaskService;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.TimedCache;
+import cn.hutool.core.text.StrFormatter;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends the alerts fired by {@link JobAlertHandler} off the job monitoring threads.
+ * <p>
+ * Fired alerts are put into a bounded queue and handled by a dispatcher thread: an alert of a job and rule
+ * that is being sent or was sent successfully within {@link #SUPPRESS_INTERVAL} is suppressed, the task and
+ * alert group lookups are cached, and the rendered alert is buffered per alert instance. The alerts buffered
+ * for an instance within the merge window are sent as one message on the worker pool of the alert type, so a
+ * slow webhook only delays its own channel. The alert history is written in batches.
+ * </p>
+ * <p>
+ * An alert that failed on every instance is not suppressed, the next time it fires it is sent again. On
+ * {@link #shutdown()} the queued alerts are dispatched and every buffer is sent before the channels stop.
+ * </p>
+ */
+@Slf4j
+public class AlertDispatcher {
+
+    private static final int QUEUE_CAPACITY = 10000;
+
+    /** An alert of the same job and rule is sent at most once within this interval. */
+    private static final long SUPPRESS_INTERVAL = 5 * 60 * 1000L;
+
+    private static final long LOOKUP_CACHE_TIMEOUT = 60 * 1000L;
+
+    private static final long MERGE_WINDOW = 10 * 1000L;
+
+    /** A buffer is sent before the end of the merge window once it holds this many alerts. */
+    private static final int MAX_MERGED_ALERTS = 20;
+
+    private static final int HISTORY_BATCH_SIZE = 100;
+
+    private static final int CHANNEL_THREADS = 2;
+
+    private static final int CHANNEL_QUEUE_CAPACITY = 1000;
+
+    /** How long {@link #close()} waits for the dispatcher thread and for the channels to send. */
+    private static final long CLOSE_TIMEOUT = 10 * 1000L;
+
+    private static volatile AlertDispatcher instance;
+
+    private final BlockingQueue<FiredAlert> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    private final BlockingQueue<AlertHistory> histories = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    /** Pending alerts per alert instance id. */
+    private final Map<Integer, AlertBuffer> buffers = new ConcurrentHashMap<>();
+
+    /** Worker pool per alert type. */
+    private final Map<String, ThreadPoolExecutor> channels = new ConcurrentHashMap<>();
+
+    private final TimedCache<String, Long> sentAlerts = CacheUtil.newTimedCache(SUPPRESS_INTERVAL);
+
+    /** Keys of the alerts buffered or being sent, they are suppressed until the send is done. */
+    private final Set<String> pendingAlerts = ConcurrentHashMap.newKeySet();
+
+    private final TimedCache<Integer, TaskDTO> tasks = CacheUtil.newTimedCache(LOOKUP_CACHE_TIMEOUT);
+
+    private final TimedCache<Integer, AlertGroup> alertGroups = CacheUtil.newTimedCache(LOOKUP_CACHE_TIMEOUT);
+
+    private final Function<Integer, TaskDTO> taskLoader;
+    private final Function<Integer, AlertGroup> alertGroupLoader;
+    private final Function<AlertInstance, Alert> alertLoader;
+    private final Consumer<List<AlertHistory>> historyWriter;
+    private final long mergeWindow;
+
+    private final Thread dispatcher;
+    private final ScheduledExecutorService flusher;
+    private volatile boolean closed;
+
+    @Getter
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    @Getter
+    private final AtomicLong suppressedCount = new AtomicLong();
+
+    @Getter
+    private final AtomicLong sentCount = new AtomicLong();
+
+    @Getter
+    private final AtomicLong failedCount = new AtomicLong();
+
+    AlertDispatcher(
+            Function<Integer, TaskDTO> taskLoader,
+            Function<Integer, AlertGroup> alertGroupLoader,
+            Function<AlertInstance, Alert> alertLoader,
+            Consumer<List<AlertHistory>> historyWriter,
+            long mergeWindow) {
+        this.taskLoader = taskLoader;
+        this.alertGroupLoader = alertGroupLoader;
+        this.alertLoader = alertLoader;
+        this.historyWriter = historyWriter;
+        this.mergeWindow = mergeWindow;
+        sentAlerts.schedulePrune(SUPPRESS_INTERVAL);
+
+        dispatcher = new Thread(this::dispatchLoop, "alert-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+        flusher = Executors.newSingleThreadScheduledExecutor(ThreadFactoryBuilder.create()
+                .setNamePrefix("alert-flusher-")
+                .setDaemon(true)
+                .build());
+        flusher.scheduleWithFixedDelay(this::flushSafely, 1, 1, TimeUnit.SECONDS);
+    }
+
+    public static AlertDispatcher getInstance() {
+        if (instance == null) {
+            synchronized (AlertDispatcher.class) {
+                if (instance == null) {
+                    TaskService taskService = SpringContextUtils.getBean("taskServiceImpl", TaskService.class);
+                    AlertGroupService alertGroupService =
+                            SpringContextUtils.getBean("alertGroupServiceImpl", AlertGroupService.class);
+                    AlertHistoryService alertHistoryService =
+                            SpringContextUtils.getBean("alertHistoryServiceImpl", AlertHistoryService.class);
+                    instance = new AlertDispatcher(
+                            taskService::getTaskInfoById,
+                            alertGroupService::getAlertGroupInfo,
+                            alertInstance -> Alert.build(AlertConfig.build(
+                                    alertInstance.getName(), alertInstance.getType(), alertInstance.getParams())),
+                            alertHistoryService::saveBatch,
+                            MERGE_WINDOW);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /** Sends what is queued and buffered, called when the application stops. */
+    public static void shutdown() {
+        if (instance != null) {
+            instance.close();
+        }
+    }
+
+    /**
+     * Queues a fired alert, it is dropped if the queue is full.
+     *
+     * @param rule      The alert rule that fired.
+     * @param dataModel The facts of the job, used as the data model of the alert template.
+     * @param templates The holder of the alert templates.
+     */
+    public void submit(AlertRuleDTO rule, Map<String, Object> dataModel, FreeMarkerHolder templates) {
+        if (closed || !queue.offer(new FiredAlert(rule, dataModel, templates))) {
+            droppedCount.incrementAndGet();
+            log.warn(
+                    "Alert queue is full, drop alert {} of job instance {}",
+                    rule.getName(),
+                    dataModel.get(JobAlertRuleOptions.FIELD_JOB_INSTANCE_ID));
+        }
+    }
+
+    private void dispatchLoop() {
+        TenantContextHolder.ignoreTenant();
+        while (!closed && !Thread.currentThread().isInterrupted()) {
+            try {
+                FiredAlert alert = queue.poll(1, TimeUnit.SECONDS);
+                if (alert != null) {
+                    dispatch(alert);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("Alert dispatch error: ", e);
+            }
+        }
+    }
+
+    void dispatch(FiredAlert alert) throws Exception {
+        AlertRuleDTO rule = alert.rule;
+        Integer jobInstanceId = (Integer) alert.dataModel.get(JobAlertRuleOptions.FIELD_JOB_INSTANCE_ID);
+        Integer taskId = (Integer) alert.dataModel.get(JobAlertRuleOptions.FIELD_TASK_ID);
+        String alertKey = jobInstanceId + "/" + (rule.getId() == null ? rule.getName() : rule.getId());
+        if (sentAlerts.containsKey(alertKey) || pendingAlerts.contains(alertKey)) {
+            suppressedCount.incrementAndGet();
+            return;
+        }
+
+        TaskDTO task = tasks.get(taskId, () -> taskLoader.apply(taskId));
+        if (task == null || !Objects.equals(task.getStep(), JobLifeCycle.PUBLISH.getValue())) {
+            // Only publish job can be alerted
+            return;
+        }
+        if (Asserts.isNull(task.getAlertGroupId())) {
+            return;
+        }
+        AlertGroup alertGroup =
+                alertGroups.get(task.getAlertGroupId(), () -> alertGroupLoader.apply(task.getAlertGroupId()));
+        if (Asserts.isNull(alertGroup) || Asserts.isNull(alertGroup.getInstances())) {
+            return;
+        }
+
+        List<AlertInstance> alertInstances = alertGroup.getInstances().stream()
+                .filter(alertInstance -> alertInstance != null && alertInstance.getEnabled())
+                .collect(Collectors.toList());
+        if (alertInstances.isEmpty()) {
+            return;
+        }
+
+        Map<String, Object> dataModel = new HashMap<>(alert.dataModel);
+        dataModel.put(JobAlertRuleOptions.OPTIONS_JOB_ALERT_RULE, rule);
+        String content = alert.templates.buildWithData(rule.getTemplateName(), dataModel);
+
+        AlertMessage message = new AlertMessage(
+                alertKey,
+                jobInstanceId,
+                alertGroup.getId(),
+                rule.getName(),
+                content,
+                new AtomicInteger(alertInstances.size()));
+        pendingAlerts.add(alertKey);
+        for (AlertInstance alertInstance : alertInstances) {
+            AlertBuffer buffer = buffers.compute(alertInstance.getId(), (id, pending) -> {
+                AlertBuffer result = pending == null ? new AlertBuffer(alertInstance) : pending;
+                result.messages.add(message);
+                return result;
+            });
+            if (buffer.messages.size() >= MAX_MERGED_ALERTS) {
+                flush(alertInstance.getId(), true);
+            }
+        }
+    }
+
+    private void flushSafely() {
+        TenantContextHolder.ignoreTenant();
+        try {
+            flush(false);
+        } catch (Exception e) {
+            log.error("Alert flush error: ", e);
+        }
+    }
+
+    /**
+     * Sends the buffers whose merge window has passed and writes the pending history.
+     *
+     * @param force Send all buffers regardless of their merge window.
+     */
+    void flush(boolean force) {
+        buffers.keySet().forEach(id -> flush(id, force));
+        List<AlertHistory> batch = new ArrayList<>(HISTORY_BATCH_SIZE);
+        while (histories.drainTo(batch, HISTORY_BATCH_SIZE) > 0) {
+            try {
+                historyWriter.accept(batch);
+            } catch (Exception e) {
+                log.error("Failed to write {} alert histories: {}", batch.size(), e.getMessage());
+            }
+            batch = new ArrayList<>(HISTORY_BATCH_SIZE);
+        }
+    }
+
+    private void flush(Integer alertInstanceId, boolean force) {
+        AlertBuffer[] due = new AlertBuffer[1];
+        buffers.computeIfPresent(alertInstanceId, (id, buffer) -> {
+            if (force || System.currentTimeMillis() - buffer.createTime >= mergeWindow) {
+                due[0] = buffer;
+                return null;
+            }
+            return buffer;
+        });
+        if (due[0] == null) {
+            return;
+        }
+        AlertBuffer buffer = due[0];
+        ThreadPoolExecutor channel = channels.computeIfAbsent(buffer.alertInstance.getType(), this::createChannel);
+        try {
+            channel.execute(() -> send(buffer));
+        } catch (Exception e) {
+            droppedCount.addAndGet(buffer.messages.size());
+            buffer.messages.forEach(message -> complete(message, false));
+            log.warn(
+                    "Alert channel {} is busy, drop {} alerts", buffer.alertInstance.getType(), buffer.messages.size());
+        }
+    }
+
+    /**
+     * Records the send of a message to one of its alert instances, it is suppressed from now on if the send
+     * succeeded and may fire again once every instance failed.
+     */
+    private void complete(AlertMessage message, boolean success) {
+        if (success) {
+            sentAlerts.put(message.alertKey, System.currentTimeMillis());
+        }
+        if (message.remaining.decrementAndGet() == 0) {
+            pendingAlerts.remove(message.alertKey);
+        }
+    }
+
+    /**
+     * Stops the dispatcher, dispatches the queued alerts, sends all buffers and waits for the channels to send
+     * them before the history is written.
+     */
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            dispatcher.join(CLOSE_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flusher.shutdownNow();
+        TenantContextHolder.ignoreTenant();
+        List<FiredAlert> queued = new ArrayList<>();
+        queue.drainTo(queued);
+        for (FiredAlert alert : queued) {
+            try {
+                dispatch(alert);
+            } catch (Exception e) {
+                log.error("Alert dispatch error: ", e);
+            }
+        }
+        flush(true);
+        long deadline = System.currentTimeMillis() + CLOSE_TIMEOUT;
+        for (ThreadPoolExecutor channel : channels.values()) {
+            channel.shutdown();
+            try {
+                channel.awaitTermination(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        flush(true);
+        log.info(
+                "Alert dispatcher closed, sent: {}, failed: {}, suppressed: {}, dropped: {}",
+                sentCount.get(),
+                failedCount.get(),
+                suppressedCount.get(),
+                droppedCount.get());
+    }
+
+    private ThreadPoolExecutor createChannel(String type) {
+        return new ThreadPoolExecutor(
+                CHANNEL_THREADS,
+                CHANNEL_THREADS,
+                60,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(CHANNEL_QUEUE_CAPACITY),
+                ThreadFactoryBuilder.create()
+                        .setNamePrefix("alert-" + type.toLowerCase() + "-")
+                        .setDaemon(true)
+                        .build(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private void send(AlertBuffer buffer) {
+        List<AlertMessage> messages = buffer.messages;
+        String title;
+        String content;
+        if (messages.size() == 1) {
+            title = messages.get(0).title;
+            content = messages.get(0).content;
+        } else {
+            title = StrFormatter.format(
+                    "{} alerts: {}",
+                    messages.size(),
+                    messages.stream().map(m -> m.title).distinct().collect(Collectors.joining(", ")));
+            content = messages.stream().map(m -> m.content).collect(Collectors.joining("\n\n"));
+        }
+
+        AlertResult result;
+        try {
+            result = alertLoader.apply(buffer.alertInstance).send(title, content);
+        } catch (Exception e) {
+            log.error("Failed to send alert to {}: ", buffer.alertInstance.getName(), e);
+            result = new AlertResult(false, e.getMessage());
+        }
+        (result.getSuccess() ? sentCount : failedCount).addAndGet(messages.size());
+
+        for (AlertMessage message : messages) {
+            complete(message, result.getSuccess());
+            AlertHistory alertHistory = new AlertHistory();
+            alertHistory.setAlertGroupId(message.alertGroupId);
+            alertHistory.setJobInstanceId(message.jobInstanceId);
+            alertHistory.setTitle(message.title);
+            alertHistory.setContent(message.content);
+            alertHistory.setStatus(result.getSuccessCode());
+            alertHistory.setLog(result.getMessage());
+            if (!histories.offer(alertHistory)) {
+                log.warn("Alert history queue is full, drop history of job instance {}", message.jobInstanceId);
+            }
+        }
+    }
+
+    @AllArgsConstructor
+    static class FiredAlert {
+        private final AlertRuleDTO rule;
+        private final Map<String, Object> dataModel;
+        private final FreeMarkerHolder templates;
+    }
+
+    @AllArgsConstructor
+    private static class AlertMessage {
+        private final String alertKey;
+        private final Integer jobInstanceId;
+        private final Integer alertGroupId;
+        private final String title;
+        private final String content;
+
+        /** Alert instances the message has not been sent to yet. */
+        private final AtomicInteger remaining;
+    }
+
+    private static class AlertBuffer {
+        private final AlertInstance alertInstance;
+        private final long createTime = System.currentTimeMillis();
+        private final List<AlertMessage> messages = new ArrayList<>();
+
+        private AlertBuffer(AlertInstance alertInstance) {
+            this.alertInstance = alertInstance;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.job.handler;
+
+import org.dinky.data.dto.AlertRuleDTO;
+import org.dinky.data.model.ext.JobAlertData;
+import org.dinky.data.options.JobAlertRuleOptions;
+import org.dinky.utils.JsonUtils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.spel.SpELCondition;
+
+import cn.hutool.core.text.StrFormatter;
+import cn.hutool.json.JSONUtil;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compiles the conditions of an alert rule into a predicate over {@link JobAlertData}.
+ * <p>
+ * A rule item compares a field of the job with a constant, the field is read through its getter and the constant
+ * is parsed once, so no facts map or SpEL evaluation is needed per job. A rule with an item that can not be
+ * compiled (an unknown field, operator or a value that is not a constant) falls back to the SpEL condition.
+ * </p>
+ */
+@Slf4j
+public class AlertRuleCompiler {
+
+    /** The fields of {@link JobAlertData} a rule item can refer to. */
+    static final Map<String, Function<JobAlertData, Object>> FIELDS = new HashMap<>();
+
+    static {
+        FIELDS.put(JobAlertRuleOptions.FIELD_NAME_TIME, JobAlertData::getAlertTime);
+        FIELDS.put(JobAlertRuleOptions.FIELD_NAME_START_TIME, JobAlertData::getJobStartTime);
+        FIELDS.put(JobAlertRuleOptions.FIELD_NAME_END_TIME, JobAlertData::getJobEndTime);
+        FIELDS.put(JobAlertRuleOptions.FIELD_NAME_DURATION, JobAlertData::getDuration);
+        FIELDS.put(JobAlertRuleOptions.FIELD_NAME_JOB_NAME, JobAlertData::getJobName);
+        FIELDS.put(JobAlertRuleOptions.FIELD_NAME_JOB_ID, JobAlertData::getJobId);
+        FIELDS.put(JobAlertRuleOptions.FIELD_NAME_JOB_STATUS, JobAlertData::getJobStatus);
+        FIELDS.put(JobAlertRuleOptions.FIELD_TASK_ID, JobAlertData::getTaskId);
+        FIELDS.put(JobAlertRuleOptions.FIELD_JOB_INSTANCE_ID, JobAlertData::getJobInstanceId);
+        FIELDS.put(JobAlertRuleOptions.FIELD_JOB_TASK_URL, JobAlertData::getTaskUrl);
+        FIELDS.put(JobAlertRuleOptions.FIELD_JOB_BATCH_MODEL, JobAlertData::isBatchModel);
+        FIELDS.put(JobAlertRuleOptions.FIELD_NAME_CLUSTER_NAME, JobAlertData::getClusterName);
+        FIELDS.put(JobAlertRuleOptions.FIELD_NAME_CLUSTER_TYPE, JobAlertData::getClusterType);
+        FIELDS.put(JobAlertRuleOptions.FIELD_NAME_CLUSTER_HOSTS, JobAlertData::getClusterHosts);
+        FIELDS.put(JobAlertRuleOptions.FIELD_NAME_EXCEPTIONS_MSG, JobAlertData::getErrorMsg);
+        FIELDS.put(JobAlertRuleOptions.FIELD_NAME_CHECKPOINT_COST_TIME, JobAlertData::getCheckpointCostTime);
+        FIELDS.put(JobAlertRuleOptions.FIELD_NAME_CHECKPOINT_FAILED_COUNT, JobAlertData::getCheckpointFailedCount);
+        FIELDS.put(JobAlertRuleOptions.FIELD_NAME_CHECKPOINT_COMPLETE_COUNT, JobAlertData::getCheckpointCompleteCount);
+        FIELDS.put(JobAlertRuleOptions.FIELD_NAME_CHECKPOINT_FAILED, JobAlertData::isCheckpointFailed);
+        FIELDS.put(JobAlertRuleOptions.FIELD_NAME_IS_EXCEPTION, JobAlertData::isException);
+    }
+
+    private AlertRuleCompiler() {}
+
+    /**
+     * Compiles the conditions of an alert rule.
+     *
+     * @param rule The alert rule.
+     * @return The compiled rule.
+     */
+    public static CompiledAlertRule compile(AlertRuleDTO rule) {
+        List<RuleItem> items = JSONUtil.toList(rule.getRule(), RuleItem.class);
+        boolean all = "and".equalsIgnoreCase(rule.getTriggerConditions().trim());
+        Set<String> fields = items.stream().map(RuleItem::getRuleKey).collect(Collectors.toSet());
+
+        @SuppressWarnings("unchecked")
+        Predicate<JobAlertData>[] predicates = new Predicate[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            predicates[i] = compileItem(items.get(i));
+            if (predicates[i] == null) {
+                String condition = StrFormatter.format(
+                        "#{{}}",
+                        items.stream()
+                                .map(RuleItem::toString)
+                                .collect(Collectors.joining(rule.getTriggerConditions())));
+                log.info("Build Alert Rule {} with SpEL: {}", rule.getName(), condition);
+                boolean known = FIELDS.keySet().containsAll(fields);
+                return new CompiledAlertRule(rule, spel(condition), known ? Collections.unmodifiableSet(fields) : null);
+            }
+        }
+        Predicate<JobAlertData> condition = all
+                ? data -> {
+                    for (Predicate<JobAlertData> predicate : predicates) {
+                        if (!predicate.test(data)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+                : data -> {
+                    for (Predicate<JobAlertData> predicate : predicates) {
+                        if (predicate.test(data)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                };
+        return new CompiledAlertRule(rule, condition, Collections.unmodifiableSet(fields));
+    }
+
+    private static Predicate<JobAlertData> compileItem(RuleItem item) {
+        Function<JobAlertData, Object> getter = FIELDS.get(item.getRuleKey());
+        Operator operator = Operator.of(item.getRuleOperator());
+        Object expected = parseValue(item.getRuleValue());
+        if (getter == null || operator == null || expected == null) {
+            return null;
+        }
+        if (expected instanceof Number) {
+            double number = ((Number) expected).doubleValue();
+            return data -> {
+                Object value = getter.apply(data);
+                return value instanceof Number && operator.test(Double.compare(((Number) value).doubleValue(), number));
+            };
+        }
+        if (expected instanceof String) {
+            String string = (String) expected;
+            return data -> {
+                Object value = getter.apply(data);
+                return value instanceof String && operator.test(((String) value).compareTo(string));
+            };
+        }
+        if (operator != Operator.EQ && operator != Operator.NE) {
+            return null;
+        }
+        boolean equal = operator == Operator.EQ;
+        return data -> Objects.equals(getter.apply(data), expected) == equal;
+    }
+
+    /**
+     * Parses a constant of a rule item the way SpEL reads it.
+     *
+     * @return A String, Boolean, Long or Double, or null if the value is not a constant.
+     */
+    static Object parseValue(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        if (trimmed.length() >= 2 && trimmed.startsWith("'") && trimmed.endsWith("'")) {
+            String string = trimmed.substring(1, trimmed.length() - 1);
+            return string.contains("'") ? null : string;
+        }
+        if ("true".equalsIgnoreCase(trimmed) || "false".equalsIgnoreCase(trimmed)) {
+            return Boolean.valueOf(trimmed);
+        }
+        try {
+            return Long.valueOf(trimmed);
+        } catch (NumberFormatException e) {
+            // not a long
+        }
+        try {
+            return Double.valueOf(trimmed);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Predicate<JobAlertData> spel(String condition) {
+        SpELCondition spelCondition = new SpELCondition(condition);
+        return data -> {
+            Facts facts = new Facts();
+            JsonUtils.toMap(data).forEach(facts::put);
+            return spelCondition.evaluate(facts);
+        };
+    }
+
+    enum Operator {
+        EQ,
+        NE,
+        GT,
+        LT,
+        GE,
+        LE;
+
+        static Operator of(String operator) {
+            for (Operator value : values()) {
+                if (value.name().equalsIgnoreCase(operator == null ? null : operator.trim())) {
+                    return value;
+                }
+            }
+            return null;
+        }
+
+        boolean test(int comparison) {
+            switch (this) {
+                case EQ:
+                    return comparison == 0;
+                case NE:
+                    return comparison != 0;
+                case GT:
+                    return comparison > 0;
+                case LT:
+                    return comparison < 0;
+                case GE:
+                    return comparison >= 0;
+                default:
+                    return comparison <= 0;
+            }
+        }
+    }
+
+    /**
+     * An alert rule with its compiled condition.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class CompiledAlertRule {
+        private final AlertRuleDTO rule;
+        private final Predicate<JobAlertData> condition;
+        /** The fields the condition refers to, null if they are unknown and the rule is evaluated on every poll. */
+        private final Set<String> fields;
+    }
+
+    @Data
+    static class RuleItem {
+        private String ruleKey;
+        private String ruleOperator;
+        //        private int rulePriority;
+        private String ruleValue;
+
+        @Override
+        public String toString() {
+            return StrFormatter.format(" #{} {} {} ", getRuleKey(), getRuleOperator(), getRuleValue());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.job.handler;
+
+import org.dinky.data.model.ext.JobAlertData;
+import org.dinky.job.handler.AlertRuleCompiler.CompiledAlertRule;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The compiled alert rules indexed by the fields of {@link JobAlertData} they refer to.
+ * Only the rules that refer to a field changed since the previous poll of a job need to be evaluated.
+ */
+public class AlertRuleIndex {
+
+    private final List<CompiledAlertRule> rules;
+
+    private final Map<String, List<CompiledAlertRule>> rulesByField = new HashMap<>();
+
+    /** Rules whose fields are unknown, they are evaluated on every poll. */
+    private final List<CompiledAlertRule> alwaysEvaluated = new ArrayList<>();
+
+    private final Map<String, Function<JobAlertData, Object>> indexedFields = new HashMap<>();
+
+    public AlertRuleIndex(List<CompiledAlertRule> rules) {
+        this.rules = rules;
+        for (CompiledAlertRule rule : rules) {
+            if (rule.getFields() == null) {
+                alwaysEvaluated.add(rule);
+                continue;
+            }
+            for (String field : rule.getFields()) {
+                rulesByField.computeIfAbsent(field, k -> new ArrayList<>()).add(rule);
+                indexedFields.put(field, AlertRuleCompiler.FIELDS.get(field));
+            }
+        }
+    }
+
+    /**
+     * Gets the rules to evaluate for a poll of a job.
+     *
+     * @param previous The data of the previous poll, null if the job is polled the first time.
+     * @param current  The data of this poll.
+     * @return The rules that refer to a changed field, all rules on the first poll.
+     */
+    public Collection<CompiledAlertRule> candidates(JobAlertData previous, JobAlertData current) {
+        if (previous == null) {
+            return rules;
+        }
+        Set<CompiledAlertRule> candidates = new LinkedHashSet<>(alwaysEvaluated);
+        indexedFields.forEach((field, getter) -> {
+            if (!Objects.equals(getter.apply(previous), getter.apply(current))) {
+                candidates.addAll(rulesByField.get(field));
+            }
+        });
+        return candidates;
+    }
+
+    public List<CompiledAlertRule> getRules() {
+        return rules;
+    }
+}
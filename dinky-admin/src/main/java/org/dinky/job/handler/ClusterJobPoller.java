@@ -0,0 +1,351 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.job.handler;
+
+import org.dinky.api.FlinkAPI;
+import org.dinky.assertion.Asserts;
+import org.dinky.daemon.constant.FlinkTaskConstant;
+import org.dinky.data.constant.FlinkRestResultConstant;
+import org.dinky.data.dto.JobDataDto;
+import org.dinky.data.enums.JobStatus;
+import org.dinky.data.flink.backpressure.FlinkJobNodeBackPressure;
+import org.dinky.data.flink.checkpoint.CheckPointOverView;
+import org.dinky.data.flink.config.CheckpointConfigInfo;
+import org.dinky.data.flink.config.FlinkJobConfigInfo;
+import org.dinky.data.flink.exceptions.FlinkJobExceptionsDetail;
+import org.dinky.data.flink.job.FlinkJobDetailInfo;
+import org.dinky.data.flink.job.FlinkJobPlanNode;
+import org.dinky.data.flink.watermark.FlinkJobNodeWaterMark;
+import org.dinky.data.vo.ClusterPollingVO;
+import org.dinky.utils.JsonUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import com.alibaba.fastjson2.JSON;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.hutool.json.JSONUtil;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Polling coordinator of the jobs running on one JobManager.
+ * <p>
+ * The job overview of the cluster is fetched at most once per polling cycle and shared by all the jobs of the cluster.
+ * The detail endpoints (job info, exceptions, watermarks and backpressure) are only fetched for a job whose state,
+ * last modification or checkpoint counters changed since the last poll, and they are requested concurrently on a
+ * bounded executor. The immutable job config and checkpoint config are only fetched once per job.
+ * </p>
+ * <p>
+ * A poller is dropped together with the last job it caches, so clusters that are gone do not keep one. The pollers
+ * are only subscribed to and dropped inside the atomic updates of {@link #POLLERS}, so a poller is never dropped while
+ * a poll still uses it.
+ * </p>
+ */
+@Slf4j
+public class ClusterJobPoller {
+
+    private static final String STATE = "state";
+    private static final String ID = "id";
+    private static final String JID = "jid";
+    private static final String DURATION = "duration";
+    private static final String END_TIME = "end-time";
+    private static final String LAST_MODIFICATION = "last-modification";
+    private static final String COUNTS = "counts";
+    private static final String VERTICES = "vertices";
+
+    private static final Map<String, ClusterJobPoller> POLLERS = new ConcurrentHashMap<>();
+
+    private static final ThreadPoolExecutor REQUEST_EXECUTOR = new ThreadPoolExecutor(
+            4,
+            32,
+            60,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(1024),
+            ThreadFactoryBuilder.create()
+                    .setNamePrefix("flink-rest-poll-")
+                    .setDaemon(true)
+                    .build(),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+
+    private final String address;
+    private final FlinkAPI api;
+    private final Map<String, JobSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    /** Polls in progress, only read and written inside the atomic updates of {@link #POLLERS}. */
+    private int subscribers = 0;
+
+    private volatile Map<String, JsonNode> overview = new HashMap<>();
+    private volatile long overviewTime = 0;
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+    private final AtomicLong totalLatency = new AtomicLong();
+    private final AtomicLong maxLatency = new AtomicLong();
+
+    private ClusterJobPoller(String address) {
+        this.address = address;
+        this.api = FlinkAPI.build(address);
+    }
+
+    /**
+     * Get the job data of a job running on a cluster.
+     *
+     * @param address The JobManager address.
+     * @param id      The job instance ID.
+     * @param jobId   The flink job ID.
+     * @param force   Fetch all the detail endpoints even if the job has not changed.
+     * @return {@link JobDataDto}.
+     */
+    public static JobDataDto getJobData(String address, Integer id, String jobId, boolean force) {
+        Asserts.checkNotNull(address, "The JobManager address of the job is unknown");
+        ClusterJobPoller poller = POLLERS.compute(address, (key, current) -> {
+            ClusterJobPoller subscribed = current == null ? new ClusterJobPoller(key) : current;
+            subscribed.subscribers++;
+            return subscribed;
+        });
+        try {
+            return poller.getJobData(id, jobId, force);
+        } finally {
+            POLLERS.computeIfPresent(address, (key, current) -> {
+                if (current != poller) {
+                    return current;
+                }
+                current.subscribers--;
+                return current.isIdle() ? null : current;
+            });
+        }
+    }
+
+    /**
+     * Forget the cached details of a job, called when the job is done.
+     *
+     * @param address The JobManager address, nothing is cached when it is null.
+     * @param jobId   The flink job ID.
+     */
+    public static void evict(String address, String jobId) {
+        if (address == null) {
+            return;
+        }
+        ClusterJobPoller poller = POLLERS.get(address);
+        if (poller != null) {
+            poller.removeSnapshot(jobId);
+        }
+    }
+
+    public static List<ClusterPollingVO> getStatistics() {
+        return POLLERS.values().stream().map(ClusterJobPoller::statistics).collect(Collectors.toList());
+    }
+
+    private JobDataDto getJobData(Integer id, String jobId, boolean force) {
+        JobDataDto.JobDataDtoBuilder builder = JobDataDto.builder().id(id);
+        try {
+            JsonNode jobOverview = getJobOverview(jobId);
+            JsonNode checkpoints = timed(() -> api.getCheckPoints(jobId));
+            String fingerprint = fingerprint(jobOverview, checkpoints);
+            JobSnapshot snapshot = snapshots.get(jobId);
+
+            if (!force
+                    && snapshot != null
+                    && Asserts.isNotNull(jobOverview)
+                    && fingerprint.equals(snapshot.fingerprint)) {
+                // every caller gets its own copy, the cached one is never handed out
+                FlinkJobDetailInfo job = JSON.parseObject(snapshot.jobJson, FlinkJobDetailInfo.class);
+                job.setDuration(jobOverview.get(DURATION).asLong());
+                job.setEndTime(jobOverview.get(END_TIME).asLong());
+                return builder.job(job)
+                        .config(snapshot.config)
+                        .checkpointsConfig(snapshot.checkpointsConfig)
+                        .exceptions(snapshot.exceptions)
+                        .checkpoints(JSONUtil.toBean(checkpoints.toString(), CheckPointOverView.class))
+                        .build();
+            }
+
+            CompletableFuture<JsonNode> jobInfoFuture = request(() -> api.getJobInfo(jobId));
+            CompletableFuture<JsonNode> exceptionsFuture = request(() -> api.getException(jobId));
+            CompletableFuture<FlinkJobConfigInfo> configFuture = snapshot == null
+                    ? request(() -> JSON.parseObject(api.getJobsConfig(jobId).toString())
+                            .toJavaObject(FlinkJobConfigInfo.class))
+                    : CompletableFuture.completedFuture(snapshot.config);
+            CompletableFuture<CheckpointConfigInfo> checkpointsConfigFuture = snapshot == null
+                    ? request(() ->
+                            JSONUtil.toBean(api.getCheckPointsConfig(jobId).toString(), CheckpointConfigInfo.class))
+                    : CompletableFuture.completedFuture(snapshot.checkpointsConfig);
+
+            JsonNode jobInfo = join(jobInfoFuture);
+            if (jobInfo.has(FlinkRestResultConstant.ERRORS)) {
+                throw new Exception(String.valueOf(jobInfo.get(FlinkRestResultConstant.ERRORS)));
+            }
+            FlinkJobDetailInfo flinkJobDetailInfo =
+                    JSON.parseObject(jobInfo.toString()).toJavaObject(FlinkJobDetailInfo.class);
+            // 获取 WATERMARK  & BACKPRESSURE 信息
+            join(CompletableFuture.allOf(requestVertices(jobId, jobInfo, flinkJobDetailInfo)));
+
+            JobSnapshot newSnapshot = new JobSnapshot(
+                    fingerprint,
+                    JSON.toJSONString(flinkJobDetailInfo),
+                    join(configFuture),
+                    join(checkpointsConfigFuture),
+                    JSONUtil.toBean(join(exceptionsFuture).toString(), FlinkJobExceptionsDetail.class));
+            if (JobStatus.isDone(flinkJobDetailInfo.getState())) {
+                removeSnapshot(jobId);
+            } else {
+                snapshots.put(jobId, newSnapshot);
+            }
+            return builder.checkpoints(JSONUtil.toBean(checkpoints.toString(), CheckPointOverView.class))
+                    .checkpointsConfig(newSnapshot.checkpointsConfig)
+                    .exceptions(newSnapshot.exceptions)
+                    .job(flinkJobDetailInfo)
+                    .config(newSnapshot.config)
+                    .build();
+        } catch (Exception e) {
+            log.error("Connect {} failed,{}", address, e.getMessage());
+            removeSnapshot(jobId);
+            return builder.error(true).errorMsg(e.getMessage()).build();
+        }
+    }
+
+    private void removeSnapshot(String jobId) {
+        snapshots.remove(jobId);
+        // a poll in progress keeps the poller, it drops it itself when it is done
+        POLLERS.computeIfPresent(address, (key, current) -> current == this && isIdle() ? null : current);
+    }
+
+    private boolean isIdle() {
+        return subscribers == 0 && snapshots.isEmpty();
+    }
+
+    private CompletableFuture<?>[] requestVertices(String jobId, JsonNode jobInfo, FlinkJobDetailInfo detailInfo) {
+        Map<String, FlinkJobPlanNode> planNodes = detailInfo.getPlan().getNodes().stream()
+                .collect(Collectors.toMap(FlinkJobPlanNode::getId, node -> node, (a, b) -> a));
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (JsonNode vertex : jobInfo.get(VERTICES)) {
+            String vertexId = vertex.get(ID).asText();
+            FlinkJobPlanNode planNode = planNodes.get(vertexId);
+            if (planNode == null) {
+                continue;
+            }
+            futures.add(request(() -> api.getWatermark(jobId, vertexId))
+                    .thenAccept(watermark ->
+                            planNode.setWatermark(JSONUtil.toList(watermark, FlinkJobNodeWaterMark.class))));
+            futures.add(request(() -> api.getBackPressure(jobId, vertexId))
+                    .thenAccept(backPressure -> planNode.setBackpressure(
+                            JsonUtils.toJavaBean(backPressure, FlinkJobNodeBackPressure.class))));
+        }
+        return futures.toArray(new CompletableFuture[0]);
+    }
+
+    /**
+     * Get the overview of a job, the overview of all the jobs of the cluster is refreshed once per polling cycle.
+     */
+    private JsonNode getJobOverview(String jobId) {
+        if (System.currentTimeMillis() - overviewTime >= FlinkTaskConstant.TRANSITION_TIME_SLEEP) {
+            synchronized (this) {
+                if (System.currentTimeMillis() - overviewTime >= FlinkTaskConstant.TRANSITION_TIME_SLEEP) {
+                    Map<String, JsonNode> jobs = new HashMap<>();
+                    timed(api::listJobs).forEach(job -> jobs.put(job.get(JID).asText(), job));
+                    overview = jobs;
+                    overviewTime = System.currentTimeMillis();
+                }
+            }
+        }
+        return overview.get(jobId);
+    }
+
+    private static String fingerprint(JsonNode jobOverview, JsonNode checkpoints) {
+        if (Asserts.isNull(jobOverview)) {
+            return "";
+        }
+        return jobOverview.get(STATE).asText()
+                + "@" + jobOverview.get(LAST_MODIFICATION).asText()
+                + "@" + (checkpoints == null ? "" : String.valueOf(checkpoints.get(COUNTS)));
+    }
+
+    private <T> CompletableFuture<T> request(Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(() -> timed(supplier), REQUEST_EXECUTOR);
+    }
+
+    private <T> T timed(Supplier<T> supplier) {
+        long start = System.nanoTime();
+        try {
+            return supplier.get();
+        } catch (RuntimeException e) {
+            errorCount.incrementAndGet();
+            throw e;
+        } finally {
+            long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            requestCount.incrementAndGet();
+            totalLatency.addAndGet(latency);
+            maxLatency.accumulateAndGet(latency, Math::max);
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    private ClusterPollingVO statistics() {
+        long requests = requestCount.get();
+        return new ClusterPollingVO(
+                address,
+                snapshots.size(),
+                requests,
+                errorCount.get(),
+                requests == 0 ? 0 : totalLatency.get() / requests,
+                maxLatency.get());
+    }
+
+    private static class JobSnapshot {
+        private final String fingerprint;
+        private final String jobJson;
+        private final FlinkJobConfigInfo config;
+        private final CheckpointConfigInfo checkpointsConfig;
+        private final FlinkJobExceptionsDetail exceptions;
+
+        private JobSnapshot(
+                String fingerprint,
+                String jobJson,
+                FlinkJobConfigInfo config,
+                CheckpointConfigInfo checkpointsConfig,
+                FlinkJobExceptionsDetail exceptions) {
+            this.fingerprint = fingerprint;
+            this.jobJson = jobJson;
+            this.config = config;
+            this.checkpointsConfig = checkpointsConfig;
+            this.exceptions = exceptions;
+        }
+    }
+}
@@ -19,83 +19,49 @@
 
 package org.dinky.job.handler;
 
-import org.dinky.alert.Alert;
-import org.dinky.alert.AlertConfig;
-import org.dinky.alert.AlertResult;
-import org.dinky.assertion.Asserts;
 import org.dinky.context.FreeMarkerHolder;
 import org.dinky.context.SpringContextUtils;
 import org.dinky.daemon.pool.FlinkJobThreadPool;
 import org.dinky.data.dto.AlertRuleDTO;
-import org.dinky.data.dto.TaskDTO;
-import org.dinky.data.enums.JobLifeCycle;
 import org.dinky.data.enums.Status;
-import org.dinky.data.exception.DinkyException;
-import org.dinky.data.model.alert.AlertGroup;
-import org.dinky.data.model.alert.AlertHistory;
-import org.dinky.data.model.alert.AlertInstance;
 import org.dinky.data.model.ext.JobAlertData;
 import org.dinky.data.model.ext.JobInfoDetail;
-import org.dinky.data.options.JobAlertRuleOptions;
-import org.dinky.service.AlertGroupService;
-import org.dinky.service.AlertHistoryService;
-import org.dinky.service.TaskService;
 import org.dinky.service.impl.AlertRuleServiceImpl;
 import org.dinky.utils.JsonUtils;
 
-import java.io.IOException;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.stream.Collectors;
-
-import org.jeasy.rules.api.Facts;
-import org.jeasy.rules.api.Rule;
-import org.jeasy.rules.api.Rules;
-import org.jeasy.rules.api.RulesEngine;
-import org.jeasy.rules.core.DefaultRulesEngine;
-import org.jeasy.rules.core.RuleBuilder;
-import org.jeasy.rules.spel.SpELCondition;
+
 import org.springframework.context.annotation.DependsOn;
 
-import cn.hutool.core.text.StrFormatter;
-import cn.hutool.json.JSONObject;
-import cn.hutool.json.JSONUtil;
-import freemarker.template.TemplateException;
-import lombok.Data;
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.TimedCache;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 @DependsOn("springContextUtils")
 public class JobAlertHandler {
 
-    private static final AlertHistoryService alertHistoryService;
-    private static final AlertGroupService alertGroupService;
-    private static final TaskService taskService;
     private static final AlertRuleServiceImpl alertRuleService;
 
     /**
-     * Rules for evaluating alert conditions.
+     * The compiled alert rules, indexed by the job fields they refer to.
      */
-    private Rules rules;
+    private volatile AlertRuleIndex ruleIndex;
 
     /**
-     * Engine for evaluating rules.
+     * Holder for FreeMarker templates.
      */
-    private RulesEngine rulesEngine;
+    private volatile FreeMarkerHolder freeMarkerHolder;
 
     /**
-     * Holder for FreeMarker templates.
+     * The alert data of the previous poll of each job instance.
      */
-    private FreeMarkerHolder freeMarkerHolder;
+    private final TimedCache<Integer, JobAlertData> lastAlertData = CacheUtil.newTimedCache(60 * 60 * 1000L);
 
     private static volatile JobAlertHandler defaultJobAlertHandler;
 
     static {
-        taskService = SpringContextUtils.getBean("taskServiceImpl", TaskService.class);
-        alertHistoryService = SpringContextUtils.getBean("alertHistoryServiceImpl", AlertHistoryService.class);
-        alertGroupService = SpringContextUtils.getBean("alertGroupServiceImpl", AlertGroupService.class);
         alertRuleService = SpringContextUtils.getBean("alertRuleServiceImpl", AlertRuleServiceImpl.class);
     }
 
@@ -111,23 +77,30 @@ public class JobAlertHandler {
     }
 
     public JobAlertHandler() {
+        lastAlertData.schedulePrune(10 * 60 * 1000L);
         refreshRulesData();
     }
 
     /**
      * checks for alert conditions for each job in the task pool.
+     * Only the rules referring to a field that changed since the previous poll of the job are evaluated.
      */
     public void check(JobInfoDetail jobInfoDetail) {
-        Facts ruleFacts = new Facts();
         JobAlertData jobAlertData = JobAlertData.buildData(jobInfoDetail);
-        JsonUtils.toMap(jobAlertData).forEach((k, v) -> {
-            if (v == null) {
-                throw new DinkyException(StrFormatter.format(
-                        "When deal alert job data, the key [{}] value is null, its maybe dinky bug,please report", k));
+        JobAlertData previous = lastAlertData.get(jobAlertData.getJobInstanceId(), false);
+        lastAlertData.put(jobAlertData.getJobInstanceId(), jobAlertData);
+        for (AlertRuleCompiler.CompiledAlertRule rule : ruleIndex.candidates(previous, jobAlertData)) {
+            boolean matched;
+            try {
+                matched = rule.getCondition().test(jobAlertData);
+            } catch (Exception e) {
+                log.error("Evaluate Alert Rule {} failed: {}", rule.getRule().getName(), e.getMessage());
+                continue;
             }
-            ruleFacts.put(k, v);
-        });
-        rulesEngine.fire(rules, ruleFacts);
+            if (matched) {
+                executeAlertAction(jobAlertData, rule.getRule());
+            }
+        }
     }
 
     /**
@@ -135,119 +108,33 @@ public class JobAlertHandler {
      */
     public void refreshRulesData() {
         List<AlertRuleDTO> ruleDTOS = alertRuleService.getBaseMapper().selectWithTemplate();
-        freeMarkerHolder = new FreeMarkerHolder();
-        rulesEngine = new DefaultRulesEngine();
-        rules = new Rules();
+        FreeMarkerHolder templates = new FreeMarkerHolder();
+        List<AlertRuleCompiler.CompiledAlertRule> rules = new ArrayList<>();
 
         ruleDTOS.forEach(ruleDto -> {
             if (ruleDto.getTemplateName() != null && !ruleDto.getTemplateName().isEmpty()) {
-                freeMarkerHolder.putTemplate(ruleDto.getTemplateName(), ruleDto.getTemplateContent());
+                templates.putTemplate(ruleDto.getTemplateName(), ruleDto.getTemplateContent());
                 ruleDto.setName(Status.findMessageByKey(ruleDto.getName()));
                 ruleDto.setDescription(Status.findMessageByKey(ruleDto.getDescription()));
-                rules.register(buildRule(ruleDto));
+                rules.add(AlertRuleCompiler.compile(ruleDto));
             } else {
                 log.error("Alert Rule: {} has no template", ruleDto.getName());
             }
         });
-    }
-
-    private Rule buildRule(AlertRuleDTO alertRuleDTO) {
-
-        List<JSONObject> ruleItemList =
-                JSONUtil.parseArray(alertRuleDTO.getRule()).toBean(List.class);
-        List<String> conditionList = ruleItemList.stream()
-                .map(r -> r.toBean(RuleItem.class).toString())
-                .collect(Collectors.toList());
-        String conditionContent = String.join(alertRuleDTO.getTriggerConditions(), conditionList);
-        String condition = StrFormatter.format("#{{}}", conditionContent);
-
-        log.info("Build Alert Rule: {}", condition);
-
-        return new RuleBuilder()
-                .name(alertRuleDTO.getName())
-                .description(alertRuleDTO.getDescription())
-                .priority(1)
-                .when(new SpELCondition(condition))
-                .then(f -> executeAlertAction(f, alertRuleDTO))
-                .build();
+        freeMarkerHolder = templates;
+        ruleIndex = new AlertRuleIndex(rules);
+        // Evaluate all rules against every job on its next poll
+        lastAlertData.clear();
     }
 
     /**
      * Executes the alert action when an alert condition is met.
+     * The alert is handed over to the {@link AlertDispatcher}, so the monitoring thread never waits for a channel.
      *
-     * @param facts        The facts representing the job details.
+     * @param jobAlertData The job details.
      * @param alertRuleDTO Alert Rule Info.
      */
-    private void executeAlertAction(Facts facts, AlertRuleDTO alertRuleDTO) {
-        TaskDTO task = taskService.getTaskInfoById(facts.get(JobAlertRuleOptions.FIELD_TASK_ID));
-        if (!Objects.equals(task.getStep(), JobLifeCycle.PUBLISH.getValue())) {
-            // Only publish job can be alerted
-            return;
-        }
-        Map<String, Object> dataModel = new HashMap<>(facts.asMap());
-        dataModel.put(JobAlertRuleOptions.OPTIONS_JOB_ALERT_RULE, alertRuleDTO);
-        String alertContent;
-        try {
-            alertContent = freeMarkerHolder.buildWithData(alertRuleDTO.getTemplateName(), dataModel);
-        } catch (IOException | TemplateException e) {
-            log.error("Alert Error: ", e);
-            return;
-        }
-
-        if (!Asserts.isNull(task.getAlertGroupId())) {
-            AlertGroup alertGroup = alertGroupService.getAlertGroupInfo(task.getAlertGroupId());
-            if (Asserts.isNotNull(alertGroup)) {
-                for (AlertInstance alertInstance : alertGroup.getInstances()) {
-                    if (alertInstance == null || !alertInstance.getEnabled()) {
-                        continue;
-                    }
-                    sendAlert(
-                            alertInstance,
-                            facts.get(JobAlertRuleOptions.FIELD_JOB_INSTANCE_ID),
-                            alertGroup.getId(),
-                            alertRuleDTO.getName(),
-                            alertContent);
-                }
-            }
-        }
-    }
-
-    /**
-     * Sends an alert based on the alert instance's configuration.
-     *
-     * @param alertInstance The alert instance to use for sending the alert.
-     * @param jobInstanceId The ID of the job instance triggering the alert.
-     * @param alertGid      The ID of the alert group.
-     * @param title         The title of the alert.
-     * @param alertMsg      The content of the alert message.
-     */
-    private void sendAlert(
-            AlertInstance alertInstance, int jobInstanceId, int alertGid, String title, String alertMsg) {
-        AlertConfig alertConfig =
-                AlertConfig.build(alertInstance.getName(), alertInstance.getType(), alertInstance.getParams());
-        Alert alert = Alert.build(alertConfig);
-        AlertResult alertResult = alert.send(title, alertMsg);
-
-        AlertHistory alertHistory = new AlertHistory();
-        alertHistory.setAlertGroupId(alertGid);
-        alertHistory.setJobInstanceId(jobInstanceId);
-        alertHistory.setTitle(title);
-        alertHistory.setContent(alertMsg);
-        alertHistory.setStatus(alertResult.getSuccessCode());
-        alertHistory.setLog(alertResult.getMessage());
-        alertHistoryService.save(alertHistory);
-    }
-
-    @Data
-    private static class RuleItem {
-        private String ruleKey;
-        private String ruleOperator;
-        //        private int rulePriority;
-        private String ruleValue;
-
-        @Override
-        public String toString() {
-            return StrFormatter.format(" #{} {} {} ", getRuleKey(), getRuleOperator(), getRuleValue());
-        }
+    private void executeAlertAction(JobAlertData jobAlertData, AlertRuleDTO alertRuleDTO) {
+        AlertDispatcher.getInstance().submit(alertRuleDTO, JsonUtils.toMap(jobAlertData), freeMarkerHolder);
     }
 }
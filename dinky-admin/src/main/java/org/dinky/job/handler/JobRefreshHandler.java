@@ -19,20 +19,12 @@
 
 package org.dinky.job.handler;
 
-import org.dinky.api.FlinkAPI;
 import org.dinky.assertion.Asserts;
 import org.dinky.context.SpringContextUtils;
-import org.dinky.data.constant.FlinkRestResultConstant;
 import org.dinky.data.dto.ClusterConfigurationDTO;
 import org.dinky.data.dto.JobDataDto;
 import org.dinky.data.enums.JobStatus;
-import org.dinky.data.flink.backpressure.FlinkJobNodeBackPressure;
-import org.dinky.data.flink.checkpoint.CheckPointOverView;
-import org.dinky.data.flink.config.CheckpointConfigInfo;
-import org.dinky.data.flink.config.FlinkJobConfigInfo;
-import org.dinky.data.flink.exceptions.FlinkJobExceptionsDetail;
 import org.dinky.data.flink.job.FlinkJobDetailInfo;
-import org.dinky.data.flink.watermark.FlinkJobNodeWaterMark;
 import org.dinky.data.model.ext.JobInfoDetail;
 import org.dinky.data.model.job.JobInstance;
 import org.dinky.gateway.Gateway;
@@ -43,7 +35,6 @@ import org.dinky.gateway.model.FlinkClusterConfig;
 import org.dinky.job.JobConfig;
 import org.dinky.service.JobHistoryService;
 import org.dinky.service.JobInstanceService;
-import org.dinky.utils.JsonUtils;
 import org.dinky.utils.TimeUtil;
 
 import java.time.Duration;
@@ -52,12 +43,8 @@ import java.time.LocalDateTime;
 import org.springframework.context.annotation.DependsOn;
 import org.springframework.stereotype.Component;
 
-import com.alibaba.fastjson2.JSON;
-import com.fasterxml.jackson.databind.JsonNode;
-
 import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.bean.copier.CopyOptions;
-import cn.hutool.json.JSONUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -107,7 +94,8 @@ public class JobRefreshHandler {
                 getJobData(
                         jobInstance.getId(),
                         jobInfoDetail.getClusterInstance().getJobManagerHost(),
-                        jobInfoDetail.getInstance().getJid()),
+                        jobInfoDetail.getInstance().getJid(),
+                        needSave),
                 jobDataDto,
                 CopyOptions.create().ignoreNullValue());
 
@@ -176,46 +164,18 @@ public class JobRefreshHandler {
      * @param id             The job ID.
      * @param jobManagerHost The job manager host.
      * @param jobId          The job ID.
+     * @param force          Fetch all the detail endpoints even if the job has not changed since the last poll.
      * @return {@link org.dinky.data.dto.JobDataDto}.
      */
-    public static JobDataDto getJobData(Integer id, String jobManagerHost, String jobId) {
-        JobDataDto.JobDataDtoBuilder builder = JobDataDto.builder();
-        FlinkAPI api = FlinkAPI.build(jobManagerHost);
-        try {
-            JsonNode jobInfo = FlinkAPI.build(jobManagerHost).getJobInfo(jobId);
-            if (jobInfo.has(FlinkRestResultConstant.ERRORS)) {
-                throw new Exception(String.valueOf(jobInfo.get(FlinkRestResultConstant.ERRORS)));
-            }
-
-            FlinkJobConfigInfo jobConfigInfo =
-                    JSON.parseObject(api.getJobsConfig(jobId).toString()).toJavaObject(FlinkJobConfigInfo.class);
-
-            FlinkJobDetailInfo flinkJobDetailInfo =
-                    JSON.parseObject(jobInfo.toString()).toJavaObject(FlinkJobDetailInfo.class);
-            // 获取 WATERMARK  & BACKPRESSURE 信息
-            api.getVertices(jobId).forEach(vertex -> {
-                flinkJobDetailInfo.getPlan().getNodes().forEach(planNode -> {
-                    if (planNode.getId().equals(vertex)) {
-                        planNode.setWatermark(
-                                JSONUtil.toList(api.getWatermark(jobId, vertex), FlinkJobNodeWaterMark.class));
-                        planNode.setBackpressure(JsonUtils.toJavaBean(
-                                api.getBackPressure(jobId, vertex), FlinkJobNodeBackPressure.class));
-                    }
-                });
-            });
-
-            return builder.id(id)
-                    .checkpoints(JSONUtil.toBean(api.getCheckPoints(jobId).toString(), CheckPointOverView.class))
-                    .checkpointsConfig(
-                            JSONUtil.toBean(api.getCheckPointsConfig(jobId).toString(), CheckpointConfigInfo.class))
-                    .exceptions(JSONUtil.toBean(api.getException(jobId).toString(), FlinkJobExceptionsDetail.class))
-                    .job(flinkJobDetailInfo)
-                    .config(jobConfigInfo)
+    public static JobDataDto getJobData(Integer id, String jobManagerHost, String jobId, boolean force) {
+        if (Asserts.isNullString(jobManagerHost)) {
+            return JobDataDto.builder()
+                    .id(id)
+                    .error(true)
+                    .errorMsg("The JobManager address of the job is unknown")
                     .build();
-        } catch (Exception e) {
-            log.error("Connect {} failed,{}", jobManagerHost, e.getMessage());
-            return builder.id(id).error(true).errorMsg(e.getMessage()).build();
         }
+        return ClusterJobPoller.getJobData(jobManagerHost, id, jobId, force);
     }
 
     /**
@@ -257,6 +217,7 @@ public class JobRefreshHandler {
      */
     private static void handleJobDone(JobInfoDetail jobInfoDetail) {
         JobInstance jobInstance = jobInfoDetail.getInstance();
+        ClusterJobPoller.evict(jobInfoDetail.getClusterInstance().getJobManagerHost(), jobInstance.getJid());
         JobDataDto jobDataDto = jobInfoDetail.getJobDataDto();
         String clusterType = jobInfoDetail.getClusterInstance().getType();
 
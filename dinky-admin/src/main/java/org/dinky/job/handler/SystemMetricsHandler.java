@@ -36,6 +36,15 @@ import lombok.extern.slf4j.Slf4j;
 public class SystemMetricsHandler {
 
     public static void refresh() {
+        MetricsVO metrics = SystemMetricsSampler.getInstance().sample();
+        MetricsContextHolder.getInstances().sendAsync(metrics.getModel(), metrics);
+    }
+
+    /**
+     * Collects the jvm, cpu and memory information into {@link MetricsTotal}, use
+     * {@link SystemMetricsSampler#sample()} to publish the snapshot to the live viewers.
+     */
+    static MetricsVO collect() {
         log.debug("Collecting jvm related information.");
         MetricsTotal metricsTotal = MetricsTotal.instance;
         LocalDateTime now = LocalDateTime.now();
@@ -49,8 +58,8 @@ public class SystemMetricsHandler {
         metrics.setHeartTime(now);
         metrics.setModel(MetricsType.LOCAL.getType());
         metrics.setDate(now.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
-        MetricsContextHolder.getInstances().sendAsync(metrics.getModel(), metrics);
 
         log.debug("Collecting jvm information ends.");
+        return metrics;
     }
 }
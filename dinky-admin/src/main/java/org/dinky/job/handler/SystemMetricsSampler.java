@@ -0,0 +1,176 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.job.handler;
+
+import org.dinky.context.SseSessionContextHolder;
+import org.dinky.data.enums.MetricsType;
+import org.dinky.data.enums.SseTopic;
+import org.dinky.data.metrics.MetricsTotal;
+import org.dinky.data.model.Configuration;
+import org.dinky.data.model.SystemConfiguration;
+import org.dinky.data.vo.MetricsVO;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import cn.hutool.core.lang.Opt;
+import cn.hutool.core.text.StrFormatter;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.json.JSONUtil;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The single sampler of the jvm, cpu and memory metrics of this server, shared by all live viewers.
+ * <p>
+ * Snapshots are published to the {@link #TOPIC} of the sse sessions and, as bare jvm json, to the emitters attached
+ * with {@link #subscribe}. Every snapshot is taken on one schedule: while the system metrics task is scheduled it
+ * samples, stores and publishes every {@code sys.metrics.settings.sys.gatherTiming} milliseconds, otherwise the
+ * sampler runs the same interval on its own thread while there are subscribers and stops when the last one is gone.
+ * The snapshots are handed to the send queues of the sse sessions, a slow viewer never delays the schedule.
+ * </p>
+ */
+@Slf4j
+public class SystemMetricsSampler {
+
+    public static final String TOPIC =
+            StrFormatter.format("{}/{}", SseTopic.METRICS.getValue(), MetricsType.LOCAL.getType());
+
+    /** The jvm part of the snapshots, received by the emitters attached with {@link #subscribe}. */
+    public static final String JVM_TOPIC = StrFormatter.format("{}/jvm", TOPIC);
+
+    private static final long MIN_INTERVAL = 100;
+
+    private static final SystemMetricsSampler instance = new SystemMetricsSampler();
+
+    public static SystemMetricsSampler getInstance() {
+        return instance;
+    }
+
+    private final ScheduledExecutorService scheduler = new ScheduledThreadPoolExecutor(
+            1,
+            ThreadFactoryBuilder.create()
+                    .setNamePrefix("system-metrics-sampler-")
+                    .setDaemon(true)
+                    .build());
+
+    /** The running sampling, null while there are no subscribers or the system metrics task samples. */
+    private ScheduledFuture<?> sampling;
+
+    /** Whether the system metrics task is scheduled, it takes the snapshots of the live viewers too. */
+    private boolean taskScheduled;
+
+    @Getter
+    private final AtomicLong sampleCount = new AtomicLong();
+
+    private SystemMetricsSampler() {
+        SseSessionContextHolder.onSubscribe(TOPIC, this::wakeUp);
+        SseSessionContextHolder.onSubscribe(JVM_TOPIC, this::wakeUp);
+    }
+
+    /**
+     * Takes a snapshot into {@link MetricsTotal} and publishes it to the live viewers.
+     *
+     * @return The snapshot.
+     */
+    public synchronized MetricsVO sample() {
+        MetricsVO metrics = SystemMetricsHandler.collect();
+        sampleCount.incrementAndGet();
+        SseSessionContextHolder.sendTopic(TOPIC, metrics, true);
+        if (SseSessionContextHolder.hasSubscribers(JVM_TOPIC)) {
+            String jvm = JSONUtil.toJsonStr(((MetricsTotal) metrics.getContent()).getJvm());
+            SseSessionContextHolder.sendTopic(JVM_TOPIC, jvm, true);
+        }
+        return metrics;
+    }
+
+    /**
+     * Attaches an emitter, it receives the jvm metrics as json until it completes or a send fails.
+     *
+     * @param emitter The emitter to send the jvm metrics to.
+     * @return The session key of the emitter.
+     */
+    public String subscribe(SseEmitter emitter) {
+        String sessionKey = StrFormatter.format("{}-{}", JVM_TOPIC, IdUtil.fastSimpleUUID());
+        SseSessionContextHolder.attach(sessionKey, emitter, JVM_TOPIC);
+        return sessionKey;
+    }
+
+    public void unsubscribe(String sessionKey) {
+        SseSessionContextHolder.closeSse(sessionKey);
+    }
+
+    public synchronized boolean isSampling() {
+        return sampling != null;
+    }
+
+    /**
+     * Hands the sampling over to the system metrics task while it is scheduled, or takes it back. Also called when
+     * the interval changes, the sampling restarts with the new one.
+     *
+     * @param taskScheduled Whether the system metrics task is scheduled.
+     */
+    public synchronized void reschedule(boolean taskScheduled) {
+        this.taskScheduled = taskScheduled;
+        if (sampling != null) {
+            sampling.cancel(false);
+            sampling = null;
+        }
+        wakeUp();
+    }
+
+    /** Starts sampling if there are subscribers and neither this sampler nor the task samples yet. */
+    public synchronized void wakeUp() {
+        if (sampling == null && !taskScheduled && hasSubscribers()) {
+            Configuration<Integer> gatherTiming =
+                    SystemConfiguration.getInstances().getMetricsSysGatherTiming();
+            long interval = Math.max(
+                    Opt.ofNullable(gatherTiming.getValue()).orElse(gatherTiming.getDefaultValue()), MIN_INTERVAL);
+            sampling = scheduler.scheduleWithFixedDelay(this::tick, 0, interval, TimeUnit.MILLISECONDS);
+            log.debug("Start sampling system metrics every {} ms", interval);
+        }
+    }
+
+    private boolean hasSubscribers() {
+        return SseSessionContextHolder.hasSubscribers(TOPIC) || SseSessionContextHolder.hasSubscribers(JVM_TOPIC);
+    }
+
+    private void tick() {
+        synchronized (this) {
+            if (!hasSubscribers()) {
+                sampling.cancel(false);
+                sampling = null;
+                log.debug("Stop sampling system metrics, there are no subscribers");
+                return;
+            }
+        }
+        try {
+            sample();
+        } catch (Exception e) {
+            log.error("Sample system metrics error: ", e);
+        }
+    }
+}
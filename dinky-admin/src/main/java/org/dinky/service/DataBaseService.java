@@ -27,8 +27,10 @@ import org.dinky.data.model.DataBase;
 import org.dinky.data.model.QueryData;
 import org.dinky.data.model.Schema;
 import org.dinky.data.model.SqlGeneration;
+import org.dinky.data.model.Table;
 import org.dinky.data.result.SqlExplainResult;
 import org.dinky.job.JobResult;
+import org.dinky.metadata.crawler.MetadataSnapshot;
 import org.dinky.metadata.result.JdbcSelectResult;
 import org.dinky.mybatis.service.ISuperService;
 
@@ -88,6 +90,24 @@ public interface DataBaseService extends ISuperService<DataBase> {
      */
     List<Schema> getSchemasAndTables(Integer id);
 
+    /**
+     * get the last metadata snapshot, the schemas and tables without columns
+     *
+     * @param id {@link Integer}
+     * @return {@link MetadataSnapshot}, null before the schemas and tables were first loaded
+     */
+    MetadataSnapshot getMetadataSnapshot(Integer id);
+
+    /**
+     * get the columns of a snapshot table that were loaded by {@link #listColumns} and are still valid
+     *
+     * @param id {@link Integer}
+     * @param schemaName {@link String}
+     * @param table table of the {@link MetadataSnapshot}
+     * @return {@link List}< {@link Column}>, null when not loaded or the table has changed since
+     */
+    List<Column> getCachedColumns(Integer id, String schemaName, Table table);
+
     /**
      * get columns of table
      *
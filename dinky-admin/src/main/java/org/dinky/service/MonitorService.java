@@ -20,6 +20,7 @@
 package org.dinky.service;
 
 import org.dinky.data.dto.MetricsLayoutDTO;
+import org.dinky.data.dto.MetricsQueryDTO;
 import org.dinky.data.model.Metrics;
 import org.dinky.data.vo.MetricsVO;
 
@@ -43,8 +44,18 @@ public interface MonitorService extends IService<Metrics> {
      */
     List<MetricsVO> getData(Date startTime, Date endTime, List<String> jobIds);
 
+    /**
+     * Query the metrics history. The time range, models and partitions are pushed down to the metrics table scan,
+     * and the result is downsampled to at most {@link MetricsQueryDTO#getMaxPoints()} points per model.
+     *
+     * @param query The {@link MetricsQueryDTO} describing the range, models, fields and downsampling.
+     * @return A list of {@link MetricsVO} objects, one per model and time bucket, ordered by time within each model.
+     */
+    List<MetricsVO> queryMetrics(MetricsQueryDTO query);
+
     /**
      * Send the JVM information to the specified SSE emitter.
+     * The emitter is attached to the shared system metrics sampler, it does not hold a thread.
      *
      * @param sseEmitter The SSE emitter to send the JVM information to.
      * @return {@link SseEmitter}
@@ -47,6 +47,8 @@ public interface StudioService {
 
     SelectResult getJobData(String jobId);
 
+    SelectResult getJobData(String jobId, int offset, int limit);
+
     LineageResult getLineage(StudioLineageDTO studioCADTO);
 
     List<JsonNode> listFlinkJobs(Integer clusterId);
@@ -19,6 +19,8 @@
 
 package org.dinky.service;
 
+import org.dinky.data.enums.SuggestionSource;
+import org.dinky.data.vo.suggestion.SuggestionDeltaVO;
 import org.dinky.data.vo.suggestion.SuggestionVO;
 
 import java.util.Set;
@@ -47,4 +49,18 @@ public interface SuggestionService {
      * @return  suggestions list
      */
     Set<SuggestionVO> getSuggestionsBySqlStatement(boolean enableSchemaSuggestion, String sqlStatement, int position);
+
+    /**
+     *  get the suggestions changed since the version the editor holds
+     * @param enableSchemaSuggestion  whether enable schema suggestion
+     * @param version  version of the suggestions the editor holds, 0 for none
+     * @return  changed and removed suggestions, or the full set if the version is too old
+     */
+    SuggestionDeltaVO getSuggestionChanges(boolean enableSchemaSuggestion, long version);
+
+    /**
+     *  mark a suggestion source as changed, it is reloaded on the next request
+     * @param source  the changed source
+     */
+    void invalidate(SuggestionSource source);
 }
@@ -20,6 +20,7 @@
 package org.dinky.service.impl;
 
 import org.dinky.data.model.alert.AlertHistory;
+import org.dinky.job.handler.AlertDispatcher;
 import org.dinky.mapper.AlertHistoryMapper;
 import org.dinky.mybatis.service.impl.SuperServiceImpl;
 import org.dinky.service.AlertGroupService;
@@ -28,6 +29,7 @@ import org.dinky.service.AlertHistoryService;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -39,10 +41,16 @@ import lombok.RequiredArgsConstructor;
 @Service
 @RequiredArgsConstructor
 public class AlertHistoryServiceImpl extends SuperServiceImpl<AlertHistoryMapper, AlertHistory>
-        implements AlertHistoryService {
+        implements AlertHistoryService, DisposableBean {
 
     private final AlertGroupService alertGroupService;
 
+    /** The dispatcher writes its history through this service, so it sends what it holds before it goes away. */
+    @Override
+    public void destroy() {
+        AlertDispatcher.shutdown();
+    }
+
     /**
      * delete alert history by alert group id
      *
@@ -22,6 +22,7 @@ package org.dinky.service.impl;
 import static org.dinky.assertion.Asserts.isNull;
 
 import org.dinky.assertion.Asserts;
+import org.dinky.context.TenantContextHolder;
 import org.dinky.data.dto.CatalogueTaskDTO;
 import org.dinky.data.enums.JobLifeCycle;
 import org.dinky.data.enums.Status;
@@ -38,16 +39,22 @@ import org.dinky.service.HistoryService;
 import org.dinky.service.JobHistoryService;
 import org.dinky.service.JobInstanceService;
 import org.dinky.service.TaskService;
+import org.dinky.utils.TreeIndex;
 
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.InputStreamReader;
+import java.io.Serializable;
 import java.nio.file.Files;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
@@ -57,7 +64,7 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 
 import cn.hutool.core.bean.BeanUtil;
-import cn.hutool.core.collection.CollectionUtil;
+import cn.hutool.core.bean.copier.CopyOptions;
 import cn.hutool.core.util.ObjectUtil;
 import lombok.RequiredArgsConstructor;
 
@@ -77,35 +84,103 @@ public class CatalogueServiceImpl extends SuperServiceImpl<CatalogueMapper, Cata
 
     private final JobHistoryService jobHistoryService;
 
+    /** One catalogue tree per tenant, keyed like {@link #tenantKey()}. */
+    private final Map<String, TreeIndex<Catalogue>> catalogueIndexes = new ConcurrentHashMap<>();
+
     /**
      * @return
      */
     @Override
     public List<Catalogue> getCatalogueTree() {
-        return buildCatalogueTree(this.list());
+        return buildCatalogueTree(getCatalogueIndex().getAll());
+    }
+
+    @Override
+    public boolean save(Catalogue entity) {
+        boolean saved = super.save(entity);
+        if (saved) {
+            onCatalogueChanged(index -> index.put(entity));
+        }
+        return saved;
+    }
+
+    @Override
+    public boolean updateById(Catalogue entity) {
+        boolean updated = super.updateById(entity);
+        if (updated) {
+            // callers may pass only the changed columns, merge them into what is indexed
+            onCatalogueChanged(index -> index.get(entity.getId())
+                    .map(current -> {
+                        BeanUtil.copyProperties(
+                                entity,
+                                current,
+                                CopyOptions.create().setIgnoreNullValue(true).setIgnoreProperties("children", "task"));
+                        return current;
+                    })
+                    .ifPresent(index::put));
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean removeById(Serializable id) {
+        boolean removed = super.removeById(id);
+        if (removed) {
+            onCatalogueChanged(index -> index.remove((Integer) id));
+        }
+        return removed;
+    }
+
+    private String tenantKey() {
+        return TenantContextHolder.isIgnoreTenant() ? "*" : String.valueOf(TenantContextHolder.get());
+    }
+
+    private TreeIndex<Catalogue> getCatalogueIndex() {
+        return catalogueIndexes.computeIfAbsent(
+                tenantKey(),
+                key -> new TreeIndex<>(
+                        Catalogue::getId,
+                        Catalogue::getParentId,
+                        CatalogueServiceImpl::copyCatalogue,
+                        () -> list(),
+                        TimeUnit.MINUTES.toMillis(10)));
+    }
+
+    /**
+     * Applies a change to the current tenant's tree after commit. The other trees may overlap with it
+     * (the tenant-ignoring one covers everything), so they are dropped and reload on next use.
+     */
+    private void onCatalogueChanged(Consumer<TreeIndex<Catalogue>> change) {
+        String key = tenantKey();
+        TreeIndex<Catalogue> index = getCatalogueIndex();
+        index.afterCommit(() -> {
+            change.accept(index);
+            catalogueIndexes.keySet().removeIf(other -> !other.equals(key));
+        });
+    }
+
+    private static Catalogue copyCatalogue(Catalogue catalogue) {
+        Catalogue copy = BeanUtil.copyProperties(catalogue, Catalogue.class);
+        copy.setChildren(new ArrayList<>());
+        copy.setTask(null);
+        return copy;
     }
 
     /**
      *  build catalogue tree
-     * @param catalogueList catalogue list
+     * @param catalogueList catalogue list, ordered by id
      * @return catalogue tree
      */
     public List<Catalogue> buildCatalogueTree(List<Catalogue> catalogueList) {
-        // sort
-        if (CollectionUtil.isNotEmpty(catalogueList)) {
-            catalogueList = catalogueList.stream()
-                    .sorted(Comparator.comparing(Catalogue::getId))
-                    .collect(Collectors.toList());
-        }
-
-        List<Catalogue> returnList = new ArrayList<>();
-        for (Catalogue catalogue : catalogueList) {
-            //  get all child catalogue of parent catalogue id , the 0 is root catalogue
-            if (catalogue.getParentId() == 0) {
-                recursionBuildCatalogueAndChildren(catalogueList, catalogue);
-                returnList.add(catalogue);
-            }
-        }
+        Map<Integer, List<Catalogue>> childrenByParentId =
+                catalogueList.stream().collect(Collectors.groupingBy(Catalogue::getParentId));
+
+        //  get all child catalogue of parent catalogue id , the 0 is root catalogue
+        List<Catalogue> returnList = childrenByParentId.getOrDefault(0, new ArrayList<>());
+        List<Catalogue> taskCatalogues = new ArrayList<>();
+        returnList.forEach(
+                catalogue -> recursionBuildCatalogueAndChildren(childrenByParentId, catalogue, taskCatalogues));
+        fillTasks(taskCatalogues);
         if (returnList.isEmpty()) {
             returnList = catalogueList;
         }
@@ -114,54 +189,40 @@ public class CatalogueServiceImpl extends SuperServiceImpl<CatalogueMapper, Cata
 
     /**
      * recursion build catalogue and children
-     * @param list
+     * @param childrenByParentId catalogues grouped by parent id
      * @param catalogues
+     * @param taskCatalogues collects the leaves whose task should be attached
      */
-    private void recursionBuildCatalogueAndChildren(List<Catalogue> list, Catalogue catalogues) {
+    private void recursionBuildCatalogueAndChildren(
+            Map<Integer, List<Catalogue>> childrenByParentId, Catalogue catalogues, List<Catalogue> taskCatalogues) {
         // 得到子节点列表
-        List<Catalogue> childList = getChildList(list, catalogues);
+        List<Catalogue> childList = childrenByParentId.getOrDefault(catalogues.getId(), new ArrayList<>());
         catalogues.setChildren(childList);
         for (Catalogue tChild : childList) {
-            if (hasChild(list, tChild)) {
+            if (childrenByParentId.containsKey(tChild.getId())) {
                 // Determine whether there are child nodes
-                for (Catalogue children : childList) {
-                    recursionBuildCatalogueAndChildren(list, children);
-                }
-            } else {
-                if (tChild.getIsLeaf() || null != tChild.getTaskId()) {
-                    Task task = taskService.getById(tChild.getTaskId());
-                    if (task != null) {
-                        tChild.setTask(task);
-                    }
-                }
+                recursionBuildCatalogueAndChildren(childrenByParentId, tChild, taskCatalogues);
+            } else if (tChild.getIsLeaf() || null != tChild.getTaskId()) {
+                taskCatalogues.add(tChild);
             }
         }
     }
 
     /**
-     * Determine whether there are child nodes
-     * @param list
-     * @param catalogue
-     * @return
-     */
-    private boolean hasChild(List<Catalogue> list, Catalogue catalogue) {
-        return !getChildList(list, catalogue).isEmpty();
-    }
-
-    /**
-     * get child list
-     * @param list
-     * @param catalogue
-     * @return
+     * attach tasks to the given catalogues with a single query
+     * @param catalogues
      */
-    private List<Catalogue> getChildList(List<Catalogue> list, Catalogue catalogue) {
-        List<Catalogue> childList = new ArrayList<>();
-        for (Catalogue n : list) {
-            if (n.getParentId().longValue() == catalogue.getId().longValue()) {
-                childList.add(n);
-            }
+    private void fillTasks(List<Catalogue> catalogues) {
+        Set<Integer> taskIds = catalogues.stream()
+                .map(Catalogue::getTaskId)
+                .filter(Asserts::isNotNull)
+                .collect(Collectors.toSet());
+        if (taskIds.isEmpty()) {
+            return;
         }
-        return childList;
+        Map<Integer, Task> tasks =
+                taskService.listByIds(taskIds).stream().collect(Collectors.toMap(Task::getId, Function.identity()));
+        catalogues.forEach(catalogue -> catalogue.setTask(tasks.get(catalogue.getTaskId())));
     }
 
     @Override
@@ -27,6 +27,7 @@ import org.dinky.data.dto.SqlDTO;
 import org.dinky.data.dto.TaskDTO;
 import org.dinky.data.enums.ProcessStepType;
 import org.dinky.data.enums.Status;
+import org.dinky.data.enums.SuggestionSource;
 import org.dinky.data.model.Column;
 import org.dinky.data.model.DataBase;
 import org.dinky.data.model.QueryData;
@@ -36,32 +37,56 @@ import org.dinky.data.model.Table;
 import org.dinky.data.result.SqlExplainResult;
 import org.dinky.job.JobResult;
 import org.dinky.mapper.DataBaseMapper;
+import org.dinky.metadata.crawler.MetadataCrawler;
+import org.dinky.metadata.crawler.MetadataSnapshot;
 import org.dinky.metadata.driver.Driver;
 import org.dinky.metadata.result.JdbcSelectResult;
 import org.dinky.mybatis.service.impl.SuperServiceImpl;
 import org.dinky.service.DataBaseService;
+import org.dinky.service.SuggestionService;
 
 import org.apache.commons.lang3.StringUtils;
 
+import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 
+import javax.annotation.Resource;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 
+import lombok.RequiredArgsConstructor;
+
 /**
  * DataBaseServiceImpl
  *
  * @since 2021/7/20 23:47
  */
 @Service
+@RequiredArgsConstructor
 public class DataBaseServiceImpl extends SuperServiceImpl<DataBaseMapper, DataBase> implements DataBaseService {
 
+    /** Persistent metadata snapshots keyed by data source id, see {@link MetadataCrawler}. */
+    private static final String METADATA_SNAPSHOT_CACHE = "metadata_snapshot";
+
+    /** Columns of the tables that were opened, keyed by data source id, schema and table. */
+    private static final String METADATA_COLUMNS_CACHE = "metadata_columns";
+
+    private final CacheManager cacheManager;
+
+    @Resource
+    @Lazy
+    private SuggestionService suggestionService;
+
     @Override
     public String testConnect(DataBaseDTO db) {
         return Driver.buildUnconnected(db.getName(), db.getType(), db.getConnectConfig())
@@ -99,9 +124,12 @@ public class DataBaseServiceImpl extends SuperServiceImpl<DataBaseMapper, DataBa
         try {
             checkHeartBeat(dataBase);
         } finally {
+            suggestionService.invalidate(SuggestionSource.SCHEMA);
             if (Asserts.isNull(dataBase.getId())) {
                 return save(dataBase);
             } else {
+                // the connection may point somewhere else now
+                getMetadataSnapshotCache().evict(dataBase.getId());
                 return updateById(dataBase);
             }
         }
@@ -118,7 +146,16 @@ public class DataBaseServiceImpl extends SuperServiceImpl<DataBaseMapper, DataBa
             return false;
         }
         dataBase.setEnabled(!dataBase.getEnabled());
-        return updateById(dataBase);
+        boolean updated = updateById(dataBase);
+        suggestionService.invalidate(SuggestionSource.SCHEMA);
+        return updated;
+    }
+
+    @Override
+    public boolean removeById(Serializable id) {
+        boolean removed = super.removeById(id);
+        suggestionService.invalidate(SuggestionSource.SCHEMA);
+        return removed;
     }
 
     @Override
@@ -131,19 +168,67 @@ public class DataBaseServiceImpl extends SuperServiceImpl<DataBaseMapper, DataBa
         DataBase dataBase = getById(id);
         Asserts.checkNotNull(dataBase, Status.DATASOURCE_NOT_EXIST.getMessage());
         Driver driver = Driver.build(dataBase.getDriverConfig());
-        List<Schema> schemasAndTables = driver.getSchemasAndTables();
+        MetadataSnapshot previous = getMetadataSnapshot(id);
+        MetadataSnapshot snapshot = new MetadataCrawler(driver).crawl(previous);
         driver.close();
-        return schemasAndTables;
+        getMetadataSnapshotCache().put(id, snapshot);
+        if (previous == null || previous.getVersion() != snapshot.getVersion()) {
+            suggestionService.invalidate(SuggestionSource.SCHEMA);
+        }
+        return snapshot.getSchemas();
+    }
+
+    @Override
+    public MetadataSnapshot getMetadataSnapshot(Integer id) {
+        return getMetadataSnapshotCache().get(id, MetadataSnapshot.class);
+    }
+
+    @Override
+    public List<Column> getCachedColumns(Integer id, String schemaName, Table table) {
+        Table cached = getMetadataColumnsCache().get(columnsKey(id, schemaName, table.getName()), Table.class);
+        return MetadataCrawler.isUnchanged(cached, table) ? cached.getColumns() : null;
+    }
+
+    private Cache getMetadataSnapshotCache() {
+        return cacheManager.getCache(METADATA_SNAPSHOT_CACHE);
+    }
+
+    private Cache getMetadataColumnsCache() {
+        return cacheManager.getCache(METADATA_COLUMNS_CACHE);
+    }
+
+    private static String columnsKey(Integer id, String schemaName, String tableName) {
+        return id + "/" + schemaName + "." + tableName;
     }
 
     @Override
     public List<Column> listColumns(Integer id, String schemaName, String tableName) {
+        MetadataSnapshot snapshot = getMetadataSnapshot(id);
+        Table table = snapshot == null ? null : snapshot.findTable(schemaName, tableName);
+        List<Column> cachedColumns = table == null ? null : getCachedColumns(id, schemaName, table);
+        if (cachedColumns != null) {
+            return cachedColumns;
+        }
         DataBase dataBase = getById(id);
         Asserts.checkNotNull(dataBase, Status.DATASOURCE_NOT_EXIST.getMessage());
         Driver driver = Driver.build(dataBase.getDriverConfig());
-        List<Column> columns = driver.listColumns(schemaName, tableName);
-        driver.close();
-        return columns;
+        try {
+            if (table == null) {
+                return driver.listColumns(schemaName, tableName);
+            }
+            Table crawled = new MetadataCrawler(driver).crawlColumns(schemaName, table);
+            if (crawled.getColumns() == null) {
+                return new ArrayList<>();
+            }
+            // only worth keeping when a later DDL time tells whether they are still valid
+            if (MetadataCrawler.isUnchanged(crawled, table)) {
+                getMetadataColumnsCache().put(columnsKey(id, schemaName, tableName), crawled);
+                suggestionService.invalidate(SuggestionSource.SCHEMA);
+            }
+            return crawled.getColumns();
+        } finally {
+            driver.close();
+        }
     }
 
     @Override
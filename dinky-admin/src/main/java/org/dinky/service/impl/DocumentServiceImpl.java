@@ -20,13 +20,19 @@
 package org.dinky.service.impl;
 
 import org.dinky.assertion.Asserts;
+import org.dinky.data.enums.SuggestionSource;
 import org.dinky.data.model.Document;
 import org.dinky.mapper.DocumentMapper;
 import org.dinky.mybatis.service.impl.SuperServiceImpl;
 import org.dinky.service.DocumentService;
+import org.dinky.service.SuggestionService;
 
+import java.io.Serializable;
 import java.util.List;
 
+import javax.annotation.Resource;
+
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
@@ -35,6 +41,31 @@ import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 @Service
 public class DocumentServiceImpl extends SuperServiceImpl<DocumentMapper, Document> implements DocumentService {
 
+    @Resource
+    @Lazy
+    private SuggestionService suggestionService;
+
+    @Override
+    public boolean saveOrUpdate(Document entity) {
+        boolean saved = super.saveOrUpdate(entity);
+        suggestionService.invalidate(SuggestionSource.DOCUMENT);
+        return saved;
+    }
+
+    @Override
+    public boolean updateById(Document entity) {
+        boolean updated = super.updateById(entity);
+        suggestionService.invalidate(SuggestionSource.DOCUMENT);
+        return updated;
+    }
+
+    @Override
+    public boolean removeById(Serializable id) {
+        boolean removed = super.removeById(id);
+        suggestionService.invalidate(SuggestionSource.DOCUMENT);
+        return removed;
+    }
+
     @Override
     public List<Document> getFillAllByVersion(String version) {
         if (Asserts.isNotNullString(version)) {
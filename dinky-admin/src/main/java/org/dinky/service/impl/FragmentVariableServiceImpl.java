@@ -20,19 +20,23 @@
 package org.dinky.service.impl;
 
 import org.dinky.crypto.CryptoComponent;
+import org.dinky.data.enums.SuggestionSource;
 import org.dinky.data.model.FragmentVariable;
 import org.dinky.data.result.ProTableResult;
 import org.dinky.mapper.FragmentVariableMapper;
 import org.dinky.mybatis.service.impl.SuperServiceImpl;
 import org.dinky.service.FragmentVariableService;
+import org.dinky.service.SuggestionService;
 import org.dinky.utils.FragmentVariableUtils;
 
+import java.io.Serializable;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import javax.annotation.Resource;
 
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
 import com.baomidou.mybatisplus.core.conditions.Wrapper;
@@ -47,12 +51,32 @@ public class FragmentVariableServiceImpl extends SuperServiceImpl<FragmentVariab
     @Resource
     private CryptoComponent cryptoComponent;
 
+    @Resource
+    @Lazy
+    private SuggestionService suggestionService;
+
     @Override
     public boolean saveOrUpdate(FragmentVariable entity) {
         if (FragmentVariableUtils.isSensitive(entity.getName()) && entity.getFragmentValue() != null) {
             entity.setFragmentValue(cryptoComponent.encryptText(entity.getFragmentValue()));
         }
-        return super.saveOrUpdate(entity);
+        boolean saved = super.saveOrUpdate(entity);
+        suggestionService.invalidate(SuggestionSource.FRAGMENT_VARIABLE);
+        return saved;
+    }
+
+    @Override
+    public boolean updateById(FragmentVariable entity) {
+        boolean updated = super.updateById(entity);
+        suggestionService.invalidate(SuggestionSource.FRAGMENT_VARIABLE);
+        return updated;
+    }
+
+    @Override
+    public boolean removeById(Serializable id) {
+        boolean removed = super.removeById(id);
+        suggestionService.invalidate(SuggestionSource.FRAGMENT_VARIABLE);
+        return removed;
     }
 
     @Override
@@ -27,10 +27,12 @@ import org.dinky.data.model.rbac.User;
 import org.dinky.mapper.LoginLogMapper;
 import org.dinky.mybatis.service.impl.SuperServiceImpl;
 import org.dinky.service.LoginLogService;
+import org.dinky.utils.WriteBehindQueue;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.stereotype.Service;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
@@ -38,7 +40,21 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import cn.hutool.core.net.Ipv4Util;
 
 @Service
-public class LoginLogServiceImpl extends SuperServiceImpl<LoginLogMapper, LoginLog> implements LoginLogService {
+public class LoginLogServiceImpl extends SuperServiceImpl<LoginLogMapper, LoginLog>
+        implements LoginLogService, DisposableBean {
+
+    private static final int BUFFER_CAPACITY = 10000;
+    private static final int BATCH_SIZE = 200;
+    private static final long BATCH_INTERVAL = 1000;
+
+    private final WriteBehindQueue<LoginLog> logQueue = new WriteBehindQueue<>(
+            "login-log",
+            LoginLog.class,
+            BUFFER_CAPACITY,
+            BATCH_SIZE,
+            BATCH_INTERVAL,
+            OperateLogServiceImpl.SPILL_DIR,
+            this::saveLoginLogs);
 
     /**
      * insert login log record
@@ -58,7 +74,7 @@ public class LoginLogServiceImpl extends SuperServiceImpl<LoginLogMapper, LoginL
         loginLog.setIp(ip);
         loginLog.setStatus(status);
         loginLog.setMsg(msg);
-        saveOrUpdate(loginLog);
+        enqueue(loginLog);
     }
 
     /**
@@ -76,7 +92,7 @@ public class LoginLogServiceImpl extends SuperServiceImpl<LoginLogMapper, LoginL
         loginLog.setIp(ip);
         loginLog.setStatus(status.getCode());
         loginLog.setMsg(status.getMessage());
-        saveOrUpdate(loginLog);
+        enqueue(loginLog);
     }
 
     /**
@@ -93,7 +109,25 @@ public class LoginLogServiceImpl extends SuperServiceImpl<LoginLogMapper, LoginL
         loginLog.setIp(Ipv4Util.LOCAL_IP);
         loginLog.setStatus(status.getCode());
         loginLog.setMsg(status.getMessage());
-        saveOrUpdate(loginLog);
+        enqueue(loginLog);
+    }
+
+    /** Queue the log with its event time, it is written in batches by the write-behind thread. */
+    private void enqueue(LoginLog loginLog) {
+        loginLog.setCreateTime(loginLog.getAccessTime());
+        loginLog.setUpdateTime(loginLog.getAccessTime());
+        logQueue.offer(loginLog);
+    }
+
+    private void saveLoginLogs(List<LoginLog> loginLogs) {
+        // ids may be left over from a failed batch
+        loginLogs.forEach(loginLog -> loginLog.setId(null));
+        saveBatch(loginLogs, loginLogs.size());
+    }
+
+    @Override
+    public void destroy() {
+        logQueue.close();
     }
 
     /**
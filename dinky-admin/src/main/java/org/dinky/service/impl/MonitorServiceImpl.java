@@ -21,12 +21,14 @@ package org.dinky.service.impl;
 
 import org.dinky.data.constant.PaimonTableConstant;
 import org.dinky.data.dto.MetricsLayoutDTO;
+import org.dinky.data.dto.MetricsQueryDTO;
 import org.dinky.data.exception.DinkyException;
-import org.dinky.data.metrics.Jvm;
 import org.dinky.data.model.Metrics;
 import org.dinky.data.vo.MetricsVO;
+import org.dinky.job.handler.SystemMetricsSampler;
 import org.dinky.mapper.MetricsMapper;
 import org.dinky.service.MonitorService;
+import org.dinky.utils.MetricsDownsampler;
 import org.dinky.utils.PaimonUtil;
 
 import org.apache.paimon.data.BinaryString;
@@ -39,7 +41,6 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -54,55 +55,63 @@ import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.date.DateUtil;
 import cn.hutool.core.lang.Opt;
-import cn.hutool.core.thread.ThreadUtil;
-import cn.hutool.json.JSONObject;
-import cn.hutool.json.JSONUtil;
-import lombok.RequiredArgsConstructor;
 
 @Service
-@RequiredArgsConstructor
 public class MonitorServiceImpl extends ServiceImpl<MetricsMapper, Metrics> implements MonitorService {
-    private final Executor scheduleRefreshMonitorDataExecutor;
 
     @Override
     public List<MetricsVO> getData(Date startTime, Date endTime, List<String> models) {
-        endTime = Opt.ofNullable(endTime).orElse(DateUtil.date());
-        Timestamp startTS = Timestamp.fromLocalDateTime(DateUtil.toLocalDateTime(startTime));
-        Timestamp endTS = Timestamp.fromLocalDateTime(DateUtil.toLocalDateTime(endTime));
+        MetricsQueryDTO query = new MetricsQueryDTO();
+        query.setStartTime(startTime.getTime());
+        query.setEndTime(Opt.ofNullable(endTime).map(Date::getTime).orElse(null));
+        query.setModels(models);
+        return queryMetrics(query);
+    }
 
+    @Override
+    public List<MetricsVO> queryMetrics(MetricsQueryDTO query) {
+        if (query.getStartTime() == null) {
+            throw new DinkyException("The start date is required!");
+        }
+        Date startTime = DateUtil.date(query.getStartTime());
+        Date endTime = DateUtil.date(Opt.ofNullable(query.getEndTime()).orElse(System.currentTimeMillis()));
         if (endTime.compareTo(startTime) < 1) {
             throw new DinkyException("The end date must be greater than the start date!");
         }
+        if (CollUtil.isEmpty(query.getModels())) {
+            return new ArrayList<>();
+        }
+        Timestamp startTS = Timestamp.fromLocalDateTime(DateUtil.toLocalDateTime(startTime));
+        Timestamp endTS = Timestamp.fromLocalDateTime(DateUtil.toLocalDateTime(endTime));
 
-        Function<PredicateBuilder, List<Predicate>> filter = p -> {
-            Predicate greaterOrEqual = p.greaterOrEqual(0, startTS);
-            Predicate lessOrEqual = p.lessOrEqual(0, endTS);
-            Predicate local =
-                    p.in(1, models.stream().map(BinaryString::fromString).collect(Collectors.toList()));
-            return CollUtil.newArrayList(local, greaterOrEqual, lessOrEqual);
-        };
-        List<MetricsVO> metricsVOList =
-                PaimonUtil.batchReadTable(PaimonTableConstant.DINKY_METRICS, MetricsVO.class, filter);
-        return metricsVOList.stream()
-                .filter(x -> x.getHeartTime().isAfter(startTS.toLocalDateTime()))
-                .filter(x -> x.getHeartTime().isBefore(endTS.toLocalDateTime()))
-                .peek(vo -> vo.setContent(new JSONObject(vo.getContent().toString())))
-                .collect(Collectors.toList());
+        // heart_time, model and date are the columns 0, 1 and 3; the date partition bounds prune whole partitions
+        Function<PredicateBuilder, List<Predicate>> filter = p -> CollUtil.newArrayList(
+                p.in(1, query.getModels().stream().map(BinaryString::fromString).collect(Collectors.toList())),
+                p.greaterOrEqual(3, BinaryString.fromString(DateUtil.formatDate(startTime))),
+                p.lessOrEqual(3, BinaryString.fromString(DateUtil.formatDate(endTime))),
+                p.greaterOrEqual(0, startTS),
+                p.lessOrEqual(0, endTS));
+
+        MetricsDownsampler downsampler = new MetricsDownsampler(
+                startTS.getMillisecond(),
+                endTS.getMillisecond(),
+                query.getMaxPoints(),
+                MetricsDownsampler.Aggregation.of(query.getAggregation()),
+                query.getFields());
+        // only heart_time, model and content are read, the predicates are not exact on file level so recheck
+        PaimonUtil.readRows(PaimonTableConstant.DINKY_METRICS, MetricsVO.class, filter, new int[] {0, 1, 2}, row -> {
+            Timestamp heartTime = row.getTimestamp(0, 3);
+            if (heartTime.compareTo(startTS) >= 0 && heartTime.compareTo(endTS) <= 0) {
+                downsampler.add(
+                        row.getString(1).toString(), heartTime, row.getString(2).toString());
+            }
+        });
+        return downsampler.result();
     }
 
     @Override
     public SseEmitter sendJvmInfo(SseEmitter sseEmitter) {
-        scheduleRefreshMonitorDataExecutor.execute(() -> {
-            try {
-                while (true) {
-                    sseEmitter.send(JSONUtil.toJsonStr(Jvm.of()));
-                    ThreadUtil.sleep(10000);
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
-                sseEmitter.complete();
-            }
-        });
+        SystemMetricsSampler.getInstance().subscribe(sseEmitter);
         return sseEmitter;
     }
 
@@ -21,23 +21,80 @@ package org.dinky.service.impl;
 
 import org.dinky.data.model.OperateLog;
 import org.dinky.data.result.ProTableResult;
+import org.dinky.function.constant.PathConstant;
 import org.dinky.mapper.OperateLogMapper;
 import org.dinky.mybatis.service.impl.SuperServiceImpl;
 import org.dinky.service.OperateLogService;
+import org.dinky.utils.WriteBehindQueue;
 
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.File;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.stereotype.Service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 
+import cn.hutool.json.JSONUtil;
+
 @Service
-public class OperateLogServiceImpl extends SuperServiceImpl<OperateLogMapper, OperateLog> implements OperateLogService {
-    /** @param operateLog */
+public class OperateLogServiceImpl extends SuperServiceImpl<OperateLogMapper, OperateLog>
+        implements OperateLogService, DisposableBean {
+
+    /** Audit logs that can not be written to the database are spilled here, see {@link WriteBehindQueue}. */
+    public static final File SPILL_DIR = new File(PathConstant.TMP_PATH, "audit-log");
+
+    /** Every buffered log holds the response of its request until it is serialized, so keep the buffer small. */
+    private static final int BUFFER_CAPACITY = 2000;
+
+    private static final int BATCH_SIZE = 200;
+    private static final long BATCH_INTERVAL = 1000;
+    /** Same limit as the request parameters and the error message. */
+    private static final int MAX_JSON_RESULT_LENGTH = 2000;
+
+    private final WriteBehindQueue<OperateLog> logQueue = new WriteBehindQueue<>(
+            "operate-log",
+            OperateLog.class,
+            BUFFER_CAPACITY,
+            BATCH_SIZE,
+            BATCH_INTERVAL,
+            SPILL_DIR,
+            OperateLogServiceImpl::serializeResult,
+            this::saveLogs);
+
+    /**
+     * Queue the log, it is written in batches by the write-behind thread.
+     *
+     * @param operateLog
+     */
     @Override
     public void saveLog(OperateLog operateLog) {
-        getBaseMapper().insert(operateLog);
+        logQueue.offer(operateLog);
+    }
+
+    /** Serialize the response on the writer thread, the request thread only hands it over. */
+    private static void serializeResult(OperateLog operateLog) {
+        Object result = operateLog.getResult();
+        if (result == null) {
+            return;
+        }
+        operateLog.setResult(null);
+        operateLog.setJsonResult(StringUtils.substring(JSONUtil.toJsonStr(result), 0, MAX_JSON_RESULT_LENGTH));
+    }
+
+    private void saveLogs(List<OperateLog> operateLogs) {
+        // ids may be left over from a failed batch
+        operateLogs.forEach(operateLog -> operateLog.setId(null));
+        saveBatch(operateLogs, operateLogs.size());
+    }
+
+    @Override
+    public void destroy() {
+        logQueue.close();
     }
 
     @Override
@@ -19,6 +19,7 @@
 
 package org.dinky.service.impl;
 
+import org.dinky.connector.printnet.PrintNetProtocol;
 import org.dinky.context.SseSessionContextHolder;
 import org.dinky.data.enums.SseTopic;
 import org.dinky.data.vo.PrintTableVo;
@@ -28,15 +29,24 @@ import org.dinky.service.PrintTableService;
 import org.dinky.trans.Operations;
 import org.dinky.utils.SqlUtil;
 
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
 import java.net.InetAddress;
-import java.net.SocketException;
-import java.net.UnknownHostException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
+import java.util.StringJoiner;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -45,6 +55,7 @@ import java.util.stream.Collectors;
 import org.springframework.stereotype.Service;
 
 import cn.hutool.core.text.StrFormatter;
+import cn.hutool.core.thread.ThreadUtil;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -52,6 +63,8 @@ import lombok.extern.slf4j.Slf4j;
 public class PrintTableServiceImpl implements PrintTableService {
 
     private static final Pattern FULL_TABLE_NAME_PATTERN = Pattern.compile("^`(\\w+)`\\.`(\\w+)`\\.`(\\w+)`$");
+    /** Max rows of one print table sse message. */
+    private static final int SSE_CHUNK_ROWS = 200;
 
     public PrintTableServiceImpl() {
         PrintTableListener printer = new PrintTableListener(this::send);
@@ -71,11 +84,23 @@ public class PrintTableServiceImpl implements PrintTableService {
                 .collect(Collectors.toList());
     }
 
-    public void send(String message) {
+    public void send(PrintNetProtocol.Batch batch) {
         try {
-            String[] data = message.split("\n", 2);
-            String topic = StrFormatter.format("{}/{}", SseTopic.PRINT_TABLE.getValue(), data[0]);
-            SseSessionContextHolder.sendTopic(topic, data[1]);
+            String topic = StrFormatter.format("{}/{}", SseTopic.PRINT_TABLE.getValue(), batch.getIdentifier());
+            List<byte[]> rows = batch.getRows();
+            // fan out in chunks, one sse message per chunk instead of per row
+            for (int start = 0; start < rows.size(); start += SSE_CHUNK_ROWS) {
+                StringJoiner chunk = new StringJoiner("\n");
+                for (int i = start; i < Math.min(rows.size(), start + SSE_CHUNK_ROWS); i++) {
+                    chunk.add(new String(rows.get(i), StandardCharsets.UTF_8));
+                }
+                SseSessionContextHolder.sendTopic(topic, chunk.toString());
+            }
+            if (batch.getDropped() > 0) {
+                SseSessionContextHolder.sendTopic(
+                        topic,
+                        StrFormatter.format("... {} rows skipped by rate limit or sampling", batch.getDropped()));
+            }
         } catch (Exception e) {
             log.error("send message failed: {}", e.getMessage());
         }
@@ -92,33 +117,46 @@ public class PrintTableServiceImpl implements PrintTableService {
                 : String.format("`default_catalog`.`default_database`.`print_%s`", table);
     }
 
+    /**
+     * Receives the batches of the print net sinks over tcp, one connection per sink subtask. Connections idle
+     * longer than {@link PrintNetProtocol#IDLE_TIMEOUT_MS} are closed so that sinks which went away without closing
+     * them do not hold a reader, the sink reconnects on its next batch.
+     */
     public static class PrintTableListener {
 
-        private final Consumer<String> consumer;
+        private final Consumer<PrintNetProtocol.Batch> consumer;
         public static final int PORT = 7125;
-        private DatagramSocket socket;
-        private final byte[] buf = new byte[4096];
+        private static final int MAX_CONNECTIONS = 64;
+        private ServerSocket serverSocket;
 
-        private final ExecutorService executor;
+        private final ExecutorService acceptor;
+        private final ExecutorService readers;
 
-        public PrintTableListener(Consumer<String> consumer) {
+        public PrintTableListener(Consumer<PrintNetProtocol.Batch> consumer) {
             this.consumer = consumer;
-            this.socket = getDatagramSocket(PORT);
-            executor = Executors.newSingleThreadExecutor();
+            this.serverSocket = getServerSocket(PORT);
+            acceptor = Executors.newSingleThreadExecutor(ThreadUtil.newNamedThreadFactory("print-table-accept", true));
+            readers = new ThreadPoolExecutor(
+                    0,
+                    MAX_CONNECTIONS,
+                    60L,
+                    TimeUnit.SECONDS,
+                    new SynchronousQueue<>(),
+                    ThreadUtil.newNamedThreadFactory("print-table-reader-", true));
         }
 
         public void start() {
-            executor.execute(this::run);
+            acceptor.execute(this::run);
         }
 
-        private static DatagramSocket getDatagramSocket(int port) {
+        private static ServerSocket getServerSocket(int port) {
             InetAddress host = null;
             try {
                 host = InetAddress.getLocalHost();
-                return new DatagramSocket(port, host);
-            } catch (SocketException | UnknownHostException e) {
+                return new ServerSocket(port, 50, host);
+            } catch (IOException e) {
                 log.error(
-                        "PrintTableListener:DatagramSocket init failed, host: {}, port {}: {}",
+                        "PrintTableListener:ServerSocket init failed, host: {}, port {}: {}",
                         host == null ? null : host.getHostAddress(),
                         PORT,
                         e.getMessage());
@@ -127,21 +165,40 @@ public class PrintTableServiceImpl implements PrintTableService {
         }
 
         public void run() {
-            if (socket == null) {
+            if (serverSocket == null) {
                 log.warn("PrintTableListener:socket is null, try to initial it");
-                socket = getDatagramSocket(PORT);
-                if (socket == null) return;
+                serverSocket = getServerSocket(PORT);
+                if (serverSocket == null) return;
             }
 
-            while (true) {
-                DatagramPacket packet = new DatagramPacket(buf, buf.length);
+            while (!serverSocket.isClosed()) {
                 try {
-                    socket.receive(packet);
-                    String received = new String(packet.getData(), 0, packet.getLength());
-                    consumer.accept(received);
+                    Socket socket = serverSocket.accept();
+                    try {
+                        socket.setSoTimeout(PrintNetProtocol.IDLE_TIMEOUT_MS);
+                        readers.execute(() -> read(socket));
+                    } catch (RejectedExecutionException e) {
+                        log.warn("print table connections exceed {}, reject {}", MAX_CONNECTIONS, socket);
+                        socket.close();
+                    }
                 } catch (Exception e) {
-                    log.error("print table receive data:" + e.getMessage());
+                    log.error("print table accept connection:" + e.getMessage());
+                }
+            }
+        }
+
+        private void read(Socket socket) {
+            try (Socket s = socket;
+                    DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream(), 64 * 1024))) {
+                while (true) {
+                    consumer.accept(PrintNetProtocol.read(in));
                 }
+            } catch (EOFException e) {
+                log.debug("print table connection closed: {}", socket);
+            } catch (SocketTimeoutException e) {
+                log.debug("print table connection idle, closed: {}", socket);
+            } catch (Exception e) {
+                log.error("print table receive data:" + e.getMessage());
             }
         }
     }
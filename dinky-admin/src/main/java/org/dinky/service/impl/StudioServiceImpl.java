@@ -104,6 +104,11 @@ public class StudioServiceImpl implements StudioService {
         return JobManager.getJobData(jobId);
     }
 
+    @Override
+    public SelectResult getJobData(String jobId, int offset, int limit) {
+        return JobManager.getJobData(jobId, offset, limit);
+    }
+
     @Override
     public LineageResult getLineage(StudioLineageDTO studioCADTO) {
         // TODO 添加ProcessStep
@@ -19,24 +19,46 @@
 
 package org.dinky.service.impl;
 
+import org.dinky.context.TenantContextHolder;
+import org.dinky.data.enums.SuggestionSource;
 import org.dinky.data.flink.config.FlinkConfigOption;
+import org.dinky.data.model.Column;
+import org.dinky.data.model.DataBase;
 import org.dinky.data.model.Document;
 import org.dinky.data.model.FragmentVariable;
+import org.dinky.data.model.Schema;
+import org.dinky.data.model.Table;
+import org.dinky.data.model.udf.UDFManage;
+import org.dinky.data.vo.suggestion.SuggestionDeltaVO;
 import org.dinky.data.vo.suggestion.SuggestionLabelVO;
 import org.dinky.data.vo.suggestion.SuggestionVO;
+import org.dinky.metadata.crawler.MetadataSnapshot;
+import org.dinky.service.DataBaseService;
 import org.dinky.service.DocumentService;
 import org.dinky.service.FragmentVariableService;
 import org.dinky.service.SuggestionService;
+import org.dinky.service.UDFService;
 import org.dinky.utils.FlinkConfigOptionsUtils;
+import org.dinky.utils.SuggestionIndex;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import cn.hutool.core.text.StrFormatter;
+import cn.hutool.core.util.StrUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -45,10 +67,32 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class SuggestionServiceImpl implements SuggestionService {
 
+    /** Sources are reloaded at least this often, which bounds staleness from writes of other instances. */
+    private static final long SOURCE_MAX_AGE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    /** Completions returned for one request. */
+    private static final int COMPLETION_LIMIT = 200;
+
     private final DocumentService documentService;
 
     private final FragmentVariableService fragmentVariableService;
 
+    private final UDFService udfService;
+
+    private final DataBaseService dataBaseService;
+
+    /** One suggestion index per tenant, keyed like {@link #tenantKey()}. */
+    private final Map<String, SuggestionIndex> indexes = new ConcurrentHashMap<>();
+
+    /** Bumped by {@link #invalidate(SuggestionSource)}, an index reloads a source whose version it has not seen. */
+    private final Map<SuggestionSource, AtomicLong> sourceVersions = new EnumMap<>(SuggestionSource.class);
+
+    {
+        for (SuggestionSource source : SuggestionSource.values()) {
+            sourceVersions.put(source, new AtomicLong());
+        }
+    }
+
     /**
      * get suggestions for editor
      *
@@ -57,31 +101,91 @@ public class SuggestionServiceImpl implements SuggestionService {
      */
     @Override
     public Set<SuggestionVO> getSuggestions(boolean enableSchemaSuggestion) {
-        Set<SuggestionVO> suggestionVOS = new HashSet<>();
-        // 1. 构建文档的建议列表
-        buildDocumentSuggestions(new HashSet<>(documentService.list()), suggestionVOS);
-        // 2. 全局变量的建议列表
-        buildGlobalVariableSuggestions(new HashSet<>(fragmentVariableService.listEnabledAll()), suggestionVOS);
-        // todo: 如果启用了schema，需要构建schema的建议列表
-        // 3. schema的建议列表
-        if (enableSchemaSuggestion) {
-            buildSchemaSuggestions(new HashSet<>(), suggestionVOS);
+        return new LinkedHashSet<>(getIndex().getAll(sourceFilter(enableSchemaSuggestion)));
+    }
+
+    @Override
+    public SuggestionDeltaVO getSuggestionChanges(boolean enableSchemaSuggestion, long version) {
+        return getIndex().getChangesSince(version, sourceFilter(enableSchemaSuggestion));
+    }
+
+    @Override
+    public void invalidate(SuggestionSource source) {
+        AtomicLong version = sourceVersions.get(source);
+        version.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // a reload while the transaction is open still sees the old rows
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    version.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    private static Predicate<SuggestionIndex.Entry> sourceFilter(boolean enableSchemaSuggestion) {
+        return entry -> enableSchemaSuggestion || entry.getSource() != SuggestionSource.SCHEMA;
+    }
+
+    private String tenantKey() {
+        return TenantContextHolder.isIgnoreTenant() ? "*" : String.valueOf(TenantContextHolder.get());
+    }
+
+    /** The index of the current tenant with every changed or expired source reloaded. */
+    private SuggestionIndex getIndex() {
+        SuggestionIndex index = indexes.computeIfAbsent(tenantKey(), k -> new SuggestionIndex());
+        for (SuggestionSource source : SuggestionSource.values()) {
+            long version = sourceVersions.get(source).get();
+            // flink config options are compiled in and never change
+            long maxAge = source == SuggestionSource.FLINK_CONF ? Long.MAX_VALUE : SOURCE_MAX_AGE_MILLIS;
+            if (index.needsReload(source, version, maxAge)) {
+                synchronized (index) {
+                    if (index.needsReload(source, version, maxAge)) {
+                        index.replace(source, version, loadSource(source));
+                    }
+                }
+            }
+        }
+        return index;
+    }
+
+    private List<SuggestionIndex.Entry> loadSource(SuggestionSource source) {
+        List<SuggestionIndex.Entry> entries = new ArrayList<>();
+        switch (source) {
+            case DOCUMENT:
+                // 1. 构建文档的建议列表
+                buildDocumentSuggestions(new HashSet<>(documentService.list()), entries);
+                break;
+            case FRAGMENT_VARIABLE:
+                // 2. 全局变量的建议列表
+                buildGlobalVariableSuggestions(new HashSet<>(fragmentVariableService.listEnabledAll()), entries);
+                break;
+            case FLINK_CONF:
+                // flink config提示
+                buildFlinkConfSuggestions(entries);
+                break;
+            case UDF:
+                buildUdfSuggestions(udfService.list(), entries);
+                break;
+            case SCHEMA:
+                // 3. schema的建议列表
+                buildSchemaSuggestions(dataBaseService.listEnabledAll(), entries);
+                break;
+            default:
+                break;
         }
-        // 4. 自定义关键词提示
-        buildCustomSuggestions(new HashSet<>(), suggestionVOS);
-        // flink config提示
-        buildFlinkConfSuggestions(suggestionVOS);
-        return suggestionVOS;
+        return entries;
     }
 
     /**
      * build global variable suggestions
      *
      * @param fragmentVariableList fragment variable list
-     * @param suggestionVOS        suggestion list
+     * @param entries              suggestion entries
      */
     private static void buildGlobalVariableSuggestions(
-            Set<FragmentVariable> fragmentVariableList, Set<SuggestionVO> suggestionVOS) {
+            Set<FragmentVariable> fragmentVariableList, List<SuggestionIndex.Entry> entries) {
         fragmentVariableList.stream()
                 .map(fragmentVariable -> {
                     SuggestionLabelVO suggestionLabelVO = SuggestionLabelVO.builder()
@@ -97,38 +201,110 @@ public class SuggestionServiceImpl implements SuggestionService {
                             .detail(fragmentVariable.getNote())
                             .build();
                 })
-                .forEach(suggestionVOS::add);
+                .map(suggestionVO -> SuggestionIndex.Entry.of(SuggestionSource.FRAGMENT_VARIABLE, suggestionVO))
+                .forEach(entries::add);
     }
 
     /**
-     * build schema suggestions
+     * build schema suggestions from the metadata snapshots of the enabled data sources, a snapshot is
+     * taken when the data source is first browsed, see {@link DataBaseService#getMetadataSnapshot}, and
+     * the columns of the tables that were opened since
      *
-     * @param buildingSchemaList schema list
-     * @param suggestionVOS      suggestion list
+     * @param dataBases data source list
+     * @param entries   suggestion entries
      */
-    private static void buildSchemaSuggestions(Set<Object> buildingSchemaList, Set<SuggestionVO> suggestionVOS) {
-        // todo: 构建schema的建议列表 , 包含 库名 、表名、字段名、.... , 能做到根据库名点出表名，根据表名点出字段名
+    private void buildSchemaSuggestions(List<DataBase> dataBases, List<SuggestionIndex.Entry> entries) {
+        for (DataBase dataBase : dataBases) {
+            MetadataSnapshot snapshot = dataBaseService.getMetadataSnapshot(dataBase.getId());
+            if (snapshot == null || snapshot.getSchemas() == null) {
+                continue;
+            }
+            String keyPrefix = dataBase.getId() + "_schema_";
+            for (Schema schema : snapshot.getSchemas()) {
+                String schemaName = schema.getName();
+                entries.add(SuggestionIndex.Entry.of(
+                        SuggestionSource.SCHEMA,
+                        buildSchemaSuggestion(keyPrefix + schemaName, schemaName, dataBase.getName(), 8)));
+                for (Table table : schema.getTables()) {
+                    String tableName = table.getName();
+                    String tableKey = keyPrefix + schemaName + "." + tableName;
+                    SuggestionVO tableSuggestion =
+                            buildSchemaSuggestion(tableKey, tableName, joinDetail(schemaName, table.getComment()), 5);
+                    // 根据库名点出表名
+                    entries.add(SuggestionIndex.Entry.of(SuggestionSource.SCHEMA, tableSuggestion));
+                    entries.add(SuggestionIndex.Entry.member(
+                            SuggestionSource.SCHEMA,
+                            buildSchemaSuggestion(tableKey + "#member", tableName, tableSuggestion.getDetail(), 5),
+                            schemaName));
+                    // 只有打开过的表才有字段，见 DataBaseService#listColumns
+                    List<Column> columns = dataBaseService.getCachedColumns(dataBase.getId(), schemaName, table);
+                    if (columns == null) {
+                        continue;
+                    }
+                    // 根据表名点出字段名
+                    for (Column column : columns) {
+                        entries.add(SuggestionIndex.Entry.member(
+                                SuggestionSource.SCHEMA,
+                                buildSchemaSuggestion(
+                                        tableKey + "." + column.getName(),
+                                        column.getName(),
+                                        joinDetail(column.getType(), column.getComment()),
+                                        3),
+                                tableName,
+                                schemaName + "." + tableName));
+                    }
+                }
+            }
+        }
+    }
+
+    private static String joinDetail(String detail, String comment) {
+        return StrUtil.isBlank(comment) ? detail : detail + " -> " + comment;
+    }
+
+    private static SuggestionVO buildSchemaSuggestion(String key, String name, String detail, int kind) {
+        return SuggestionVO.builder()
+                .key(key)
+                .label(SuggestionLabelVO.builder().label(name).detail(detail).build())
+                .kind(kind)
+                .insertText(name)
+                .detail(detail)
+                .build();
     }
 
     /**
-     * build custom suggestions
+     * build udf suggestions
      *
-     * @param customKeyWordList custom keyword list
-     * @param suggestionVOS     suggestion list
+     * @param udfManageList udf list
+     * @param entries       suggestion entries
      */
-    private static void buildCustomSuggestions(Set<Object> customKeyWordList, Set<SuggestionVO> suggestionVOS) {
-        // todo: 自定义关键词提示,
-        //      1. 此处自定义是属于 dinky 内部自定义语法关键词提示, 如果有片段, 将片段的建议列表加入到文档中进行提示
-        //      2. 可以加入 yml 语法的关键词提示 , 因为在集群配置中会有 yml 的配置文件写法 , 获取方式待定
+    private static void buildUdfSuggestions(List<UDFManage> udfManageList, List<SuggestionIndex.Entry> entries) {
+        udfManageList.stream()
+                .filter(udfManage -> udfManage.getName() != null)
+                .map(udfManage -> {
+                    SuggestionLabelVO suggestionLabelVO = SuggestionLabelVO.builder()
+                            .label(udfManage.getName())
+                            .detail(udfManage.getClassName())
+                            .build();
+                    return SuggestionVO.builder()
+                            .key(udfManage.getId() + "_udf")
+                            .label(suggestionLabelVO)
+                            .kind(1)
+                            .insertText(udfManage.getName() + "()")
+                            .detail(udfManage.getClassName())
+                            .build();
+                })
+                .map(suggestionVO -> SuggestionIndex.Entry.of(SuggestionSource.UDF, suggestionVO))
+                .forEach(entries::add);
     }
 
     /**
      * build document suggestions
      *
-     * @param documentList  document list
-     * @param suggestionVOS suggestion list
+     * @param documentList document list
+     * @param entries      suggestion entries
      */
-    private static void buildDocumentSuggestions(Set<Document> documentList, Set<SuggestionVO> suggestionVOS) {
+    private static void buildDocumentSuggestions(Set<Document> documentList, List<SuggestionIndex.Entry> entries) {
         documentList.stream()
                 .map(document -> {
                     String detail =
@@ -146,10 +322,11 @@ public class SuggestionServiceImpl implements SuggestionService {
                             .detail(detail)
                             .build();
                 })
-                .forEach(suggestionVOS::add);
+                .map(suggestionVO -> SuggestionIndex.Entry.of(SuggestionSource.DOCUMENT, suggestionVO))
+                .forEach(entries::add);
     }
 
-    private static void buildFlinkConfSuggestions(Set<SuggestionVO> suggestionVOS) {
+    private static void buildFlinkConfSuggestions(List<SuggestionIndex.Entry> entries) {
         for (String name : FlinkConfigOptionsUtils.getConfigOptionsClass()) {
             List<FlinkConfigOption> flinkConfigOptions = FlinkConfigOptionsUtils.loadOptionsByClassName(name);
             flinkConfigOptions.stream()
@@ -157,14 +334,16 @@ public class SuggestionServiceImpl implements SuggestionService {
                         SuggestionLabelVO suggestionLabelVO = SuggestionLabelVO.builder()
                                 .label("set " + conf.getKey())
                                 .build();
-                        return SuggestionVO.builder()
+                        SuggestionVO suggestionVO = SuggestionVO.builder()
                                 .key(conf.getKey() + "_flink_conf")
                                 .insertText(StrFormatter.format("set '{}'='{}'", conf.getKey(), conf.getDefaultValue()))
                                 .kind(4)
                                 .label(suggestionLabelVO)
                                 .build();
+                        // found by the bare key as well
+                        return SuggestionIndex.Entry.of(SuggestionSource.FLINK_CONF, suggestionVO, conf.getKey());
                     })
-                    .forEach(suggestionVOS::add);
+                    .forEach(entries::add);
         }
     }
 
@@ -177,13 +356,12 @@ public class SuggestionServiceImpl implements SuggestionService {
      */
     @Override
     public Set<SuggestionVO> getSuggestionsByKeyWord(boolean enableSchemaSuggestion, String keyWord) {
-        return getSuggestions(enableSchemaSuggestion).stream()
-                .filter(suggestionVO -> suggestionVO.getLabel().getLabel().contains(keyWord))
-                .collect(Collectors.toSet());
+        return new LinkedHashSet<>(getIndex().complete(keyWord, COMPLETION_LIMIT, enableSchemaSuggestion));
     }
 
     /**
-     * by sql statement get suggestions list
+     * by sql statement get suggestions list, completes the identifier left of the cursor, {@code db.}
+     * completes the tables of a database and {@code table.} the columns of a table
      *
      * @param enableSchemaSuggestion whether enable schema suggestion
      * @param sqlStatement           sql statement
@@ -192,7 +370,24 @@ public class SuggestionServiceImpl implements SuggestionService {
     @Override
     public Set<SuggestionVO> getSuggestionsBySqlStatement(
             boolean enableSchemaSuggestion, String sqlStatement, int position) {
-        // todo: 根据传入的sql，获取建议列表, 需要和flink的sql解析器结合起来
-        return new HashSet<>();
+        String token = getTokenBefore(sqlStatement, position);
+        return new LinkedHashSet<>(getIndex().complete(token, COMPLETION_LIMIT, enableSchemaSuggestion));
+    }
+
+    /** The identifier, possibly qualified with dots, ending at {@code position}, without backticks. */
+    static String getTokenBefore(String sqlStatement, int position) {
+        if (sqlStatement == null) {
+            return "";
+        }
+        int end = Math.max(0, Math.min(position, sqlStatement.length()));
+        int start = end;
+        while (start > 0) {
+            char c = sqlStatement.charAt(start - 1);
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != '.' && c != '`' && c != '$' && c != '-') {
+                break;
+            }
+            start--;
+        }
+        return sqlStatement.substring(start, end).replace("`", "");
     }
 }
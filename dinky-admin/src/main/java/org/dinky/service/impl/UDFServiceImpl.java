@@ -20,10 +20,12 @@
 package org.dinky.service.impl;
 
 import org.dinky.config.Dialect;
+import org.dinky.data.enums.SuggestionSource;
 import org.dinky.data.model.Resources;
 import org.dinky.data.model.udf.UDFManage;
 import org.dinky.data.vo.UDFManageVO;
 import org.dinky.mapper.UDFManageMapper;
+import org.dinky.service.SuggestionService;
 import org.dinky.service.UDFService;
 import org.dinky.service.resource.ResourcesService;
 import org.dinky.utils.UDFUtils;
@@ -34,6 +36,9 @@ import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import javax.annotation.Resource;
+
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -57,6 +62,10 @@ import lombok.extern.slf4j.Slf4j;
 public class UDFServiceImpl extends ServiceImpl<UDFManageMapper, UDFManage> implements UDFService {
     private final ResourcesService resourcesService;
 
+    @Resource
+    @Lazy
+    private SuggestionService suggestionService;
+
     @Override
     public boolean update(UDFManage entity) {
         Assert.notNull(entity, "Entity must be not null");
@@ -64,7 +73,9 @@ public class UDFServiceImpl extends ServiceImpl<UDFManageMapper, UDFManage> impl
         UDFManage byId = getById(id);
         Assert.notNull(byId, "UDFManage not found");
         byId.setName(entity.getName());
-        return super.updateById(byId);
+        boolean updated = super.updateById(byId);
+        suggestionService.invalidate(SuggestionSource.UDF);
+        return updated;
     }
 
     @Override
@@ -142,6 +153,7 @@ public class UDFServiceImpl extends ServiceImpl<UDFManageMapper, UDFManage> impl
                     .collect(Collectors.toList());
             saveBatch(manageList);
         }
+        suggestionService.invalidate(SuggestionSource.UDF);
     }
 
     private static String getSimpleClassName(String className) {
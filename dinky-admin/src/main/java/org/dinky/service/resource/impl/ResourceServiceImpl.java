@@ -27,12 +27,15 @@ import org.dinky.data.result.Result;
 import org.dinky.mapper.ResourcesMapper;
 import org.dinky.service.resource.BaseResourceManager;
 import org.dinky.service.resource.ResourcesService;
+import org.dinky.utils.TreeIndex;
 import org.dinky.utils.URLUtils;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -44,18 +47,24 @@ import org.springframework.web.multipart.MultipartFile;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 
-import cn.hutool.cache.impl.TimedCache;
+import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.collection.CollUtil;
-import cn.hutool.core.collection.CollectionUtil;
 import cn.hutool.core.lang.Assert;
 import cn.hutool.core.lang.Opt;
 import cn.hutool.core.util.StrUtil;
 
 @Service
 public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources> implements ResourcesService {
-    private static final TimedCache<Integer, Resources> RESOURCES_CACHE = new TimedCache<>(30 * 1000);
     private static final long ALLOW_MAX_CAT_CONTENT_SIZE = 10 * 1024 * 1024;
 
+    /** The whole resource tree, loaded in one query and updated by the mutations below once they commit. */
+    private final TreeIndex<Resources> resourcesIndex = new TreeIndex<>(
+            Resources::getId,
+            Resources::getPid,
+            ResourceServiceImpl::copyResources,
+            () -> list(),
+            TimeUnit.MINUTES.toMillis(10));
+
     @Override
     public TreeNodeDTO createFolder(Integer pid, String fileName, String desc) {
         long count = count(
@@ -73,6 +82,7 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
         resources.setSize(0L);
         resources.setDescription(desc);
         save(resources);
+        indexPut(resources);
         return convertTree(resources);
     }
 
@@ -96,6 +106,7 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
             resources.setSize(0L);
             resources.setDescription(desc);
             save(resources);
+            indexPut(resources);
         }
         return convertTree(resources);
     }
@@ -120,6 +131,7 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
         byId.setFileName(fileName);
         byId.setFullName(fullName);
         updateById(byId);
+        indexPut(byId);
         boolean isRunStorageMove = false;
         if (!byId.getIsDirectory()) {
             List<Resources> list = list(new LambdaQueryWrapper<Resources>().eq(Resources::getPid, byId.getId()));
@@ -129,6 +141,7 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
                     isRunStorageMove = !resources.getIsDirectory() && !isRunStorageMove;
                 }
                 updateBatchById(list);
+                indexPut(list);
             }
         } else {
             isRunStorageMove = true;
@@ -157,8 +170,7 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
         if (currentFloor > showFloorNum) {
             return;
         }
-        List<Resources> list = list(new LambdaQueryWrapper<Resources>().eq(Resources::getPid, pid));
-        for (Resources resources : list) {
+        for (Resources resources : resourcesIndex.getChildren(pid)) {
             TreeNodeDTO tree = convertTree(resources);
             if (resources.getIsDirectory()) {
                 List<TreeNodeDTO> children = new ArrayList<>();
@@ -200,12 +212,7 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
     @Transactional(rollbackFor = Exception.class)
     @Override
     public void uploadFile(Integer pid, String desc, File file) {
-        Resources pResource = RESOURCES_CACHE.get(pid, () -> getById(pid));
-        if (!pResource.getIsDirectory()) {
-            RESOURCES_CACHE.remove(pid);
-            Integer realPid = pResource.getPid();
-            pResource = RESOURCES_CACHE.get(pid, () -> getById(realPid));
-        }
+        Resources pResource = getParentResource(pid);
         long size = file.length();
         String fileName = file.getName();
         upload(pid, desc, (fullName) -> getBaseResourceManager().putFile(fullName, file), fileName, pResource, size);
@@ -243,23 +250,20 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
             resources.setSize(size);
             resources.setDescription(desc);
             saveOrUpdate(resources);
+            indexPut(resources);
         }
         uploadAction.accept(fullName);
 
         List<Resources> resourceByPidToParent = getResourceByPidToParent(new ArrayList<>(), pid);
         resourceByPidToParent.forEach(x -> x.setSize(x.getSize() + size));
         updateBatchById(resourceByPidToParent);
+        indexPut(resourceByPidToParent);
     }
 
     @Transactional(rollbackFor = Exception.class)
     @Override
     public void uploadFile(Integer pid, String desc, MultipartFile file) {
-        Resources pResource = RESOURCES_CACHE.get(pid, () -> getById(pid));
-        if (!pResource.getIsDirectory()) {
-            RESOURCES_CACHE.remove(pid);
-            Integer realPid = pResource.getPid();
-            pResource = RESOURCES_CACHE.get(pid, () -> getById(realPid));
-        }
+        Resources pResource = getParentResource(pid);
         long size = file.getSize();
         String fileName = file.getOriginalFilename();
         upload(pid, desc, (fullName) -> getBaseResourceManager().putFile(fullName, file), fileName, pResource, size);
@@ -279,6 +283,7 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
                 getBaseResourceManager().remove("/");
                 // todo 删除主目录，实际是清空
                 remove(new LambdaQueryWrapper<Resources>().ne(Resources::getId, 0));
+                resourcesIndex.afterCommit(resourcesIndex::invalidate);
             }
             Resources byId = getById(id);
             if (isExistsChildren(id)) {
@@ -291,9 +296,10 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
                 List<Resources> resourceByPidToParent = getResourceByPidToParent(new ArrayList<>(), byId.getPid());
                 resourceByPidToParent.forEach(x -> x.setSize(x.getSize() - byId.getSize()));
                 updateBatchById(resourceByPidToParent);
+                indexPut(resourceByPidToParent);
                 getBaseResourceManager().remove(byId.getFullName());
-                return removeById(id);
             }
+            resourcesIndex.afterCommit(() -> resourcesIndex.remove(id));
             return removeById(id);
         } catch (Exception e) {
             throw new BusException(Status.DELETE_FAILED);
@@ -305,7 +311,30 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
     }
 
     /**
-     * 递归获取所有的资源，从pid到0
+     * the directory a file is uploaded into, falling back to the parent when pid points at a file
+     *
+     * @param pid pid
+     * @return parent directory
+     */
+    private Resources getParentResource(Integer pid) {
+        Resources pResource = resourcesIndex.get(pid).orElseGet(() -> getById(pid));
+        if (!pResource.getIsDirectory()) {
+            Integer realPid = pResource.getPid();
+            pResource = resourcesIndex.get(realPid).orElseGet(() -> getById(realPid));
+        }
+        return pResource;
+    }
+
+    private void indexPut(Resources resources) {
+        resourcesIndex.afterCommit(() -> resourcesIndex.put(resources));
+    }
+
+    private void indexPut(Collection<Resources> resourcesList) {
+        resourcesIndex.afterCommit(() -> resourcesList.forEach(resourcesIndex::put));
+    }
+
+    /**
+     * 获取所有的资源，从pid到0
      *
      * @param resourcesList data
      * @param pid           pid
@@ -313,16 +342,17 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
      */
     @Override
     public List<Resources> getResourceByPidToParent(List<Resources> resourcesList, Integer pid) {
-        if (pid < 1) {
-            return resourcesList;
+        for (Resources resources : resourcesIndex.getAncestors(pid)) {
+            if (resources.getId() < 1) {
+                break;
+            }
+            resourcesList.add(resources);
         }
-        Resources byId = RESOURCES_CACHE.get(pid, () -> getById(pid));
-        resourcesList.add(byId);
-        return getResourceByPidToParent(resourcesList, byId.getPid());
+        return resourcesList;
     }
 
     /**
-     * 递归获取所有的资源，从id往下穿
+     * 获取所有的资源，从id往下穿
      *
      * @param resourcesList data
      * @param pid           pid
@@ -330,16 +360,7 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
      */
     @Override
     public List<Resources> getResourceByPidToChildren(List<Resources> resourcesList, Integer pid) {
-        List<Resources> list = list(new LambdaQueryWrapper<Resources>().eq(Resources::getPid, pid));
-        if (CollUtil.isEmpty(list)) {
-            return resourcesList;
-        }
-        for (Resources resources : list) {
-            resourcesList.add(resources);
-            if (resources.getIsDirectory()) {
-                getResourceByPidToChildren(resourcesList, resources.getId());
-            }
-        }
+        resourcesList.addAll(resourcesIndex.getDescendants(pid));
         return resourcesList;
     }
 
@@ -350,7 +371,7 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
      */
     @Override
     public List<Resources> getResourcesTree() {
-        return buildResourcesTree(this.list());
+        return buildResourcesTree(resourcesIndex.getAll());
     }
 
     /**
@@ -361,7 +382,7 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
      */
     @Override
     public List<Resources> getResourcesTreeByFilter(Function<Resources, Boolean> filterFunction) {
-        List<Resources> list = this.list();
+        List<Resources> list = resourcesIndex.getAll();
         return buildResourcesTree(
                 filterFunction == null
                         ? list
@@ -371,26 +392,16 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
     /**
      * build resources tree
      *
-     * @param resourcesList resources list
+     * @param resourcesList resources list, ordered by id
      * @return Resources tree
      */
     private List<Resources> buildResourcesTree(List<Resources> resourcesList) {
-        // sort
-        if (CollectionUtil.isNotEmpty(resourcesList)) {
-            resourcesList = resourcesList.stream()
-                    .sorted(Comparator.comparing(Resources::getId))
-                    .collect(Collectors.toList());
-        }
-
-        List<Resources> returnList = new ArrayList<>();
+        Map<Integer, List<Resources>> childrenByPid =
+                resourcesList.stream().collect(Collectors.groupingBy(Resources::getPid));
 
-        for (Resources resources : resourcesList) {
-            //  get all child catalogue of parent catalogue id , the -1 is root catalogue
-            if (resources.getPid() == -1) {
-                recursionBuildResourcesAndChildren(resourcesList, resources);
-                returnList.add(resources);
-            }
-        }
+        //  get all child catalogue of parent catalogue id , the -1 is root catalogue
+        List<Resources> returnList = childrenByPid.getOrDefault(-1, new ArrayList<>());
+        returnList.forEach(resources -> recursionBuildResourcesAndChildren(childrenByPid, resources));
         if (returnList.isEmpty()) {
             returnList = resourcesList;
         }
@@ -400,49 +411,28 @@ public class ResourceServiceImpl extends ServiceImpl<ResourcesMapper, Resources>
     /**
      * recursion build resources and children
      *
-     * @param resourcesList
+     * @param childrenByPid resources grouped by pid
      * @param resources
      */
-    private void recursionBuildResourcesAndChildren(List<Resources> resourcesList, Resources resources) {
+    private void recursionBuildResourcesAndChildren(Map<Integer, List<Resources>> childrenByPid, Resources resources) {
         // obtain a list of child nodes
-        List<Resources> childList = getChildList(resourcesList, resources);
+        List<Resources> childList = childrenByPid.getOrDefault(resources.getId(), new ArrayList<>());
         resources.setChildren(childList);
         for (Resources tChild : childList) {
-            if (hasChild(resourcesList, tChild)) {
+            if (childrenByPid.containsKey(tChild.getId())) {
                 // Determine whether there are child nodes
-                recursionBuildResourcesAndChildren(resourcesList, tChild);
+                recursionBuildResourcesAndChildren(childrenByPid, tChild);
             } else {
                 tChild.setLeaf(true);
             }
         }
     }
 
-    /**
-     * get child list
-     *
-     * @param list
-     * @param resources
-     * @return
-     */
-    private List<Resources> getChildList(List<Resources> list, Resources resources) {
-        List<Resources> childList = new ArrayList<>();
-        for (Resources n : list) {
-            if (n.getPid().longValue() == resources.getId().longValue()) {
-                childList.add(n);
-            }
-        }
-        return childList;
-    }
-
-    /**
-     * Determine whether there are child nodes
-     *
-     * @param resourcesList
-     * @param resources
-     * @return
-     */
-    private boolean hasChild(List<Resources> resourcesList, Resources resources) {
-        return !getChildList(resourcesList, resources).isEmpty();
+    private static Resources copyResources(Resources resources) {
+        Resources copy = BeanUtil.copyProperties(resources, Resources.class);
+        copy.setChildren(new ArrayList<>());
+        copy.setLeaf(false);
+        return copy;
     }
 
     private BaseResourceManager getBaseResourceManager() {
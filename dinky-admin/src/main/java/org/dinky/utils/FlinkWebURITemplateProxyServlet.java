@@ -19,18 +19,28 @@
 
 package org.dinky.utils;
 
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
 import org.apache.http.NameValuePair;
+import org.apache.http.client.HttpClient;
 import org.apache.http.client.utils.URIUtils;
 import org.apache.http.client.utils.URLEncodedUtils;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.util.EntityUtils;
 
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLEncoder;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -43,14 +53,38 @@ import org.mitre.dsmiley.httpproxy.URITemplateProxyServlet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Proxies the Flink web dashboard. The dashboard is loaded under {@code /api/flink_web/host:port/}, so the relative
+ * requests it makes afterwards carry their JobManager in the path and need no server side state. The legacy
+ * {@value #FLINK_WEB_PROXY} entry redirects there. Requests are served concurrently over a pool of keep-alive
+ * connections per JobManager and the hashed bundle files of the dashboard are kept in memory.
+ */
 public class FlinkWebURITemplateProxyServlet extends ProxyServlet {
     protected static final Logger logger = LoggerFactory.getLogger(FlinkWebURITemplateProxyServlet.class);
 
-    public static final String FLINK_WEB_PROXY = "/api/flink_web/proxy";
-    private static volatile String AUTHORITY;
+    /** The dashboard of a JobManager is served under {@code /api/flink_web/host:port/}. */
+    public static final String FLINK_WEB = "/api/flink_web/";
+
+    public static final String FLINK_WEB_PROXY = FLINK_WEB + "proxy";
+
+    /** Pooled connections per JobManager. */
+    public static final int MAX_CONNECTIONS_PER_JOB_MANAGER = 32;
+
+    private static final long IDLE_CONNECTION_TIMEOUT_SECONDS = 30;
 
     protected static final Pattern TEMPLATE_PATTERN = Pattern.compile("\\{(.+?)\\}");
     private static final String ATTR_QUERY_STRING = URITemplateProxyServlet.class.getSimpleName() + ".queryString";
+    private static final String ATTR_PATH_INFO = FlinkWebURITemplateProxyServlet.class.getSimpleName() + ".pathInfo";
+    private static final String ATTR_ASSET_KEY = FlinkWebURITemplateProxyServlet.class.getSimpleName() + ".assetKey";
+
+    /** Path info starting with the JobManager, e.g. {@code /127.0.0.1:8081/jobs/overview}. */
+    private static final Pattern AUTHORITY_PATH = Pattern.compile("^/([\\w.-]+:\\d+)(/.*)?$");
+
+    /** Files of the dashboard bundle that never change for a given JobManager. */
+    private static final Pattern STATIC_ASSET =
+            Pattern.compile(".*(\\.[0-9a-f]{16,}\\.(js|css)|/assets/.+|\\.(woff2?|ttf|eot|svg|png|ico))$");
+
+    private static final AssetCache ASSET_CACHE = new AssetCache(64 * 1024 * 1024, 4 * 1024 * 1024);
 
     protected String targetUriTemplate; // has {name} parts
 
@@ -63,41 +97,56 @@ public class FlinkWebURITemplateProxyServlet extends ProxyServlet {
     }
 
     @Override
-    protected synchronized void service(HttpServletRequest servletRequest, HttpServletResponse servletResponse)
+    protected HttpClient buildHttpClient(HttpClientBuilder clientBuilder) {
+        return clientBuilder
+                .evictExpiredConnections()
+                .evictIdleConnections(IDLE_CONNECTION_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .build();
+    }
+
+    @Override
+    protected void service(HttpServletRequest servletRequest, HttpServletResponse servletResponse)
             throws ServletException, IOException {
 
-        if (!servletRequest.getRequestURI().contains(FLINK_WEB_PROXY)) {
-            // iframe inner request
-            int i = 0;
-            while (AUTHORITY == null && i++ < 10) {
-                try {
-                    Thread.sleep(10);
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-            }
+        if (Objects.equals(servletRequest.getRequestURI(), FLINK_WEB_PROXY)) {
+            // legacy entry, move the dashboard under its JobManager so every request it makes carries it
+            servletResponse.sendRedirect(getDashboardUri(servletRequest));
+            return;
+        }
 
-            if (AUTHORITY != null) {
-                service(servletRequest, servletResponse, AUTHORITY);
-            } else {
-                logger.debug("AUTHORITY is null, skip service");
-            }
+        String pathInfo = servletRequest.getPathInfo() == null ? "" : servletRequest.getPathInfo();
+        Matcher matcher = AUTHORITY_PATH.matcher(pathInfo);
+        if (!matcher.matches()) {
+            logger.debug("No flink web target for {}, skip service", servletRequest.getRequestURI());
+            servletResponse.sendError(HttpServletResponse.SC_NOT_FOUND);
             return;
         }
+        String authority = "http://" + matcher.group(1);
+        pathInfo = matcher.group(2) == null ? "" : matcher.group(2);
+        servletRequest.setAttribute(ATTR_PATH_INFO, pathInfo);
 
-        if (Objects.equals(servletRequest.getRequestURI(), FLINK_WEB_PROXY)) {
-            String queryString = getQueryString(servletRequest);
-            Map<String, String> params = getParams(queryString);
-            String newTargetUri = getNewTargetUri(targetUriTemplate, params);
-            try {
-                URI target = new URI(newTargetUri);
-                AUTHORITY = URIUtils.extractHost(target).toString();
-            } catch (URISyntaxException e) {
-                throw new ServletException("Rewritten targetUri is invalid: " + newTargetUri, e);
+        if ("GET".equals(servletRequest.getMethod())
+                && STATIC_ASSET.matcher(pathInfo).matches()) {
+            String assetKey = authority + pathInfo;
+            if (ASSET_CACHE.write(assetKey, servletResponse)) {
+                return;
             }
+            servletRequest.setAttribute(ATTR_ASSET_KEY, assetKey);
         }
+        service(servletRequest, servletResponse, authority);
+    }
 
-        service(servletRequest, servletResponse, targetUriTemplate);
+    /** Rewrites {@value #FLINK_WEB_PROXY}{@code ?_authority=..&_jid=..} to the dashboard under its JobManager. */
+    private String getDashboardUri(HttpServletRequest servletRequest) throws ServletException {
+        String newTargetUri = getNewTargetUri(targetUriTemplate, getParams(getQueryString(servletRequest)));
+        URI target;
+        try {
+            target = new URI(newTargetUri);
+        } catch (URISyntaxException e) {
+            throw new ServletException("Rewritten targetUri is invalid: " + newTargetUri, e);
+        }
+        String fragment = target.getRawFragment() == null ? "" : "#" + target.getRawFragment();
+        return FLINK_WEB + target.getRawAuthority() + "/" + fragment;
     }
 
     private void service(
@@ -185,4 +234,101 @@ public class FlinkWebURITemplateProxyServlet extends ProxyServlet {
     protected String rewriteQueryStringFromRequest(HttpServletRequest servletRequest, String queryString) {
         return (String) servletRequest.getAttribute(ATTR_QUERY_STRING);
     }
+
+    @Override
+    protected String rewritePathInfoFromRequest(HttpServletRequest servletRequest) {
+        String pathInfo = (String) servletRequest.getAttribute(ATTR_PATH_INFO);
+        return pathInfo != null ? pathInfo : super.rewritePathInfoFromRequest(servletRequest);
+    }
+
+    @Override
+    protected void copyResponseEntity(
+            HttpResponse proxyResponse,
+            HttpServletResponse servletResponse,
+            HttpRequest proxyRequest,
+            HttpServletRequest servletRequest)
+            throws IOException {
+        String assetKey = (String) servletRequest.getAttribute(ATTR_ASSET_KEY);
+        HttpEntity entity = proxyResponse.getEntity();
+        if (assetKey == null
+                || entity == null
+                || proxyResponse.getStatusLine().getStatusCode() != HttpServletResponse.SC_OK
+                || !ASSET_CACHE.accepts(entity.getContentLength())) {
+            super.copyResponseEntity(proxyResponse, servletResponse, proxyRequest, servletRequest);
+            return;
+        }
+        Asset asset = new Asset(
+                headerValue(proxyResponse.getFirstHeader(HttpHeaders.CONTENT_TYPE)),
+                headerValue(proxyResponse.getFirstHeader(HttpHeaders.CONTENT_ENCODING)),
+                EntityUtils.toByteArray(entity));
+        servletResponse.getOutputStream().write(asset.body);
+        ASSET_CACHE.put(assetKey, asset);
+    }
+
+    private static String headerValue(Header header) {
+        return header == null ? null : header.getValue();
+    }
+
+    /** A cached response body with the headers needed to replay it. */
+    private static class Asset {
+        private final String contentType;
+        private final String contentEncoding;
+        private final byte[] body;
+
+        private Asset(String contentType, String contentEncoding, byte[] body) {
+            this.contentType = contentType;
+            this.contentEncoding = contentEncoding;
+            this.body = body;
+        }
+    }
+
+    /** LRU cache of assets bounded by their total size. */
+    private static class AssetCache {
+        private final long maxTotalBytes;
+        private final long maxAssetBytes;
+        private final LinkedHashMap<String, Asset> assets = new LinkedHashMap<>(16, 0.75f, true);
+        private long totalBytes;
+
+        private AssetCache(long maxTotalBytes, long maxAssetBytes) {
+            this.maxTotalBytes = maxTotalBytes;
+            this.maxAssetBytes = maxAssetBytes;
+        }
+
+        /** Only responses of known, bounded length are buffered, everything else is streamed. */
+        boolean accepts(long contentLength) {
+            return contentLength >= 0 && contentLength <= maxAssetBytes;
+        }
+
+        synchronized void put(String key, Asset asset) {
+            Asset previous = assets.put(key, asset);
+            totalBytes += asset.body.length - (previous == null ? 0 : previous.body.length);
+            Iterator<Asset> eldest = assets.values().iterator();
+            while (totalBytes > maxTotalBytes && eldest.hasNext()) {
+                totalBytes -= eldest.next().body.length;
+                eldest.remove();
+            }
+        }
+
+        synchronized Asset get(String key) {
+            return assets.get(key);
+        }
+
+        /** Writes the cached asset, returns false on a miss. */
+        boolean write(String key, HttpServletResponse servletResponse) throws IOException {
+            Asset asset = get(key);
+            if (asset == null) {
+                return false;
+            }
+            servletResponse.setStatus(HttpServletResponse.SC_OK);
+            if (asset.contentType != null) {
+                servletResponse.setContentType(asset.contentType);
+            }
+            if (asset.contentEncoding != null) {
+                servletResponse.setHeader(HttpHeaders.CONTENT_ENCODING, asset.contentEncoding);
+            }
+            servletResponse.setContentLength(asset.body.length);
+            servletResponse.getOutputStream().write(asset.body);
+            return true;
+        }
+    }
 }
@@ -0,0 +1,165 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import org.dinky.data.vo.MetricsVO;
+
+import org.apache.paimon.data.Timestamp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.date.DatePattern;
+import cn.hutool.core.util.NumberUtil;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+
+/**
+ * Folds metrics rows into fixed time buckets per model. Numeric leaves of the content are merged with the
+ * configured aggregation, other leaves keep the latest value. A bucket holding a single row returns the row
+ * content unchanged, so a bucket size of one millisecond is a plain pass-through with field filtering.
+ */
+public class MetricsDownsampler {
+
+    public enum Aggregation {
+        AVG,
+        MAX;
+
+        public static Aggregation of(String name) {
+            return "max".equalsIgnoreCase(name) ? MAX : AVG;
+        }
+    }
+
+    private final long startMillis;
+    private final long bucketMillis;
+    private final Aggregation aggregation;
+    private final List<String> fields;
+    private final Map<String, TreeMap<Long, Map<String, Object>>> buckets = new HashMap<>();
+
+    public MetricsDownsampler(
+            long startMillis, long endMillis, Integer maxPoints, Aggregation aggregation, List<String> fields) {
+        this.startMillis = startMillis;
+        this.bucketMillis = maxPoints == null || maxPoints <= 0
+                ? 1
+                : Math.max(1, (endMillis - startMillis + maxPoints - 1) / maxPoints);
+        this.aggregation = aggregation;
+        this.fields = fields;
+    }
+
+    public void add(String model, Timestamp heartTime, String content) {
+        long bucket = (heartTime.getMillisecond() - startMillis) / bucketMillis;
+        Map<String, Object> tree = buckets.computeIfAbsent(model, k -> new TreeMap<>())
+                .computeIfAbsent(bucket, k -> new LinkedHashMap<>());
+        merge(tree, JSONUtil.parseObj(content), "");
+    }
+
+    public List<MetricsVO> result() {
+        List<MetricsVO> result = new ArrayList<>();
+        buckets.forEach((model, series) -> series.forEach((bucket, tree) -> {
+            Timestamp time = Timestamp.fromEpochMillis(startMillis + bucket * bucketMillis);
+            MetricsVO vo = new MetricsVO();
+            vo.setHeartTime(time.toLocalDateTime());
+            vo.setModel(model);
+            vo.setContent(build(tree));
+            vo.setDate(DatePattern.NORM_DATE_FORMATTER.format(time.toLocalDateTime()));
+            result.add(vo);
+        }));
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void merge(Map<String, Object> tree, JSONObject json, String prefix) {
+        for (Map.Entry<String, Object> entry : json.entrySet()) {
+            String path = prefix + entry.getKey();
+            if (!accept(path)) {
+                continue;
+            }
+            Object value = entry.getValue();
+            if (value instanceof JSONObject) {
+                Map<String, Object> child =
+                        (Map<String, Object>) tree.computeIfAbsent(entry.getKey(), k -> new LinkedHashMap<>());
+                merge(child, (JSONObject) value, path + ".");
+            } else {
+                ((Leaf) tree.computeIfAbsent(entry.getKey(), k -> new Leaf())).add(value);
+            }
+        }
+    }
+
+    private boolean accept(String path) {
+        if (CollUtil.isEmpty(fields)) {
+            return true;
+        }
+        for (String field : fields) {
+            if (field.equals(path) || field.startsWith(path + ".") || path.startsWith(field + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private JSONObject build(Map<String, Object> tree) {
+        JSONObject json = new JSONObject();
+        tree.forEach((key, value) ->
+                json.set(key, value instanceof Leaf ? ((Leaf) value).get() : build((Map<String, Object>) value)));
+        return json;
+    }
+
+    private class Leaf {
+        private Object last;
+        private long count;
+        private long numericCount;
+        private double sum;
+        private double max = Double.NEGATIVE_INFINITY;
+
+        void add(Object value) {
+            last = value;
+            count++;
+            Double number = toNumber(value);
+            if (number != null) {
+                numericCount++;
+                sum += number;
+                max = Math.max(max, number);
+            }
+        }
+
+        Object get() {
+            if (count == 1 || numericCount == 0) {
+                return last;
+            }
+            return aggregation == Aggregation.MAX ? max : sum / numericCount;
+        }
+
+        private Double toNumber(Object value) {
+            if (value instanceof Number) {
+                return ((Number) value).doubleValue();
+            }
+            if (value instanceof CharSequence && NumberUtil.isNumber((CharSequence) value)) {
+                return NumberUtil.parseDouble(value.toString());
+            }
+            return null;
+        }
+    }
+}
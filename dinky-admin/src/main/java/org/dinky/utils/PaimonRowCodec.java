@@ -0,0 +1,222 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import org.apache.paimon.data.BinaryRow;
+import org.apache.paimon.data.BinaryRowWriter;
+import org.apache.paimon.data.BinaryString;
+import org.apache.paimon.data.Decimal;
+import org.apache.paimon.data.InternalRow;
+import org.apache.paimon.data.Timestamp;
+import org.apache.paimon.types.DataType;
+import org.apache.paimon.types.DataTypeRoot;
+import org.apache.paimon.types.DecimalType;
+import org.apache.paimon.types.TimestampType;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.function.Function;
+
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.text.StrFormatter;
+import cn.hutool.core.util.ModifierUtil;
+import cn.hutool.core.util.ReflectUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+
+/**
+ * Row codec between a POJO and a paimon row.
+ * <p>
+ * The field accessors, paimon field getters and value converters are resolved once per class with
+ * {@link MethodHandle}s, so encoding and decoding a row does not use reflection nor create getters per row.
+ * The column order is the order of {@link #getFields(Class)}, the same as {@link PaimonUtil#getSchemaByClass(Class)}.
+ * </p>
+ */
+public class PaimonRowCodec<T> {
+
+    private final Class<T> clazz;
+    private final MethodHandle constructor;
+    private final FieldCodec[] fieldCodecs;
+
+    private PaimonRowCodec(Class<T> clazz) {
+        this.clazz = clazz;
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            Constructor<T> declaredConstructor = clazz.getDeclaredConstructor();
+            declaredConstructor.setAccessible(true);
+            this.constructor = lookup.unreflectConstructor(declaredConstructor);
+            Field[] fields = getFields(clazz);
+            this.fieldCodecs = new FieldCodec[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                fieldCodecs[i] = new FieldCodec(lookup, fields[i], i);
+            }
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException(
+                    StrFormatter.format("Can not build paimon row codec of class [{}]", clazz.getName()), e);
+        }
+    }
+
+    public static <T> PaimonRowCodec<T> of(Class<T> clazz) {
+        return new PaimonRowCodec<>(clazz);
+    }
+
+    public static Field[] getFields(Class<?> clazz) {
+        return ReflectUtil.getFields(clazz, field -> !ModifierUtil.isStatic(field));
+    }
+
+    public BinaryRow toRow(Object data) {
+        BinaryRow row = new BinaryRow(fieldCodecs.length);
+        BinaryRowWriter writer = new BinaryRowWriter(row);
+        for (FieldCodec fieldCodec : fieldCodecs) {
+            fieldCodec.write(writer, data);
+        }
+        writer.complete();
+        return row;
+    }
+
+    public T fromRow(InternalRow row) {
+        T data;
+        try {
+            data = clazz.cast(constructor.invoke());
+        } catch (Throwable e) {
+            throw new IllegalStateException("Create instance of " + clazz.getName() + " error", e);
+        }
+        for (FieldCodec fieldCodec : fieldCodecs) {
+            fieldCodec.read(row, data);
+        }
+        return data;
+    }
+
+    @FunctionalInterface
+    private interface ValueWriter {
+        void write(BinaryRowWriter writer, int pos, Object value);
+    }
+
+    private static final class FieldCodec {
+
+        private final String name;
+        private final int pos;
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+        private final ValueWriter valueWriter;
+        private final InternalRow.FieldGetter fieldGetter;
+        private final Function<Object, Object> valueReader;
+
+        private FieldCodec(MethodHandles.Lookup lookup, Field field, int pos) throws IllegalAccessException {
+            field.setAccessible(true);
+            this.name = StrUtil.toUnderlineCase(field.getName());
+            this.pos = pos;
+            this.getter = lookup.unreflectGetter(field);
+            this.setter = lookup.unreflectSetter(field);
+            DataType type = PaimonTypeUtil.classToDataType(field.getType());
+            this.valueWriter = createValueWriter(type);
+            this.fieldGetter = InternalRow.createFieldGetter(type, pos);
+            this.valueReader = createValueReader(field.getType());
+        }
+
+        private void write(BinaryRowWriter writer, Object data) {
+            Object value = null;
+            try {
+                value = getter.invoke(data);
+                if (value == null) {
+                    writer.setNullAt(pos);
+                } else {
+                    valueWriter.write(writer, pos, value);
+                }
+            } catch (Throwable e) {
+                String err = StrFormatter.format("write data filed [{}], value: [{}] error", name, value);
+                throw new RuntimeException(err, e);
+            }
+        }
+
+        private void read(InternalRow row, Object data) {
+            Object value = fieldGetter.getFieldOrNull(row);
+            try {
+                setter.invoke(data, value == null ? null : valueReader.apply(value));
+            } catch (Throwable e) {
+                String err = StrFormatter.format("read data filed [{}], value: [{}] error", name, value);
+                throw new RuntimeException(err, e);
+            }
+        }
+    }
+
+    private static ValueWriter createValueWriter(DataType type) {
+        switch (type.getTypeRoot()) {
+            case VARCHAR:
+                return (writer, pos, value) -> writer.writeString(
+                        pos,
+                        BinaryString.fromString(value instanceof String ? (String) value : JSONUtil.toJsonStr(value)));
+            case INTEGER:
+                return (writer, pos, value) -> writer.writeInt(pos, (Integer) value);
+            case BIGINT:
+                return (writer, pos, value) -> writer.writeLong(pos, (Long) value);
+            case DOUBLE:
+                return (writer, pos, value) -> writer.writeDouble(pos, (Double) value);
+            case FLOAT:
+                return (writer, pos, value) -> writer.writeFloat(pos, (Float) value);
+            case BOOLEAN:
+                return (writer, pos, value) -> writer.writeBoolean(pos, (Boolean) value);
+            case TINYINT:
+                return (writer, pos, value) -> writer.writeByte(pos, (Byte) value);
+            case SMALLINT:
+                return (writer, pos, value) -> writer.writeShort(pos, (Short) value);
+            case DECIMAL:
+                DecimalType decimalType = (DecimalType) type;
+                int precision = decimalType.getPrecision();
+                int scale = decimalType.getScale();
+                return (writer, pos, value) -> writer.writeDecimal(
+                        pos, Decimal.fromBigDecimal((BigDecimal) value, precision, scale), precision);
+            case TIMESTAMP_WITHOUT_TIME_ZONE:
+                int timestampPrecision = ((TimestampType) type).getPrecision();
+                return (writer, pos, value) -> writer.writeTimestamp(
+                        pos,
+                        Timestamp.fromLocalDateTime(
+                                value instanceof Date ? DateUtil.toLocalDateTime((Date) value) : (LocalDateTime) value),
+                        timestampPrecision);
+            default:
+                throw new UnsupportedOperationException("Unsupported paimon type " + type);
+        }
+    }
+
+    private static Function<Object, Object> createValueReader(Class<?> fieldType) {
+        if (LocalDateTime.class.equals(fieldType)) {
+            return value -> ((Timestamp) value).toLocalDateTime();
+        }
+        if (Date.class.equals(fieldType)) {
+            return value -> DateUtil.date(((Timestamp) value).toLocalDateTime());
+        }
+        if (BigDecimal.class.equals(fieldType)) {
+            return value -> ((Decimal) value).toBigDecimal();
+        }
+        if (String.class.equals(fieldType) || Object.class.equals(fieldType)) {
+            return Object::toString;
+        }
+        if (PaimonTypeUtil.classToDataType(fieldType).getTypeRoot() == DataTypeRoot.VARCHAR) {
+            // the other classes are stored as json string
+            return value -> JSONUtil.toBean(value.toString(), fieldType);
+        }
+        return Function.identity();
+    }
+}
@@ -32,16 +32,13 @@ import org.apache.paimon.catalog.CatalogContext;
 import org.apache.paimon.catalog.CatalogFactory;
 import org.apache.paimon.catalog.Identifier;
 import org.apache.paimon.data.BinaryRow;
-import org.apache.paimon.data.BinaryRowWriter;
-import org.apache.paimon.data.BinaryString;
-import org.apache.paimon.data.BinaryWriter;
 import org.apache.paimon.data.InternalRow;
-import org.apache.paimon.data.Timestamp;
 import org.apache.paimon.fs.Path;
 import org.apache.paimon.predicate.Predicate;
 import org.apache.paimon.predicate.PredicateBuilder;
 import org.apache.paimon.reader.RecordReader;
 import org.apache.paimon.schema.Schema;
+import org.apache.paimon.table.FileStoreTable;
 import org.apache.paimon.table.Table;
 import org.apache.paimon.table.sink.BatchTableCommit;
 import org.apache.paimon.table.sink.BatchTableWrite;
@@ -50,16 +47,16 @@ import org.apache.paimon.table.sink.CommitMessage;
 import org.apache.paimon.table.source.ReadBuilder;
 import org.apache.paimon.table.source.Split;
 import org.apache.paimon.table.source.TableRead;
-import org.apache.paimon.types.DataField;
 import org.apache.paimon.types.DataType;
-import org.apache.paimon.types.DataTypeRoot;
+import org.apache.paimon.types.RowKind;
 
 import java.io.IOException;
 import java.lang.reflect.Field;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import cn.hutool.cache.Cache;
@@ -70,16 +67,14 @@ import cn.hutool.core.date.DateUtil;
 import cn.hutool.core.date.TimeInterval;
 import cn.hutool.core.map.MapUtil;
 import cn.hutool.core.text.StrFormatter;
-import cn.hutool.core.util.ModifierUtil;
-import cn.hutool.core.util.ReflectUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.core.util.URLUtil;
-import cn.hutool.json.JSONUtil;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class PaimonUtil {
     private static final Cache<Class<?>, Schema> SCHEMA_CACHE = CacheUtil.newLRUCache(100);
+    private static final Cache<Class<?>, PaimonRowCodec<?>> CODEC_CACHE = CacheUtil.newLRUCache(100);
     private static final CatalogContext CONTEXT =
             CatalogContext.create(new Path(URLUtil.toURI(URLUtil.url(PathConstant.TMP_PATH + "paimon"))));
     private static final Catalog CATALOG = CatalogFactory.createCatalog(CONTEXT);
@@ -104,7 +99,14 @@ public class PaimonUtil {
     }
 
     public static <T> void write(String table, List<T> dataList, Class<?> clazz) {
-        if (CollUtil.isEmpty(dataList)) {
+        write(table, dataList, null, clazz);
+    }
+
+    /**
+     * Write upserts and primary key deletes of a primary key table in one commit.
+     */
+    public static <T> void write(String table, List<T> dataList, List<T> deleteList, Class<?> clazz) {
+        if (CollUtil.isEmpty(dataList) && CollUtil.isEmpty(deleteList)) {
             return;
         }
         Table paimonTable = createOrGetTable(table, clazz);
@@ -112,35 +114,17 @@ public class PaimonUtil {
 
         // 2. Write records in distributed tasks
         try (BatchTableWrite write = writeBuilder.newWrite()) {
-            Schema schema = getSchemaByClass(clazz);
-            List<DataField> fields = schema.fields();
-            for (T t : dataList) {
-                BinaryRow row = new BinaryRow(fields.size());
-                BinaryRowWriter writer = new BinaryRowWriter(row);
-                for (int i = 0; i < fields.size(); i++) {
-                    DataField dataField = fields.get(i);
-                    DataType type = dataField.type();
-                    String fieldName = StrUtil.toCamelCase(dataField.name());
-                    Object fieldValue = ReflectUtil.getFieldValue(t, fieldName);
-                    try {
-                        if (type.getTypeRoot() == DataTypeRoot.VARCHAR) {
-                            BinaryWriter.write(
-                                    writer, i, BinaryString.fromString(JSONUtil.toJsonStr(fieldValue)), type, null);
-                        } else if (type.getTypeRoot() == DataTypeRoot.TIMESTAMP_WITHOUT_TIME_ZONE) {
-                            Timestamp timestamp = Timestamp.fromLocalDateTime((LocalDateTime) fieldValue);
-                            BinaryWriter.write(writer, i, timestamp, type, null);
-                        } else {
-                            BinaryWriter.write(writer, i, fieldValue, type, null);
-                        }
-                    } catch (Throwable e) {
-                        String err = StrFormatter.format(
-                                "write table: [{}], data filed [{}], value: [{}] error",
-                                paimonTable.name(),
-                                fieldName,
-                                fieldValue);
-                        throw new RuntimeException(err, e);
-                    }
+            PaimonRowCodec<?> codec = getCodecByClass(clazz);
+            for (T t : CollUtil.emptyIfNull(dataList)) {
+                try {
+                    write.write(codec.toRow(t));
+                } catch (RuntimeException e) {
+                    throw new RuntimeException(StrFormatter.format("write table: [{}] error", paimonTable.name()), e);
                 }
+            }
+            for (T t : CollUtil.emptyIfNull(deleteList)) {
+                BinaryRow row = codec.toRow(t);
+                row.setRowKind(RowKind.DELETE);
                 write.write(row);
             }
 
@@ -191,20 +175,8 @@ public class PaimonUtil {
         TableRead read = readBuilder.newRead();
         try (RecordReader<InternalRow> reader = read.createReader(splits)) {
 
-            Schema schema = getSchemaByClass(clazz);
-            reader.forEachRemaining(x -> {
-                T t = ReflectUtil.newInstance(clazz);
-                schema.fields().forEach(f -> {
-                    Object value =
-                            InternalRow.createFieldGetter(f.type(), f.id()).getFieldOrNull(x);
-                    String fieldName = StrUtil.toCamelCase(f.name());
-                    try {
-                        ReflectUtil.setFieldValue(t, fieldName, value);
-                    } catch (Exception ignored) {
-                    }
-                });
-                dataList.add(t);
-            });
+            PaimonRowCodec<T> codec = getCodecByClass(clazz);
+            reader.forEachRemaining(x -> dataList.add(codec.fromRow(x)));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -216,6 +188,115 @@ public class PaimonUtil {
         return dataList;
     }
 
+    /**
+     * Stream the rows of a table to the consumer without materialising them. The filter is pushed down to the
+     * Paimon scan (partition pruning and file skipping) and only the projected columns are read.
+     *
+     * @param table table name
+     * @param clazz the class the table schema was created from, used to resolve predicate positions
+     * @param filter predicates pushed down to the scan, may be null
+     * @param projection column positions to read, null reads all columns
+     * @param consumer row consumer; rows are reused by the reader and must not be retained
+     * @return the number of rows read
+     */
+    public static long readRows(
+            String table,
+            Class<?> clazz,
+            Function<PredicateBuilder, List<Predicate>> filter,
+            int[] projection,
+            Consumer<InternalRow> consumer) {
+        Identifier identifier = getIdentifier(table);
+        if (!CATALOG.tableExists(identifier)) {
+            return 0;
+        }
+        TimeInterval timer = DateUtil.timer();
+        ReadBuilder readBuilder;
+        try {
+            readBuilder = CATALOG.getTable(identifier).newReadBuilder();
+        } catch (Catalog.TableNotExistException e) {
+            throw new RuntimeException(e);
+        }
+        if (filter != null) {
+            readBuilder.withFilter(
+                    filter.apply(new PredicateBuilder(getSchemaByClass(clazz).rowType())));
+        }
+        if (projection != null) {
+            readBuilder.withProjection(projection);
+        }
+
+        long[] count = {0};
+        List<Split> splits = readBuilder.newScan().plan().splits();
+        try (RecordReader<InternalRow> reader = readBuilder.newRead().createReader(splits)) {
+            reader.forEachRemaining(row -> {
+                count[0]++;
+                consumer.accept(row);
+            });
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        log.debug(
+                "paimon read rows; table: {} ,splits: {} ,size: {} ,timer: {}ms",
+                identifier.getFullName(),
+                splits.size(),
+                count[0],
+                timer.intervalMs());
+        return count[0];
+    }
+
+    public static List<BinaryRow> listPartitions(String table) {
+        Identifier identifier = getIdentifier(table);
+        try {
+            if (!CATALOG.tableExists(identifier)) {
+                return new ArrayList<>();
+            }
+            return CATALOG.getTable(identifier).newReadBuilder().newScan().listPartitions();
+        } catch (Catalog.TableNotExistException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Drop whole partitions, each partition is given as a map of partition key to value.
+     */
+    public static void dropPartitions(String table, List<Map<String, String>> partitions) {
+        if (CollUtil.isEmpty(partitions)) {
+            return;
+        }
+        try {
+            FileStoreTable fileStoreTable = (FileStoreTable) CATALOG.getTable(getIdentifier(table));
+            fileStoreTable
+                    .store()
+                    .newCommit(UUID.randomUUID().toString())
+                    .dropPartitions(partitions, BatchWriteBuilder.COMMIT_IDENTIFIER);
+        } catch (Catalog.TableNotExistException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Run a full compaction on the given partitions, merging the small files written by frequent appends.
+     */
+    public static void compactPartitions(String table, List<BinaryRow> partitions) {
+        if (CollUtil.isEmpty(partitions)) {
+            return;
+        }
+        try {
+            Table paimonTable = CATALOG.getTable(getIdentifier(table));
+            BatchWriteBuilder writeBuilder = paimonTable.newBatchWriteBuilder();
+            try (BatchTableWrite write = writeBuilder.newWrite()) {
+                for (BinaryRow partition : partitions) {
+                    write.compact(partition, 0, true);
+                }
+                List<CommitMessage> messages = write.prepareCommit();
+                try (BatchTableCommit commit = writeBuilder.newCommit()) {
+                    commit.commit(messages);
+                }
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     public static Table createOrGetTable(String tableName, Class<?> clazz) {
         try {
             Identifier identifier = Identifier.create(DINKY_DB, tableName);
@@ -234,7 +315,7 @@ public class PaimonUtil {
             List<String> primaryKeys = new ArrayList<>();
             List<String> partitionKeys = new ArrayList<>();
             Schema.Builder builder = Schema.newBuilder();
-            Field[] fields = ReflectUtil.getFields(clazz, field -> !ModifierUtil.isStatic(field));
+            Field[] fields = PaimonRowCodec.getFields(clazz);
             for (Field field : fields) {
                 String fieldName = StrUtil.toUnderlineCase(field.getName());
                 if (field.getAnnotations().length > 0) {
@@ -267,6 +348,11 @@ public class PaimonUtil {
         });
     }
 
+    @SuppressWarnings("unchecked")
+    public static <T> PaimonRowCodec<T> getCodecByClass(Class<T> clazz) {
+        return (PaimonRowCodec<T>) CODEC_CACHE.get(clazz, () -> PaimonRowCodec.of(clazz));
+    }
+
     public static Identifier getIdentifier(String tableName) {
         return Identifier.create(DINKY_DB, tableName);
     }
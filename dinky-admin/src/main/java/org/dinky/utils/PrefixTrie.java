@@ -0,0 +1,147 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * Case-insensitive prefix trie from string terms to values.
+ *
+ * <p>A value may be stored under several terms and a term may hold several values. Lookups walk
+ * only the subtree below the prefix and stop after {@code limit} accepted values, so their cost
+ * depends on the size of the answer plus the values a filter rejects on the way, not on the number
+ * of terms elsewhere in the trie. Keep values that are usually filtered out in a trie of their own.
+ * Values are returned in term order. Not thread-safe, callers synchronize.
+ *
+ * @param <V> the value type
+ */
+public class PrefixTrie<V> {
+
+    private final Node<V> root = new Node<>();
+    private int size;
+
+    private static final class Node<V> {
+        private final Map<Character, Node<V>> children = new TreeMap<>();
+        private final Set<V> values = new LinkedHashSet<>();
+    }
+
+    /**
+     * Stores {@code value} under {@code term}.
+     *
+     * @return false if the value was already stored under this term
+     */
+    public boolean put(String term, V value) {
+        Node<V> node = root;
+        for (char c : normalize(term).toCharArray()) {
+            node = node.children.computeIfAbsent(c, k -> new Node<>());
+        }
+        if (node.values.add(value)) {
+            size++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes {@code value} from {@code term}, pruning branches that become empty.
+     *
+     * @return false if the value was not stored under this term
+     */
+    public boolean remove(String term, V value) {
+        String key = normalize(term);
+        Deque<Node<V>> path = new ArrayDeque<>();
+        Node<V> node = root;
+        for (char c : key.toCharArray()) {
+            path.push(node);
+            node = node.children.get(c);
+            if (node == null) {
+                return false;
+            }
+        }
+        if (!node.values.remove(value)) {
+            return false;
+        }
+        size--;
+        for (int i = key.length() - 1; i >= 0 && node.values.isEmpty() && node.children.isEmpty(); i--) {
+            Node<V> parent = path.pop();
+            parent.children.remove(key.charAt(i));
+            node = parent;
+        }
+        return true;
+    }
+
+    /** Values stored under terms starting with {@code prefix}, at most {@code limit} of them. */
+    public List<V> prefix(String prefix, int limit) {
+        return prefix(prefix, limit, value -> true);
+    }
+
+    /** Like {@link #prefix(String, int)}, skipping values rejected by {@code filter}. */
+    public List<V> prefix(String prefix, int limit, Predicate<? super V> filter) {
+        Node<V> node = root;
+        for (char c : normalize(prefix).toCharArray()) {
+            node = node.children.get(c);
+            if (node == null) {
+                return new ArrayList<>();
+            }
+        }
+        Set<V> result = new LinkedHashSet<>();
+        Deque<Node<V>> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty() && result.size() < limit) {
+            Node<V> current = stack.pop();
+            for (V value : current.values) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                if (filter.test(value)) {
+                    result.add(value);
+                }
+            }
+            // push in reverse so that children are visited in term order
+            List<Node<V>> children = new ArrayList<>(current.children.values());
+            for (int i = children.size() - 1; i >= 0; i--) {
+                stack.push(children.get(i));
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    /** Number of term-value pairs. */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private static String normalize(String term) {
+        return term == null ? "" : term.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,315 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import org.dinky.data.enums.SuggestionSource;
+import org.dinky.data.vo.suggestion.SuggestionDeltaVO;
+import org.dinky.data.vo.suggestion.SuggestionVO;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory index of the editor suggestions of one tenant.
+ *
+ * <p>Top level suggestions such as documents, variables and functions are kept in a {@link PrefixTrie}
+ * by their terms, databases and tables in a trie of their own so that completions without schema
+ * suggestions never walk them. Member suggestions are kept in one trie per qualifier, so that
+ * {@code db.} completes the tables of a database and {@code tbl.} or {@code db.tbl.} the columns of a
+ * table. Each {@link SuggestionSource} is replaced as a whole, the index diffs it against what it
+ * holds and only touches the entries that changed. Every change of a top level suggestion bumps the
+ * version and is logged, so that an editor holding an older version receives a delta instead of the
+ * full set.
+ */
+public class SuggestionIndex {
+
+    /** Changes kept for deltas, editors further behind get the full set. */
+    private static final int MAX_CHANGES = 4096;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<SuggestionSource, Map<Object, Entry>> sources = new EnumMap<>(SuggestionSource.class);
+    private final Map<SuggestionSource, long[]> loadedVersions = new EnumMap<>(SuggestionSource.class);
+    private final Map<Object, Entry> topLevel = new LinkedHashMap<>();
+    private final PrefixTrie<Entry> terms = new PrefixTrie<>();
+    private final PrefixTrie<Entry> schemaTerms = new PrefixTrie<>();
+    private final Map<String, PrefixTrie<Entry>> members = new HashMap<>();
+    private final Deque<Change> changes = new ArrayDeque<>();
+    private long version;
+    /** Deltas can only be computed for clients at this version or later. */
+    private long oldestDeltaVersion;
+
+    /** A suggestion with the terms and qualifiers it is found by. */
+    public static final class Entry {
+        private final SuggestionSource source;
+        private final SuggestionVO suggestion;
+        private final List<String> terms;
+        private final List<String> qualifiers;
+
+        private Entry(SuggestionSource source, SuggestionVO suggestion, List<String> terms, List<String> qualifiers) {
+            this.source = source;
+            this.suggestion = suggestion;
+            this.terms = terms;
+            this.qualifiers = qualifiers;
+        }
+
+        /** A top level suggestion found by its label and the additional {@code terms}. */
+        public static Entry of(SuggestionSource source, SuggestionVO suggestion, String... terms) {
+            List<String> allTerms = new ArrayList<>();
+            allTerms.add(suggestion.getLabel().getLabel());
+            allTerms.addAll(Arrays.asList(terms));
+            return new Entry(source, suggestion, allTerms, new ArrayList<>());
+        }
+
+        /** A suggestion completed after {@code qualifier.}, for example a column after its table name. */
+        public static Entry member(SuggestionSource source, SuggestionVO suggestion, String... qualifiers) {
+            return new Entry(source, suggestion, new ArrayList<>(), Arrays.asList(qualifiers));
+        }
+
+        public SuggestionSource getSource() {
+            return source;
+        }
+
+        public SuggestionVO getSuggestion() {
+            return suggestion;
+        }
+
+        private Object getKey() {
+            return suggestion.getKey();
+        }
+
+        private boolean isTopLevel() {
+            return !terms.isEmpty();
+        }
+
+        private boolean sameAs(Entry other) {
+            return suggestion.equals(other.suggestion)
+                    && terms.equals(other.terms)
+                    && qualifiers.equals(other.qualifiers);
+        }
+    }
+
+    private static final class Change {
+        private final long version;
+        private final Object key;
+        /** null when the suggestion was removed */
+        private final Entry entry;
+
+        private Change(long version, Object key, Entry entry) {
+            this.version = version;
+            this.key = key;
+            this.entry = entry;
+        }
+    }
+
+    /** Whether {@code source} has to be reloaded because it changed or is older than {@code maxAgeMillis}. */
+    public boolean needsReload(SuggestionSource source, long sourceVersion, long maxAgeMillis) {
+        lock.readLock().lock();
+        try {
+            long[] loaded = loadedVersions.get(source);
+            return loaded == null
+                    || loaded[0] != sourceVersion
+                    || System.currentTimeMillis() - loaded[1] > maxAgeMillis;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Replaces the entries of {@code source}, applying only what differs from the current ones. */
+    public void replace(SuggestionSource source, long sourceVersion, Collection<Entry> entries) {
+        Map<Object, Entry> incoming = new LinkedHashMap<>();
+        for (Entry entry : entries) {
+            incoming.put(entry.getKey(), entry);
+        }
+        lock.writeLock().lock();
+        try {
+            Map<Object, Entry> current = sources.computeIfAbsent(source, k -> new LinkedHashMap<>());
+            for (Entry old : new ArrayList<>(current.values())) {
+                Entry replacement = incoming.get(old.getKey());
+                if (replacement == null || !replacement.sameAs(old)) {
+                    unindex(old);
+                    current.remove(old.getKey());
+                    if (replacement == null && old.isTopLevel()) {
+                        record(old.getKey(), null);
+                    }
+                }
+            }
+            for (Entry entry : incoming.values()) {
+                if (!current.containsKey(entry.getKey())) {
+                    index(entry);
+                    current.put(entry.getKey(), entry);
+                    if (entry.isTopLevel()) {
+                        record(entry.getKey(), entry);
+                    }
+                }
+            }
+            loadedVersions.put(source, new long[] {sourceVersion, System.currentTimeMillis()});
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Completes {@code token}, the identifier left of the cursor. {@code db.ta} completes the members
+     * of {@code db} starting with {@code ta}. Tokens without a dot, or whose qualifier is unknown such
+     * as a dotted config key, complete the top level suggestions, schema ones after the others.
+     *
+     * @param withSchema whether databases, tables and columns are completed
+     */
+    public List<SuggestionVO> complete(String token, int limit, boolean withSchema) {
+        String text = token == null ? "" : token;
+        int dot = text.lastIndexOf('.');
+        lock.readLock().lock();
+        try {
+            // only schema suggestions have members
+            PrefixTrie<Entry> trie = dot < 0 || !withSchema
+                    ? null
+                    : members.get(text.substring(0, dot).toLowerCase(Locale.ROOT));
+            List<Entry> found;
+            if (trie != null) {
+                found = trie.prefix(text.substring(dot + 1), limit);
+            } else {
+                found = terms.prefix(text, limit);
+                if (withSchema && found.size() < limit) {
+                    found.addAll(schemaTerms.prefix(text, limit - found.size()));
+                }
+            }
+            return found.stream().map(Entry::getSuggestion).collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** All top level suggestions. */
+    public List<SuggestionVO> getAll(Predicate<Entry> filter) {
+        lock.readLock().lock();
+        try {
+            return filterTopLevel(filter);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<SuggestionVO> filterTopLevel(Predicate<Entry> filter) {
+        return topLevel.values().stream()
+                .filter(filter)
+                .map(Entry::getSuggestion)
+                .collect(Collectors.toList());
+    }
+
+    /** The top level suggestions changed after {@code sinceVersion}, or all of them if that is too old. */
+    public SuggestionDeltaVO getChangesSince(long sinceVersion, Predicate<Entry> filter) {
+        lock.readLock().lock();
+        try {
+            if (sinceVersion < oldestDeltaVersion || sinceVersion > version) {
+                return SuggestionDeltaVO.builder()
+                        .version(version)
+                        .full(true)
+                        .suggestions(filterTopLevel(filter))
+                        .removedKeys(new ArrayList<>())
+                        .build();
+            }
+            Map<Object, Entry> latest = new LinkedHashMap<>();
+            for (Change change : changes) {
+                if (change.version > sinceVersion) {
+                    latest.remove(change.key);
+                    latest.put(change.key, change.entry);
+                }
+            }
+            List<SuggestionVO> upserts = new ArrayList<>();
+            List<Object> removedKeys = new ArrayList<>();
+            latest.forEach((key, entry) -> {
+                if (entry == null) {
+                    removedKeys.add(key);
+                } else if (filter.test(entry)) {
+                    upserts.add(entry.getSuggestion());
+                }
+            });
+            return SuggestionDeltaVO.builder()
+                    .version(version)
+                    .full(false)
+                    .suggestions(upserts)
+                    .removedKeys(removedKeys)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getVersion() {
+        lock.readLock().lock();
+        try {
+            return version;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void index(Entry entry) {
+        if (entry.isTopLevel()) {
+            topLevel.put(entry.getKey(), entry);
+        }
+        entry.terms.forEach(term -> termsOf(entry).put(term, entry));
+        for (String qualifier : entry.qualifiers) {
+            members.computeIfAbsent(qualifier.toLowerCase(Locale.ROOT), k -> new PrefixTrie<>())
+                    .put(entry.getSuggestion().getLabel().getLabel(), entry);
+        }
+    }
+
+    private void unindex(Entry entry) {
+        if (entry.isTopLevel()) {
+            topLevel.remove(entry.getKey());
+        }
+        entry.terms.forEach(term -> termsOf(entry).remove(term, entry));
+        for (String qualifier : entry.qualifiers) {
+            String key = qualifier.toLowerCase(Locale.ROOT);
+            PrefixTrie<Entry> trie = members.get(key);
+            if (trie != null) {
+                trie.remove(entry.getSuggestion().getLabel().getLabel(), entry);
+                if (trie.isEmpty()) {
+                    members.remove(key);
+                }
+            }
+        }
+    }
+
+    private PrefixTrie<Entry> termsOf(Entry entry) {
+        return entry.getSource() == SuggestionSource.SCHEMA ? schemaTerms : terms;
+    }
+
+    private void record(Object key, Entry entry) {
+        changes.addLast(new Change(++version, key, entry));
+        while (changes.size() > MAX_CHANGES) {
+            oldestDeltaVersion = changes.removeFirst().version;
+        }
+    }
+}
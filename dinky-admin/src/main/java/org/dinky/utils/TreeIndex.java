@@ -0,0 +1,296 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-memory index over a table that stores a tree through a parent id column.
+ *
+ * <p>The whole table is read with a single query on first use and is then kept current by the owning
+ * service through {@link #put} and {@link #remove}, so child, subtree and ancestor lookups never go
+ * back to the database. Nodes are copied on the way in and out, callers are free to modify what they
+ * get. Every change bumps {@link #getVersion()}. The index reloads itself once it is older than
+ * {@code maxAgeMillis}, which bounds staleness when another instance writes the same table.
+ *
+ * @param <T> the entity type
+ */
+public class TreeIndex<T> {
+
+    private final Function<T, Integer> idGetter;
+    private final Function<T, Integer> parentIdGetter;
+    private final UnaryOperator<T> copier;
+    private final Supplier<List<T>> loader;
+    private final long maxAgeMillis;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, T> nodes = new HashMap<>();
+    private final Map<Integer, TreeSet<Integer>> children = new HashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private volatile long loadedAt = -1;
+
+    public TreeIndex(
+            Function<T, Integer> idGetter,
+            Function<T, Integer> parentIdGetter,
+            UnaryOperator<T> copier,
+            Supplier<List<T>> loader,
+            long maxAgeMillis) {
+        this.idGetter = idGetter;
+        this.parentIdGetter = parentIdGetter;
+        this.copier = copier;
+        this.loader = loader;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public Optional<T> get(Integer id) {
+        return read(() -> Optional.ofNullable(nodes.get(id)).map(copier));
+    }
+
+    /** All nodes ordered by id. */
+    public List<T> getAll() {
+        return read(() -> {
+            List<Integer> ids = new ArrayList<>(nodes.keySet());
+            Collections.sort(ids);
+            return copyOf(ids);
+        });
+    }
+
+    /** Direct children of the given node ordered by id. */
+    public List<T> getChildren(Integer parentId) {
+        return read(() -> copyOf(children.getOrDefault(parentId, new TreeSet<>())));
+    }
+
+    public boolean hasChildren(Integer parentId) {
+        return read(() -> !children.getOrDefault(parentId, new TreeSet<>()).isEmpty());
+    }
+
+    /** Every node below the given one, depth first with each parent ahead of its children. */
+    public List<T> getDescendants(Integer id) {
+        return getDescendants(id, Integer.MAX_VALUE);
+    }
+
+    /** Like {@link #getDescendants(Integer)} but only down to {@code maxDepth} levels, 1 being the children. */
+    public List<T> getDescendants(Integer id, int maxDepth) {
+        return read(() -> copyOf(collectDescendants(id, maxDepth)));
+    }
+
+    /**
+     * The given node followed by its parent, grandparent and so on, stopping at the first id that is not
+     * indexed.
+     */
+    public List<T> getAncestors(Integer id) {
+        return read(() -> {
+            List<Integer> path = new ArrayList<>();
+            Set<Integer> seen = new HashSet<>();
+            Integer current = id;
+            while (current != null && nodes.containsKey(current) && seen.add(current)) {
+                path.add(current);
+                current = parentIdGetter.apply(nodes.get(current));
+            }
+            return copyOf(path);
+        });
+    }
+
+    /** Inserts or replaces a node, moving it under its new parent when the parent changed. */
+    public void put(T node) {
+        write(() -> {
+            Integer id = idGetter.apply(node);
+            T previous = nodes.put(id, copier.apply(node));
+            if (previous != null) {
+                detach(id, parentIdGetter.apply(previous));
+            }
+            children.computeIfAbsent(parentIdGetter.apply(node), k -> new TreeSet<>())
+                    .add(id);
+        });
+    }
+
+    /** Removes a node together with its whole subtree. */
+    public void remove(Integer id) {
+        write(() -> {
+            T node = nodes.get(id);
+            if (node == null) {
+                return;
+            }
+            for (Integer descendant : collectDescendants(id, Integer.MAX_VALUE)) {
+                nodes.remove(descendant);
+                children.remove(descendant);
+            }
+            nodes.remove(id);
+            children.remove(id);
+            detach(id, parentIdGetter.apply(node));
+        });
+    }
+
+    /** Drops everything, the next read loads the table again. */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            loadedAt = -1;
+            nodes.clear();
+            children.clear();
+            version.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a change against the index once the surrounding transaction has committed, so that readers
+     * never see rows that may still be rolled back. The index is dropped if the transaction rolls back.
+     * Without an active transaction the change is applied right away.
+     */
+    public void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    change.run();
+                } else {
+                    invalidate();
+                }
+            }
+        });
+    }
+
+    private List<Integer> collectDescendants(Integer id, int maxDepth) {
+        List<Integer> result = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        Deque<Integer> stack = new ArrayDeque<>();
+        Deque<Integer> depths = new ArrayDeque<>();
+        stack.push(id);
+        depths.push(0);
+        seen.add(id);
+        while (!stack.isEmpty()) {
+            Integer current = stack.pop();
+            int depth = depths.pop();
+            if (depth > 0) {
+                result.add(current);
+            }
+            TreeSet<Integer> childIds = children.get(current);
+            if (childIds != null && depth < maxDepth) {
+                for (Integer childId : childIds.descendingSet()) {
+                    if (seen.add(childId)) {
+                        stack.push(childId);
+                        depths.push(depth + 1);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private void detach(Integer id, Integer parentId) {
+        TreeSet<Integer> siblings = children.get(parentId);
+        if (siblings != null) {
+            siblings.remove(id);
+            if (siblings.isEmpty()) {
+                children.remove(parentId);
+            }
+        }
+    }
+
+    private List<T> copyOf(Iterable<Integer> ids) {
+        List<T> result = new ArrayList<>();
+        for (Integer id : ids) {
+            result.add(copier.apply(nodes.get(id)));
+        }
+        return result;
+    }
+
+    private <R> R read(Supplier<R> reader) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return reader.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Changes are skipped while nothing is loaded, the next load will pick them up from the table. */
+    private void write(Runnable writer) {
+        lock.writeLock().lock();
+        try {
+            if (loadedAt < 0) {
+                return;
+            }
+            writer.run();
+            version.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (isFresh()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (isFresh()) {
+                return;
+            }
+            nodes.clear();
+            children.clear();
+            for (T node : loader.get()) {
+                Integer id = idGetter.apply(node);
+                nodes.put(id, copier.apply(node));
+                children.computeIfAbsent(parentIdGetter.apply(node), k -> new TreeSet<>())
+                        .add(id);
+            }
+            loadedAt = System.currentTimeMillis();
+            version.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean isFresh() {
+        long loaded = loadedAt;
+        return loaded >= 0 && System.currentTimeMillis() - loaded < maxAgeMillis;
+    }
+}
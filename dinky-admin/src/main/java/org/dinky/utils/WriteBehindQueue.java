@@ -0,0 +1,317 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write-behind of append-only records, such as the audit logs. {@link #offer} only puts the record into a bounded
+ * buffer, a single writer thread hands the records to the writer in batches of {@code batchSize}, or whatever was
+ * collected within {@code batchInterval} milliseconds.
+ * <p>
+ * Records are never dropped because the database is slow or down: when the buffer is full or a batch fails they are
+ * appended as json lines to a spill file, which is replayed once a write succeeds again, also after a restart.
+ * Only when the spill file exceeds {@link #MAX_SPILL_BYTES} records are dropped and counted.
+ * </p>
+ * <p>
+ * The optional {@code preparer} finishes a record right before it is written or spilled, so expensive work such as
+ * serializing a response body runs on the writer thread instead of the thread that offers the record. It may run
+ * more than once per record, a record whose batch failed is prepared again when it is spilled.
+ * </p>
+ *
+ * @param <T> the type of the records, it must be a json serializable bean
+ */
+@Slf4j
+public class WriteBehindQueue<T> {
+
+    private static final long MAX_SPILL_BYTES = 16 * 1024 * 1024;
+
+    /** Pause between replays of the spill file while the writer keeps failing. */
+    private static final int REPLAY_BACKOFF_INTERVALS = 10;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final String name;
+    private final Class<T> type;
+    private final int batchSize;
+    private final long batchInterval;
+    private final Consumer<T> preparer;
+    private final Consumer<List<T>> writer;
+    private final File spillFile;
+
+    private final BlockingQueue<T> buffer;
+
+    /** The batch being collected by the writer thread. */
+    private final List<T> batch;
+
+    private final Object spillLock = new Object();
+    private final Thread writerThread;
+    private volatile boolean closed;
+    private long nextReplayTime;
+
+    @Getter
+    private final AtomicLong writtenCount = new AtomicLong();
+
+    @Getter
+    private final AtomicLong writeErrorCount = new AtomicLong();
+
+    @Getter
+    private final AtomicLong spilledCount = new AtomicLong();
+
+    @Getter
+    private final AtomicLong replayedCount = new AtomicLong();
+
+    @Getter
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    /**
+     * @param name          the name of the writer thread and the spill file
+     * @param type          the type of the records, used to read back the spill file
+     * @param capacity      the capacity of the in-memory buffer
+     * @param batchSize     the maximum number of records handed to the writer at once
+     * @param batchInterval the maximum time in milliseconds a record waits for its batch
+     * @param spillDir      the directory of the spill file
+     * @param writer        persists a batch, it must throw if the batch is not persisted
+     */
+    public WriteBehindQueue(
+            String name,
+            Class<T> type,
+            int capacity,
+            int batchSize,
+            long batchInterval,
+            File spillDir,
+            Consumer<List<T>> writer) {
+        this(name, type, capacity, batchSize, batchInterval, spillDir, record -> {}, writer);
+    }
+
+    /**
+     * @param preparer finishes a record before it is written or spilled, it must be idempotent
+     * @see #WriteBehindQueue(String, Class, int, int, long, File, Consumer)
+     */
+    public WriteBehindQueue(
+            String name,
+            Class<T> type,
+            int capacity,
+            int batchSize,
+            long batchInterval,
+            File spillDir,
+            Consumer<T> preparer,
+            Consumer<List<T>> writer) {
+        this.name = name;
+        this.preparer = preparer;
+        this.type = type;
+        this.batchSize = batchSize;
+        this.batchInterval = batchInterval;
+        this.writer = writer;
+        this.spillFile = new File(spillDir, name + ".spill");
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.batch = new ArrayList<>(batchSize);
+
+        writerThread = new Thread(this::writeLoop, name + "-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    public void offer(T record) {
+        if (closed || !buffer.offer(record)) {
+            spill(Collections.singletonList(record));
+        }
+    }
+
+    public int getPendingCount() {
+        return buffer.size();
+    }
+
+    /** Stop the writer thread and write what is buffered, records that can not be written are spilled. */
+    public void close() {
+        closed = true;
+        writerThread.interrupt();
+        try {
+            writerThread.join(batchInterval);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (batch) {
+            do {
+                buffer.drainTo(batch, batchSize - batch.size());
+                write(batch);
+            } while (!buffer.isEmpty());
+        }
+        log.info(
+                "{} closed, written: {}, spilled: {}, replayed: {}, dropped: {}",
+                name,
+                writtenCount.get(),
+                spilledCount.get(),
+                replayedCount.get(),
+                droppedCount.get());
+    }
+
+    private void writeLoop() {
+        long lastWriteTime = System.currentTimeMillis();
+        while (!closed && !Thread.currentThread().isInterrupted()) {
+            try {
+                long wait = lastWriteTime + batchInterval - System.currentTimeMillis();
+                T record = buffer.poll(Math.max(wait, 0), TimeUnit.MILLISECONDS);
+                synchronized (batch) {
+                    if (record != null) {
+                        batch.add(record);
+                        buffer.drainTo(batch, batchSize - batch.size());
+                    }
+                    if (batch.size() >= batchSize || System.currentTimeMillis() - lastWriteTime >= batchInterval) {
+                        if (write(batch) && System.currentTimeMillis() >= nextReplayTime) {
+                            replay();
+                        }
+                        lastWriteTime = System.currentTimeMillis();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return false if the batch failed and was spilled
+     */
+    private boolean write(List<T> batch) {
+        if (batch.isEmpty()) {
+            return true;
+        }
+        try {
+            batch.forEach(this::prepare);
+            writer.accept(batch);
+            writtenCount.addAndGet(batch.size());
+            return true;
+        } catch (Exception e) {
+            writeErrorCount.addAndGet(batch.size());
+            log.error("{} failed to write {} records, spill them to {}", name, batch.size(), spillFile, e);
+            nextReplayTime = System.currentTimeMillis() + batchInterval * REPLAY_BACKOFF_INTERVALS;
+            spill(batch);
+            return false;
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private void prepare(T record) {
+        try {
+            preparer.accept(record);
+        } catch (RuntimeException e) {
+            // the record is still written, only without what the preparer would have added
+            log.warn("{} failed to prepare a record", name, e);
+        }
+    }
+
+    private void spill(List<T> records) {
+        records.forEach(this::prepare);
+        synchronized (spillLock) {
+            if (spillFile.length() >= MAX_SPILL_BYTES) {
+                long dropped = droppedCount.addAndGet(records.size());
+                if (records.size() > 1 || dropped % batchSize == 1) {
+                    log.warn("{} spill file {} is full, {} records have been dropped", name, spillFile, dropped);
+                }
+                return;
+            }
+            try {
+                Files.createDirectories(spillFile.getParentFile().toPath());
+                try (BufferedWriter out = Files.newBufferedWriter(
+                        spillFile.toPath(),
+                        StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND)) {
+                    for (T record : records) {
+                        out.write(MAPPER.writeValueAsString(record));
+                        out.newLine();
+                    }
+                }
+                spilledCount.addAndGet(records.size());
+            } catch (IOException e) {
+                droppedCount.addAndGet(records.size());
+                log.error("{} failed to spill {} records to {}", name, records.size(), spillFile, e);
+            }
+        }
+    }
+
+    /**
+     * Write the spilled records, the spill file is taken over as a whole so records spilled meanwhile go to a new
+     * file. Records of a failed batch are spilled again.
+     */
+    private void replay() {
+        List<T> records = new ArrayList<>();
+        synchronized (spillLock) {
+            if (!spillFile.exists()) {
+                return;
+            }
+            try (BufferedReader in = Files.newBufferedReader(spillFile.toPath(), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.isEmpty()) {
+                        continue;
+                    }
+                    try {
+                        records.add(MAPPER.readValue(line, type));
+                    } catch (IOException e) {
+                        droppedCount.incrementAndGet();
+                        log.warn("{} skips a corrupt line of {}", name, spillFile, e);
+                    }
+                }
+                Files.delete(spillFile.toPath());
+            } catch (IOException e) {
+                log.error("{} failed to read {}", name, spillFile, e);
+                nextReplayTime = System.currentTimeMillis() + batchInterval * REPLAY_BACKOFF_INTERVALS;
+                return;
+            }
+        }
+        log.info("{} replays {} spilled records", name, records.size());
+        List<T> chunk = new ArrayList<>(batchSize);
+        for (int i = 0; i < records.size(); i += batchSize) {
+            chunk.addAll(records.subList(i, Math.min(i + batchSize, records.size())));
+            int size = chunk.size();
+            if (!write(chunk)) {
+                spill(records.subList(i + size, records.size()));
+                return;
+            }
+            replayedCount.addAndGet(size);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.configure.cache;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TinyLfuCacheTest {
+
+    @Test
+    void testSizeAndWeightBound() {
+        TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(100, 1000);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, "v" + i, 5);
+        }
+        Assertions.assertThat(cache.size()).isLessThanOrEqualTo(100);
+        Assertions.assertThat(cache.weightedSize()).isLessThanOrEqualTo(1000);
+        Assertions.assertThat(cache.getEvictionCount()).isEqualTo(1000 - cache.size());
+
+        TinyLfuCache<Integer, String> weighted = new TinyLfuCache<>(1000, 1000);
+        for (int i = 0; i < 100; i++) {
+            weighted.put(i, "v" + i, 100);
+        }
+        Assertions.assertThat(weighted.weightedSize()).isLessThanOrEqualTo(1000);
+        // larger than the main space, never cached
+        weighted.put(-1, "huge", 2000);
+        Assertions.assertThat(weighted.get(-1)).isNull();
+    }
+
+    @Test
+    void testHotEntriesSurviveScan() {
+        TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(100, Long.MAX_VALUE / 2);
+        for (int i = 0; i < 50; i++) {
+            cache.put(i, "hot" + i, 1);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                cache.get(i);
+            }
+        }
+        // a one-off scan, while the hot entries keep being read
+        for (int i = 1000; i < 10000; i++) {
+            cache.put(i, "scan" + i, 1);
+            if (i % 100 == 0) {
+                for (int j = 0; j < 50; j++) {
+                    cache.get(j);
+                }
+            }
+        }
+        int hot = 0;
+        for (int i = 0; i < 50; i++) {
+            hot += cache.get(i) != null ? 1 : 0;
+        }
+        Assertions.assertThat(hot).isEqualTo(50);
+        Assertions.assertThat(cache.size()).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    void testRemoveAndReplace() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(10, 100);
+        cache.put("a", "1", 10);
+        cache.put("a", "2", 20);
+        Assertions.assertThat(cache.get("a")).isEqualTo("2");
+        Assertions.assertThat(cache.weightedSize()).isEqualTo(20);
+        cache.remove("a");
+        Assertions.assertThat(cache.get("a")).isNull();
+        Assertions.assertThat(cache.weightedSize()).isZero();
+        Assertions.assertThat(cache.getHitCount()).isEqualTo(1);
+        Assertions.assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+}
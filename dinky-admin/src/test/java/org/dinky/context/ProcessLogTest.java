@@ -0,0 +1,136 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.context;
+
+import org.dinky.data.enums.ProcessStatus;
+import org.dinky.data.enums.ProcessStepType;
+import org.dinky.data.enums.ProcessType;
+import org.dinky.data.model.ProcessEntity;
+import org.dinky.data.model.ProcessStepEntity;
+import org.dinky.data.vo.ProcessDeltaVo;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ProcessLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testDeltasAndReplay() throws Exception {
+        File journal = tempDir.resolve("FlinkSubmit/1.jsonl").toFile();
+        List<ProcessDeltaVo> deltas = new ArrayList<>();
+        ProcessLog processLog = ProcessLog.start(header(ProcessStatus.INITIALIZING), journal, deltas::add);
+
+        processLog.appendLog(null, "start", true);
+        ProcessStepEntity step = processLog.update(step("s1", ProcessStatus.RUNNING), null);
+        ProcessStepEntity child = processLog.update(step("s2", ProcessStatus.RUNNING), "s1");
+        processLog.appendLog("s2", "child line", true);
+        processLog.appendLog("s1", "step only", false);
+        processLog.update(step("s2", ProcessStatus.FINISHED), null);
+        processLog.update(header(ProcessStatus.FINISHED));
+        processLog.close();
+
+        Assertions.assertThat(step.getChildren()).containsExactly(child);
+        Assertions.assertThat(child.getStatus()).isEqualTo(ProcessStatus.FINISHED);
+        Assertions.assertThat(deltas)
+                .extracting(ProcessDeltaVo::getSeq)
+                .containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L);
+        Assertions.assertThat(deltas).allMatch(delta -> "p1".equals(delta.getProcessKey()));
+        Assertions.assertThat(deltas.get(4).getOffset()).isZero();
+        Assertions.assertThat(deltas.get(4).getLog()).isEqualTo("child line");
+
+        ProcessEntity live = processLog.getProcess();
+        Assertions.assertThat(live.getSeq()).isEqualTo(8);
+        Assertions.assertThat(live.getLastUpdateStep()).isSameAs(step);
+
+        ProcessEntity replayed = ProcessLog.replay(journal);
+        Assertions.assertThat(replayed.getSeq()).isEqualTo(8);
+        Assertions.assertThat(replayed.getStatus()).isEqualTo(ProcessStatus.FINISHED);
+        Assertions.assertThat(replayed.getLog().toString())
+                .isEqualTo(live.getLog().toString())
+                .contains("start", "child line")
+                .doesNotContain("step only");
+        ProcessStepEntity replayedStep = replayed.getChildren().get(0);
+        Assertions.assertThat(replayedStep.getLog().toString()).contains("step only");
+        Assertions.assertThat(replayedStep.getChildren().get(0).getLog().toString())
+                .contains("child line");
+        Assertions.assertThat(replayedStep.getChildren().get(0).getStatus()).isEqualTo(ProcessStatus.FINISHED);
+    }
+
+    @Test
+    void testLogLinesReachTheJournalWithoutOtherChanges() throws Exception {
+        File journal = tempDir.resolve("FlinkSubmit/2.jsonl").toFile();
+        ProcessLog processLog = ProcessLog.start(header(ProcessStatus.RUNNING), journal, delta -> {});
+        try {
+            processLog.appendLog(null, "only line", true);
+
+            long deadline = System.currentTimeMillis() + 5000;
+            List<String> lines = Files.readAllLines(journal.toPath());
+            while (lines.size() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+                lines = Files.readAllLines(journal.toPath());
+            }
+            Assertions.assertThat(lines).hasSize(2);
+            Assertions.assertThat(lines.get(1)).contains("only line");
+        } finally {
+            processLog.close();
+        }
+    }
+
+    @Test
+    void testUnknownStep() {
+        ProcessLog processLog = ProcessLog.start(header(ProcessStatus.INITIALIZING), null, delta -> {});
+
+        Assertions.assertThatThrownBy(() -> processLog.appendLog("missing", "line", true))
+                .hasMessageContaining("missing");
+        Assertions.assertThatThrownBy(() -> processLog.update(step("s1", ProcessStatus.RUNNING), "missing"))
+                .hasMessageContaining("missing");
+    }
+
+    private static ProcessEntity header(ProcessStatus status) {
+        return ProcessEntity.builder()
+                .key("p1")
+                .title("FlinkSubmit")
+                .type(ProcessType.FLINK_SUBMIT)
+                .status(status)
+                .startTime(LocalDateTime.of(2023, 10, 1, 0, 0))
+                .build();
+    }
+
+    private static ProcessStepEntity step(String key, ProcessStatus status) {
+        return ProcessStepEntity.builder()
+                .key(key)
+                .title(key)
+                .type(ProcessStepType.SUBMIT_TASK)
+                .status(status)
+                .startTime(LocalDateTime.of(2023, 10, 1, 0, 0))
+                .build();
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.context;
+
+import org.dinky.data.vo.SseDataVo;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+class SseSessionContextHolderTest {
+
+    private final List<String> sessions = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void closeSessions() {
+        sessions.forEach(SseSessionContextHolder::closeSse);
+    }
+
+    @Test
+    void testSendOnlyToSubscribers() throws Exception {
+        RecordingEmitter metrics = register("metrics", 1, "/TOPIC/METRICS");
+        RecordingEmitter console = register("console", 1, "/TOPIC/CONSOLE");
+
+        SseSessionContextHolder.sendTopic("/TOPIC/METRICS", "m1");
+
+        Assertions.assertThat(metrics.await()).isTrue();
+        Assertions.assertThat(metrics.received).containsExactly("m1");
+        Assertions.assertThat(console.received).isEmpty();
+    }
+
+    @Test
+    void testResubscribeUpdatesIndex() throws Exception {
+        RecordingEmitter emitter = register("resubscribe", 1, "/TOPIC/A");
+        SseSessionContextHolder.subscribeTopic("resubscribe", Collections.singletonList("/TOPIC/B"));
+
+        SseSessionContextHolder.sendTopic("/TOPIC/A", "a");
+        SseSessionContextHolder.sendTopic("/TOPIC/B", "b");
+
+        Assertions.assertThat(emitter.await()).isTrue();
+        Assertions.assertThat(emitter.received).containsExactly("b");
+    }
+
+    @Test
+    void testCoalesceSupersededUpdates() throws Exception {
+        RecordingEmitter emitter = register("coalesce", 3, "/TOPIC/PROCESS", "/TOPIC/OTHER");
+        emitter.block();
+
+        SseSessionContextHolder.sendTopic("/TOPIC/PROCESS", "p1", true);
+        Assertions.assertThat(emitter.entered.await(10, TimeUnit.SECONDS)).isTrue();
+        SseSessionContextHolder.sendTopic("/TOPIC/PROCESS", "p2", true);
+        SseSessionContextHolder.sendTopic("/TOPIC/OTHER", "o1");
+        SseSessionContextHolder.sendTopic("/TOPIC/PROCESS", "p3", true);
+        emitter.release();
+
+        Assertions.assertThat(emitter.await()).isTrue();
+        Assertions.assertThat(emitter.received).containsExactly("p1", "p3", "o1");
+    }
+
+    @Test
+    void testDropWhenQueueIsFull() throws Exception {
+        RecordingEmitter emitter = register("slow", 1, "/TOPIC/SLOW");
+        emitter.block();
+        long dropped = SseSessionContextHolder.getStatistics().getDroppedCount();
+
+        SseSessionContextHolder.sendTopic("/TOPIC/SLOW", "first");
+        Assertions.assertThat(emitter.entered.await(10, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < SseSessionContextHolder.QUEUE_CAPACITY + 5; i++) {
+            SseSessionContextHolder.sendTopic("/TOPIC/SLOW", "m" + i);
+        }
+
+        Assertions.assertThat(SseSessionContextHolder.getStatistics().getDroppedCount() - dropped)
+                .isEqualTo(5);
+        Assertions.assertThat(SseSessionContextHolder.getStatistics().getMaxQueueDepth())
+                .isEqualTo(SseSessionContextHolder.QUEUE_CAPACITY);
+        emitter.release();
+    }
+
+    @Test
+    void testNotifyNewSubscriptions() {
+        AtomicInteger notified = new AtomicInteger();
+        SseSessionContextHolder.onSubscribe("/TOPIC/LIVE", notified::incrementAndGet);
+        Assertions.assertThat(SseSessionContextHolder.hasSubscribers("/TOPIC/LIVE"))
+                .isFalse();
+
+        register("live", 1, "/TOPIC/LIVE");
+        SseSessionContextHolder.subscribeTopic("live", Arrays.asList("/TOPIC/LIVE", "/TOPIC/OTHER"));
+
+        Assertions.assertThat(notified).hasValue(1);
+        Assertions.assertThat(SseSessionContextHolder.hasSubscribers("/TOPIC/LIVE"))
+                .isTrue();
+        SseSessionContextHolder.closeSse("live");
+        Assertions.assertThat(SseSessionContextHolder.hasSubscribers("/TOPIC/LIVE"))
+                .isFalse();
+    }
+
+    private RecordingEmitter register(String sessionKey, int expected, String... topics) {
+        RecordingEmitter emitter = new RecordingEmitter(expected);
+        SseSessionContextHolder.register(sessionKey, emitter);
+        SseSessionContextHolder.subscribeTopic(sessionKey, Arrays.asList(topics));
+        sessions.add(sessionKey);
+        return emitter;
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<Object> received = new CopyOnWriteArrayList<>();
+        private final CountDownLatch done;
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private volatile CountDownLatch gate;
+
+        RecordingEmitter(int expected) {
+            this.done = new CountDownLatch(expected);
+        }
+
+        void block() {
+            gate = new CountDownLatch(1);
+        }
+
+        void release() {
+            gate.countDown();
+        }
+
+        boolean await() throws InterruptedException {
+            return done.await(10, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public void send(Object object) {
+            entered.countDown();
+            CountDownLatch current = gate;
+            if (current != null) {
+                try {
+                    current.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            received.add(((SseDataVo) object).getData());
+            done.countDown();
+        }
+    }
+}
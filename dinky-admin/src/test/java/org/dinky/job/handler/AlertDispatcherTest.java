@@ -0,0 +1,192 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.job.handler;
+
+import org.dinky.alert.Alert;
+import org.dinky.alert.AlertConfig;
+import org.dinky.alert.AlertResult;
+import org.dinky.context.FreeMarkerHolder;
+import org.dinky.data.dto.AlertRuleDTO;
+import org.dinky.data.dto.TaskDTO;
+import org.dinky.data.enums.JobLifeCycle;
+import org.dinky.data.model.alert.AlertGroup;
+import org.dinky.data.model.alert.AlertHistory;
+import org.dinky.data.model.alert.AlertInstance;
+import org.dinky.data.options.JobAlertRuleOptions;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AlertDispatcherTest {
+
+    private final List<String> sentTitles = new CopyOnWriteArrayList<>();
+    private final List<AlertHistory> histories = new CopyOnWriteArrayList<>();
+    private final AtomicInteger taskLookups = new AtomicInteger();
+    private volatile boolean failing;
+    private final FreeMarkerHolder templates = new FreeMarkerHolder();
+    private AlertDispatcher dispatcher;
+    private TaskDTO task;
+
+    @BeforeEach
+    void setUp() {
+        templates.putTemplate("template", "job ${" + JobAlertRuleOptions.FIELD_JOB_INSTANCE_ID + "} failed");
+        task = new TaskDTO();
+        task.setStep(JobLifeCycle.PUBLISH.getValue());
+        task.setAlertGroupId(1);
+
+        AlertInstance alertInstance = new AlertInstance();
+        alertInstance.setId(1);
+        alertInstance.setName("webhook");
+        alertInstance.setType("WebHook");
+        alertInstance.setEnabled(true);
+        AlertGroup alertGroup = new AlertGroup();
+        alertGroup.setId(1);
+        alertGroup.setInstances(Collections.singletonList(alertInstance));
+
+        dispatcher = new AlertDispatcher(
+                id -> {
+                    taskLookups.incrementAndGet();
+                    return task;
+                },
+                id -> alertGroup,
+                instance -> new RecordingAlert(),
+                histories::addAll,
+                60 * 60 * 1000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.close();
+    }
+
+    @Test
+    void testSuppressDuplicates() throws Exception {
+        dispatcher.dispatch(alert(1, 100));
+        dispatcher.dispatch(alert(1, 100));
+        dispatcher.dispatch(alert(2, 100));
+
+        Assertions.assertThat(dispatcher.getSuppressedCount().get()).isEqualTo(1);
+        Assertions.assertThat(taskLookups.get()).isEqualTo(1);
+        awaitHistories(2);
+    }
+
+    @Test
+    void testMergeAlertsOfReceiver() throws Exception {
+        dispatcher.dispatch(alert(1, 100));
+        dispatcher.dispatch(alert(1, 101));
+
+        awaitHistories(2);
+        Assertions.assertThat(sentTitles).containsExactly("2 alerts: rule");
+        Assertions.assertThat(histories)
+                .extracting(AlertHistory::getContent)
+                .containsExactlyInAnyOrder("job 100 failed", "job 101 failed");
+        Assertions.assertThat(histories).allMatch(history -> history.getStatus() == 1);
+        Assertions.assertThat(dispatcher.getSentCount().get()).isEqualTo(2);
+    }
+
+    @Test
+    void testResendAfterFailure() throws Exception {
+        failing = true;
+        dispatcher.dispatch(alert(1, 100));
+        awaitHistories(1);
+        Assertions.assertThat(histories.get(0).getStatus()).isEqualTo(0);
+
+        // only a successful send suppresses the alert
+        failing = false;
+        dispatcher.dispatch(alert(1, 100));
+        awaitHistories(2);
+        dispatcher.dispatch(alert(1, 100));
+
+        Assertions.assertThat(sentTitles).hasSize(2);
+        Assertions.assertThat(dispatcher.getSuppressedCount().get()).isEqualTo(1);
+    }
+
+    @Test
+    void testSendQueuedAlertsOnClose() {
+        dispatcher.submit(rule(1), dataModel(100), templates);
+        dispatcher.close();
+
+        Assertions.assertThat(sentTitles).containsExactly("rule");
+        Assertions.assertThat(histories).hasSize(1);
+    }
+
+    @Test
+    void testSkipUnpublishedTask() throws Exception {
+        task.setStep(JobLifeCycle.DEVELOP.getValue());
+        dispatcher.dispatch(alert(1, 100));
+        dispatcher.flush(true);
+
+        Assertions.assertThat(sentTitles).isEmpty();
+    }
+
+    private void awaitHistories(int expected) throws InterruptedException {
+        for (int i = 0; i < 100 && histories.size() < expected; i++) {
+            dispatcher.flush(true);
+            Thread.sleep(50);
+        }
+        Assertions.assertThat(histories).hasSize(expected);
+    }
+
+    private AlertDispatcher.FiredAlert alert(int ruleId, int jobInstanceId) {
+        return new AlertDispatcher.FiredAlert(rule(ruleId), dataModel(jobInstanceId), templates);
+    }
+
+    private static AlertRuleDTO rule(int ruleId) {
+        AlertRuleDTO rule = new AlertRuleDTO();
+        rule.setId(ruleId);
+        rule.setName("rule");
+        rule.setTemplateName("template");
+        return rule;
+    }
+
+    private static Map<String, Object> dataModel(int jobInstanceId) {
+        Map<String, Object> dataModel = new HashMap<>();
+        dataModel.put(JobAlertRuleOptions.FIELD_TASK_ID, 1);
+        dataModel.put(JobAlertRuleOptions.FIELD_JOB_INSTANCE_ID, jobInstanceId);
+        return dataModel;
+    }
+
+    private class RecordingAlert implements Alert {
+        @Override
+        public Alert setConfig(AlertConfig config) {
+            return this;
+        }
+
+        @Override
+        public String getType() {
+            return "WebHook";
+        }
+
+        @Override
+        public AlertResult send(String title, String content) {
+            sentTitles.add(title);
+            return failing ? new AlertResult(false, "failed") : new AlertResult(true, "ok");
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.job.handler;
+
+import org.dinky.data.dto.AlertRuleDTO;
+import org.dinky.data.model.ext.JobAlertData;
+import org.dinky.data.options.JobAlertRuleOptions;
+import org.dinky.job.handler.AlertRuleCompiler.CompiledAlertRule;
+import org.dinky.utils.JsonUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.spel.SpELCondition;
+import org.junit.jupiter.api.Test;
+
+import cn.hutool.core.text.StrFormatter;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+
+class AlertRuleCompilerTest {
+
+    @Test
+    void testCompileConstants() {
+        CompiledAlertRule failed = AlertRuleCompiler.compile(
+                rule(" or ", item(JobAlertRuleOptions.FIELD_NAME_JOB_STATUS, "EQ", "'FAILED'")));
+        CompiledAlertRule checkpoint = AlertRuleCompiler.compile(
+                rule(" or ", item(JobAlertRuleOptions.FIELD_NAME_CHECKPOINT_FAILED, "EQ", "true")));
+        CompiledAlertRule slow = AlertRuleCompiler.compile(rule(
+                " and ",
+                item(JobAlertRuleOptions.FIELD_NAME_DURATION, "GT", "1000"),
+                item(JobAlertRuleOptions.FIELD_NAME_CHECKPOINT_FAILED_COUNT, "ge", "2")));
+
+        Assertions.assertThat(failed.getFields()).containsExactly(JobAlertRuleOptions.FIELD_NAME_JOB_STATUS);
+        Assertions.assertThat(failed.getCondition().test(data("FAILED", 0, 0, false)))
+                .isTrue();
+        Assertions.assertThat(failed.getCondition().test(data("RUNNING", 0, 0, false)))
+                .isFalse();
+        Assertions.assertThat(checkpoint.getCondition().test(data("RUNNING", 0, 0, true)))
+                .isTrue();
+        Assertions.assertThat(slow.getCondition().test(data("RUNNING", 2000, 2, false)))
+                .isTrue();
+        Assertions.assertThat(slow.getCondition().test(data("RUNNING", 2000, 1, false)))
+                .isFalse();
+    }
+
+    @Test
+    void testSameResultAsSpel() {
+        List<AlertRuleDTO> rules = Arrays.asList(
+                rule(" or ", item(JobAlertRuleOptions.FIELD_NAME_JOB_STATUS, "NE", "'RUNNING'")),
+                rule(" and ", item(JobAlertRuleOptions.FIELD_NAME_DURATION, "LE", "1500")),
+                rule(
+                        " or ",
+                        item(JobAlertRuleOptions.FIELD_NAME_DURATION, "LT", "10.5"),
+                        item(JobAlertRuleOptions.FIELD_NAME_IS_EXCEPTION, "EQ", "true")),
+                // not a constant, falls back to SpEL
+                rule(" or ", item(JobAlertRuleOptions.FIELD_NAME_DURATION, "GT", "#checkpointFailedCount * 100")));
+        List<JobAlertData> jobs = Arrays.asList(
+                data("RUNNING", 0, 0, false),
+                data("FAILED", 1500, 20, true),
+                data("RUNNING", 3000, 1, false),
+                data("CANCELED", 5, 0, false));
+
+        for (AlertRuleDTO rule : rules) {
+            CompiledAlertRule compiled = AlertRuleCompiler.compile(rule);
+            for (JobAlertData job : jobs) {
+                Assertions.assertThat(compiled.getCondition().test(job))
+                        .as("%s on %s", rule.getRule(), job)
+                        .isEqualTo(spel(rule, job));
+            }
+        }
+    }
+
+    @Test
+    void testIndexCandidates() {
+        CompiledAlertRule status = AlertRuleCompiler.compile(
+                rule(" or ", item(JobAlertRuleOptions.FIELD_NAME_JOB_STATUS, "EQ", "'FAILED'")));
+        CompiledAlertRule checkpoint = AlertRuleCompiler.compile(
+                rule(" or ", item(JobAlertRuleOptions.FIELD_NAME_CHECKPOINT_FAILED, "EQ", "true")));
+        CompiledAlertRule unknown = AlertRuleCompiler.compile(rule(" or ", item("unknownField", "EQ", "1")));
+        AlertRuleIndex index = new AlertRuleIndex(Arrays.asList(status, checkpoint, unknown));
+
+        JobAlertData first = data("RUNNING", 0, 0, false);
+        Assertions.assertThat(unknown.getFields()).isNull();
+        Assertions.assertThat(index.candidates(null, first)).containsExactly(status, checkpoint, unknown);
+        Assertions.assertThat(index.candidates(first, data("RUNNING", 0, 0, false)))
+                .containsExactly(unknown);
+        Assertions.assertThat(index.candidates(first, data("FAILED", 0, 0, false)))
+                .containsExactlyInAnyOrder(unknown, status);
+    }
+
+    private static boolean spel(AlertRuleDTO rule, JobAlertData data) {
+        Facts facts = new Facts();
+        JsonUtils.toMap(data).forEach(facts::put);
+        return new SpELCondition(condition(rule)).evaluate(facts);
+    }
+
+    private static String condition(AlertRuleDTO rule) {
+        List<String> items = new ArrayList<>();
+        for (Object item : JSONUtil.parseArray(rule.getRule())) {
+            JSONObject json = (JSONObject) item;
+            items.add(StrFormatter.format(
+                    " #{} {} {} ", json.getStr("ruleKey"), json.getStr("ruleOperator"), json.getStr("ruleValue")));
+        }
+        return StrFormatter.format("#{{}}", String.join(rule.getTriggerConditions(), items));
+    }
+
+    private static AlertRuleDTO rule(String triggerConditions, String... items) {
+        AlertRuleDTO rule = new AlertRuleDTO();
+        rule.setName("rule");
+        rule.setTriggerConditions(triggerConditions);
+        rule.setRule("[" + String.join(",", items) + "]");
+        return rule;
+    }
+
+    private static String item(String key, String operator, String value) {
+        return StrFormatter.format(
+                "{\"ruleKey\":\"{}\",\"ruleOperator\":\"{}\",\"ruleValue\":\"{}\"}",
+                key,
+                operator,
+                value.replace("'", "\\u0027"));
+    }
+
+    private static JobAlertData data(String status, long duration, long failedCheckpoints, boolean exception) {
+        return JobAlertData.builder()
+                .jobStatus(status)
+                .duration(duration)
+                .checkpointFailedCount(failedCheckpoints)
+                .isCheckpointFailed(exception)
+                .isException(exception)
+                .build();
+    }
+}
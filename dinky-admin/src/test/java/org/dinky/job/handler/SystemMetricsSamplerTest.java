@@ -0,0 +1,74 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.job.handler;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+class SystemMetricsSamplerTest {
+
+    private final SystemMetricsSampler sampler = SystemMetricsSampler.getInstance();
+
+    @Test
+    void testSampleOnlyWhileSubscribed() throws Exception {
+        RecordingEmitter first = new RecordingEmitter();
+        RecordingEmitter second = new RecordingEmitter();
+        String firstKey = sampler.subscribe(first);
+        String secondKey = sampler.subscribe(second);
+        Assertions.assertThat(sampler.isSampling()).isTrue();
+
+        await(() -> !first.received.isEmpty() && !second.received.isEmpty());
+        // both emitters are served from the same snapshot, sent by the send queues of their own sessions
+        Assertions.assertThat(first.received.get(0)).isEqualTo(second.received.get(0));
+        Assertions.assertThat(first.senders).allMatch(name -> name.startsWith("sse-send-"));
+
+        sampler.unsubscribe(firstKey);
+        sampler.unsubscribe(secondKey);
+        await(() -> !sampler.isSampling());
+        long samples = sampler.getSampleCount().get();
+        Thread.sleep(200);
+        Assertions.assertThat(sampler.getSampleCount()).hasValue(samples);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<Object> received = new CopyOnWriteArrayList<>();
+        private final List<String> senders = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void send(Object object) {
+            received.add(object);
+            senders.add(Thread.currentThread().getName());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import org.dinky.data.vo.MetricsVO;
+
+import org.apache.paimon.data.Timestamp;
+
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.json.JSONObject;
+
+class MetricsDownsamplerTest {
+
+    private static final long START = 1_694_736_000_000L;
+
+    @Test
+    void testBucketAggregation() {
+        MetricsDownsampler avg =
+                new MetricsDownsampler(START, START + 1000 * 100, 10, MetricsDownsampler.Aggregation.AVG, null);
+        MetricsDownsampler max =
+                new MetricsDownsampler(START, START + 1000 * 100, 10, MetricsDownsampler.Aggregation.MAX, null);
+        for (int i = 0; i < 100; i++) {
+            String content = "{\"jvm\":{\"heapUsed\":" + i + "},\"v1\":{\"0.numRecordsIn\":\"" + i + "\"},\"host\":\"h"
+                    + i + "\"}";
+            avg.add("local", Timestamp.fromEpochMillis(START + 1000L * i), content);
+            max.add("local", Timestamp.fromEpochMillis(START + 1000L * i), content);
+        }
+
+        List<MetricsVO> avgResult = avg.result();
+        Assertions.assertThat(avgResult).hasSize(10);
+        JSONObject first = (JSONObject) avgResult.get(0).getContent();
+        Assertions.assertThat(first.getByPath("jvm.heapUsed", Double.class)).isEqualTo(4.5);
+        Assertions.assertThat(first.getJSONObject("v1").getDouble("0.numRecordsIn"))
+                .isEqualTo(4.5);
+        Assertions.assertThat(first.getStr("host")).isEqualTo("h9");
+        Assertions.assertThat(avgResult.get(1).getHeartTime())
+                .isEqualTo(Timestamp.fromEpochMillis(START + 10_000).toLocalDateTime());
+
+        JSONObject last = (JSONObject) max.result().get(9).getContent();
+        Assertions.assertThat(last.getByPath("jvm.heapUsed", Double.class)).isEqualTo(99);
+    }
+
+    @Test
+    void testPassThroughWithFields() {
+        MetricsDownsampler downsampler = new MetricsDownsampler(
+                START, START + 10_000, null, MetricsDownsampler.Aggregation.AVG, CollUtil.newArrayList("jvm.heapUsed"));
+        downsampler.add(
+                "local", Timestamp.fromEpochMillis(START + 1), "{\"jvm\":{\"heapUsed\":1,\"heapMax\":2},\"cpu\":3}");
+        downsampler.add("local", Timestamp.fromEpochMillis(START + 2), "{\"jvm\":{\"heapUsed\":5},\"cpu\":3}");
+
+        List<MetricsVO> result = downsampler.result();
+        Assertions.assertThat(result).hasSize(2);
+        Assertions.assertThat(result.get(0).getContent().toString()).isEqualTo("{\"jvm\":{\"heapUsed\":1}}");
+        Assertions.assertThat(result.get(1).getContent().toString()).isEqualTo("{\"jvm\":{\"heapUsed\":5}}");
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import org.dinky.data.paimon.CacheData;
+import org.dinky.data.vo.MetricsVO;
+
+import org.apache.paimon.data.BinaryRow;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import cn.hutool.json.JSONUtil;
+
+class PaimonRowCodecTest {
+
+    private static MetricsVO metrics(int i) {
+        Map<String, Object> content = new HashMap<>();
+        content.put("cpu", i);
+        content.put("heap", "1024");
+        return new MetricsVO(LocalDateTime.of(2023, 9, 15, 14, 30, i % 60), "local", content, "2023-09-15");
+    }
+
+    private static CacheData cacheData(int i) {
+        return CacheData.builder()
+                .cacheName("metadata_schema")
+                .key("key" + i)
+                .data("{\"id\":" + i + "}")
+                .build();
+    }
+
+    @Test
+    void testMetricsRoundTrip() {
+        PaimonRowCodec<MetricsVO> codec = PaimonRowCodec.of(MetricsVO.class);
+        MetricsVO metricsVO = metrics(1);
+        MetricsVO result = codec.fromRow(codec.toRow(metricsVO));
+        Assertions.assertThat(result.getHeartTime()).isEqualTo(metricsVO.getHeartTime());
+        Assertions.assertThat(result.getModel()).isEqualTo("local");
+        Assertions.assertThat(result.getDate()).isEqualTo("2023-09-15");
+        Assertions.assertThat(result.getContent()).isEqualTo(JSONUtil.toJsonStr(metricsVO.getContent()));
+    }
+
+    @Test
+    void testCacheDataRoundTripWithNull() {
+        PaimonRowCodec<CacheData> codec = PaimonRowCodec.of(CacheData.class);
+        CacheData cacheData = cacheData(1);
+        cacheData.setData(null);
+        BinaryRow row = codec.toRow(cacheData);
+        Assertions.assertThat(row.isNullAt(2)).isTrue();
+        CacheData result = codec.fromRow(row);
+        Assertions.assertThat(result.getCacheName()).isEqualTo("metadata_schema");
+        Assertions.assertThat(result.getKey()).isEqualTo("key1");
+        Assertions.assertThat(result.getData()).isNull();
+    }
+
+    @Test
+    void testJsonFieldRoundTrip() {
+        PaimonRowCodec<JsonHolder> codec = PaimonRowCodec.of(JsonHolder.class);
+        JsonHolder holder = new JsonHolder();
+        holder.value = new HashMap<>();
+        holder.value.put("cpu", 1);
+        Assertions.assertThat(codec.fromRow(codec.toRow(holder)).value).containsEntry("cpu", 1);
+    }
+
+    @Test
+    void testReadFailureIsNotSwallowed() {
+        StringHolder holder = new StringHolder();
+        holder.value = "not json";
+        BinaryRow row = PaimonRowCodec.of(StringHolder.class).toRow(holder);
+        Assertions.assertThatThrownBy(() -> PaimonRowCodec.of(JsonHolder.class).fromRow(row))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("value");
+    }
+
+    static class JsonHolder {
+        private Map<String, Object> value;
+    }
+
+    static class StringHolder {
+        private String value;
+    }
+}
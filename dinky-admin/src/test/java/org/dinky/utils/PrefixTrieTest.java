@@ -0,0 +1,55 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class PrefixTrieTest {
+
+    @Test
+    void prefixIsCaseInsensitiveAndOrdered() {
+        PrefixTrie<String> trie = new PrefixTrie<>();
+        trie.put("Orders", "orders");
+        trie.put("order_items", "order_items");
+        trie.put("users", "users");
+
+        Assertions.assertThat(trie.prefix("ORD", 10)).containsExactly("order_items", "orders");
+        Assertions.assertThat(trie.prefix("", 10)).containsExactly("order_items", "orders", "users");
+        Assertions.assertThat(trie.prefix("ord", 1)).containsExactly("order_items");
+        Assertions.assertThat(trie.prefix("x", 10)).isEmpty();
+        Assertions.assertThat(trie.prefix("ord", 10, v -> !v.contains("_"))).containsExactly("orders");
+    }
+
+    @Test
+    void removePrunesEmptyBranches() {
+        PrefixTrie<String> trie = new PrefixTrie<>();
+        Assertions.assertThat(trie.put("abc", "1")).isTrue();
+        Assertions.assertThat(trie.put("abc", "1")).isFalse();
+        trie.put("ab", "2");
+
+        Assertions.assertThat(trie.remove("abc", "2")).isFalse();
+        Assertions.assertThat(trie.remove("abc", "1")).isTrue();
+        Assertions.assertThat(trie.prefix("a", 10)).containsExactly("2");
+        Assertions.assertThat(trie.remove("ab", "2")).isTrue();
+        Assertions.assertThat(trie.isEmpty()).isTrue();
+        Assertions.assertThat(trie.prefix("", 10)).isEmpty();
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import org.dinky.data.enums.SuggestionSource;
+import org.dinky.data.vo.suggestion.SuggestionDeltaVO;
+import org.dinky.data.vo.suggestion.SuggestionLabelVO;
+import org.dinky.data.vo.suggestion.SuggestionVO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SuggestionIndexTest {
+
+    private SuggestionIndex index;
+
+    private static SuggestionVO suggestion(String key, String label) {
+        return SuggestionVO.builder()
+                .key(key)
+                .label(SuggestionLabelVO.builder().label(label).build())
+                .insertText(label)
+                .build();
+    }
+
+    private static List<String> labels(List<SuggestionVO> suggestions) {
+        return suggestions.stream().map(s -> s.getLabel().getLabel()).collect(Collectors.toList());
+    }
+
+    private static List<SuggestionIndex.Entry> schema(String... tables) {
+        List<SuggestionIndex.Entry> entries = new ArrayList<>();
+        entries.add(SuggestionIndex.Entry.of(SuggestionSource.SCHEMA, suggestion("ods", "ods")));
+        for (String table : tables) {
+            entries.add(SuggestionIndex.Entry.of(SuggestionSource.SCHEMA, suggestion("ods." + table, table)));
+            entries.add(SuggestionIndex.Entry.member(
+                    SuggestionSource.SCHEMA, suggestion("ods." + table + "#member", table), "ods"));
+            entries.add(SuggestionIndex.Entry.member(
+                    SuggestionSource.SCHEMA, suggestion("ods." + table + ".id", "id"), table, "ods." + table));
+        }
+        return entries;
+    }
+
+    @BeforeEach
+    void setUp() {
+        index = new SuggestionIndex();
+        index.replace(
+                SuggestionSource.DOCUMENT,
+                1,
+                Arrays.asList(
+                        SuggestionIndex.Entry.of(SuggestionSource.DOCUMENT, suggestion("1_document", "SELECT")),
+                        SuggestionIndex.Entry.of(SuggestionSource.DOCUMENT, suggestion("2_document", "SET")),
+                        SuggestionIndex.Entry.of(
+                                SuggestionSource.FLINK_CONF,
+                                suggestion("p_flink_conf", "set parallelism.default"),
+                                "parallelism.default")));
+        index.replace(SuggestionSource.SCHEMA, 1, schema("orders", "order_items"));
+    }
+
+    @Test
+    void completesTopLevelByPrefix() {
+        Assertions.assertThat(labels(index.complete("se", 10, true)))
+                .containsExactly("SELECT", "SET", "set parallelism.default");
+        Assertions.assertThat(labels(index.complete("ord", 10, true))).containsExactly("order_items", "orders");
+        // dotted keys without a matching qualifier complete as a whole
+        Assertions.assertThat(labels(index.complete("parallelism.de", 10, true)))
+                .containsExactly("set parallelism.default");
+        Assertions.assertThat(index.complete("se", 1, true)).hasSize(1);
+        // schema suggestions follow the others and are left out when disabled
+        Assertions.assertThat(labels(index.complete("o", 10, true))).containsExactly("ods", "order_items", "orders");
+        Assertions.assertThat(index.complete("o", 10, false)).isEmpty();
+    }
+
+    @Test
+    void completesMembersOfQualifier() {
+        Assertions.assertThat(labels(index.complete("ods.", 10, true))).containsExactly("order_items", "orders");
+        Assertions.assertThat(labels(index.complete("ODS.orders", 10, true))).containsExactly("orders");
+        Assertions.assertThat(labels(index.complete("orders.", 10, true))).containsExactly("id");
+        Assertions.assertThat(labels(index.complete("ods.orders.i", 10, true))).containsExactly("id");
+        Assertions.assertThat(index.complete("ods.orders", 10, false)).isEmpty();
+    }
+
+    @Test
+    void replacingSourceProducesDelta() {
+        long version = index.getVersion();
+        index.replace(SuggestionSource.SCHEMA, 2, schema("orders", "users"));
+
+        SuggestionDeltaVO delta = index.getChangesSince(version, e -> true);
+        Assertions.assertThat(delta.isFull()).isFalse();
+        Assertions.assertThat(labels(delta.getSuggestions())).containsExactly("users");
+        Assertions.assertThat(delta.getRemovedKeys()).containsExactly("ods.order_items");
+        Assertions.assertThat(labels(index.complete("ods.", 10, true))).containsExactly("orders", "users");
+        Assertions.assertThat(index.complete("order_items.", 10, true)).isEmpty();
+
+        // an unchanged reload changes nothing
+        index.replace(SuggestionSource.SCHEMA, 3, schema("orders", "users"));
+        Assertions.assertThat(
+                        index.getChangesSince(delta.getVersion(), e -> true).getSuggestions())
+                .isEmpty();
+    }
+
+    @Test
+    void unknownVersionGetsFullSet() {
+        SuggestionDeltaVO delta = index.getChangesSince(index.getVersion() + 10, e -> true);
+        Assertions.assertThat(delta.isFull()).isTrue();
+        Assertions.assertThat(labels(delta.getSuggestions()))
+                .containsExactlyInAnyOrder("SELECT", "SET", "set parallelism.default", "ods", "orders", "order_items");
+    }
+
+    @Test
+    void reloadsChangedOrExpiredSources() {
+        Assertions.assertThat(index.needsReload(SuggestionSource.DOCUMENT, 1, Long.MAX_VALUE))
+                .isFalse();
+        Assertions.assertThat(index.needsReload(SuggestionSource.DOCUMENT, 2, Long.MAX_VALUE))
+                .isTrue();
+        Assertions.assertThat(index.needsReload(SuggestionSource.DOCUMENT, 1, -1))
+                .isTrue();
+        Assertions.assertThat(index.needsReload(SuggestionSource.UDF, 0, Long.MAX_VALUE))
+                .isTrue();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+class TreeIndexTest {
+
+    @Data
+    @AllArgsConstructor
+    static class Node {
+        private Integer id;
+        private Integer parentId;
+        private String name;
+    }
+
+    private final List<Node> table = new ArrayList<>();
+    private final AtomicInteger loads = new AtomicInteger();
+    private TreeIndex<Node> index;
+
+    @BeforeEach
+    void setUp() {
+        // 1
+        // ├── 2
+        // │   ├── 4
+        // │   └── 5
+        // │       └── 7
+        // └── 3
+        //     └── 6
+        table.add(new Node(1, -1, "root"));
+        table.add(new Node(2, 1, "a"));
+        table.add(new Node(3, 1, "b"));
+        table.add(new Node(4, 2, "a1"));
+        table.add(new Node(5, 2, "a2"));
+        table.add(new Node(6, 3, "b1"));
+        table.add(new Node(7, 5, "a21"));
+        index = new TreeIndex<>(
+                Node::getId,
+                Node::getParentId,
+                node -> new Node(node.getId(), node.getParentId(), node.getName()),
+                () -> {
+                    loads.incrementAndGet();
+                    return new ArrayList<>(table);
+                },
+                60_000);
+    }
+
+    private static List<Integer> ids(List<Node> nodes) {
+        return nodes.stream().map(Node::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    void testQueriesLoadOnce() {
+        Assertions.assertThat(ids(index.getChildren(2))).containsExactly(4, 5);
+        Assertions.assertThat(ids(index.getDescendants(1))).containsExactly(2, 4, 5, 7, 3, 6);
+        Assertions.assertThat(ids(index.getDescendants(1, 2))).containsExactly(2, 4, 5, 3, 6);
+        Assertions.assertThat(ids(index.getAncestors(7))).containsExactly(7, 5, 2, 1);
+        Assertions.assertThat(ids(index.getAll())).containsExactly(1, 2, 3, 4, 5, 6, 7);
+        Assertions.assertThat(index.hasChildren(4)).isFalse();
+        Assertions.assertThat(index.get(42)).isEmpty();
+        Assertions.assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testReturnsCopies() {
+        index.get(2).ifPresent(node -> node.setName("changed"));
+        Assertions.assertThat(index.get(2).map(Node::getName)).contains("a");
+    }
+
+    @Test
+    void testPutMovesAndRemoveDropsSubtree() {
+        index.getAll();
+        long version = index.getVersion();
+
+        index.put(new Node(5, 3, "a2"));
+        index.put(new Node(8, 7, "new"));
+        Assertions.assertThat(ids(index.getChildren(2))).containsExactly(4);
+        Assertions.assertThat(ids(index.getDescendants(3))).containsExactly(5, 7, 8, 6);
+        Assertions.assertThat(ids(index.getAncestors(8))).containsExactly(8, 7, 5, 3, 1);
+
+        index.remove(5);
+        Assertions.assertThat(ids(index.getAll())).containsExactly(1, 2, 3, 4, 6);
+        Assertions.assertThat(index.getVersion()).isGreaterThan(version);
+        Assertions.assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testInvalidateReloads() {
+        index.getAll();
+        index.put(new Node(9, 1, "ignored"));
+        table.add(new Node(8, 1, "c"));
+        index.invalidate();
+
+        Assertions.assertThat(ids(index.getChildren(1))).containsExactly(2, 3, 8);
+        Assertions.assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testChangesBeforeLoadAreIgnored() {
+        index.put(new Node(9, 1, "not in table"));
+        Assertions.assertThat(ids(index.getChildren(1))).containsExactly(2, 3);
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.utils;
+
+import org.dinky.data.model.OperateLog;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WriteBehindQueueTest {
+
+    @TempDir
+    Path spillDir;
+
+    private final List<List<OperateLog>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    void testWriteInBatchesAndFlushOnClose() {
+        WriteBehindQueue<OperateLog> queue = new WriteBehindQueue<>(
+                "test-log", OperateLog.class, 100, 10, 60_000, spillDir.toFile(), logs -> batches.add(copy(logs)));
+        for (int i = 0; i < 25; i++) {
+            queue.offer(operateLog(i));
+        }
+        queue.close();
+
+        Assertions.assertThat(batches)
+                .allSatisfy(batch -> Assertions.assertThat(batch).hasSizeLessThanOrEqualTo(10));
+        Assertions.assertThat(written()).hasSize(25);
+        Assertions.assertThat(queue.getWrittenCount()).hasValue(25);
+        Assertions.assertThat(queue.getSpilledCount()).hasValue(0);
+    }
+
+    @Test
+    void testFailedBatchIsSpilledAndReplayed() throws Exception {
+        AtomicBoolean failing = new AtomicBoolean(true);
+        WriteBehindQueue<OperateLog> queue =
+                new WriteBehindQueue<>("test-log", OperateLog.class, 100, 10, 20, spillDir.toFile(), logs -> {
+                    if (failing.get()) {
+                        throw new IllegalStateException("database is down");
+                    }
+                    batches.add(copy(logs));
+                });
+        for (int i = 0; i < 5; i++) {
+            queue.offer(operateLog(i));
+        }
+        await(() -> queue.getSpilledCount().get() == 5);
+        Assertions.assertThat(new File(spillDir.toFile(), "test-log.spill")).exists();
+
+        failing.set(false);
+        queue.offer(operateLog(5));
+        await(() -> queue.getReplayedCount().get() == 5);
+        queue.close();
+
+        Assertions.assertThat(written()).hasSize(6);
+        Assertions.assertThat(written().get(0).getOperateTime())
+                .isEqualTo(operateLog(0).getOperateTime());
+        Assertions.assertThat(new File(spillDir.toFile(), "test-log.spill")).doesNotExist();
+    }
+
+    @Test
+    void testFullBufferSpillsToDisk() throws Exception {
+        CountDownLatch slowDatabase = new CountDownLatch(1);
+        WriteBehindQueue<OperateLog> queue =
+                new WriteBehindQueue<>("test-log", OperateLog.class, 2, 2, 20, spillDir.toFile(), logs -> {
+                    try {
+                        slowDatabase.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    batches.add(copy(logs));
+                });
+        for (int i = 0; i < 20; i++) {
+            queue.offer(operateLog(i));
+        }
+        Assertions.assertThat(queue.getSpilledCount().get()).isPositive();
+
+        slowDatabase.countDown();
+        await(() -> queue.getWrittenCount().get() == 20);
+        queue.close();
+
+        Assertions.assertThat(written()).hasSize(20);
+        Assertions.assertThat(queue.getDroppedCount()).hasValue(0);
+    }
+
+    @Test
+    void testRecordsArePreparedOnTheWriterThread() throws Exception {
+        List<String> preparedBy = Collections.synchronizedList(new ArrayList<>());
+        AtomicBoolean failing = new AtomicBoolean(true);
+        WriteBehindQueue<OperateLog> queue = new WriteBehindQueue<>(
+                "test-log",
+                OperateLog.class,
+                100,
+                10,
+                20,
+                spillDir.toFile(),
+                operateLog -> {
+                    preparedBy.add(Thread.currentThread().getName());
+                    if (operateLog.getResult() != null) {
+                        operateLog.setJsonResult(String.valueOf(operateLog.getResult()));
+                        operateLog.setResult(null);
+                    }
+                },
+                logs -> {
+                    if (failing.get()) {
+                        throw new IllegalStateException("database is down");
+                    }
+                    batches.add(copy(logs));
+                });
+        OperateLog operateLog = operateLog(0);
+        operateLog.setResult("ok");
+        queue.offer(operateLog);
+        await(() -> queue.getSpilledCount().get() == 1);
+
+        failing.set(false);
+        queue.offer(operateLog(1));
+        await(() -> queue.getReplayedCount().get() == 1);
+        queue.close();
+
+        Assertions.assertThat(preparedBy).containsOnly("test-log-writer");
+        // the spilled record was prepared before it was written to the spill file
+        Assertions.assertThat(written().get(0).getJsonResult()).isEqualTo("ok");
+    }
+
+    private List<OperateLog> written() {
+        List<OperateLog> result = new ArrayList<>();
+        batches.forEach(result::addAll);
+        result.sort((a, b) -> a.getModuleName().compareTo(b.getModuleName()));
+        return result;
+    }
+
+    private static List<OperateLog> copy(List<OperateLog> logs) {
+        return new ArrayList<>(logs);
+    }
+
+    private static OperateLog operateLog(int i) {
+        OperateLog operateLog = new OperateLog();
+        operateLog.setModuleName(String.format("module-%02d", i));
+        operateLog.setOperateTime(LocalDateTime.of(2023, 1, 1, 0, 0, i));
+        return operateLog;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.flink.catalog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+public class CatalogLookupMetricsTest {
+
+    @Test
+    public void testGauges() {
+        CatalogLookupMetrics metrics = new CatalogLookupMetrics();
+        metrics.recordLookup(TimeUnit.MILLISECONDS.toNanos(2));
+        metrics.recordLookup(TimeUnit.MILLISECONDS.toNanos(4));
+        metrics.recordCacheHit();
+        metrics.recordLoad(TimeUnit.MILLISECONDS.toNanos(3));
+
+        assertEquals(2, metrics.getLookupCount());
+        assertEquals(1, metrics.getCacheHitCount());
+        assertEquals(1, metrics.getLoadCount());
+        assertEquals(3D, metrics.getLookupAvgMillis(), 1e-9);
+        assertEquals(4D, metrics.getLookupMaxMillis(), 1e-9);
+        assertEquals(3D, metrics.getLoadAvgMillis(), 1e-9);
+    }
+
+    @Test
+    public void testRegisteredAsMBean() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name =
+                new ObjectName("org.dinky.flink.catalog:type=DinkyMysqlCatalog,name=" + ObjectName.quote("my catalog"));
+        CatalogLookupMetrics metrics = new CatalogLookupMetrics();
+        metrics.register("my catalog");
+        try {
+            metrics.recordLookup(TimeUnit.MILLISECONDS.toNanos(5));
+            assertEquals(1L, server.getAttribute(name, "LookupCount"));
+            assertEquals(5D, (Double) server.getAttribute(name, "LookupAvgMillis"), 1e-9);
+
+            // a second catalog of the same name keeps the first registration
+            CatalogLookupMetrics other = new CatalogLookupMetrics();
+            other.register("my catalog");
+            other.unregister();
+            assertTrue(server.isRegistered(name));
+        } finally {
+            metrics.unregister();
+        }
+        assertFalse(server.isRegistered(name));
+    }
+}
@@ -65,10 +65,16 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -94,8 +100,9 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
     }
 
     private static final String COMMENT = "comment";
-    /** 判断是否发生过SQL异常，如果发生过，那么conn可能失效。要注意判断 */
-    private boolean sqlExceptionHappened = false;
+
+    /** 等待连接池空闲连接的最长时间 */
+    private static final long BORROW_TIMEOUT_MILLIS = 30_000;
 
     /** 对象类型，例如 库、表、视图等 */
     protected static class ObjectType {
@@ -131,9 +138,24 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
     /** 数据库连接 */
     private final String url;
 
+    /** 连接池大小 */
+    private final int poolSize;
+    /** 表缓存有效期，不大于 0 时不缓存 */
+    private final long tableCacheTtlMillis;
+
     /** 默认database */
     private static final String defaultDatabase = "default_database";
 
+    private CatalogConnectionPool connectionPool;
+
+    /** 按 database 缓存已解析的表，库内任意表变更时版本号递增，旧版本的缓存随之失效 */
+    private final Map<String, DatabaseTables> tableCache = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicLong> tableVersions = new ConcurrentHashMap<>();
+
+    /** getTable 的耗时统计，用于观察作业规划阶段的 catalog 开销 */
+    private final CatalogLookupMetrics lookupMetrics = new CatalogLookupMetrics();
+
     /**
      * 数据库用户名
      *
@@ -162,21 +184,35 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
     }
 
     public DinkyMysqlCatalog(String name, String url, String user, String pwd) {
+        this(
+                name,
+                url,
+                user,
+                pwd,
+                DinkyMysqlCatalogFactoryOptions.POOL_SIZE.defaultValue(),
+                DinkyMysqlCatalogFactoryOptions.TABLE_CACHE_TTL.defaultValue());
+    }
+
+    public DinkyMysqlCatalog(String name, String url, String user, String pwd, int poolSize, Duration tableCacheTtl) {
         super(name, defaultDatabase);
         this.url = url;
         this.user = user;
         this.pwd = pwd;
+        this.poolSize = poolSize;
+        this.tableCacheTtlMillis = tableCacheTtl.toMillis();
     }
 
     public DinkyMysqlCatalog(String name) {
-        super(name, defaultDatabase);
-        this.url = DinkyMysqlCatalogFactoryOptions.URL.defaultValue();
-        this.user = DinkyMysqlCatalogFactoryOptions.USERNAME.defaultValue();
-        this.pwd = DinkyMysqlCatalogFactoryOptions.PASSWORD.defaultValue();
+        this(
+                name,
+                DinkyMysqlCatalogFactoryOptions.URL.defaultValue(),
+                DinkyMysqlCatalogFactoryOptions.USERNAME.defaultValue(),
+                DinkyMysqlCatalogFactoryOptions.PASSWORD.defaultValue());
     }
 
     @Override
     public void open() throws CatalogException {
+        lookupMetrics.register(getName());
         // 验证连接是否有效
         // 获取默认db看看是否存在
         Integer defaultDbId = getDatabaseId(defaultDatabase);
@@ -191,51 +227,51 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
 
     @Override
     public void close() throws CatalogException {
-        if (connection != null) {
-            try {
-                connection.close();
-                connection = null;
-            } catch (SQLException e) {
-                sqlExceptionHappened = true;
-                throw new CatalogException("Fail to close connection.", e);
+        synchronized (this) {
+            if (connectionPool != null) {
+                connectionPool.close();
+                connectionPool = null;
             }
         }
+        tableCache.clear();
+        lookupMetrics.unregister();
+        if (lookupMetrics.getLookupCount() > 0) {
+            logger.info("Catalog {} table lookups: {}", getName(), lookupMetrics);
+        }
     }
 
-    private Connection connection;
-
+    /**
+     * 从连接池借出连接，使用完毕后需要 close 归还。
+     *
+     * @return 数据库连接
+     */
     protected Connection getConnection() throws CatalogException {
-        try {
-            // todo: 包装一个方法用于获取连接，方便后续改造使用其他的连接生成。
-            // Class.forName(MYSQL_DRIVER);
-            if (connection == null) {
-                connection = DriverManager.getConnection(url, user, pwd);
+        CatalogConnectionPool pool;
+        synchronized (this) {
+            if (connectionPool == null) {
+                connectionPool = new CatalogConnectionPool(
+                        () -> DriverManager.getConnection(url, user, pwd), poolSize, BORROW_TIMEOUT_MILLIS);
             }
-            if (sqlExceptionHappened) {
-                sqlExceptionHappened = false;
-                if (!connection.isValid(10)) {
-                    connection.close();
-                }
-                if (connection.isClosed()) {
-                    connection = null;
-                    return getConnection();
-                }
-                connection = null;
-                return getConnection();
-            }
-
-            return connection;
-        } catch (Exception e) {
-            throw new CatalogException("Fail to get connection.", e);
+            pool = connectionPool;
         }
+        return pool.getConnection();
+    }
+
+    /**
+     * 表查询的耗时统计，open 后同时注册为 JMX MBean
+     *
+     * @return 查询次数、缓存命中次数、批量加载次数及耗时（毫秒）
+     */
+    public CatalogLookupMetrics getLookupMetrics() {
+        return lookupMetrics;
     }
 
     @Override
     public List<String> listDatabases() throws CatalogException {
         List<String> myDatabases = new ArrayList<>();
         String querySql = "SELECT database_name FROM metadata_database";
-        Connection conn = getConnection();
-        try (PreparedStatement ps = conn.prepareStatement(querySql)) {
+        try (Connection conn = getConnection();
+                PreparedStatement ps = conn.prepareStatement(querySql)) {
 
             ResultSet rs = ps.executeQuery();
             while (rs.next()) {
@@ -252,8 +288,8 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
     @Override
     public CatalogDatabase getDatabase(String databaseName) throws DatabaseNotExistException, CatalogException {
         String querySql = "SELECT id, database_name,description " + " FROM metadata_database where database_name=?";
-        Connection conn = getConnection();
-        try (PreparedStatement ps = conn.prepareStatement(querySql)) {
+        try (Connection conn = getConnection();
+                PreparedStatement ps = conn.prepareStatement(querySql)) {
             ps.setString(1, databaseName);
             ResultSet rs = ps.executeQuery();
 
@@ -271,7 +307,6 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
                         map.put(prs.getString("key"), prs.getString("value"));
                     }
                 } catch (SQLException e) {
-                    sqlExceptionHappened = true;
                     throw new CatalogException(
                             String.format("Failed get database properties in catalog %s", getName()), e);
                 }
@@ -281,7 +316,6 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
                 throw new DatabaseNotExistException(getName(), databaseName);
             }
         } catch (SQLException e) {
-            sqlExceptionHappened = true;
             throw new CatalogException(String.format("Failed get database in catalog %s", getName()), e);
         }
     }
@@ -293,8 +327,8 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
 
     private Integer getDatabaseId(String databaseName) throws CatalogException {
         String querySql = "select id from metadata_database where database_name=?";
-        Connection conn = getConnection();
-        try (PreparedStatement ps = conn.prepareStatement(querySql)) {
+        try (Connection conn = getConnection();
+                PreparedStatement ps = conn.prepareStatement(querySql)) {
             ps.setString(1, databaseName);
             ResultSet rs = ps.executeQuery();
             boolean multiDB = false;
@@ -309,7 +343,6 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
             }
             return id;
         } catch (SQLException e) {
-            sqlExceptionHappened = true;
             throw new CatalogException(String.format("获取 database 信息失败：%s.%s", getName(), databaseName), e);
         }
     }
@@ -326,11 +359,11 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
             }
         } else {
             // 在这里实现创建库的代码
-            Connection conn = getConnection();
             // 启动事务
             String insertSql = "insert into metadata_database(database_name, description) values(?, ?)";
 
-            try (PreparedStatement stat = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
+            try (Connection conn = getConnection();
+                    PreparedStatement stat = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
                 conn.setAutoCommit(false);
                 stat.setString(1, databaseName);
                 stat.setString(2, db.getComment());
@@ -354,7 +387,6 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
                 }
                 conn.commit();
             } catch (SQLException e) {
-                sqlExceptionHappened = true;
                 logger.error("创建 database 信息失败：", e);
             }
         }
@@ -374,25 +406,24 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
             }
             return;
         }
-        Connection conn = getConnection();
-        try {
-            conn.setAutoCommit(false);
-            // 查询是否有表
-            List<String> tables = listTables(name);
-            if (tables.size() > 0) {
-                if (!cascade) {
-                    // 有表，不做级联删除。
-                    throw new DatabaseNotEmptyException(getName(), name);
-                }
-                // 做级联删除
-                for (String table : tables) {
-                    try {
-                        dropTable(new ObjectPath(name, table), true);
-                    } catch (TableNotExistException t) {
-                        logger.warn("表{}不存在", name + "." + table);
-                    }
+        // 查询是否有表
+        List<String> tables = listTables(name);
+        if (tables.size() > 0) {
+            if (!cascade) {
+                // 有表，不做级联删除。
+                throw new DatabaseNotEmptyException(getName(), name);
+            }
+            // 做级联删除
+            for (String table : tables) {
+                try {
+                    dropTable(new ObjectPath(name, table), true);
+                } catch (TableNotExistException t) {
+                    logger.warn("表{}不存在", name + "." + table);
                 }
             }
+        }
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
             // todo: 现在是真实删除，后续设计是否做记录保留。
             String deletePropSql = "delete from metadata_database_property where database_id=?";
             PreparedStatement dStat = conn.prepareStatement(deletePropSql);
@@ -406,8 +437,9 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
             dStat.close();
             conn.commit();
         } catch (SQLException e) {
-            sqlExceptionHappened = true;
             throw new CatalogException("删除 database 信息失败：", e);
+        } finally {
+            invalidateTables(name);
         }
     }
 
@@ -425,8 +457,7 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
             }
             return;
         }
-        Connection conn = getConnection();
-        try {
+        try (Connection conn = getConnection()) {
             conn.setAutoCommit(false);
             // 1、名称不能改，类型不能改。只能改备注
             String updateCommentSql = "update metadata_database set description=? where id=?";
@@ -452,7 +483,6 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
             }
             conn.commit();
         } catch (SQLException e) {
-            sqlExceptionHappened = true;
             throw new CatalogException("修改 database 信息失败：", e);
         }
     }
@@ -477,8 +507,8 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
         // get all schemas
         // 要给出table 或 view
         String querySql = "SELECT table_name FROM metadata_table where table_type=? and database_id = ?";
-        Connection conn = getConnection();
-        try (PreparedStatement ps = conn.prepareStatement(querySql)) {
+        try (Connection conn = getConnection();
+                PreparedStatement ps = conn.prepareStatement(querySql)) {
             ps.setString(1, tableType);
             ps.setInt(2, databaseId);
             ResultSet rs = ps.executeQuery();
@@ -497,104 +527,128 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
 
     @Override
     public CatalogBaseTable getTable(ObjectPath tablePath) throws TableNotExistException, CatalogException {
-        // 还是分步骤来
-        // 1、先取出表 这可能是view也可能是table
-        // 2、取出列
-        // 3、取出属性
-        Integer id = getTableId(tablePath);
-
-        if (id == null) {
-            throw new TableNotExistException(getName(), tablePath);
-        }
-
-        Connection conn = getConnection();
+        long start = System.nanoTime();
         try {
-            String queryTable =
-                    "SELECT table_name " + " ,description, table_type " + " FROM metadata_table " + " where  id=?";
-            PreparedStatement ps = conn.prepareStatement(queryTable);
-            ps.setInt(1, id);
-            ResultSet rs = ps.executeQuery();
-            String description;
-            String tableType;
-            if (rs.next()) {
-                description = rs.getString("description");
-                tableType = rs.getString("table_type");
-                ps.close();
-            } else {
-                ps.close();
+            DatabaseTables tables = getDatabaseTables(tablePath.getDatabaseName());
+            RuntimeException failure = tables.failures.get(tablePath.getObjectName());
+            if (failure != null) {
+                throw failure;
+            }
+            CatalogBaseTable table = tables.tables.get(tablePath.getObjectName());
+            if (table == null) {
                 throw new TableNotExistException(getName(), tablePath);
             }
-            if (tableType.equals(ObjectType.TABLE)) {
-                // 这个是 table
-                String propSql = "SELECT `key`, `value` from metadata_table_property " + "WHERE table_id=?";
-                PreparedStatement pState = conn.prepareStatement(propSql);
-                pState.setInt(1, id);
-                ResultSet prs = pState.executeQuery();
-                Map<String, String> props = new HashMap<>();
-                while (prs.next()) {
-                    String key = prs.getString("key");
-                    String value = prs.getString("value");
-                    props.put(key, value);
-                }
-                pState.close();
-                props.put(COMMENT, description);
-                return CatalogTable.fromProperties(props);
-            } else if (tableType.equals(ObjectType.VIEW)) {
-                // 1、从库中取出table信息。（前面已做）
-                // 2、取出字段。
-                String colSql = "SELECT column_name, column_type, data_type, description "
-                        + " FROM metadata_column WHERE "
-                        + " table_id=?";
-                PreparedStatement cStat = conn.prepareStatement(colSql);
-                cStat.setInt(1, id);
-                ResultSet crs = cStat.executeQuery();
-
-                Schema.Builder builder = Schema.newBuilder();
-                while (crs.next()) {
-                    String colName = crs.getString("column_name");
-                    String dataType = crs.getString("data_type");
-
-                    builder.column(colName, dataType);
-                    String cDesc = crs.getString("description");
-                    if (null != cDesc && cDesc.length() > 0) {
-                        builder.withComment(cDesc);
+            return table.copy();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            lookupMetrics.recordLookup(elapsed);
+            logger.debug("Catalog {} get table {} in {} us", getName(), tablePath, elapsed / 1000);
+        }
+    }
+
+    @Override
+    public boolean tableExists(ObjectPath tablePath) throws CatalogException {
+        DatabaseTables tables = getDatabaseTables(tablePath.getDatabaseName());
+        return tables.tables.containsKey(tablePath.getObjectName())
+                || tables.failures.containsKey(tablePath.getObjectName());
+    }
+
+    private DatabaseTables getDatabaseTables(String databaseName) {
+        String cacheKey = cacheKey(databaseName);
+        AtomicLong version = tableVersions.computeIfAbsent(cacheKey, k -> new AtomicLong());
+        DatabaseTables cached = tableCache.get(cacheKey);
+        if (cached != null && cached.isValid(version.get(), tableCacheTtlMillis)) {
+            lookupMetrics.recordCacheHit();
+            return cached;
+        }
+        // 先记下版本号，加载期间若有变更，这份结果在下次查询时即被视为过期
+        long loadVersion = version.get();
+        long start = System.nanoTime();
+        DatabaseTables tables = loadDatabaseTables(databaseName, loadVersion);
+        lookupMetrics.recordLoad(System.nanoTime() - start);
+        if (tableCacheTtlMillis > 0) {
+            tableCache.put(cacheKey, tables);
+        }
+        return tables;
+    }
+
+    /** 表、视图发生变更后使该库的表缓存失效 */
+    private void invalidateTables(String databaseName) {
+        String cacheKey = cacheKey(databaseName);
+        tableVersions.computeIfAbsent(cacheKey, k -> new AtomicLong()).incrementAndGet();
+        tableCache.remove(cacheKey);
+    }
+
+    /** 库名同样不区分大小写，大小写不同的写法共用一份缓存和版本号 */
+    private static String cacheKey(String databaseName) {
+        return databaseName.toLowerCase(Locale.ROOT);
+    }
+
+    /** 一次性加载库内全部表：一条关联查询取出表及其属性，存在视图时再取一次视图的字段 */
+    private DatabaseTables loadDatabaseTables(String databaseName, long version) {
+        String tableSql = "SELECT t.id, t.table_name, t.table_type, t.description, p.`key`, p.`value`"
+                + " FROM metadata_table t"
+                + " JOIN metadata_database d ON t.database_id = d.id"
+                + " LEFT JOIN metadata_table_property p ON p.table_id = t.id"
+                + " WHERE d.database_name = ?";
+        String viewColumnSql = "SELECT c.table_id, c.column_name, c.data_type, c.description"
+                + " FROM metadata_column c"
+                + " JOIN metadata_table t ON c.table_id = t.id"
+                + " JOIN metadata_database d ON t.database_id = d.id"
+                + " WHERE d.database_name = ? AND t.table_type = ?";
+        Map<Integer, TableRow> rows = new LinkedHashMap<>();
+        boolean hasView = false;
+        try (Connection conn = getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement(tableSql)) {
+                ps.setString(1, databaseName);
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    int id = rs.getInt("id");
+                    TableRow row = rows.get(id);
+                    if (row == null) {
+                        row = new TableRow(
+                                rs.getString("table_name"), rs.getString("table_type"), rs.getString("description"));
+                        rows.put(id, row);
+                        hasView |= ObjectType.VIEW.equals(row.tableType);
+                    }
+                    String key = rs.getString("key");
+                    if (key != null) {
+                        row.properties.put(key, rs.getString("value"));
                     }
                 }
-                cStat.close();
-                // 3、取出query
-                String qSql = "SELECT `key`, value FROM metadata_table_property" + " WHERE table_id=? ";
-                PreparedStatement qStat = conn.prepareStatement(qSql);
-                qStat.setInt(1, id);
-                ResultSet qrs = qStat.executeQuery();
-                String originalQuery = "";
-                String expandedQuery = "";
-                Map<String, String> options = new HashMap<>();
-                while (qrs.next()) {
-                    String key = qrs.getString("key");
-                    String value = qrs.getString("value");
-                    if ("OriginalQuery".equals(key)) {
-                        originalQuery = value;
-                    } else if ("ExpandedQuery".equals(key)) {
-                        expandedQuery = value;
-                    } else {
-                        options.put(key, value);
+            }
+            if (hasView) {
+                try (PreparedStatement ps = conn.prepareStatement(viewColumnSql)) {
+                    ps.setString(1, databaseName);
+                    ps.setString(2, ObjectType.VIEW);
+                    ResultSet rs = ps.executeQuery();
+                    while (rs.next()) {
+                        TableRow row = rows.get(rs.getInt("table_id"));
+                        if (row == null) {
+                            continue;
+                        }
+                        row.columns.column(rs.getString("column_name"), rs.getString("data_type"));
+                        String cDesc = rs.getString("description");
+                        if (null != cDesc && cDesc.length() > 0) {
+                            row.columns.withComment(cDesc);
+                        }
                     }
                 }
-                // 合成view
-                return CatalogView.of(builder.build(), description, originalQuery, expandedQuery, options);
-            } else {
-                throw new CatalogException("不支持的数据类型。" + tableType);
             }
         } catch (SQLException e) {
-            sqlExceptionHappened = true;
             throw new CatalogException("获取 表信息失败。", e);
         }
-    }
 
-    @Override
-    public boolean tableExists(ObjectPath tablePath) throws CatalogException {
-        Integer id = getTableId(tablePath);
-        return id != null;
+        DatabaseTables tables = new DatabaseTables(version);
+        for (TableRow row : rows.values()) {
+            try {
+                tables.tables.put(row.tableName, row.toTable());
+            } catch (RuntimeException e) {
+                // 单个表解析失败时只影响该表的查询
+                tables.failures.put(row.tableName, e);
+            }
+        }
+        return tables;
     }
 
     private Integer getTableId(ObjectPath tablePath) {
@@ -604,8 +658,8 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
         }
         // 获取id
         String getIdSql = "select id from metadata_table " + " where table_name=? and database_id=?";
-        Connection conn = getConnection();
-        try (PreparedStatement gStat = conn.prepareStatement(getIdSql)) {
+        try (Connection conn = getConnection();
+                PreparedStatement gStat = conn.prepareStatement(getIdSql)) {
             gStat.setString(1, tablePath.getObjectName());
             gStat.setInt(2, dbId);
             ResultSet rs = gStat.executeQuery();
@@ -613,7 +667,6 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
                 return rs.getInt(1);
             }
         } catch (SQLException e) {
-            sqlExceptionHappened = true;
             logger.error("get table fail", e);
             throw new CatalogException("get table fail.", e);
         }
@@ -628,8 +681,7 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
         if (id == null) {
             throw new TableNotExistException(getName(), tablePath);
         }
-        Connection conn = getConnection();
-        try {
+        try (Connection conn = getConnection()) {
             // todo: 现在是真实删除，后续设计是否做记录保留。
             conn.setAutoCommit(false);
             String deletePropSql = "delete from metadata_table_property " + " where table_id=?";
@@ -649,9 +701,10 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
             dStat.close();
             conn.commit();
         } catch (SQLException e) {
-            sqlExceptionHappened = true;
             logger.error("drop table fail", e);
             throw new CatalogException("drop table fail.", e);
+        } finally {
+            invalidateTables(tablePath.getDatabaseName());
         }
     }
 
@@ -664,18 +717,19 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
             throw new TableNotExistException(getName(), tablePath);
         }
         ObjectPath newPath = new ObjectPath(tablePath.getDatabaseName(), newTableName);
-        if (tableExists(newPath)) {
+        if (getTableId(newPath) != null) {
             throw new TableAlreadyExistException(getName(), newPath);
         }
         String updateSql = "UPDATE metadata_table SET table_name=? WHERE id=?";
-        Connection conn = getConnection();
-        try (PreparedStatement ps = conn.prepareStatement(updateSql)) {
+        try (Connection conn = getConnection();
+                PreparedStatement ps = conn.prepareStatement(updateSql)) {
             ps.setString(1, newTableName);
             ps.setInt(2, id);
             ps.executeUpdate();
         } catch (SQLException ex) {
-            sqlExceptionHappened = true;
             throw new CatalogException("修改表名失败", ex);
+        } finally {
+            invalidateTables(tablePath.getDatabaseName());
         }
     }
 
@@ -686,7 +740,7 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
         if (null == dbId) {
             throw new DatabaseNotExistException(getName(), tablePath.getDatabaseName());
         }
-        if (tableExists(tablePath)) {
+        if (getTableId(tablePath) != null) {
             if (!ignoreIfExists) {
                 throw new TableAlreadyExistException(getName(), tablePath);
             }
@@ -699,8 +753,7 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
         if (!(table instanceof ResolvedCatalogBaseTable)) {
             throw new UnsupportedOperationException("暂时不支持输入非 ResolvedCatalogBaseTable 类型的表");
         }
-        Connection conn = getConnection();
-        try {
+        try (Connection conn = getConnection()) {
             conn.setAutoCommit(false);
             // 首先插入表信息
             CatalogBaseTable.TableKind kind = table.getTableKind();
@@ -804,9 +857,10 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
             }
             conn.commit();
         } catch (SQLException ex) {
-            sqlExceptionHappened = true;
             logger.error("插入数据库失败", ex);
             throw new CatalogException("插入数据库失败", ex);
+        } finally {
+            invalidateTables(tablePath.getDatabaseName());
         }
     }
 
@@ -824,8 +878,8 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
             String updateSql = "INSERT INTO metadata_table_property(table_id,"
                     + "`key`,`value`) values (?,?,?) "
                     + "on duplicate key update `value` =?, update_time = sysdate()";
-            Connection conn = getConnection();
-            try (PreparedStatement ps = conn.prepareStatement(updateSql)) {
+            try (Connection conn = getConnection();
+                    PreparedStatement ps = conn.prepareStatement(updateSql)) {
                 for (Map.Entry<String, String> entry : opts.entrySet()) {
                     ps.setInt(1, id);
                     ps.setString(2, entry.getKey());
@@ -835,8 +889,9 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
                 }
                 ps.executeBatch();
             } catch (SQLException ex) {
-                sqlExceptionHappened = true;
                 throw new CatalogException("修改表名失败", ex);
+            } finally {
+                invalidateTables(tablePath.getDatabaseName());
             }
         }
     }
@@ -916,8 +971,8 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
         }
         String querySql = "SELECT function_name from metadata_function " + " WHERE database_id=?";
 
-        Connection conn = getConnection();
-        try (PreparedStatement gStat = conn.prepareStatement(querySql)) {
+        try (Connection conn = getConnection();
+                PreparedStatement gStat = conn.prepareStatement(querySql)) {
             gStat.setInt(1, dbId);
             ResultSet rs = gStat.executeQuery();
             List<String> functions = new ArrayList<>();
@@ -927,7 +982,6 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
             }
             return functions;
         } catch (SQLException e) {
-            sqlExceptionHappened = true;
             throw new CatalogException("获取 UDF 列表失败");
         }
     }
@@ -940,8 +994,8 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
         }
 
         String querySql = "SELECT class_name,function_language from metadata_function " + " WHERE id=?";
-        Connection conn = getConnection();
-        try (PreparedStatement gStat = conn.prepareStatement(querySql)) {
+        try (Connection conn = getConnection();
+                PreparedStatement gStat = conn.prepareStatement(querySql)) {
             gStat.setInt(1, id);
             ResultSet rs = gStat.executeQuery();
             if (rs.next()) {
@@ -953,7 +1007,6 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
                 throw new FunctionNotExistException(getName(), functionPath);
             }
         } catch (SQLException e) {
-            sqlExceptionHappened = true;
             throw new CatalogException(
                     "获取 UDF 失败：" + functionPath.getDatabaseName() + "." + functionPath.getObjectName());
         }
@@ -972,8 +1025,8 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
         }
         // 获取id
         String getIdSql = "select id from metadata_function " + " where function_name=? and database_id=?";
-        Connection conn = getConnection();
-        try (PreparedStatement gStat = conn.prepareStatement(getIdSql)) {
+        try (Connection conn = getConnection();
+                PreparedStatement gStat = conn.prepareStatement(getIdSql)) {
             gStat.setString(1, functionPath.getObjectName());
             gStat.setInt(2, dbId);
             ResultSet rs = gStat.executeQuery();
@@ -982,7 +1035,6 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
                 return id;
             }
         } catch (SQLException e) {
-            sqlExceptionHappened = true;
             logger.error("get function fail", e);
             throw new CatalogException("get function fail.", e);
         }
@@ -1002,18 +1054,17 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
             }
         }
 
-        Connection conn = getConnection();
         String insertSql = "Insert into metadata_function "
                 + "(function_name,class_name,database_id,function_language) "
                 + " values (?,?,?,?)";
-        try (PreparedStatement ps = conn.prepareStatement(insertSql)) {
+        try (Connection conn = getConnection();
+                PreparedStatement ps = conn.prepareStatement(insertSql)) {
             ps.setString(1, functionPath.getObjectName());
             ps.setString(2, function.getClassName());
             ps.setInt(3, dbId);
             ps.setString(4, function.getFunctionLanguage().toString());
             ps.executeUpdate();
         } catch (SQLException e) {
-            sqlExceptionHappened = true;
             throw new CatalogException("创建 函数 失败", e);
         }
     }
@@ -1029,15 +1080,14 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
             return;
         }
 
-        Connection conn = getConnection();
         String insertSql = "update metadata_function " + "set (class_name =?, function_language=?) " + " where id=?";
-        try (PreparedStatement ps = conn.prepareStatement(insertSql)) {
+        try (Connection conn = getConnection();
+                PreparedStatement ps = conn.prepareStatement(insertSql)) {
             ps.setString(1, newFunction.getClassName());
             ps.setString(2, newFunction.getFunctionLanguage().toString());
             ps.setInt(3, id);
             ps.executeUpdate();
         } catch (SQLException e) {
-            sqlExceptionHappened = true;
             throw new CatalogException("修改 函数 失败", e);
         }
     }
@@ -1053,13 +1103,12 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
             return;
         }
 
-        Connection conn = getConnection();
         String insertSql = "delete from metadata_function " + " where id=?";
-        try (PreparedStatement ps = conn.prepareStatement(insertSql)) {
+        try (Connection conn = getConnection();
+                PreparedStatement ps = conn.prepareStatement(insertSql)) {
             ps.setInt(1, id);
             ps.executeUpdate();
         } catch (SQLException e) {
-            sqlExceptionHappened = true;
             throw new CatalogException("删除 函数 失败", e);
         }
     }
@@ -1149,4 +1198,61 @@ public class DinkyMysqlCatalog extends AbstractCatalog {
         // todo: 补充完成该方法。
         throw new UnsupportedOperationException("该方法尚未完成");
     }
+
+    /** 一个 database 下已解析的表，带加载时的版本号 */
+    private static class DatabaseTables {
+        private final long version;
+        private final long loadTime = System.currentTimeMillis();
+        // 表名与 metadata_table 的排序规则一致，不区分大小写
+        private final Map<String, CatalogBaseTable> tables = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        private final Map<String, RuntimeException> failures = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+        private DatabaseTables(long version) {
+            this.version = version;
+        }
+
+        private boolean isValid(long currentVersion, long ttlMillis) {
+            return version == currentVersion && System.currentTimeMillis() - loadTime < ttlMillis;
+        }
+    }
+
+    /** 批量加载时一张表的原始记录 */
+    private static class TableRow {
+        private final String tableName;
+        private final String tableType;
+        private final String description;
+        private final Map<String, String> properties = new HashMap<>();
+        private final Schema.Builder columns = Schema.newBuilder();
+
+        private TableRow(String tableName, String tableType, String description) {
+            this.tableName = tableName;
+            this.tableType = tableType;
+            this.description = description;
+        }
+
+        private CatalogBaseTable toTable() {
+            if (ObjectType.TABLE.equals(tableType)) {
+                Map<String, String> props = new HashMap<>(properties);
+                props.put(COMMENT, description);
+                return CatalogTable.fromProperties(props);
+            } else if (ObjectType.VIEW.equals(tableType)) {
+                String originalQuery = "";
+                String expandedQuery = "";
+                Map<String, String> options = new HashMap<>();
+                for (Map.Entry<String, String> entry : properties.entrySet()) {
+                    if ("OriginalQuery".equals(entry.getKey())) {
+                        originalQuery = entry.getValue();
+                    } else if ("ExpandedQuery".equals(entry.getKey())) {
+                        expandedQuery = entry.getValue();
+                    } else {
+                        options.put(entry.getKey(), entry.getValue());
+                    }
+                }
+                // 合成view
+                return CatalogView.of(columns.build(), description, originalQuery, expandedQuery, options);
+            } else {
+                throw new CatalogException("不支持的数据类型。" + tableType);
+            }
+        }
+    }
 }
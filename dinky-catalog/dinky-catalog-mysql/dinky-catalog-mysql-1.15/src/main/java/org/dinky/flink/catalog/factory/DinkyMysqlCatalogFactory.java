@@ -21,6 +21,8 @@ package org.dinky.flink.catalog.factory;
 
 import static org.apache.flink.table.factories.FactoryUtil.PROPERTY_VERSION;
 import static org.dinky.flink.catalog.factory.DinkyMysqlCatalogFactoryOptions.PASSWORD;
+import static org.dinky.flink.catalog.factory.DinkyMysqlCatalogFactoryOptions.POOL_SIZE;
+import static org.dinky.flink.catalog.factory.DinkyMysqlCatalogFactoryOptions.TABLE_CACHE_TTL;
 import static org.dinky.flink.catalog.factory.DinkyMysqlCatalogFactoryOptions.URL;
 import static org.dinky.flink.catalog.factory.DinkyMysqlCatalogFactoryOptions.USERNAME;
 
@@ -54,6 +56,8 @@ public class DinkyMysqlCatalogFactory implements CatalogFactory {
         options.add(USERNAME);
         options.add(PASSWORD);
         options.add(URL);
+        options.add(POOL_SIZE);
+        options.add(TABLE_CACHE_TTL);
         options.add(PROPERTY_VERSION);
         return options;
     }
@@ -67,6 +71,8 @@ public class DinkyMysqlCatalogFactory implements CatalogFactory {
                 context.getName(),
                 helper.getOptions().get(URL),
                 helper.getOptions().get(USERNAME),
-                helper.getOptions().get(PASSWORD));
+                helper.getOptions().get(PASSWORD),
+                helper.getOptions().get(POOL_SIZE),
+                helper.getOptions().get(TABLE_CACHE_TTL));
     }
 }
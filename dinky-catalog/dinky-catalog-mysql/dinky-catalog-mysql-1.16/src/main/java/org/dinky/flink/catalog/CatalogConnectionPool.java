@@ -0,0 +1,226 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.flink.catalog;
+
+import org.apache.flink.table.catalog.exceptions.CatalogException;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A small pool of connections to the catalog database. Borrowed connections are returned by closing them, an
+ * unfinished transaction is rolled back on return so the next borrower always gets an auto-commit connection.
+ */
+public class CatalogConnectionPool implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogConnectionPool.class);
+
+    /** Idle connections older than this are validated before they are handed out again. */
+    private static final long VALIDATE_AFTER_MILLIS = 30_000;
+
+    private static final int VALIDATE_TIMEOUT_SECONDS = 5;
+
+    private final Callable<Connection> connectionFactory;
+    private final Semaphore permits;
+    private final long borrowTimeoutMillis;
+    private final BlockingDeque<IdleConnection> idle = new LinkedBlockingDeque<>();
+    private volatile boolean closed;
+
+    public CatalogConnectionPool(Callable<Connection> connectionFactory, int maxSize, long borrowTimeoutMillis) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be positive: " + maxSize);
+        }
+        this.connectionFactory = connectionFactory;
+        this.permits = new Semaphore(maxSize, true);
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+    }
+
+    /** Borrows a connection, closing it gives it back to the pool. */
+    public Connection getConnection() throws CatalogException {
+        if (closed) {
+            throw new CatalogException("Connection pool is closed.");
+        }
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new CatalogException("Timeout waiting for a catalog connection after " + borrowTimeoutMillis
+                        + " ms, all " + "connections are in use.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CatalogException("Interrupted waiting for a catalog connection.", e);
+        }
+        try {
+            return wrap(takeIdleOrCreate());
+        } catch (Exception e) {
+            permits.release();
+            throw new CatalogException("Fail to get connection.", e);
+        }
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        IdleConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            closeQuietly(connection.connection);
+        }
+    }
+
+    private Connection takeIdleOrCreate() throws Exception {
+        IdleConnection candidate;
+        // most recently used first, the connections at the tail are the ones that may be stale
+        while ((candidate = idle.pollFirst()) != null) {
+            if (isUsable(candidate)) {
+                return candidate.connection;
+            }
+            closeQuietly(candidate.connection);
+        }
+        return connectionFactory.call();
+    }
+
+    private boolean isUsable(IdleConnection candidate) {
+        try {
+            if (candidate.connection.isClosed()) {
+                return false;
+            }
+            return System.currentTimeMillis() - candidate.idleSince < VALIDATE_AFTER_MILLIS
+                    || candidate.connection.isValid(VALIDATE_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(Connection connection, boolean broken) {
+        try {
+            if (broken || closed || connection.isClosed()) {
+                closeQuietly(connection);
+                return;
+            }
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            idle.offerFirst(new IdleConnection(connection));
+        } catch (SQLException e) {
+            logger.warn("Discard catalog connection that failed to reset.", e);
+            closeQuietly(connection);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                CatalogConnectionPool.class.getClassLoader(),
+                new Class<?>[] {Connection.class},
+                new PooledConnectionHandler(connection));
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.debug("Fail to close catalog connection.", e);
+        }
+    }
+
+    private static class IdleConnection {
+        private final Connection connection;
+        private final long idleSince = System.currentTimeMillis();
+
+        private IdleConnection(Connection connection) {
+            this.connection = connection;
+        }
+    }
+
+    private class PooledConnectionHandler implements InvocationHandler {
+        private final Connection connection;
+        private boolean returned;
+        /** A connection that failed with a {@link SQLException} is not trusted to be reused. */
+        private boolean broken;
+
+        private PooledConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(connection, broken);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + connection;
+                default:
+                    if (returned) {
+                        throw new SQLException("Connection has been returned to the pool.");
+                    }
+                    Object result = invokeTracked(connection, method, args);
+                    if (result instanceof Statement && method.getReturnType().isInterface()) {
+                        // statements report their failures back so that a failed connection is not reused
+                        Statement statement = (Statement) result;
+                        return Proxy.newProxyInstance(
+                                CatalogConnectionPool.class.getClassLoader(),
+                                new Class<?>[] {method.getReturnType()},
+                                (statementProxy, statementMethod, statementArgs) ->
+                                        invokeTracked(statement, statementMethod, statementArgs));
+                    }
+                    return result;
+            }
+        }
+
+        private Object invokeTracked(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof SQLException) {
+                    broken = true;
+                }
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.flink.catalog;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * catalog 表查询的耗时统计。
+ * <p>
+ * 作业规划阶段 catalog 拿不到 Flink 的 metric group，因此统计注册为 JMX MBean
+ * {@code org.dinky.flink.catalog:type=DinkyMysqlCatalog,name=<catalog 名称>}，由 JMX reporter 或 JConsole 读取。
+ * </p>
+ */
+public class CatalogLookupMetrics implements CatalogLookupMetricsMXBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogLookupMetrics.class);
+
+    private static final String DOMAIN = "org.dinky.flink.catalog";
+
+    private final LongAdder lookupCount = new LongAdder();
+    private final LongAdder lookupNanos = new LongAdder();
+    private final AtomicLong lookupMaxNanos = new AtomicLong();
+    private final LongAdder cacheHitCount = new LongAdder();
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+
+    private ObjectName objectName;
+
+    public void recordLookup(long nanos) {
+        lookupCount.increment();
+        lookupNanos.add(nanos);
+        lookupMaxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public void recordCacheHit() {
+        cacheHitCount.increment();
+    }
+
+    public void recordLoad(long nanos) {
+        loadCount.increment();
+        loadNanos.add(nanos);
+    }
+
+    @Override
+    public long getLookupCount() {
+        return lookupCount.sum();
+    }
+
+    @Override
+    public long getCacheHitCount() {
+        return cacheHitCount.sum();
+    }
+
+    @Override
+    public long getLoadCount() {
+        return loadCount.sum();
+    }
+
+    @Override
+    public double getLookupAvgMillis() {
+        long lookups = lookupCount.sum();
+        return lookups == 0 ? 0D : lookupNanos.sum() / 1e6 / lookups;
+    }
+
+    @Override
+    public double getLookupMaxMillis() {
+        return lookupMaxNanos.get() / 1e6;
+    }
+
+    @Override
+    public double getLoadAvgMillis() {
+        long loads = loadCount.sum();
+        return loads == 0 ? 0D : loadNanos.sum() / 1e6 / loads;
+    }
+
+    /**
+     * 注册到平台 MBeanServer，同名 catalog 已注册时保留先注册的那个。
+     *
+     * @param catalogName catalog 名称
+     */
+    public synchronized void register(String catalogName) {
+        if (objectName != null) {
+            return;
+        }
+        try {
+            ObjectName name = new ObjectName(DOMAIN + ":type=DinkyMysqlCatalog,name=" + ObjectName.quote(catalogName));
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(name)) {
+                logger.warn("Catalog metrics {} are already registered by another catalog", name);
+                return;
+            }
+            server.registerMBean(this, name);
+            objectName = name;
+        } catch (JMException e) {
+            logger.warn("Failed to register the metrics of catalog {}: {}", catalogName, e.getMessage());
+        }
+    }
+
+    public synchronized void unregister() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            logger.warn("Failed to unregister the catalog metrics {}: {}", objectName, e.getMessage());
+        }
+        objectName = null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "lookups=%d, cacheHits=%d, loads=%d, lookupAvgMillis=%.3f, lookupMaxMillis=%.3f, loadAvgMillis=%.3f",
+                getLookupCount(),
+                getCacheHitCount(),
+                getLoadCount(),
+                getLookupAvgMillis(),
+                getLookupMaxMillis(),
+                getLoadAvgMillis());
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.flink.catalog;
+
+/** 表查询耗时的 JMX 指标，每个属性都是一个 gauge */
+public interface CatalogLookupMetricsMXBean {
+
+    /** getTable 的调用次数 */
+    long getLookupCount();
+
+    /** 命中表缓存的次数 */
+    long getCacheHitCount();
+
+    /** 整库批量加载的次数 */
+    long getLoadCount();
+
+    /** getTable 的平均耗时（毫秒），即作业规划阶段每次查表的开销 */
+    double getLookupAvgMillis();
+
+    /** getTable 的最大耗时（毫秒） */
+    double getLookupMaxMillis();
+
+    /** 整库批量加载的平均耗时（毫秒） */
+    double getLoadAvgMillis();
+}
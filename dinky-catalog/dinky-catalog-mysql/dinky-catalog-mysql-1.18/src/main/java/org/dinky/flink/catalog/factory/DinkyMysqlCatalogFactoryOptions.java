@@ -25,6 +25,8 @@ import org.apache.flink.annotation.Internal;
 import org.apache.flink.configuration.ConfigOption;
 import org.apache.flink.configuration.ConfigOptions;
 
+import java.time.Duration;
+
 /** {@link ConfigOption}s for {@link DinkyMysqlCatalog}. */
 @Internal
 public class DinkyMysqlCatalogFactoryOptions {
@@ -40,5 +42,16 @@ public class DinkyMysqlCatalogFactoryOptions {
     public static final ConfigOption<String> URL =
             ConfigOptions.key("url").stringType().noDefaultValue();
 
+    public static final ConfigOption<Integer> POOL_SIZE = ConfigOptions.key("connection.pool-size")
+            .intType()
+            .defaultValue(4)
+            .withDescription("Maximum number of connections the catalog keeps to its database.");
+
+    public static final ConfigOption<Duration> TABLE_CACHE_TTL = ConfigOptions.key("table-cache.ttl")
+            .durationType()
+            .defaultValue(Duration.ofMinutes(1))
+            .withDescription("How long resolved tables are cached, zero disables the cache. Tables changed "
+                    + "through this catalog are refreshed immediately.");
+
     private DinkyMysqlCatalogFactoryOptions() {}
 }
@@ -0,0 +1,144 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.flink.catalog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.apache.flink.table.catalog.exceptions.CatalogException;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class CatalogConnectionPoolTest {
+
+    private final List<FakeConnection> created = new ArrayList<>();
+
+    private CatalogConnectionPool newPool(int size) {
+        return new CatalogConnectionPool(
+                () -> {
+                    FakeConnection connection = new FakeConnection();
+                    created.add(connection);
+                    return connection.proxy;
+                },
+                size,
+                50);
+    }
+
+    @Test
+    public void testConnectionIsReused() throws SQLException {
+        CatalogConnectionPool pool = newPool(2);
+        try (Connection conn = pool.getConnection()) {
+            conn.prepareStatement("select 1");
+        }
+        try (Connection conn = pool.getConnection()) {
+            conn.prepareStatement("select 1");
+        }
+        assertEquals(1, created.size());
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    @Test
+    public void testUnfinishedTransactionIsRolledBack() throws SQLException {
+        CatalogConnectionPool pool = newPool(1);
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+        }
+        FakeConnection connection = created.get(0);
+        assertTrue(connection.rolledBack);
+        assertTrue(connection.autoCommit);
+        try (Connection conn = pool.getConnection()) {
+            assertTrue(conn.getAutoCommit());
+        }
+    }
+
+    @Test
+    public void testFailedConnectionIsDiscarded() throws SQLException {
+        CatalogConnectionPool pool = newPool(1);
+        try (Connection conn = pool.getConnection()) {
+            conn.prepareStatement("fail").executeQuery();
+            fail("statement should fail");
+        } catch (SQLException e) {
+            // expected
+        }
+        assertTrue(created.get(0).closed);
+        assertEquals(0, pool.getIdleCount());
+        try (Connection conn = pool.getConnection()) {
+            assertFalse(conn.isClosed());
+        }
+        assertEquals(2, created.size());
+    }
+
+    @Test(expected = CatalogException.class)
+    public void testBorrowTimesOutWhenExhausted() {
+        CatalogConnectionPool pool = newPool(1);
+        pool.getConnection();
+        pool.getConnection();
+    }
+
+    private static class FakeConnection {
+        private boolean autoCommit = true;
+        private boolean rolledBack;
+        private boolean closed;
+
+        private final Connection proxy = (Connection) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[] {Connection.class}, (p, method, args) -> {
+                    switch (method.getName()) {
+                        case "getAutoCommit":
+                            return autoCommit;
+                        case "setAutoCommit":
+                            autoCommit = (Boolean) args[0];
+                            return null;
+                        case "rollback":
+                            rolledBack = true;
+                            return null;
+                        case "close":
+                            closed = true;
+                            return null;
+                        case "isClosed":
+                            return closed;
+                        case "isValid":
+                            return !closed;
+                        case "prepareStatement":
+                            return statement((String) args[0]);
+                        default:
+                            return null;
+                    }
+                });
+
+        private static PreparedStatement statement(String sql) {
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    FakeConnection.class.getClassLoader(), new Class<?>[] {PreparedStatement.class}, (p, m, a) -> {
+                        if ("fail".equals(sql) && "executeQuery".equals(m.getName())) {
+                            throw new SQLException("broken pipe");
+                        }
+                        return null;
+                    });
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc.route;
+
+import org.dinky.data.model.Table;
+
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.flink.util.OutputTag;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Routes a synthetic Debezium stream over many tables, with one filter per table over the decoded record as
+ * the job graph did before, and with a single {@link TableRouter} that only reads the source names.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TableRouterBenchmark {
+
+    private static final int RECORDS = 10_000;
+
+    @Param({"10", "100", "1000"})
+    private int tableCount;
+
+    private List<Table> tables;
+
+    private String[] records;
+
+    private ObjectMapper objectMapper;
+
+    private SourceNameExtractor<String> extractor;
+
+    private TableRouter<String> router;
+
+    @Setup
+    public void setup() {
+        Map<Table, OutputTag<String>> tagMap = new LinkedHashMap<>();
+        for (int i = 0; i < tableCount; i++) {
+            Table table = new Table("table_" + i, "db", new ArrayList<>());
+            tagMap.put(table, new OutputTag<>(table.getSchemaTableName(), TypeInformation.of(String.class)));
+        }
+        tables = new ArrayList<>(tagMap.keySet());
+        Random random = new Random(42);
+        records = new String[RECORDS];
+        for (int i = 0; i < RECORDS; i++) {
+            records[i] = record("db", "table_" + random.nextInt(tableCount), i);
+        }
+        objectMapper = new ObjectMapper();
+        extractor = SourceNameExtractor.ofJson("db");
+        router = new TableRouter<>(tagMap, null, extractor);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    @SuppressWarnings("rawtypes")
+    public long filterPerTable() throws Exception {
+        long matched = 0;
+        for (String record : records) {
+            Map value = objectMapper.readValue(record, Map.class);
+            for (Table table : tables) {
+                Map source = (Map) value.get("source");
+                if (table.getName().equals(source.get("table").toString())
+                        && table.getSchema().equals(source.get("db").toString())) {
+                    matched++;
+                }
+            }
+        }
+        return matched;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public long router() throws Exception {
+        long routed = 0;
+        for (String record : records) {
+            String[] names = extractor.extract(record);
+            if (router.route(names[0], names[1]) != null) {
+                routed++;
+            }
+        }
+        return routed;
+    }
+
+    private static String record(String db, String table, int id) {
+        return "{\"before\":null,\"after\":{\"id\":" + id + ",\"name\":\"name_" + id
+                + "\",\"price\":\"12.50\",\"created\":1694736000000},"
+                + "\"source\":{\"version\":\"1.9.7.Final\",\"connector\":\"mysql\",\"name\":\"mysql_binlog_source\","
+                + "\"ts_ms\":1694736000000,\"snapshot\":\"false\",\"db\":\"" + db + "\",\"sequence\":null,"
+                + "\"table\":\"" + table + "\",\"server_id\":1,\"gtid\":null,\"file\":\"mysql-bin.000003\","
+                + "\"pos\":154,\"row\":0,\"thread\":null,\"query\":null},"
+                + "\"op\":\"c\",\"ts_ms\":1694736000123,\"transaction\":null}";
+    }
+}
@@ -20,6 +20,11 @@
 package org.dinky.cdc;
 
 import org.dinky.assertion.Asserts;
+import org.dinky.cdc.debezium.DebeziumJsonDecoder;
+import org.dinky.cdc.debezium.DebeziumRowDataFunction;
+import org.dinky.cdc.debezium.ValueConverter;
+import org.dinky.cdc.route.SourceNameExtractor;
+import org.dinky.cdc.route.TableRouter;
 import org.dinky.cdc.utils.FlinkStatementUtil;
 import org.dinky.data.model.Column;
 import org.dinky.data.model.FlinkCDCConfig;
@@ -28,9 +33,9 @@ import org.dinky.data.model.Table;
 import org.dinky.executor.CustomTableEnvironment;
 import org.dinky.utils.JsonUtils;
 
-import org.apache.flink.api.common.functions.FilterFunction;
 import org.apache.flink.api.common.functions.FlatMapFunction;
 import org.apache.flink.api.common.functions.MapFunction;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
 import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.streaming.api.datastream.DataStreamSource;
@@ -65,10 +70,10 @@ import java.time.Instant;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Properties;
 import java.util.stream.Collectors;
 
@@ -89,6 +94,7 @@ public abstract class AbstractSinkBuilder implements SinkBuilder {
     private ZoneId sinkTimeZone = ZoneId.of("UTC");
 
     protected List<ConvertType> typeConverterList = null;
+    private transient Map<LogicalType, ValueConverter> converterCache;
 
     protected AbstractSinkBuilder() {
         initTypeConverterList();
@@ -131,33 +137,58 @@ public abstract class AbstractSinkBuilder implements SinkBuilder {
         return properties;
     }
 
-    protected SingleOutputStreamOperator<Map> deserialize(DataStreamSource<String> dataStreamSource) {
+    protected SingleOutputStreamOperator<Map> deserialize(DataStream<String> dataStreamSource) {
         return dataStreamSource.map((MapFunction<String, Map>) value -> objectMapper.readValue(value, Map.class));
     }
 
-    protected SingleOutputStreamOperator<Map> shunt(
-            SingleOutputStreamOperator<Map> mapOperator, Table table, String schemaFieldName) {
-        final String tableName = table.getName();
-        final String schemaName = table.getSchema();
-        return mapOperator.filter((FilterFunction<Map>) value -> {
-            LinkedHashMap source = (LinkedHashMap) value.get("source");
-            return tableName.equals(source.get("table").toString())
-                    && schemaName.equals(source.get(schemaFieldName).toString());
-        });
+    /**
+     * Route the change stream to one side output per table with a single {@link TableRouter} operator, instead
+     * of one filter per table that evaluates every record.
+     */
+    protected <T> SingleOutputStreamOperator<T> route(
+            DataStream<T> dataStream, Map<Table, OutputTag<T>> tagMap, SourceNameExtractor<T> extractor) {
+        return dataStream
+                .process(new TableRouter<>(tagMap, getSplitConfig(), extractor), dataStream.getType())
+                .name("TableRouter(tables=" + tagMap.size() + ")");
     }
 
-    protected DataStream<Map> shunt(SingleOutputStreamOperator<Map> processOperator, Table table, OutputTag<Map> tag) {
+    /**
+     * Create the output tags of all the synchronized tables.
+     */
+    protected <T> Map<Table, OutputTag<T>> createOutputTags(Class<T> clazz) {
+        Map<Table, OutputTag<T>> tagMap = new LinkedHashMap<>();
+        for (Schema schema : config.getSchemaList()) {
+            for (Table table : schema.getTables()) {
+                tagMap.put(table, new OutputTag<>(table.getSchemaTableName(), TypeInformation.of(clazz)));
+            }
+        }
+        return tagMap;
+    }
+
+    /**
+     * @return the split table config used to map a physical table to its logical table, null if the sink does
+     *     not merge split tables
+     */
+    protected Map<String, String> getSplitConfig() {
+        return null;
+    }
+
+    protected <T> DataStream<T> shunt(SingleOutputStreamOperator<T> processOperator, Table table, OutputTag<T> tag) {
 
         return processOperator.getSideOutput(tag);
     }
 
-    @SuppressWarnings("rawtypes")
+    /**
+     * Decodes the change records of one table straight from json, the converter of each column is chosen once
+     * here instead of per value.
+     */
     protected DataStream<RowData> buildRowData(
-            SingleOutputStreamOperator<Map> filterOperator,
+            DataStream<String> filterOperator,
             List<String> columnNameList,
             List<LogicalType> columnTypeList,
             String schemaTableName) {
-        return filterOperator.flatMap(sinkRowDataFunction(columnNameList, columnTypeList, schemaTableName));
+        return filterOperator.flatMap(
+                new DebeziumRowDataFunction(createDecoder(columnNameList, columnTypeList), schemaTableName));
     }
 
     @SuppressWarnings("rawtypes")
@@ -175,7 +206,7 @@ public abstract class AbstractSinkBuilder implements SinkBuilder {
                         break;
                     case "u":
                         rowDataCollect(columnNameList, columnTypeList, out, RowKind.UPDATE_BEFORE, value);
-                        rowDataCollect(columnNameList, columnTypeList, out, RowKind.UPDATE_BEFORE, value);
+                        rowDataCollect(columnNameList, columnTypeList, out, RowKind.UPDATE_AFTER, value);
                         break;
                     default:
                 }
@@ -274,22 +305,22 @@ public abstract class AbstractSinkBuilder implements SinkBuilder {
         final String schemaFieldName = config.getSchemaFieldName();
 
         if (Asserts.isNotNullCollection(schemaList)) {
-            SingleOutputStreamOperator<Map> mapOperator = deserialize(dataStreamSource);
-            for (Schema schema : schemaList) {
-                for (Table table : schema.getTables()) {
-                    SingleOutputStreamOperator<Map> filterOperator = shunt(mapOperator, table, schemaFieldName);
+            Map<Table, OutputTag<String>> tagMap = createOutputTags(String.class);
+            SingleOutputStreamOperator<String> routeOperator =
+                    route(dataStreamSource, tagMap, SourceNameExtractor.ofJson(schemaFieldName));
+            tagMap.forEach((table, tag) -> {
+                DataStream<String> filterOperator = shunt(routeOperator, table, tag);
 
-                    List<String> columnNameList = new ArrayList<>();
-                    List<LogicalType> columnTypeList = new ArrayList<>();
+                List<String> columnNameList = new ArrayList<>();
+                List<LogicalType> columnTypeList = new ArrayList<>();
 
-                    buildColumn(columnNameList, columnTypeList, table.getColumns());
+                buildColumn(columnNameList, columnTypeList, table.getColumns());
 
-                    DataStream<RowData> rowDataDataStream =
-                            buildRowData(filterOperator, columnNameList, columnTypeList, table.getSchemaTableName());
+                DataStream<RowData> rowDataDataStream =
+                        buildRowData(filterOperator, columnNameList, columnTypeList, table.getSchemaTableName());
 
-                    addSink(env, rowDataDataStream, table, columnNameList, columnTypeList);
-                }
-            }
+                addSink(env, rowDataDataStream, table, columnNameList, columnTypeList);
+            });
         }
         return dataStreamSource;
     }
@@ -350,101 +381,110 @@ public abstract class AbstractSinkBuilder implements SinkBuilder {
             return null;
         }
 
+        if (converterCache == null) {
+            converterCache = new HashMap<>();
+        }
+        return converterCache
+                .computeIfAbsent(logicalType, this::createConverter)
+                .convert(value);
+    }
+
+    /** Chooses the converter of a column once, the first {@link ConvertType} that handles the type wins. */
+    protected ValueConverter createConverter(LogicalType logicalType) {
         for (ConvertType convertType : typeConverterList) {
-            Optional<Object> result = convertType.convert(value, logicalType);
-            if (result.isPresent()) {
-                return result.get();
+            ValueConverter converter = convertType.create(logicalType);
+            if (converter != null) {
+                return converter;
             }
         }
-        return value;
+        return ValueConverter.IDENTITY;
     }
 
-    protected Optional<Object> convertVarBinaryType(Object value, LogicalType logicalType) {
+    protected DebeziumJsonDecoder createDecoder(List<String> columnNameList, List<LogicalType> columnTypeList) {
+        List<ValueConverter> converters =
+                columnTypeList.stream().map(this::createConverter).collect(Collectors.toList());
+        return new DebeziumJsonDecoder(columnNameList, converters);
+    }
+
+    protected ValueConverter convertVarBinaryType(LogicalType logicalType) {
         if (logicalType instanceof VarBinaryType) {
             // VARBINARY AND BINARY is converted to String with encoding base64 in FlinkCDC.
-            if (value instanceof String) {
-                return Optional.of(DatatypeConverter.parseBase64Binary(value.toString()));
-            }
-
-            return Optional.of(value);
+            return value -> value instanceof String ? DatatypeConverter.parseBase64Binary(value.toString()) : value;
         }
-        return Optional.empty();
+        return null;
     }
 
-    protected Optional<Object> convertBigIntType(Object value, LogicalType logicalType) {
+    protected ValueConverter convertBigIntType(LogicalType logicalType) {
         if (logicalType instanceof BigIntType) {
-            if (value instanceof Integer) {
-                return Optional.of(((Integer) value).longValue());
-            }
-
-            return Optional.of(value);
+            return value -> value instanceof Integer ? (Object) ((Integer) value).longValue() : value;
         }
-        return Optional.empty();
+        return null;
     }
 
-    protected Optional<Object> convertFloatType(Object value, LogicalType logicalType) {
+    protected ValueConverter convertFloatType(LogicalType logicalType) {
         if (logicalType instanceof FloatType) {
-            if (value instanceof Float) {
-                return Optional.of(value);
-            }
+            return value -> {
+                if (value instanceof Float) {
+                    return value;
+                }
 
-            if (value instanceof Double) {
-                return Optional.of(((Double) value).floatValue());
-            }
+                if (value instanceof Double) {
+                    return ((Double) value).floatValue();
+                }
 
-            return Optional.of(Float.parseFloat(value.toString()));
+                return Float.parseFloat(value.toString());
+            };
         }
-        return Optional.empty();
+        return null;
     }
 
-    protected Optional<Object> convertDecimalType(Object value, LogicalType logicalType) {
+    protected ValueConverter convertDecimalType(LogicalType logicalType) {
         if (logicalType instanceof DecimalType) {
-            final DecimalType decimalType = (DecimalType) logicalType;
-            return Optional.ofNullable(DecimalData.fromBigDecimal(
-                    new BigDecimal((String) value), decimalType.getPrecision(), decimalType.getScale()));
+            final int precision = ((DecimalType) logicalType).getPrecision();
+            final int scale = ((DecimalType) logicalType).getScale();
+            return value -> DecimalData.fromBigDecimal(new BigDecimal(value.toString()), precision, scale);
         }
-        return Optional.empty();
+        return null;
     }
 
-    protected Optional<Object> convertTimestampType(Object value, LogicalType logicalType) {
+    protected ValueConverter convertTimestampType(LogicalType logicalType) {
         if (logicalType instanceof TimestampType) {
-            if (value instanceof Integer) {
-                return Optional.of(TimestampData.fromLocalDateTime(Instant.ofEpochMilli(((Integer) value).longValue())
-                        .atZone(sinkTimeZone)
-                        .toLocalDateTime()));
-            }
-
-            if (value instanceof Long) {
-                return Optional.of(TimestampData.fromLocalDateTime(
-                        Instant.ofEpochMilli((long) value).atZone(sinkTimeZone).toLocalDateTime()));
-            }
+            final ZoneId zoneId = sinkTimeZone;
+            return value -> {
+                if (value instanceof Integer || value instanceof Long) {
+                    return TimestampData.fromLocalDateTime(Instant.ofEpochMilli(((Number) value).longValue())
+                            .atZone(zoneId)
+                            .toLocalDateTime());
+                }
 
-            return Optional.of(TimestampData.fromLocalDateTime(
-                    Instant.parse(value.toString()).atZone(sinkTimeZone).toLocalDateTime()));
+                return TimestampData.fromLocalDateTime(
+                        Instant.parse(value.toString()).atZone(zoneId).toLocalDateTime());
+            };
         }
-        return Optional.empty();
+        return null;
     }
 
-    protected Optional<Object> convertDateType(Object target, LogicalType logicalType) {
+    protected ValueConverter convertDateType(LogicalType logicalType) {
         if (logicalType instanceof DateType) {
-            return Optional.of(StringData.fromString(Instant.ofEpochMilli((long) target)
+            return value -> StringData.fromString(Instant.ofEpochMilli(((Number) value).longValue())
                     .atZone(ZoneId.systemDefault())
                     .toLocalDate()
-                    .toString()));
+                    .toString());
         }
-        return Optional.empty();
+        return null;
     }
 
-    protected Optional<Object> convertVarCharType(Object target, LogicalType logicalType) {
+    protected ValueConverter convertVarCharType(LogicalType logicalType) {
         if (logicalType instanceof VarCharType) {
-            return Optional.of(StringData.fromString((String) target));
+            return value -> StringData.fromString(value.toString());
         }
-        return Optional.empty();
+        return null;
     }
 
     @FunctionalInterface
     public interface ConvertType {
-        Optional<Object> convert(Object target, LogicalType logicalType);
+        /** Returns the converter of the values of the logical type, or null if the type is not handled. */
+        ValueConverter create(LogicalType logicalType);
     }
 
     @Override
@@ -0,0 +1,140 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc.debezium;
+
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.core.JsonParser;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.core.JsonToken;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Decodes Debezium json change records of one table. The parser streams over the record, the {@code before} and
+ * {@code after} payloads are read straight into positional value arrays through the converter of each column,
+ * every other field is skipped. Values have the same java types as a generic map decoding would produce, so the
+ * converters see the same input.
+ *
+ * <p>Not thread safe, the decoded values are only valid until the next {@link #decode} call.
+ */
+public class DebeziumJsonDecoder implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HashMap<String, Integer> columnIndex = new HashMap<>();
+    private final ValueConverter[] converters;
+
+    private String op;
+    private Object[] before;
+    private Object[] after;
+
+    public DebeziumJsonDecoder(List<String> columnNameList, List<ValueConverter> converterList) {
+        for (int i = 0; i < columnNameList.size(); i++) {
+            columnIndex.put(columnNameList.get(i), i);
+        }
+        this.converters = converterList.toArray(new ValueConverter[0]);
+    }
+
+    public void decode(String json) throws IOException {
+        op = null;
+        before = null;
+        after = null;
+        try (JsonParser parser = MAPPER.getFactory().createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Change record is not a json object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                switch (field) {
+                    case "op":
+                        op = parser.getValueAsString();
+                        break;
+                    case "before":
+                        before = readRow(parser, token);
+                        break;
+                    case "after":
+                        after = readRow(parser, token);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    public String getOp() {
+        return op;
+    }
+
+    public Object[] getBefore() {
+        return before;
+    }
+
+    public Object[] getAfter() {
+        return after;
+    }
+
+    public int getArity() {
+        return converters.length;
+    }
+
+    private Object[] readRow(JsonParser parser, JsonToken token) throws IOException {
+        if (token != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        Object[] values = new Object[converters.length];
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            Integer index = columnIndex.get(parser.getCurrentName());
+            JsonToken valueToken = parser.nextToken();
+            if (index == null) {
+                parser.skipChildren();
+                continue;
+            }
+            Object value = readValue(parser, valueToken);
+            values[index] = value == null ? null : converters[index].convert(value);
+        }
+        return values;
+    }
+
+    private static Object readValue(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+                return parser.getNumberValue();
+            case VALUE_NUMBER_FLOAT:
+                return parser.getDoubleValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            default:
+                // structured values, e.g. geometry, decode like a generic map would
+                return MAPPER.readValue(parser, Object.class);
+        }
+    }
+}
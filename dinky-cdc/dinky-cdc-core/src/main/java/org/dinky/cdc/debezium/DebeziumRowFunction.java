@@ -0,0 +1,77 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc.debezium;
+
+import org.apache.flink.api.common.functions.FlatMapFunction;
+import org.apache.flink.types.Row;
+import org.apache.flink.types.RowKind;
+import org.apache.flink.util.Collector;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** Decodes the Debezium json change records of one table to {@link Row} changelog rows. */
+public class DebeziumRowFunction implements FlatMapFunction<String, Row> {
+
+    private static final long serialVersionUID = 1L;
+    private static final Logger logger = LoggerFactory.getLogger(DebeziumRowFunction.class);
+
+    private final DebeziumJsonDecoder decoder;
+    private final String schemaTableName;
+
+    public DebeziumRowFunction(DebeziumJsonDecoder decoder, String schemaTableName) {
+        this.decoder = decoder;
+        this.schemaTableName = schemaTableName;
+    }
+
+    @Override
+    public void flatMap(String value, Collector<Row> out) throws Exception {
+        try {
+            decoder.decode(value);
+            String op = decoder.getOp();
+            if (op == null) {
+                return;
+            }
+            switch (op) {
+                case "r":
+                case "c":
+                    collect(out, RowKind.INSERT, decoder.getAfter());
+                    break;
+                case "d":
+                    collect(out, RowKind.DELETE, decoder.getBefore());
+                    break;
+                case "u":
+                    collect(out, RowKind.UPDATE_BEFORE, decoder.getBefore());
+                    collect(out, RowKind.UPDATE_AFTER, decoder.getAfter());
+                    break;
+                default:
+            }
+        } catch (Exception e) {
+            logger.error("SchemaTable: {} - Row: {} - Exception: {}", schemaTableName, value, e.toString());
+            throw e;
+        }
+    }
+
+    private void collect(Collector<Row> out, RowKind rowKind, Object[] values) {
+        if (values != null) {
+            out.collect(Row.ofKind(rowKind, values));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc.route;
+
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.core.JsonFactory;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.core.JsonParser;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.core.JsonToken;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Extracts the source schema and table name of a Debezium change record, as a two element array.
+ *
+ * @param <T> the record type
+ */
+@FunctionalInterface
+public interface SourceNameExtractor<T> extends Serializable {
+
+    /**
+     * @return {schema, table}, or null when the record has no source, a name missing from the source is null
+     */
+    String[] extract(T value) throws Exception;
+
+    /**
+     * Read the names from a record already decoded into a map.
+     */
+    @SuppressWarnings("rawtypes")
+    static SourceNameExtractor<Map> ofMap(String schemaFieldName) {
+        return value -> {
+            Map source = (Map) value.get("source");
+            if (source == null) {
+                return null;
+            }
+            return new String[] {
+                Objects.toString(source.get(schemaFieldName), null), Objects.toString(source.get("table"), null)
+            };
+        };
+    }
+
+    /**
+     * Read the names from the raw json, the parser only walks the {@code source} object and skips the row
+     * payloads, so routing a record does not decode it.
+     */
+    static SourceNameExtractor<String> ofJson(String schemaFieldName) {
+        JsonFactory factory = new JsonFactory();
+        return value -> {
+            try (JsonParser parser = factory.createParser(value)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    return null;
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    JsonToken token = parser.nextToken();
+                    if (!"source".equals(field) || token != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    String[] names = new String[2];
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String sourceField = parser.getCurrentName();
+                        parser.nextToken();
+                        if (schemaFieldName.equals(sourceField)) {
+                            names[0] = parser.getValueAsString();
+                        } else if ("table".equals(sourceField)) {
+                            names[1] = parser.getValueAsString();
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    return names;
+                }
+                return null;
+            }
+        };
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc.route;
+
+import org.dinky.data.model.Table;
+import org.dinky.utils.SplitUtil;
+
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.metrics.Counter;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.streaming.api.functions.ProcessFunction;
+import org.apache.flink.util.Collector;
+import org.apache.flink.util.OutputTag;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Routes every change record of a whole database sync to the side output of its table in a single pass. The
+ * output tag is found by a hash lookup on (schema, table), split tables are resolved to their logical table once
+ * per physical table and cached, and each table counts its routed records in the metric group
+ * {@code table.<schema.table>}. Records without a known table go to the main output, as do records whose source
+ * has no schema or table name, which are never looked up.
+ *
+ * @param <T> the record type, forwarded unchanged
+ */
+public class TableRouter<T> extends ProcessFunction<T, T> {
+
+    private static final long serialVersionUID = 1L;
+    private static final Logger logger = LoggerFactory.getLogger(TableRouter.class);
+
+    /** Resolved to mark a physical table without route. */
+    private static final Route<?> NO_ROUTE = new Route<>(null, null);
+
+    /** logical schema -> logical table -> route */
+    private final HashMap<String, HashMap<String, Route<T>>> routes = new HashMap<>();
+
+    private final Map<String, String> split;
+    private final SourceNameExtractor<T> extractor;
+
+    /** physical schema -> physical table -> route, filled lazily. */
+    private transient Map<String, Map<String, Route<T>>> resolved;
+
+    private transient MetricGroup metricGroup;
+    private transient Counter unroutedCounter;
+    private transient Counter unnamedCounter;
+
+    public TableRouter(Map<Table, OutputTag<T>> tagMap, Map<String, String> split, SourceNameExtractor<T> extractor) {
+        tagMap.forEach((table, tag) -> routes.computeIfAbsent(table.getSchema(), k -> new HashMap<>())
+                .put(table.getName(), new Route<>(tag, table.getSchemaTableName())));
+        this.split = split == null || !SplitUtil.isEnabled(split) ? null : new HashMap<>(split);
+        this.extractor = extractor;
+    }
+
+    @Override
+    public void open(Configuration parameters) throws Exception {
+        metricGroup = getRuntimeContext().getMetricGroup();
+        unroutedCounter = metricGroup.counter("numRecordsUnrouted");
+        unnamedCounter = metricGroup.counter("numRecordsWithoutSourceName");
+    }
+
+    @Override
+    public void processElement(T value, Context ctx, Collector<T> out) throws Exception {
+        String[] names;
+        try {
+            names = extractor.extract(value);
+        } catch (Exception e) {
+            logger.error("Unable to read the source table of the change record", e);
+            names = null;
+        }
+        if (names == null || names[0] == null || names[1] == null) {
+            if (unnamedCounter != null) {
+                unnamedCounter.inc();
+            }
+            out.collect(value);
+            return;
+        }
+        OutputTag<T> tag = route(names[0], names[1]);
+        if (tag == null) {
+            if (unroutedCounter != null) {
+                unroutedCounter.inc();
+            }
+            out.collect(value);
+            return;
+        }
+        ctx.output(tag, value);
+    }
+
+    /**
+     * @return the output tag of the physical table, or null if the table is not synchronized
+     */
+    public OutputTag<T> route(String schema, String table) {
+        if (schema == null || table == null) {
+            return null;
+        }
+        if (resolved == null) {
+            resolved = new HashMap<>();
+        }
+        Route<T> route = resolved.computeIfAbsent(schema, k -> new HashMap<>()).get(table);
+        if (route == null) {
+            route = resolve(schema, table);
+            resolved.get(schema).put(table, route);
+        }
+        if (route.counter != null) {
+            route.counter.inc();
+        }
+        return route.tag;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Route<T> resolve(String schema, String table) {
+        String logicalSchema = split == null ? schema : SplitUtil.getReValue(schema, split);
+        String logicalTable = split == null ? table : SplitUtil.getReValue(table, split);
+        HashMap<String, Route<T>> tables = routes.get(logicalSchema);
+        Route<T> route = tables == null ? null : tables.get(logicalTable);
+        if (route == null) {
+            return (Route<T>) NO_ROUTE;
+        }
+        if (metricGroup == null) {
+            return route;
+        }
+        // every physical table of a split table shares the counter of the logical table
+        if (route.counter == null) {
+            route.counter = metricGroup.addGroup("table", route.name).counter("numRecordsRouted");
+        }
+        return route;
+    }
+
+    /** The output of a logical table. */
+    private static class Route<T> implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final OutputTag<T> tag;
+        private final String name;
+        private transient Counter counter;
+
+        Route(OutputTag<T> tag, String name) {
+            this.tag = tag;
+            this.name = name;
+        }
+    }
+}
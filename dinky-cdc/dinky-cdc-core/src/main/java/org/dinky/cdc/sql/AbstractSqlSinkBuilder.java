@@ -22,14 +22,15 @@ package org.dinky.cdc.sql;
 import org.dinky.assertion.Asserts;
 import org.dinky.cdc.AbstractSinkBuilder;
 import org.dinky.cdc.CDCBuilder;
+import org.dinky.cdc.debezium.DebeziumRowFunction;
+import org.dinky.cdc.debezium.ValueConverter;
+import org.dinky.cdc.route.SourceNameExtractor;
 import org.dinky.data.model.FlinkCDCConfig;
 import org.dinky.data.model.Schema;
 import org.dinky.data.model.Table;
 import org.dinky.executor.CustomTableEnvironment;
-import org.dinky.utils.JsonUtils;
 import org.dinky.utils.LogUtil;
 
-import org.apache.flink.api.common.functions.FlatMapFunction;
 import org.apache.flink.api.common.typeinfo.TypeInformation;
 import org.apache.flink.api.dag.Transformation;
 import org.apache.flink.api.java.typeutils.RowTypeInfo;
@@ -37,24 +38,18 @@ import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.streaming.api.datastream.DataStreamSource;
 import org.apache.flink.streaming.api.datastream.SingleOutputStreamOperator;
 import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
-import org.apache.flink.streaming.api.functions.ProcessFunction;
 import org.apache.flink.table.types.logical.DecimalType;
 import org.apache.flink.table.types.logical.LogicalType;
 import org.apache.flink.table.types.utils.TypeConversions;
 import org.apache.flink.types.Row;
-import org.apache.flink.types.RowKind;
-import org.apache.flink.util.Collector;
 import org.apache.flink.util.OutputTag;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 public abstract class AbstractSqlSinkBuilder extends AbstractSinkBuilder implements Serializable {
     protected ZoneId sinkTimeZone = ZoneId.of("UTC");
@@ -65,54 +60,8 @@ public abstract class AbstractSqlSinkBuilder extends AbstractSinkBuilder impleme
         super(config);
     }
 
-    @SuppressWarnings("rawtypes")
-    protected FlatMapFunction<Map, Row> sqlSinkRowFunction(
-            List<String> columnNameList, List<LogicalType> columnTypeList, String schemaTableName) {
-        return (value, out) -> {
-            try {
-                switch (value.get("op").toString()) {
-                    case "r":
-                    case "c":
-                        rowCollect(columnNameList, columnTypeList, out, RowKind.INSERT, (Map) value.get("after"));
-                        break;
-                    case "d":
-                        rowCollect(columnNameList, columnTypeList, out, RowKind.DELETE, (Map) value.get("before"));
-                        break;
-                    case "u":
-                        rowCollect(
-                                columnNameList, columnTypeList, out, RowKind.UPDATE_BEFORE, (Map) value.get("before"));
-                        rowCollect(columnNameList, columnTypeList, out, RowKind.UPDATE_AFTER, (Map) value.get("after"));
-                        break;
-                    default:
-                }
-            } catch (Exception e) {
-                logger.error(
-                        "SchemaTable: {} - Row: {} - Exception {}",
-                        schemaTableName,
-                        JsonUtils.toJsonString(value),
-                        e.toString());
-                throw e;
-            }
-        };
-    }
-
-    @SuppressWarnings("rawtypes")
-    private void rowCollect(
-            List<String> columnNameList,
-            List<LogicalType> columnTypeList,
-            Collector<Row> out,
-            RowKind rowKind,
-            Map value) {
-        Row row = Row.withPositions(rowKind, columnNameList.size());
-        for (int i = 0; i < columnNameList.size(); i++) {
-            row.setField(i, convertValue(value.get(columnNameList.get(i)), columnTypeList.get(i)));
-        }
-        out.collect(row);
-    }
-
-    @SuppressWarnings("rawtypes")
     protected DataStream<Row> buildRow(
-            DataStream<Map> filterOperator,
+            DataStream<String> filterOperator,
             List<String> columnNameList,
             List<LogicalType> columnTypeList,
             String schemaTableName) {
@@ -120,27 +69,26 @@ public abstract class AbstractSqlSinkBuilder extends AbstractSinkBuilder impleme
                 TypeConversions.fromLogicalToDataType(columnTypeList.toArray(new LogicalType[0])));
 
         return filterOperator.flatMap(
-                sqlSinkRowFunction(columnNameList, columnTypeList, schemaTableName),
+                new DebeziumRowFunction(createDecoder(columnNameList, columnTypeList), schemaTableName),
                 new RowTypeInfo(typeInformation, columnNameList.toArray(new String[0])));
     }
 
     @Override
-    protected Optional<Object> convertDecimalType(Object value, LogicalType logicalType) {
+    protected ValueConverter convertDecimalType(LogicalType logicalType) {
         if (logicalType instanceof DecimalType) {
-            return Optional.of(new BigDecimal(String.valueOf(value)));
+            return value -> new BigDecimal(String.valueOf(value));
         }
-        return Optional.empty();
+        return null;
     }
 
-    @SuppressWarnings("rawtypes")
     protected void addTableSinkForTags(
             CustomTableEnvironment customTableEnvironment,
-            Map<Table, OutputTag<Map>> tagMap,
-            SingleOutputStreamOperator<Map> processOperator) {
+            Map<Table, OutputTag<String>> tagMap,
+            SingleOutputStreamOperator<String> processOperator) {
         tagMap.forEach((table, tag) -> {
             final String schemaTableName = table.getSchemaTableName();
             try {
-                DataStream<Map> filterOperator = shunt(processOperator, table, tag);
+                DataStream<String> filterOperator = shunt(processOperator, table, tag);
                 logger.info("Build {} shunt successful...", schemaTableName);
                 List<String> columnNameList = new ArrayList<>();
                 List<LogicalType> columnTypeList = new ArrayList<>();
@@ -159,41 +107,14 @@ public abstract class AbstractSqlSinkBuilder extends AbstractSinkBuilder impleme
         });
     }
 
-    @SuppressWarnings("rawtypes")
-    protected SingleOutputStreamOperator<Map> createMapSingleOutputStreamOperator(
-            DataStreamSource<String> dataStreamSource, Map<Table, OutputTag<Map>> tagMap, Map<String, Table> tableMap) {
-        final String schemaFieldName = config.getSchemaFieldName();
-        SingleOutputStreamOperator<Map> mapOperator =
-                dataStreamSource.map(x -> objectMapper.readValue(x, Map.class)).returns(Map.class);
-        Map<String, String> split = config.getSplit();
-        return mapOperator.process(new ProcessFunction<Map, Map>() {
-            @Override
-            public void processElement(Map map, ProcessFunction<Map, Map>.Context ctx, Collector<Map> out) {
-                LinkedHashMap source = (LinkedHashMap) map.get("source");
-                try {
-                    String tableName = createTableName(source, schemaFieldName, split);
-                    OutputTag<Map> outputTag = tagMap.get(tableMap.get(tableName));
-                    ctx.output(outputTag, map);
-                } catch (Exception e) {
-                    logger.error(e.getMessage(), e);
-                    out.collect(map);
-                }
-            }
-        });
+    protected SingleOutputStreamOperator<String> createRouteOperator(
+            DataStreamSource<String> dataStreamSource, Map<Table, OutputTag<String>> tagMap) {
+        return route(dataStreamSource, tagMap, SourceNameExtractor.ofJson(config.getSchemaFieldName()));
     }
 
     protected abstract void addTableSink(
             CustomTableEnvironment customTableEnvironment, DataStream<Row> rowDataDataStream, Table table);
 
-    /**
-     * @param source
-     * @param schemaFieldName
-     * @param split must keep for flink use.
-     * @return
-     */
-    protected abstract String createTableName(LinkedHashMap source, String schemaFieldName, Map<String, String> split);
-
-    @SuppressWarnings("rawtypes")
     @Override
     public DataStreamSource<String> build(
             CDCBuilder cdcBuilder,
@@ -215,19 +136,8 @@ public abstract class AbstractSqlSinkBuilder extends AbstractSinkBuilder impleme
 
         logger.info("Build deserialize successful...");
 
-        Map<Table, OutputTag<Map>> tagMap = new HashMap<>();
-        Map<String, Table> tableMap = new HashMap<>();
-        for (Schema schema : schemaList) {
-            for (Table table : schema.getTables()) {
-                String sinkTableName = getSinkTableName(table);
-                OutputTag<Map> outputTag = new OutputTag<Map>(sinkTableName) {};
-                tagMap.put(table, outputTag);
-                tableMap.put(table.getSchemaTableName(), table);
-            }
-        }
-
-        SingleOutputStreamOperator<Map> processOperator =
-                createMapSingleOutputStreamOperator(dataStreamSource, tagMap, tableMap);
+        Map<Table, OutputTag<String>> tagMap = createOutputTags(String.class);
+        SingleOutputStreamOperator<String> processOperator = createRouteOperator(dataStreamSource, tagMap);
         addTableSinkForTags(customTableEnvironment, tagMap, processOperator);
 
         List<Transformation<?>> trans = customTableEnvironment.getPlanner().translate(modifyOperations);
@@ -20,12 +20,12 @@
 package org.dinky.cdc.sql;
 
 import org.dinky.cdc.SinkBuilder;
+import org.dinky.cdc.debezium.ValueConverter;
 import org.dinky.cdc.utils.FlinkStatementUtil;
 import org.dinky.data.model.Column;
 import org.dinky.data.model.FlinkCDCConfig;
 import org.dinky.data.model.Table;
 import org.dinky.executor.CustomTableEnvironment;
-import org.dinky.utils.SplitUtil;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -39,10 +39,9 @@ import org.apache.flink.types.Row;
 import java.io.Serializable;
 import java.time.Instant;
 import java.time.LocalDate;
-import java.util.LinkedHashMap;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 import com.google.common.collect.Lists;
@@ -135,53 +134,53 @@ public class SQLSinkBuilder extends AbstractSqlSinkBuilder implements Serializab
     }
 
     @Override
-    protected String createTableName(LinkedHashMap source, String schemaFieldName, Map<String, String> split) {
-        return SplitUtil.getReValue(source.get(schemaFieldName).toString(), split)
-                + "."
-                + SplitUtil.getReValue(source.get("table").toString(), split);
+    protected Map<String, String> getSplitConfig() {
+        return config.getSplit();
     }
 
     @Override
-    protected Optional<Object> convertDateType(Object value, LogicalType logicalType) {
+    protected ValueConverter convertDateType(LogicalType logicalType) {
         if (logicalType instanceof DateType) {
-            if (value instanceof Integer) {
-                return Optional.of(LocalDate.ofEpochDay((Integer) value));
-            }
-            if (value instanceof Long) {
-                return Optional.of(
-                        Instant.ofEpochMilli((long) value).atZone(sinkTimeZone).toLocalDate());
-            }
-            return Optional.of(
-                    Instant.parse(value.toString()).atZone(sinkTimeZone).toLocalDate());
+            final ZoneId zoneId = sinkTimeZone;
+            return value -> {
+                if (value instanceof Integer) {
+                    return LocalDate.ofEpochDay((Integer) value);
+                }
+                if (value instanceof Long) {
+                    return Instant.ofEpochMilli((long) value).atZone(zoneId).toLocalDate();
+                }
+                return Instant.parse(value.toString()).atZone(zoneId).toLocalDate();
+            };
         }
-        return Optional.empty();
+        return null;
     }
 
     @Override
-    protected Optional<Object> convertTimestampType(Object value, LogicalType logicalType) {
+    protected ValueConverter convertTimestampType(LogicalType logicalType) {
         if (logicalType instanceof TimestampType) {
-            if (value instanceof Integer) {
-                return Optional.of(Instant.ofEpochMilli(((Integer) value).longValue())
-                        .atZone(sinkTimeZone)
-                        .toLocalDateTime());
-            }
+            final ZoneId zoneId = sinkTimeZone;
+            // 转换为毫秒
+            final int precision = ((TimestampType) logicalType).getPrecision();
+            final long divisor = precision > 3 ? (long) Math.pow(10, precision - 3.0) : 0L;
+            return value -> {
+                if (value instanceof Integer) {
+                    return Instant.ofEpochMilli(((Integer) value).longValue())
+                            .atZone(zoneId)
+                            .toLocalDateTime();
+                }
 
-            if (value instanceof String) {
-                return Optional.of(
-                        Instant.parse((String) value).atZone(sinkTimeZone).toLocalDateTime());
-            }
+                if (value instanceof String) {
+                    return Instant.parse((String) value).atZone(zoneId).toLocalDateTime();
+                }
 
-            TimestampType timestampType = (TimestampType) logicalType;
-            // 转换为毫秒
-            if (timestampType.getPrecision() > 3) {
-                return Optional.of(
-                        Instant.ofEpochMilli(((long) value) / (long) Math.pow(10, timestampType.getPrecision() - 3.0))
-                                .atZone(sinkTimeZone)
-                                .toLocalDateTime());
-            }
-            return Optional.of(
-                    Instant.ofEpochSecond(((long) value)).atZone(sinkTimeZone).toLocalDateTime());
+                if (divisor > 0) {
+                    return Instant.ofEpochMilli(((long) value) / divisor)
+                            .atZone(zoneId)
+                            .toLocalDateTime();
+                }
+                return Instant.ofEpochSecond(((long) value)).atZone(zoneId).toLocalDateTime();
+            };
         }
-        return Optional.empty();
+        return null;
     }
 }
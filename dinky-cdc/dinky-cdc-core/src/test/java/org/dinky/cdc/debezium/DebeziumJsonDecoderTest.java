@@ -0,0 +1,104 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc.debezium;
+
+import org.dinky.cdc.sql.SQLSinkBuilder;
+
+import org.apache.flink.api.common.functions.util.ListCollector;
+import org.apache.flink.table.types.logical.BigIntType;
+import org.apache.flink.table.types.logical.DateType;
+import org.apache.flink.table.types.logical.DecimalType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.TimestampType;
+import org.apache.flink.table.types.logical.VarCharType;
+import org.apache.flink.types.Row;
+import org.apache.flink.types.RowKind;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class DebeziumJsonDecoderTest {
+
+    private static final List<String> COLUMNS = Arrays.asList("id", "name", "price", "birthday", "update_time");
+    private static final List<LogicalType> TYPES = Arrays.asList(
+            new BigIntType(), new VarCharType(), new DecimalType(10, 2), new DateType(), new TimestampType(6));
+
+    private static final String UPDATE = "{\"before\":{\"id\":1,\"name\":\"old\",\"price\":\"1.50\",\"birthday\":19000,"
+            + "\"update_time\":1700000000000000,\"ignored\":{\"a\":[1,2]}},"
+            + "\"after\":{\"id\":1,\"name\":\"new\",\"price\":\"2.50\",\"birthday\":19001,"
+            + "\"update_time\":1700000001000000,\"ignored\":null},"
+            + "\"source\":{\"db\":\"shop\",\"table\":\"orders\",\"ts_ms\":1700000001000},"
+            + "\"op\":\"u\",\"ts_ms\":1700000001001}";
+
+    private static final class TestSinkBuilder extends SQLSinkBuilder {
+        DebeziumJsonDecoder decoder() {
+            return createDecoder(COLUMNS, TYPES);
+        }
+    }
+
+    @Test
+    void testDecodeUpdate() throws Exception {
+        DebeziumJsonDecoder decoder = new TestSinkBuilder().decoder();
+        decoder.decode(UPDATE);
+
+        Assertions.assertThat(decoder.getOp()).isEqualTo("u");
+        Assertions.assertThat(decoder.getBefore())
+                .containsExactly(
+                        1L,
+                        "old",
+                        new BigDecimal("1.50"),
+                        LocalDate.ofEpochDay(19000),
+                        LocalDateTime.of(2023, 11, 14, 22, 13, 20));
+        Assertions.assertThat(decoder.getAfter()[1]).isEqualTo("new");
+    }
+
+    @Test
+    void testDecodeNullsAndMissingColumns() throws Exception {
+        DebeziumJsonDecoder decoder = new TestSinkBuilder().decoder();
+        decoder.decode("{\"op\":\"c\",\"before\":null,\"after\":{\"id\":2,\"name\":null}}");
+
+        Assertions.assertThat(decoder.getOp()).isEqualTo("c");
+        Assertions.assertThat(decoder.getBefore()).isNull();
+        Assertions.assertThat(decoder.getAfter()).containsExactly(2L, null, null, null, null);
+    }
+
+    @Test
+    void testFlatMapRowKinds() throws Exception {
+        DebeziumRowFunction function = new DebeziumRowFunction(new TestSinkBuilder().decoder(), "shop.orders");
+        List<Row> rows = new ArrayList<>();
+        ListCollector<Row> collector = new ListCollector<>(rows);
+
+        function.flatMap(UPDATE, collector);
+        function.flatMap("{\"op\":\"d\",\"before\":{\"id\":3},\"after\":null}", collector);
+        function.flatMap("{\"op\":\"r\",\"before\":null,\"after\":{\"id\":4}}", collector);
+
+        Assertions.assertThat(rows)
+                .extracting(Row::getKind)
+                .containsExactly(RowKind.UPDATE_BEFORE, RowKind.UPDATE_AFTER, RowKind.DELETE, RowKind.INSERT);
+        Assertions.assertThat(rows).extracting(row -> row.getField(0)).containsExactly(1L, 1L, 3L, 4L);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.cdc.route;
+
+import org.dinky.data.model.Table;
+
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.flink.util.OutputTag;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TableRouterTest {
+
+    @Test
+    void testRoute() {
+        Map<Table, OutputTag<String>> tagMap = createTags(3);
+        TableRouter<String> router = new TableRouter<>(tagMap, null, SourceNameExtractor.ofJson("db"));
+
+        Assertions.assertThat(router.route("db", "table_1")).isEqualTo(tag(tagMap, "db.table_1"));
+        Assertions.assertThat(router.route("db", "table_1")).isEqualTo(tag(tagMap, "db.table_1"));
+        Assertions.assertThat(router.route("db", "table_9")).isNull();
+        Assertions.assertThat(router.route("other", "table_1")).isNull();
+        Assertions.assertThat(router.route(null, "table_1")).isNull();
+    }
+
+    @Test
+    void testRouteSplitTable() {
+        Map<Table, OutputTag<String>> tagMap = new LinkedHashMap<>();
+        Table table = new Table("orders", "shop", new ArrayList<>());
+        tagMap.put(table, new OutputTag<>(table.getSchemaTableName(), TypeInformation.of(String.class)));
+        Map<String, String> split = new HashMap<>();
+        split.put("enable", "true");
+        split.put("match_number_regex", "_[0-9]+");
+        split.put("max_match_value", "100");
+        split.put("match_way", "suffix");
+        TableRouter<String> router = new TableRouter<>(tagMap, split, SourceNameExtractor.ofJson("db"));
+
+        Assertions.assertThat(router.route("shop_01", "orders_12")).isEqualTo(tagMap.get(table));
+        Assertions.assertThat(router.route("shop_02", "orders_99")).isEqualTo(tagMap.get(table));
+        Assertions.assertThat(router.route("shop_02", "orders_200")).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    void testExtractSourceName() throws Exception {
+        String record = record("inventory", "products", 7);
+        Assertions.assertThat(SourceNameExtractor.ofJson("db").extract(record))
+                .containsExactly("inventory", "products");
+        Map map = new ObjectMapper().readValue(record, Map.class);
+        Assertions.assertThat(SourceNameExtractor.ofMap("db").extract(map)).containsExactly("inventory", "products");
+        Assertions.assertThat(SourceNameExtractor.ofJson("db").extract("{\"op\":\"c\"}"))
+                .isNull();
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    void testMissingTableIsNotRoutedAsNull() throws Exception {
+        Map<Table, OutputTag<String>> tagMap = new LinkedHashMap<>();
+        Table table = new Table("null", "db", new ArrayList<>());
+        tagMap.put(table, new OutputTag<>(table.getSchemaTableName(), TypeInformation.of(String.class)));
+        TableRouter<String> router = new TableRouter<>(tagMap, null, SourceNameExtractor.ofJson("db"));
+
+        String record = "{\"source\":{\"db\":\"db\",\"table\":null},\"op\":\"c\"}";
+        Map map = new ObjectMapper().readValue(record, Map.class);
+        Assertions.assertThat(SourceNameExtractor.ofMap("db").extract(map)).containsExactly("db", null);
+        Assertions.assertThat(SourceNameExtractor.ofJson("db").extract(record)).containsExactly("db", null);
+        Assertions.assertThat(router.route("db", null)).isNull();
+    }
+
+    private static Map<Table, OutputTag<String>> createTags(int count) {
+        Map<Table, OutputTag<String>> tagMap = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            Table table = new Table("table_" + i, "db", new ArrayList<>());
+            tagMap.put(table, new OutputTag<>(table.getSchemaTableName(), TypeInformation.of(String.class)));
+        }
+        return tagMap;
+    }
+
+    private static OutputTag<String> tag(Map<Table, OutputTag<String>> tagMap, String schemaTableName) {
+        return tagMap.entrySet().stream()
+                .filter(e -> e.getKey().getSchemaTableName().equals(schemaTableName))
+                .findFirst()
+                .map(Map.Entry::getValue)
+                .orElse(null);
+    }
+
+    private static String record(String db, String table, int id) {
+        return "{\"before\":null,\"after\":{\"id\":" + id + ",\"name\":\"name_" + id
+                + "\",\"price\":\"12.50\",\"created\":1694736000000},"
+                + "\"source\":{\"version\":\"1.9.7.Final\",\"connector\":\"mysql\",\"name\":\"mysql_binlog_source\","
+                + "\"ts_ms\":1694736000000,\"snapshot\":\"false\",\"db\":\"" + db + "\",\"sequence\":null,"
+                + "\"table\":\"" + table + "\",\"server_id\":1,\"gtid\":null,\"file\":\"mysql-bin.000003\","
+                + "\"pos\":154,\"row\":0,\"thread\":null,\"query\":null},"
+                + "\"op\":\"c\",\"ts_ms\":1694736000123,\"transaction\":null}";
+    }
+}
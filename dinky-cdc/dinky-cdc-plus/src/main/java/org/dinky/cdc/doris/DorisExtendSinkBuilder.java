@@ -24,7 +24,6 @@ import org.dinky.data.model.Column;
 import org.dinky.data.model.FlinkCDCConfig;
 
 import org.apache.flink.streaming.api.datastream.DataStream;
-import org.apache.flink.streaming.api.datastream.SingleOutputStreamOperator;
 import org.apache.flink.table.data.RowData;
 import org.apache.flink.table.data.TimestampData;
 import org.apache.flink.table.types.logical.BigIntType;
@@ -124,15 +123,16 @@ public class DorisExtendSinkBuilder extends DorisSinkBuilder implements Serializ
         }
     }
 
-    @SuppressWarnings("rawtypes")
+    /** The meta columns need the source block of the record, so the extended builder keeps the map decoding. */
     @Override
     protected DataStream<RowData> buildRowData(
-            SingleOutputStreamOperator<Map> filterOperator,
+            DataStream<String> filterOperator,
             List<String> columnNameList,
             List<LogicalType> columnTypeList,
             String schemaTableName) {
         logger.info("sinkTimeZone:{}", this.getSinkTimeZone());
-        return filterOperator.flatMap(sinkRowDataFunction(columnNameList, columnTypeList, schemaTableName));
+        return deserialize(filterOperator)
+                .flatMap(sinkRowDataFunction(columnNameList, columnTypeList, schemaTableName));
     }
 
     @Override
@@ -23,6 +23,7 @@ import org.dinky.assertion.Asserts;
 import org.dinky.cdc.AbstractSinkBuilder;
 import org.dinky.cdc.CDCBuilder;
 import org.dinky.cdc.SinkBuilder;
+import org.dinky.cdc.route.SourceNameExtractor;
 import org.dinky.data.model.FlinkCDCConfig;
 import org.dinky.data.model.Schema;
 import org.dinky.data.model.Table;
@@ -36,13 +37,9 @@ import org.apache.doris.flink.sink.writer.JsonDebeziumSchemaSerializer;
 import org.apache.flink.streaming.api.datastream.DataStreamSource;
 import org.apache.flink.streaming.api.datastream.SingleOutputStreamOperator;
 import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
-import org.apache.flink.streaming.api.functions.ProcessFunction;
-import org.apache.flink.util.Collector;
 import org.apache.flink.util.OutputTag;
 
 import java.io.Serializable;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -88,36 +85,11 @@ public class DorisSchemaEvolutionSinkBuilder extends AbstractSinkBuilder impleme
             return dataStreamSource;
         }
 
-        SingleOutputStreamOperator<Map> mapOperator =
-                dataStreamSource.map(x -> objectMapper.readValue(x, Map.class)).returns(Map.class);
+        // the records are forwarded as they are, only the source table is read for routing
         final String schemaFieldName = config.getSchemaFieldName();
-
-        Map<Table, OutputTag<String>> tagMap = new HashMap<>();
-        Map<String, Table> tableMap = new HashMap<>();
-        for (Schema schema : schemaList) {
-            for (Table table : schema.getTables()) {
-                OutputTag<String> outputTag = new OutputTag<String>(getSinkTableName(table)) {};
-                tagMap.put(table, outputTag);
-                tableMap.put(table.getSchemaTableName(), table);
-            }
-        }
-
-        SingleOutputStreamOperator<String> process = mapOperator.process(new ProcessFunction<Map, String>() {
-
-            @Override
-            public void processElement(Map map, Context ctx, Collector<String> out) throws Exception {
-                LinkedHashMap source = (LinkedHashMap) map.get("source");
-                String result = objectMapper.writeValueAsString(map);
-                try {
-                    Table table = tableMap.get(source.get(schemaFieldName).toString()
-                            + "."
-                            + source.get("table").toString());
-                    ctx.output(tagMap.get(table), result);
-                } catch (Exception e) {
-                    out.collect(result);
-                }
-            }
-        });
+        Map<Table, OutputTag<String>> tagMap = createOutputTags(String.class);
+        SingleOutputStreamOperator<String> process =
+                route(dataStreamSource, tagMap, SourceNameExtractor.ofJson(schemaFieldName));
 
         tagMap.forEach((table, v) -> {
             DorisOptions dorisOptions = DorisOptions.builder()
@@ -23,15 +23,16 @@ import org.dinky.assertion.Asserts;
 import org.dinky.cdc.AbstractSinkBuilder;
 import org.dinky.cdc.CDCBuilder;
 import org.dinky.cdc.SinkBuilder;
+import org.dinky.cdc.route.SourceNameExtractor;
 import org.dinky.data.model.FlinkCDCConfig;
 import org.dinky.data.model.Schema;
 import org.dinky.data.model.Table;
 import org.dinky.executor.CustomTableEnvironment;
 import org.dinky.utils.ObjectConvertUtil;
 
-import org.apache.flink.api.common.functions.FilterFunction;
 import org.apache.flink.api.common.functions.MapFunction;
 import org.apache.flink.api.common.serialization.SimpleStringSchema;
+import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.streaming.api.datastream.DataStreamSource;
 import org.apache.flink.streaming.api.datastream.SingleOutputStreamOperator;
 import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
@@ -39,11 +40,11 @@ import org.apache.flink.streaming.api.functions.ProcessFunction;
 import org.apache.flink.streaming.connectors.kafka.FlinkKafkaProducer;
 import org.apache.flink.table.types.logical.LogicalType;
 import org.apache.flink.util.Collector;
+import org.apache.flink.util.OutputTag;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -90,101 +91,99 @@ public class KafkaSinkJsonBuilder extends AbstractSinkBuilder implements Seriali
                 return dataStreamSource;
             }
 
-            for (Schema schema : schemaList) {
-                for (Table table : schema.getTables()) {
-                    final String tableName = table.getName();
-                    final String schemaName = table.getSchema();
-                    SingleOutputStreamOperator<Map> filterOperator = mapOperator.filter((FilterFunction<Map>) value -> {
-                        LinkedHashMap source = (LinkedHashMap) value.get("source");
-                        return tableName.equals(source.get("table").toString())
-                                && schemaName.equals(source.get(schemaFieldName).toString());
-                    });
-                    String topic = getSinkTableName(table);
-                    if (Asserts.isNotNullString(config.getSink().get("topic"))) {
-                        topic = config.getSink().get("topic");
-                    }
-                    List<String> columnNameList = new LinkedList<>();
-                    List<LogicalType> columnTypeList = new LinkedList<>();
-                    buildColumn(columnNameList, columnTypeList, table.getColumns());
-                    SingleOutputStreamOperator<String> stringOperator =
-                            filterOperator.process(new ProcessFunction<Map, String>() {
-
-                                @Override
-                                public void processElement(Map value, Context context, Collector<String> collector)
-                                        throws Exception {
-                                    Map after = null;
-                                    Map before = null;
-                                    String tsMs = value.get("ts_ms").toString();
-                                    try {
-                                        switch (value.get("op").toString()) {
-                                            case "r":
-                                            case "c":
-                                                after = (Map) value.get("after");
-                                                convertAttr(
-                                                        columnNameList,
-                                                        columnTypeList,
-                                                        after,
-                                                        value.get("op").toString(),
-                                                        0,
-                                                        schemaName,
-                                                        tableName,
-                                                        tsMs);
-                                                break;
-                                            case "u":
-                                                before = (Map) value.get("before");
-                                                convertAttr(
-                                                        columnNameList,
-                                                        columnTypeList,
-                                                        before,
-                                                        value.get("op").toString(),
-                                                        1,
-                                                        schemaName,
-                                                        tableName,
-                                                        tsMs);
-
-                                                after = (Map) value.get("after");
-                                                convertAttr(
-                                                        columnNameList,
-                                                        columnTypeList,
-                                                        after,
-                                                        value.get("op").toString(),
-                                                        0,
-                                                        schemaName,
-                                                        tableName,
-                                                        tsMs);
-                                                break;
-                                            case "d":
-                                                before = (Map) value.get("before");
-                                                convertAttr(
-                                                        columnNameList,
-                                                        columnTypeList,
-                                                        before,
-                                                        value.get("op").toString(),
-                                                        1,
-                                                        schemaName,
-                                                        tableName,
-                                                        tsMs);
-                                                break;
-                                            default:
-                                        }
-                                    } catch (Exception e) {
-                                        logger.error("SchemaTable: {} - Exception:", e.toString());
-                                        throw e;
-                                    }
-                                    if (objectMapper == null) {
-                                        initializeObjectMapper();
-                                    }
-                                    if (before != null) {
-                                        collector.collect(objectMapper.writeValueAsString(before));
-                                    }
-                                    if (after != null) {
-                                        collector.collect(objectMapper.writeValueAsString(after));
+            Map<Table, OutputTag<Map>> tagMap = createOutputTags(Map.class);
+            SingleOutputStreamOperator<Map> routeOperator =
+                    route(mapOperator, tagMap, SourceNameExtractor.ofMap(schemaFieldName));
+            for (Map.Entry<Table, OutputTag<Map>> entry : tagMap.entrySet()) {
+                final Table table = entry.getKey();
+                final String tableName = table.getName();
+                final String schemaName = table.getSchema();
+                DataStream<Map> filterOperator = shunt(routeOperator, table, entry.getValue());
+                String topic = getSinkTableName(table);
+                if (Asserts.isNotNullString(config.getSink().get("topic"))) {
+                    topic = config.getSink().get("topic");
+                }
+                List<String> columnNameList = new LinkedList<>();
+                List<LogicalType> columnTypeList = new LinkedList<>();
+                buildColumn(columnNameList, columnTypeList, table.getColumns());
+                SingleOutputStreamOperator<String> stringOperator =
+                        filterOperator.process(new ProcessFunction<Map, String>() {
+
+                            @Override
+                            public void processElement(Map value, Context context, Collector<String> collector)
+                                    throws Exception {
+                                Map after = null;
+                                Map before = null;
+                                String tsMs = value.get("ts_ms").toString();
+                                try {
+                                    switch (value.get("op").toString()) {
+                                        case "r":
+                                        case "c":
+                                            after = (Map) value.get("after");
+                                            convertAttr(
+                                                    columnNameList,
+                                                    columnTypeList,
+                                                    after,
+                                                    value.get("op").toString(),
+                                                    0,
+                                                    schemaName,
+                                                    tableName,
+                                                    tsMs);
+                                            break;
+                                        case "u":
+                                            before = (Map) value.get("before");
+                                            convertAttr(
+                                                    columnNameList,
+                                                    columnTypeList,
+                                                    before,
+                                                    value.get("op").toString(),
+                                                    1,
+                                                    schemaName,
+                                                    tableName,
+                                                    tsMs);
+
+                                            after = (Map) value.get("after");
+                                            convertAttr(
+                                                    columnNameList,
+                                                    columnTypeList,
+                                                    after,
+                                                    value.get("op").toString(),
+                                                    0,
+                                                    schemaName,
+                                                    tableName,
+                                                    tsMs);
+                                            break;
+                                        case "d":
+                                            before = (Map) value.get("before");
+                                            convertAttr(
+                                                    columnNameList,
+                                                    columnTypeList,
+                                                    before,
+                                                    value.get("op").toString(),
+                                                    1,
+                                                    schemaName,
+                                                    tableName,
+                                                    tsMs);
+                                            break;
+                                        default:
                                     }
+                                } catch (Exception e) {
+                                    logger.error("SchemaTable: {} - Exception:", e.toString());
+                                    throw e;
                                 }
-                            });
-                    stringOperator.addSink(new FlinkKafkaProducer<String>(
-                            config.getSink().get("brokers"), topic, new SimpleStringSchema()));
-                }
+                                if (objectMapper == null) {
+                                    initializeObjectMapper();
+                                }
+                                if (before != null) {
+                                    collector.collect(objectMapper.writeValueAsString(before));
+                                }
+                                if (after != null) {
+                                    collector.collect(objectMapper.writeValueAsString(after));
+                                }
+                            }
+                        });
+                stringOperator.addSink(new FlinkKafkaProducer<String>(
+                        config.getSink().get("brokers"), topic, new SimpleStringSchema()));
             }
         } catch (Exception ex) {
             logger.error("kafka sink error:", ex);
@@ -50,6 +50,8 @@ public class ProcessEntity {
     private long time;
     private ProcessStepEntity lastUpdateStep;
     private CopyOnWriteArrayList<ProcessStepEntity> children;
+    /** The sequence number of the last change applied to the process. */
+    private long seq;
 
     public void appendLog(String str) {
         log.append(str).append(CommonConstant.LineSep);
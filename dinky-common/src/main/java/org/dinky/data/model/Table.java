@@ -56,6 +56,8 @@ public class Table implements Serializable, Comparable<Table>, Cloneable {
     private Long rows;
     private Date createTime;
     private Date updateTime;
+    /** 最近一次 DDL 时间，数据源不提供时为空 */
+    private Date ddlTime;
     /** 表类型 */
     private TableType tableType = TableType.SINGLE_DATABASE_AND_TABLE;
     /** 分库或分表对应的表名 */
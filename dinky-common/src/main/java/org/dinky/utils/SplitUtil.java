@@ -20,6 +20,7 @@
 package org.dinky.utils;
 
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -34,14 +35,16 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class SplitUtil {
 
+    /** Compiled split regexes, the split config only holds a handful of them. */
+    private static final Map<String, Pattern> PATTERN_CACHE = new ConcurrentHashMap<>();
+
     public static boolean contains(String regex, String sourceData) {
         return Pattern.matches(regex, sourceData);
     }
 
     public static boolean isSplit(String value, Map<String, String> splitConfig) {
         String matchNumberRegex = splitConfig.get("match_number_regex");
-        Pattern pattern = Pattern.compile(matchNumberRegex);
-        Matcher matcher = pattern.matcher(value);
+        Matcher matcher = getPattern(matchNumberRegex).matcher(value);
         if (matcher.find()) {
             long splitNum = Long.parseLong(matcher.group(0).replaceFirst("_", ""));
             long maxMatchValue = Long.parseLong(splitConfig.get("max_match_value"));
@@ -55,8 +58,7 @@ public class SplitUtil {
             try {
                 String matchNumberRegex = splitConfig.get("match_number_regex");
                 String matchWay = splitConfig.get("match_way");
-                Pattern pattern = Pattern.compile(matchNumberRegex);
-                Matcher matcher = pattern.matcher(value);
+                Matcher matcher = getPattern(matchNumberRegex).matcher(value);
                 // Determine whether it is a prefix or a suffix
                 if ("prefix".equalsIgnoreCase(matchWay)) {
                     if (matcher.find()) {
@@ -92,4 +94,8 @@ public class SplitUtil {
     public static boolean isEnabled(Map<String, String> split) {
         return Boolean.parseBoolean(split.get("enable"));
     }
+
+    private static Pattern getPattern(String regex) {
+        return PATTERN_CACHE.computeIfAbsent(regex, Pattern::compile);
+    }
 }
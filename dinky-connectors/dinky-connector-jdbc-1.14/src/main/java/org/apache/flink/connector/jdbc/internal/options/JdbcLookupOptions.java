@@ -33,13 +33,17 @@ public class JdbcLookupOptions implements Serializable {
     private final String dataFilter;
     /** 是否是时间类型字段. */
     private final boolean scanPartitionByDatetime;
+    /** Whether empty lookup results are cached as well. */
+    private final boolean cacheMissingKey;
+    /** Whether the lookup is served by {@code JdbcRowDataAsyncLookupFunction}. */
+    private final boolean async;
+    /** Max number of batch queries running concurrently, one connection each. */
+    private final int asyncMaxInFlight;
+    /** Max number of distinct keys combined into one batch query. */
+    private final int asyncBatchSize;
 
     public JdbcLookupOptions(long cacheMaxSize, long cacheExpireMs, int maxRetryTimes, String dataFilter) {
-        this.cacheMaxSize = cacheMaxSize;
-        this.cacheExpireMs = cacheExpireMs;
-        this.maxRetryTimes = maxRetryTimes;
-        this.dataFilter = dataFilter;
-        this.scanPartitionByDatetime = false;
+        this(cacheMaxSize, cacheExpireMs, maxRetryTimes, dataFilter, false);
     }
 
     public JdbcLookupOptions(
@@ -48,11 +52,28 @@ public class JdbcLookupOptions implements Serializable {
             int maxRetryTimes,
             String dataFilter,
             boolean scanPartitionByDatetime) {
+        this(cacheMaxSize, cacheExpireMs, maxRetryTimes, dataFilter, scanPartitionByDatetime, true, false, 4, 100);
+    }
+
+    public JdbcLookupOptions(
+            long cacheMaxSize,
+            long cacheExpireMs,
+            int maxRetryTimes,
+            String dataFilter,
+            boolean scanPartitionByDatetime,
+            boolean cacheMissingKey,
+            boolean async,
+            int asyncMaxInFlight,
+            int asyncBatchSize) {
         this.cacheMaxSize = cacheMaxSize;
         this.cacheExpireMs = cacheExpireMs;
         this.maxRetryTimes = maxRetryTimes;
         this.dataFilter = dataFilter;
         this.scanPartitionByDatetime = scanPartitionByDatetime;
+        this.cacheMissingKey = cacheMissingKey;
+        this.async = async;
+        this.asyncMaxInFlight = asyncMaxInFlight;
+        this.asyncBatchSize = asyncBatchSize;
     }
 
     public long getCacheMaxSize() {
@@ -71,6 +92,22 @@ public class JdbcLookupOptions implements Serializable {
         return scanPartitionByDatetime;
     }
 
+    public boolean isCacheMissingKey() {
+        return cacheMissingKey;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public int getAsyncMaxInFlight() {
+        return asyncMaxInFlight;
+    }
+
+    public int getAsyncBatchSize() {
+        return asyncBatchSize;
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -90,7 +127,11 @@ public class JdbcLookupOptions implements Serializable {
             JdbcLookupOptions options = (JdbcLookupOptions) o;
             return Objects.equals(cacheMaxSize, options.cacheMaxSize)
                     && Objects.equals(cacheExpireMs, options.cacheExpireMs)
-                    && Objects.equals(maxRetryTimes, options.maxRetryTimes);
+                    && Objects.equals(maxRetryTimes, options.maxRetryTimes)
+                    && Objects.equals(cacheMissingKey, options.cacheMissingKey)
+                    && Objects.equals(async, options.async)
+                    && Objects.equals(asyncMaxInFlight, options.asyncMaxInFlight)
+                    && Objects.equals(asyncBatchSize, options.asyncBatchSize);
         } else {
             return false;
         }
@@ -104,6 +145,10 @@ public class JdbcLookupOptions implements Serializable {
         private int maxRetryTimes = JdbcExecutionOptions.DEFAULT_MAX_RETRY_TIMES;
         private String dataFilter = "";
         private boolean scanPartitionByDatetime = false;
+        private boolean cacheMissingKey = true;
+        private boolean async = false;
+        private int asyncMaxInFlight = 4;
+        private int asyncBatchSize = 100;
 
         /** optional, lookup cache max size, over this value, the old data will be eliminated. */
         public Builder setCacheMaxSize(long cacheMaxSize) {
@@ -129,9 +174,41 @@ public class JdbcLookupOptions implements Serializable {
             return this;
         }
 
+        /** optional, whether empty lookup results are cached. */
+        public Builder setCacheMissingKey(boolean cacheMissingKey) {
+            this.cacheMissingKey = cacheMissingKey;
+            return this;
+        }
+
+        /** optional, whether to use the asynchronous batched lookup function. */
+        public Builder setAsync(boolean async) {
+            this.async = async;
+            return this;
+        }
+
+        /** optional, max concurrent batch queries of the asynchronous lookup function. */
+        public Builder setAsyncMaxInFlight(int asyncMaxInFlight) {
+            this.asyncMaxInFlight = asyncMaxInFlight;
+            return this;
+        }
+
+        /** optional, max distinct keys per batch query of the asynchronous lookup function. */
+        public Builder setAsyncBatchSize(int asyncBatchSize) {
+            this.asyncBatchSize = asyncBatchSize;
+            return this;
+        }
+
         public JdbcLookupOptions build() {
             return new JdbcLookupOptions(
-                    cacheMaxSize, cacheExpireMs, maxRetryTimes, dataFilter, scanPartitionByDatetime);
+                    cacheMaxSize,
+                    cacheExpireMs,
+                    maxRetryTimes,
+                    dataFilter,
+                    scanPartitionByDatetime,
+                    cacheMissingKey,
+                    async,
+                    asyncMaxInFlight,
+                    asyncBatchSize);
         }
     }
 }
@@ -0,0 +1,473 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.flink.connector.jdbc.table;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.metrics.Counter;
+import org.apache.flink.metrics.Gauge;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.shaded.guava30.com.google.common.cache.Cache;
+import org.apache.flink.shaded.guava30.com.google.common.cache.CacheBuilder;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.functions.AsyncTableFunction;
+import org.apache.flink.table.functions.FunctionContext;
+import org.apache.flink.table.types.DataType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.RowType;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The base of the asynchronous lookup functions over a JDBC connection, the subclasses only provide the dialect
+ * and the connections.
+ *
+ * <p>Probe keys are queued and served by {@code lookup.async.max-in-flight} workers, each owning one
+ * connection. A free worker takes every pending key up to {@code lookup.async.batch-size} and resolves
+ * them with a single query, so batches grow with the probe rate without delaying probes when the rate is low.
+ *
+ * <p>The batch query is a {@code UNION ALL} of one select per key, each tagged with the index of its key. The
+ * database compares the keys with its own collation and type coercion, exactly like the synchronous lookup, and
+ * the rows are assigned to their probes by the index instead of by comparing keys in Java.
+ */
+@Internal
+public abstract class AbstractJdbcRowDataAsyncLookupFunction extends AsyncTableFunction<RowData> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AbstractJdbcRowDataAsyncLookupFunction.class);
+    private static final long serialVersionUID = 1L;
+    private static final long POLL_TIMEOUT_MS = 100L;
+
+    private final String name;
+    private final String tableName;
+    private final String[] fieldNames;
+    private final String[] keyNames;
+    private final LogicalType[] keyTypes;
+    private final String[] preFilterCondition;
+    private final long cacheMaxSize;
+    private final long cacheExpireMs;
+    private final boolean cacheMissingKey;
+    private final int maxRetryTimes;
+    private final int maxInFlight;
+    private final int batchSize;
+
+    private transient Cache<RowData, List<RowData>> cache;
+    private transient BlockingQueue<Probe> pending;
+    private transient ExecutorService executor;
+    private transient volatile boolean running;
+
+    private transient Counter cacheHitCounter;
+    private transient Counter cacheMissCounter;
+    private transient Counter batchCounter;
+    private transient Counter batchKeyCounter;
+
+    /**
+     * @param name the name of the connector, used in the thread names and messages
+     * @param preFilterCondition the conditions ANDed to the lookup of every key
+     */
+    protected AbstractJdbcRowDataAsyncLookupFunction(
+            String name,
+            String tableName,
+            String[] fieldNames,
+            DataType[] fieldTypes,
+            String[] keyNames,
+            String[] preFilterCondition,
+            long cacheMaxSize,
+            long cacheExpireMs,
+            boolean cacheMissingKey,
+            int maxRetryTimes,
+            int maxInFlight,
+            int batchSize) {
+        checkNotNull(fieldNames, "No fieldNames supplied.");
+        checkNotNull(fieldTypes, "No fieldTypes supplied.");
+        checkNotNull(keyNames, "No keyNames supplied.");
+        this.name = name;
+        this.tableName = tableName;
+        this.fieldNames = fieldNames;
+        this.keyNames = keyNames;
+        List<String> nameList = Arrays.asList(fieldNames);
+        this.keyTypes = Arrays.stream(keyNames)
+                .map(s -> {
+                    checkArgument(nameList.contains(s), "keyName %s can't find in fieldNames %s.", s, nameList);
+                    return fieldTypes[nameList.indexOf(s)].getLogicalType();
+                })
+                .toArray(LogicalType[]::new);
+        this.preFilterCondition = preFilterCondition == null ? new String[0] : preFilterCondition;
+        this.cacheMaxSize = cacheMaxSize;
+        this.cacheExpireMs = cacheExpireMs;
+        this.cacheMissingKey = cacheMissingKey;
+        this.maxRetryTimes = maxRetryTimes;
+        this.maxInFlight = maxInFlight;
+        this.batchSize = batchSize;
+    }
+
+    /** The connection of a worker. */
+    protected interface LookupConnection {
+
+        Connection getOrEstablishConnection() throws SQLException, ClassNotFoundException;
+
+        boolean isConnectionValid() throws SQLException;
+
+        void closeConnection();
+    }
+
+    /** A prepared batch query of a worker. */
+    protected interface BatchStatement {
+
+        ResultSet executeQuery(RowData parameters) throws SQLException;
+
+        void close() throws SQLException;
+    }
+
+    protected abstract String quoteIdentifier(String identifier);
+
+    /** Creates the connection of a new worker. */
+    protected abstract LookupConnection createConnection();
+
+    /**
+     * Prepares a batch query.
+     *
+     * @param sql the query with named parameters
+     * @param parameterNames the names of the parameters
+     * @param parameterType the types of the parameters, in the order of the names
+     */
+    protected abstract BatchStatement prepareBatchStatement(
+            Connection connection, String sql, String[] parameterNames, RowType parameterType) throws SQLException;
+
+    /** Converts the current row of the result set, its columns are the fields followed by the key index. */
+    protected abstract RowData toInternal(ResultSet resultSet) throws SQLException;
+
+    @Override
+    public void open(FunctionContext context) throws Exception {
+        this.cache = cacheMaxSize == -1 || cacheExpireMs == -1
+                ? null
+                : CacheBuilder.newBuilder()
+                        .expireAfterWrite(cacheExpireMs, TimeUnit.MILLISECONDS)
+                        .maximumSize(cacheMaxSize)
+                        .build();
+        registerMetrics(context.getMetricGroup());
+
+        this.pending = new LinkedBlockingQueue<>();
+        List<LookupWorker> workers = new ArrayList<>(maxInFlight);
+        try {
+            for (int i = 0; i < maxInFlight; i++) {
+                LookupWorker worker = new LookupWorker(createConnection());
+                workers.add(worker);
+                worker.connection.getOrEstablishConnection();
+            }
+        } catch (SQLException sqe) {
+            workers.forEach(LookupWorker::close);
+            throw new IllegalArgumentException("open() failed.", sqe);
+        } catch (ClassNotFoundException cnfe) {
+            workers.forEach(LookupWorker::close);
+            throw new IllegalArgumentException("JDBC driver class not found.", cnfe);
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.running = true;
+        this.executor = Executors.newFixedThreadPool(maxInFlight, r -> {
+            Thread thread = new Thread(r, name + "-async-lookup-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        workers.forEach(executor::execute);
+    }
+
+    private void registerMetrics(MetricGroup metricGroup) {
+        cacheHitCounter = metricGroup.counter("lookupCacheHitCount");
+        cacheMissCounter = metricGroup.counter("lookupCacheMissCount");
+        batchCounter = metricGroup.counter("lookupBatchCount");
+        batchKeyCounter = metricGroup.counter("lookupBatchKeyCount");
+        metricGroup.gauge("lookupCacheHitRate", (Gauge<Double>) () -> {
+            long total = cacheHitCounter.getCount() + cacheMissCounter.getCount();
+            return total == 0 ? 0D : (double) cacheHitCounter.getCount() / total;
+        });
+        metricGroup.gauge("lookupAvgBatchSize", (Gauge<Double>) () ->
+                batchCounter.getCount() == 0 ? 0D : (double) batchKeyCounter.getCount() / batchCounter.getCount());
+        metricGroup.gauge("lookupPendingKeys", (Gauge<Integer>) () -> pending.size());
+    }
+
+    /**
+     * This is a lookup method which is called by Flink framework in runtime.
+     *
+     * @param future the future completed with the matching rows
+     * @param keys lookup keys
+     */
+    public void eval(CompletableFuture<Collection<RowData>> future, Object... keys) {
+        RowData keyRow = GenericRowData.of(keys);
+        if (cache != null) {
+            List<RowData> cachedRows = cache.getIfPresent(keyRow);
+            if (cachedRows != null) {
+                cacheHitCounter.inc();
+                future.complete(cachedRows);
+                return;
+            }
+            cacheMissCounter.inc();
+        }
+        if (!running) {
+            future.completeExceptionally(closedException());
+            return;
+        }
+        pending.add(new Probe(keyRow, future));
+    }
+
+    /** Rounds a batch up to a power of two so each connection prepares only a handful of statements. */
+    private int statementSize(int keyCount) {
+        int size = 1;
+        while (size < keyCount) {
+            size <<= 1;
+        }
+        return Math.min(size, batchSize);
+    }
+
+    String getBatchSelectStatement(int size) {
+        String selectExpressions =
+                Arrays.stream(fieldNames).map(this::quoteIdentifier).collect(Collectors.joining(", "));
+        return IntStream.range(0, size)
+                .mapToObj(i -> {
+                    StringBuilder where = new StringBuilder();
+                    for (int j = 0; j < keyNames.length; j++) {
+                        where.append(j == 0 ? "" : " AND ")
+                                .append(quoteIdentifier(keyNames[j]))
+                                .append(" = :")
+                                .append(parameterName(i, j));
+                    }
+                    for (String condition : preFilterCondition) {
+                        where.append(" AND (").append(condition).append(")");
+                    }
+                    return "SELECT " + selectExpressions + ", " + i + " FROM " + quoteIdentifier(tableName) + " WHERE "
+                            + where;
+                })
+                .collect(Collectors.joining(" UNION ALL "));
+    }
+
+    private String[] getBatchParameterNames(int size) {
+        String[] names = new String[size * keyNames.length];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < keyNames.length; j++) {
+                names[i * keyNames.length + j] = parameterName(i, j);
+            }
+        }
+        return names;
+    }
+
+    private RowType getBatchParameterType(int size) {
+        LogicalType[] types = new LogicalType[size * keyTypes.length];
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(keyTypes, 0, types, i * keyTypes.length, keyTypes.length);
+        }
+        return RowType.of(types);
+    }
+
+    private static String parameterName(int keyIndex, int fieldIndex) {
+        return "k" + keyIndex + "_" + fieldIndex;
+    }
+
+    private IllegalStateException closedException() {
+        return new IllegalStateException("The " + name + " lookup function is closed.");
+    }
+
+    @Override
+    public void close() throws Exception {
+        running = false;
+        if (executor != null) {
+            executor.shutdownNow();
+            if (!executor.awaitTermination(POLL_TIMEOUT_MS * 10, TimeUnit.MILLISECONDS)) {
+                LOG.warn("{} async lookup workers did not stop in time.", name);
+            }
+            executor = null;
+        }
+        if (pending != null) {
+            Probe probe;
+            while ((probe = pending.poll()) != null) {
+                probe.future.completeExceptionally(closedException());
+            }
+        }
+        if (cache != null) {
+            cache.cleanUp();
+            cache = null;
+        }
+    }
+
+    /** A pending lookup key and the future waiting for its rows. */
+    private static final class Probe {
+
+        private final RowData key;
+        private final CompletableFuture<Collection<RowData>> future;
+
+        private Probe(RowData key, CompletableFuture<Collection<RowData>> future) {
+            this.key = key;
+            this.future = future;
+        }
+    }
+
+    /**
+     * Drains pending keys into batch queries over its own connection. A failing batch fails its own probes only,
+     * the worker keeps serving the next ones.
+     */
+    private final class LookupWorker implements Runnable {
+
+        private final LookupConnection connection;
+        private final Map<Integer, BatchStatement> statements = new HashMap<>();
+
+        private LookupWorker(LookupConnection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public void run() {
+            List<Probe> batch = new ArrayList<>(batchSize);
+            try {
+                while (running) {
+                    Probe first = pending.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    pending.drainTo(batch, batchSize - 1);
+                    try {
+                        lookup(batch);
+                    } catch (InterruptedException e) {
+                        throw e;
+                    } catch (Throwable t) {
+                        LOG.error("{} batch lookup of {} keys failed.", name, batch.size(), t);
+                        RuntimeException failure = new RuntimeException("Execution of JDBC statement failed.", t);
+                        batch.forEach(probe -> probe.future.completeExceptionally(failure));
+                        // the statements may be left in any state, prepare them again
+                        close();
+                    }
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                batch.forEach(probe -> probe.future.completeExceptionally(closedException()));
+                close();
+            }
+        }
+
+        private void lookup(List<Probe> batch) throws Exception {
+            Map<RowData, List<CompletableFuture<Collection<RowData>>>> probes = new LinkedHashMap<>();
+            for (Probe probe : batch) {
+                probes.computeIfAbsent(probe.key, k -> new ArrayList<>(1)).add(probe.future);
+            }
+            List<RowData> keys = new ArrayList<>(probes.keySet());
+            List<List<RowData>> results = queryWithRetry(keys);
+            batchCounter.inc();
+            batchKeyCounter.inc(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                RowData key = keys.get(i);
+                List<RowData> rows = results.get(i);
+                // rows are tagged with the index of their key, so an empty result is a miss of this key alone
+                if (cache != null && (!rows.isEmpty() || cacheMissingKey)) {
+                    cache.put(key, rows);
+                }
+                probes.get(key).forEach(f -> f.complete(rows));
+            }
+        }
+
+        private List<List<RowData>> queryWithRetry(List<RowData> keys) throws Exception {
+            for (int retry = 0; ; retry++) {
+                try {
+                    return query(keys);
+                } catch (SQLException e) {
+                    LOG.error(String.format("%s batch lookup error, retry times = %d", name, retry), e);
+                    if (retry >= maxRetryTimes) {
+                        throw e;
+                    }
+                    if (!connection.isConnectionValid()) {
+                        close();
+                    }
+                    Thread.sleep(1000L * retry);
+                }
+            }
+        }
+
+        private List<List<RowData>> query(List<RowData> keys) throws SQLException, ClassNotFoundException {
+            int size = statementSize(keys.size());
+            BatchStatement statement = statements.get(size);
+            if (statement == null) {
+                statement = prepareBatchStatement(
+                        connection.getOrEstablishConnection(),
+                        getBatchSelectStatement(size),
+                        getBatchParameterNames(size),
+                        getBatchParameterType(size));
+                statements.put(size, statement);
+            }
+            // unused slots repeat the last key, their rows are skipped by the key index
+            GenericRowData parameters = new GenericRowData(size * keyNames.length);
+            for (int i = 0; i < size; i++) {
+                RowData key = keys.get(Math.min(i, keys.size() - 1));
+                for (int j = 0; j < keyNames.length; j++) {
+                    parameters.setField(i * keyNames.length + j, ((GenericRowData) key).getField(j));
+                }
+            }
+
+            List<List<RowData>> results = new ArrayList<>(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                results.add(new ArrayList<>());
+            }
+            try (ResultSet resultSet = statement.executeQuery(parameters)) {
+                while (resultSet.next()) {
+                    int keyIndex = resultSet.getInt(fieldNames.length + 1);
+                    if (keyIndex < keys.size()) {
+                        results.get(keyIndex).add(toInternal(resultSet));
+                    }
+                }
+            }
+            return results;
+        }
+
+        private void close() {
+            for (BatchStatement statement : statements.values()) {
+                try {
+                    statement.close();
+                } catch (SQLException e) {
+                    LOG.info("JDBC statement could not be closed: " + e.getMessage());
+                }
+            }
+            statements.clear();
+            connection.closeConnection();
+        }
+    }
+}
@@ -118,6 +118,28 @@ public class JdbcConnectorOptions {
             .defaultValue(3)
             .withDescription("The max retry times if lookup database failed.");
 
+    public static final ConfigOption<Boolean> LOOKUP_CACHE_MISSING_KEY = ConfigOptions.key(
+                    "lookup.cache.caching-missing-key")
+            .booleanType()
+            .defaultValue(true)
+            .withDescription("Whether keys without matching rows are cached as empty results.");
+
+    public static final ConfigOption<Boolean> LOOKUP_ASYNC = ConfigOptions.key("lookup.async")
+            .booleanType()
+            .defaultValue(false)
+            .withDescription("Whether to look up asynchronously, combining concurrent keys into batch queries.");
+
+    public static final ConfigOption<Integer> LOOKUP_ASYNC_MAX_IN_FLIGHT = ConfigOptions.key(
+                    "lookup.async.max-in-flight")
+            .intType()
+            .defaultValue(4)
+            .withDescription("The max number of batch queries running concurrently, each on its own connection.");
+
+    public static final ConfigOption<Integer> LOOKUP_ASYNC_BATCH_SIZE = ConfigOptions.key("lookup.async.batch-size")
+            .intType()
+            .defaultValue(100)
+            .withDescription("The max number of distinct keys combined into one batch query.");
+
     // write config options
     public static final ConfigOption<Integer> SINK_BUFFER_FLUSH_MAX_ROWS = ConfigOptions.key(
                     "sink.buffer-flush.max-rows")
@@ -21,7 +21,11 @@ package org.apache.flink.connector.jdbc.table;
 
 import static org.apache.flink.connector.jdbc.table.JdbcConnectorOptions.DATA_FILTER;
 import static org.apache.flink.connector.jdbc.table.JdbcConnectorOptions.DRIVER;
+import static org.apache.flink.connector.jdbc.table.JdbcConnectorOptions.LOOKUP_ASYNC;
+import static org.apache.flink.connector.jdbc.table.JdbcConnectorOptions.LOOKUP_ASYNC_BATCH_SIZE;
+import static org.apache.flink.connector.jdbc.table.JdbcConnectorOptions.LOOKUP_ASYNC_MAX_IN_FLIGHT;
 import static org.apache.flink.connector.jdbc.table.JdbcConnectorOptions.LOOKUP_CACHE_MAX_ROWS;
+import static org.apache.flink.connector.jdbc.table.JdbcConnectorOptions.LOOKUP_CACHE_MISSING_KEY;
 import static org.apache.flink.connector.jdbc.table.JdbcConnectorOptions.LOOKUP_CACHE_TTL;
 import static org.apache.flink.connector.jdbc.table.JdbcConnectorOptions.LOOKUP_MAX_RETRIES;
 import static org.apache.flink.connector.jdbc.table.JdbcConnectorOptions.MAX_RETRY_TIMEOUT;
@@ -146,7 +150,11 @@ public class JdbcDynamicTableFactory implements DynamicTableSourceFactory, Dynam
                 readableConfig.get(LOOKUP_CACHE_TTL).toMillis(),
                 readableConfig.get(LOOKUP_MAX_RETRIES),
                 readableConfig.get(DATA_FILTER),
-                readableConfig.get(SCAN_PARTITION_BY_DATETIME));
+                readableConfig.get(SCAN_PARTITION_BY_DATETIME),
+                readableConfig.get(LOOKUP_CACHE_MISSING_KEY),
+                readableConfig.get(LOOKUP_ASYNC),
+                readableConfig.get(LOOKUP_ASYNC_MAX_IN_FLIGHT),
+                readableConfig.get(LOOKUP_ASYNC_BATCH_SIZE));
     }
 
     private JdbcExecutionOptions getJdbcExecutionOptions(ReadableConfig config) {
@@ -198,6 +206,10 @@ public class JdbcDynamicTableFactory implements DynamicTableSourceFactory, Dynam
         optionalOptions.add(LOOKUP_CACHE_MAX_ROWS);
         optionalOptions.add(LOOKUP_CACHE_TTL);
         optionalOptions.add(LOOKUP_MAX_RETRIES);
+        optionalOptions.add(LOOKUP_CACHE_MISSING_KEY);
+        optionalOptions.add(LOOKUP_ASYNC);
+        optionalOptions.add(LOOKUP_ASYNC_MAX_IN_FLIGHT);
+        optionalOptions.add(LOOKUP_ASYNC_BATCH_SIZE);
         optionalOptions.add(SINK_BUFFER_FLUSH_MAX_ROWS);
         optionalOptions.add(SINK_BUFFER_FLUSH_INTERVAL);
         optionalOptions.add(SINK_MAX_RETRIES);
@@ -238,6 +250,18 @@ public class JdbcDynamicTableFactory implements DynamicTableSourceFactory, Dynam
                     LOOKUP_MAX_RETRIES.key(), config.get(LOOKUP_MAX_RETRIES)));
         }
 
+        if (config.get(LOOKUP_ASYNC_MAX_IN_FLIGHT) < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "The value of '%s' option should be positive, but is %s.",
+                    LOOKUP_ASYNC_MAX_IN_FLIGHT.key(), config.get(LOOKUP_ASYNC_MAX_IN_FLIGHT)));
+        }
+
+        if (config.get(LOOKUP_ASYNC_BATCH_SIZE) < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "The value of '%s' option should be positive, but is %s.",
+                    LOOKUP_ASYNC_BATCH_SIZE.key(), config.get(LOOKUP_ASYNC_BATCH_SIZE)));
+        }
+
         if (config.get(SINK_MAX_RETRIES) < 0) {
             throw new IllegalArgumentException(String.format(
                     "The value of '%s' option shouldn't be negative, but is %s.",
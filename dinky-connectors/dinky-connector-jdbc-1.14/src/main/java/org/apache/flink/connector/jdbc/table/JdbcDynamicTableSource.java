@@ -28,6 +28,7 @@ import org.apache.flink.connector.jdbc.split.JdbcDatetimeBetweenParametersProvid
 import org.apache.flink.connector.jdbc.split.JdbcNumericBetweenParametersProvider;
 import org.apache.flink.table.api.TableSchema;
 import org.apache.flink.table.connector.ChangelogMode;
+import org.apache.flink.table.connector.source.AsyncTableFunctionProvider;
 import org.apache.flink.table.connector.source.DynamicTableSource;
 import org.apache.flink.table.connector.source.InputFormatProvider;
 import org.apache.flink.table.connector.source.LookupTableSource;
@@ -76,6 +77,15 @@ public class JdbcDynamicTableSource
         }
         final RowType rowType = (RowType) physicalSchema.toRowDataType().getLogicalType();
 
+        if (lookupOptions.isAsync()) {
+            return AsyncTableFunctionProvider.of(new JdbcRowDataAsyncLookupFunction(
+                    options,
+                    lookupOptions,
+                    physicalSchema.getFieldNames(),
+                    physicalSchema.getFieldDataTypes(),
+                    keyNames,
+                    rowType));
+        }
         return TableFunctionProvider.of(new JdbcRowDataLookupFunction(
                 options,
                 lookupOptions,
@@ -67,6 +67,7 @@ public class JdbcRowDataLookupFunction extends TableFunction<RowData> {
     private final String[] keyNames;
     private final long cacheMaxSize;
     private final long cacheExpireMs;
+    private final boolean cacheMissingKey;
     private final int maxRetryTimes;
     private final JdbcDialect jdbcDialect;
     private final JdbcRowConverter jdbcRowConverter;
@@ -97,6 +98,7 @@ public class JdbcRowDataLookupFunction extends TableFunction<RowData> {
                 .toArray(DataType[]::new);
         this.cacheMaxSize = lookupOptions.getCacheMaxSize();
         this.cacheExpireMs = lookupOptions.getCacheExpireMs();
+        this.cacheMissingKey = lookupOptions.isCacheMissingKey();
         this.maxRetryTimes = lookupOptions.getMaxRetryTimes();
         String[] preFilterCondition = lookupOptions.getPreFilterCondition();
         String[] finalKeyNames = new String[keyNames.length + preFilterCondition.length];
@@ -162,7 +164,9 @@ public class JdbcRowDataLookupFunction extends TableFunction<RowData> {
                             collect(row);
                         }
                         rows.trimToSize();
-                        cache.put(keyRow, rows);
+                        if (!rows.isEmpty() || cacheMissingKey) {
+                            cache.put(keyRow, rows);
+                        }
                     }
                 }
                 break;
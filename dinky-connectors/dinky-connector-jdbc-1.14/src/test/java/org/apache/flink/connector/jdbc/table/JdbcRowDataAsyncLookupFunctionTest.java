@@ -0,0 +1,290 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.flink.connector.jdbc.table;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.apache.flink.connector.jdbc.internal.options.JdbcConnectorOptions;
+import org.apache.flink.connector.jdbc.internal.options.JdbcLookupOptions;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.metrics.groups.UnregisteredMetricsGroup;
+import org.apache.flink.table.api.DataTypes;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.StringData;
+import org.apache.flink.table.functions.FunctionContext;
+import org.apache.flink.table.types.DataType;
+import org.apache.flink.table.types.logical.RowType;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/** Tests {@link JdbcRowDataAsyncLookupFunction} against an embedded Derby database with case-insensitive keys. */
+public class JdbcRowDataAsyncLookupFunctionTest {
+
+    private static final String DB_URL =
+            "jdbc:derby:memory:asyncLookup;territory=en_US;collation=TERRITORY_BASED:PRIMARY";
+    private static final String TABLE_NAME = "LOOKUP_TABLE";
+    private static final String[] FIELD_NAMES = {"ID", "NAME"};
+    private static final DataType[] FIELD_TYPES = {DataTypes.VARCHAR(10), DataTypes.VARCHAR(20)};
+
+    private TestLookupFunction function;
+
+    @BeforeClass
+    public static void createTable() throws Exception {
+        try (Connection connection = DriverManager.getConnection(DB_URL + ";create=true");
+                Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE " + TABLE_NAME + " (ID VARCHAR(10), NAME VARCHAR(20))");
+            statement.executeUpdate(
+                    "INSERT INTO " + TABLE_NAME + " VALUES ('ABC', 'upper abc'), ('def', 'def 1'), ('def', 'def 2')");
+        }
+    }
+
+    @AfterClass
+    public static void dropDatabase() {
+        try {
+            DriverManager.getConnection("jdbc:derby:memory:asyncLookup;drop=true");
+        } catch (SQLException e) {
+            // derby reports a dropped database with an exception
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (function != null) {
+            function.close();
+        }
+        execute("DELETE FROM " + TABLE_NAME + " WHERE ID IN ('ghi', 'xyz')");
+    }
+
+    @Test
+    public void testBatchMatchesKeysLikeTheDatabase() throws Exception {
+        function = open(1, false);
+        CompletableFuture<Collection<RowData>> blocker = lookupBlocked("ABC");
+        CompletableFuture<Collection<RowData>> lowerCase = lookup("abc");
+        CompletableFuture<Collection<RowData>> twoRows = lookup("def");
+        CompletableFuture<Collection<RowData>> missing = lookup("missing");
+        CompletableFuture<Collection<RowData>> duplicate = lookup("abc");
+        function.gate.countDown();
+
+        assertEquals(Collections.singletonList("upper abc"), names(blocker));
+        // the database compares case-insensitively, the batch must return what the sync lookup returns
+        assertEquals(Collections.singletonList("upper abc"), names(lowerCase));
+        assertEquals(Arrays.asList("def 1", "def 2"), names(twoRows));
+        assertEquals(Collections.emptyList(), names(missing));
+        assertEquals(Collections.singletonList("upper abc"), names(duplicate));
+        assertEquals(2, function.queries.get());
+    }
+
+    @Test
+    public void testMissesOfBatchedKeysAreCached() throws Exception {
+        function = open(1, true);
+        CompletableFuture<Collection<RowData>> blocker = lookupBlocked("ABC");
+        CompletableFuture<Collection<RowData>> batchMiss = lookup("ghi");
+        CompletableFuture<Collection<RowData>> otherMiss = lookup("jkl");
+        function.gate.countDown();
+        names(blocker);
+        assertEquals(Collections.emptyList(), names(batchMiss));
+        assertEquals(Collections.emptyList(), names(otherMiss));
+        int queries = function.queries.get();
+
+        execute("INSERT INTO " + TABLE_NAME + " VALUES ('ghi', 'ghi 1')");
+        assertEquals(Collections.emptyList(), names(lookup("ghi")));
+        assertEquals(Collections.emptyList(), names(lookup("jkl")));
+        assertEquals(queries, function.queries.get());
+    }
+
+    @Test
+    public void testMissesAreNotCachedWhenDisabled() throws Exception {
+        function = open(1, true, false);
+        assertEquals(Collections.emptyList(), names(lookup("xyz")));
+        execute("INSERT INTO " + TABLE_NAME + " VALUES ('xyz', 'xyz 1')");
+        assertEquals(Collections.singletonList("xyz 1"), names(lookup("xyz")));
+    }
+
+    @Test
+    public void testWorkerSurvivesFailedBatch() throws Exception {
+        function = open(1, false);
+        function.failures.set(1);
+        try {
+            names(lookup("def"));
+            fail("The batch should fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause().getCause() instanceof IllegalStateException);
+        }
+        assertEquals(Arrays.asList("def 1", "def 2"), names(lookup("def")));
+    }
+
+    @Test
+    public void testFailuresNeverLeaveProbesToTheTimeout() throws Exception {
+        function = open(2, false);
+        function.failures.set(5);
+        List<CompletableFuture<Collection<RowData>>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(lookup(i % 2 == 0 ? "ABC" : "def"));
+        }
+        for (CompletableFuture<Collection<RowData>> future : futures) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                // failed batches complete their probes exceptionally
+            }
+        }
+        function.failures.set(0);
+        assertEquals(Collections.singletonList("upper abc"), names(lookup("abc")));
+    }
+
+    @Test
+    public void testCloseFailsPendingProbes() throws Exception {
+        function = open(1, false);
+        CompletableFuture<Collection<RowData>> blocker = lookupBlocked("ABC");
+        CompletableFuture<Collection<RowData>> queued = lookup("def");
+        function.close();
+        function = null;
+
+        assertTrue(blocker.isCompletedExceptionally());
+        assertTrue(queued.isCompletedExceptionally());
+    }
+
+    private TestLookupFunction open(int maxInFlight, boolean cache) throws Exception {
+        return open(maxInFlight, cache, cache);
+    }
+
+    private TestLookupFunction open(int maxInFlight, boolean cache, boolean cacheMissingKey) throws Exception {
+        JdbcConnectorOptions options = JdbcConnectorOptions.builder()
+                .setDBUrl(DB_URL)
+                .setTableName(TABLE_NAME)
+                .build();
+        JdbcLookupOptions lookupOptions = JdbcLookupOptions.builder()
+                .setCacheMaxSize(cache ? 100 : -1)
+                .setCacheExpireMs(cache ? 60_000 : -1)
+                .setCacheMissingKey(cacheMissingKey)
+                .setMaxRetryTimes(0)
+                .setAsync(true)
+                .setAsyncMaxInFlight(maxInFlight)
+                .setAsyncBatchSize(8)
+                .build();
+        RowType rowType = (RowType) DataTypes.ROW(
+                        DataTypes.FIELD(FIELD_NAMES[0], FIELD_TYPES[0]),
+                        DataTypes.FIELD(FIELD_NAMES[1], FIELD_TYPES[1]))
+                .getLogicalType();
+        TestLookupFunction lookupFunction =
+                new TestLookupFunction(options, lookupOptions, FIELD_NAMES, FIELD_TYPES, new String[] {"ID"}, rowType);
+        lookupFunction.open(new FunctionContext(null) {
+
+            @Override
+            public MetricGroup getMetricGroup() {
+                return new UnregisteredMetricsGroup();
+            }
+        });
+        return lookupFunction;
+    }
+
+    private CompletableFuture<Collection<RowData>> lookup(String id) {
+        CompletableFuture<Collection<RowData>> future = new CompletableFuture<>();
+        function.eval(future, StringData.fromString(id));
+        return future;
+    }
+
+    /** Looks up a key and waits until its worker is blocked, the next probes are queued as one batch. */
+    private CompletableFuture<Collection<RowData>> lookupBlocked(String id) throws InterruptedException {
+        function.blockNext = true;
+        CompletableFuture<Collection<RowData>> future = lookup(id);
+        assertTrue(function.blocked.await(5, TimeUnit.SECONDS));
+        return future;
+    }
+
+    private static List<String> names(CompletableFuture<Collection<RowData>> future) throws Exception {
+        return future.get(5, TimeUnit.SECONDS).stream()
+                .map(row -> row.getString(1).toString())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static void execute(String sql) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(DB_URL);
+                Statement statement = connection.createStatement()) {
+            statement.executeUpdate(sql);
+        }
+    }
+
+    /** Counts the queries, blocks the first row read on the gate and fails the given number of batches. */
+    private static class TestLookupFunction extends JdbcRowDataAsyncLookupFunction {
+
+        private final AtomicInteger queries = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final CountDownLatch gate = new CountDownLatch(1);
+        private volatile boolean blockNext;
+        private transient ResultSet lastResultSet;
+
+        TestLookupFunction(
+                JdbcConnectorOptions options,
+                JdbcLookupOptions lookupOptions,
+                String[] fieldNames,
+                DataType[] fieldTypes,
+                String[] keyNames,
+                RowType rowType) {
+            super(options, lookupOptions, fieldNames, fieldTypes, keyNames, rowType);
+        }
+
+        @Override
+        protected RowData toInternal(ResultSet resultSet) throws SQLException {
+            if (resultSet != lastResultSet) {
+                lastResultSet = resultSet;
+                queries.incrementAndGet();
+            }
+            if (failures.getAndUpdate(n -> Math.max(n - 1, 0)) > 0) {
+                throw new IllegalStateException("Conversion failed");
+            }
+            if (blockNext) {
+                blockNext = false;
+                blocked.countDown();
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted", e);
+                }
+            }
+            return super.toInternal(resultSet);
+        }
+    }
+}
@@ -30,11 +30,34 @@ public class JdbcLookupOptions implements Serializable {
     private final long cacheMaxSize;
     private final long cacheExpireMs;
     private final int maxRetryTimes;
+    /** Whether empty lookup results are cached as well. */
+    private final boolean cacheMissingKey;
+    /** Whether the lookup is served by {@code PhoenixRowDataAsyncLookupFunction}. */
+    private final boolean async;
+    /** Max number of batch queries running concurrently, one connection each. */
+    private final int asyncMaxInFlight;
+    /** Max number of distinct keys combined into one batch query. */
+    private final int asyncBatchSize;
 
     public JdbcLookupOptions(long cacheMaxSize, long cacheExpireMs, int maxRetryTimes) {
+        this(cacheMaxSize, cacheExpireMs, maxRetryTimes, true, false, 4, 100);
+    }
+
+    public JdbcLookupOptions(
+            long cacheMaxSize,
+            long cacheExpireMs,
+            int maxRetryTimes,
+            boolean cacheMissingKey,
+            boolean async,
+            int asyncMaxInFlight,
+            int asyncBatchSize) {
         this.cacheMaxSize = cacheMaxSize;
         this.cacheExpireMs = cacheExpireMs;
         this.maxRetryTimes = maxRetryTimes;
+        this.cacheMissingKey = cacheMissingKey;
+        this.async = async;
+        this.asyncMaxInFlight = asyncMaxInFlight;
+        this.asyncBatchSize = asyncBatchSize;
     }
 
     public long getCacheMaxSize() {
@@ -49,6 +72,22 @@ public class JdbcLookupOptions implements Serializable {
         return maxRetryTimes;
     }
 
+    public boolean isCacheMissingKey() {
+        return cacheMissingKey;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public int getAsyncMaxInFlight() {
+        return asyncMaxInFlight;
+    }
+
+    public int getAsyncBatchSize() {
+        return asyncBatchSize;
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -59,7 +98,11 @@ public class JdbcLookupOptions implements Serializable {
             JdbcLookupOptions options = (JdbcLookupOptions) o;
             return Objects.equals(cacheMaxSize, options.cacheMaxSize)
                     && Objects.equals(cacheExpireMs, options.cacheExpireMs)
-                    && Objects.equals(maxRetryTimes, options.maxRetryTimes);
+                    && Objects.equals(maxRetryTimes, options.maxRetryTimes)
+                    && Objects.equals(cacheMissingKey, options.cacheMissingKey)
+                    && Objects.equals(async, options.async)
+                    && Objects.equals(asyncMaxInFlight, options.asyncMaxInFlight)
+                    && Objects.equals(asyncBatchSize, options.asyncBatchSize);
         } else {
             return false;
         }
@@ -70,6 +113,10 @@ public class JdbcLookupOptions implements Serializable {
         private long cacheMaxSize = -1L;
         private long cacheExpireMs = -1L;
         private int maxRetryTimes = JdbcExecutionOptions.DEFAULT_MAX_RETRY_TIMES;
+        private boolean cacheMissingKey = true;
+        private boolean async = false;
+        private int asyncMaxInFlight = 4;
+        private int asyncBatchSize = 100;
 
         /** optional, lookup cache max size, over this value, the old data will be eliminated. */
         public Builder setCacheMaxSize(long cacheMaxSize) {
@@ -89,8 +136,39 @@ public class JdbcLookupOptions implements Serializable {
             return this;
         }
 
+        /** optional, whether empty lookup results are cached. */
+        public Builder setCacheMissingKey(boolean cacheMissingKey) {
+            this.cacheMissingKey = cacheMissingKey;
+            return this;
+        }
+
+        /** optional, whether to use the asynchronous batched lookup function. */
+        public Builder setAsync(boolean async) {
+            this.async = async;
+            return this;
+        }
+
+        /** optional, max concurrent batch queries of the asynchronous lookup function. */
+        public Builder setAsyncMaxInFlight(int asyncMaxInFlight) {
+            this.asyncMaxInFlight = asyncMaxInFlight;
+            return this;
+        }
+
+        /** optional, max distinct keys per batch query of the asynchronous lookup function. */
+        public Builder setAsyncBatchSize(int asyncBatchSize) {
+            this.asyncBatchSize = asyncBatchSize;
+            return this;
+        }
+
         public JdbcLookupOptions build() {
-            return new JdbcLookupOptions(cacheMaxSize, cacheExpireMs, maxRetryTimes);
+            return new JdbcLookupOptions(
+                    cacheMaxSize,
+                    cacheExpireMs,
+                    maxRetryTimes,
+                    cacheMissingKey,
+                    async,
+                    asyncMaxInFlight,
+                    asyncBatchSize);
         }
     }
 }
@@ -108,6 +108,24 @@ public class PhoenixDynamicTableFactory implements DynamicTableSourceFactory, Dy
             .intType()
             .defaultValue(3)
             .withDescription("The max retry times if lookup database failed.");
+    private static final ConfigOption<Boolean> LOOKUP_CACHE_MISSING_KEY = ConfigOptions.key(
+                    "lookup.cache.caching-missing-key")
+            .booleanType()
+            .defaultValue(true)
+            .withDescription("Whether keys without matching rows are cached as empty results.");
+    private static final ConfigOption<Boolean> LOOKUP_ASYNC = ConfigOptions.key("lookup.async")
+            .booleanType()
+            .defaultValue(false)
+            .withDescription("Whether to look up asynchronously, combining concurrent keys into batch queries.");
+    private static final ConfigOption<Integer> LOOKUP_ASYNC_MAX_IN_FLIGHT = ConfigOptions.key(
+                    "lookup.async.max-in-flight")
+            .intType()
+            .defaultValue(4)
+            .withDescription("The max number of batch queries running concurrently, each on its own connection.");
+    private static final ConfigOption<Integer> LOOKUP_ASYNC_BATCH_SIZE = ConfigOptions.key("lookup.async.batch-size")
+            .intType()
+            .defaultValue(100)
+            .withDescription("The max number of distinct keys combined into one batch query.");
     private static final ConfigOption<Integer> SINK_BUFFER_FLUSH_MAX_ROWS = ConfigOptions.key(
                     "sink.buffer-flush.max-rows")
             .intType()
@@ -202,7 +220,11 @@ public class PhoenixDynamicTableFactory implements DynamicTableSourceFactory, Dy
         return new JdbcLookupOptions(
                 (Long) readableConfig.get(LOOKUP_CACHE_MAX_ROWS),
                 ((Duration) readableConfig.get(LOOKUP_CACHE_TTL)).toMillis(),
-                (Integer) readableConfig.get(LOOKUP_MAX_RETRIES));
+                (Integer) readableConfig.get(LOOKUP_MAX_RETRIES),
+                readableConfig.get(LOOKUP_CACHE_MISSING_KEY),
+                readableConfig.get(LOOKUP_ASYNC),
+                readableConfig.get(LOOKUP_ASYNC_MAX_IN_FLIGHT),
+                readableConfig.get(LOOKUP_ASYNC_BATCH_SIZE));
     }
 
     private JdbcExecutionOptions getJdbcExecutionOptions(ReadableConfig config) {
@@ -254,6 +276,10 @@ public class PhoenixDynamicTableFactory implements DynamicTableSourceFactory, Dy
         optionalOptions.add(LOOKUP_CACHE_MAX_ROWS);
         optionalOptions.add(LOOKUP_CACHE_TTL);
         optionalOptions.add(LOOKUP_MAX_RETRIES);
+        optionalOptions.add(LOOKUP_CACHE_MISSING_KEY);
+        optionalOptions.add(LOOKUP_ASYNC);
+        optionalOptions.add(LOOKUP_ASYNC_MAX_IN_FLIGHT);
+        optionalOptions.add(LOOKUP_ASYNC_BATCH_SIZE);
         optionalOptions.add(SINK_BUFFER_FLUSH_MAX_ROWS);
         optionalOptions.add(SINK_BUFFER_FLUSH_INTERVAL);
         optionalOptions.add(SINK_MAX_RETRIES);
@@ -290,6 +316,14 @@ public class PhoenixDynamicTableFactory implements DynamicTableSourceFactory, Dy
             throw new IllegalArgumentException(String.format(
                     "The value of '%s' option shouldn't be negative, but is %s.",
                     LOOKUP_MAX_RETRIES.key(), config.get(LOOKUP_MAX_RETRIES)));
+        } else if (config.get(LOOKUP_ASYNC_MAX_IN_FLIGHT) < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "The value of '%s' option should be positive, but is %s.",
+                    LOOKUP_ASYNC_MAX_IN_FLIGHT.key(), config.get(LOOKUP_ASYNC_MAX_IN_FLIGHT)));
+        } else if (config.get(LOOKUP_ASYNC_BATCH_SIZE) < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "The value of '%s' option should be positive, but is %s.",
+                    LOOKUP_ASYNC_BATCH_SIZE.key(), config.get(LOOKUP_ASYNC_BATCH_SIZE)));
         } else if ((Integer) config.get(SINK_MAX_RETRIES) < 0) {
             throw new IllegalArgumentException(String.format(
                     "The value of '%s' option shouldn't be negative, but is %s.",
@@ -26,6 +26,7 @@ import org.apache.flink.connector.phoenix.internal.options.PhoenixJdbcOptions;
 import org.apache.flink.connector.phoenix.split.JdbcNumericBetweenParametersProvider;
 import org.apache.flink.table.api.TableSchema;
 import org.apache.flink.table.connector.ChangelogMode;
+import org.apache.flink.table.connector.source.AsyncTableFunctionProvider;
 import org.apache.flink.table.connector.source.DynamicTableSource;
 import org.apache.flink.table.connector.source.InputFormatProvider;
 import org.apache.flink.table.connector.source.LookupTableSource;
@@ -77,6 +78,16 @@ public class PhoenixDynamicTableSource
         }
         final RowType rowType = (RowType) physicalSchema.toRowDataType().getLogicalType();
 
+        if (lookupOptions.isAsync()) {
+            return AsyncTableFunctionProvider.of(new PhoenixRowDataAsyncLookupFunction(
+                    options,
+                    lookupOptions,
+                    physicalSchema.getFieldNames(),
+                    physicalSchema.getFieldDataTypes(),
+                    keyNames,
+                    rowType));
+        }
+
         return TableFunctionProvider.of(new PhoenixRowDataLookupFunction(
                 options,
                 lookupOptions,
@@ -0,0 +1,138 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.flink.connector.phoenix.table;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.connector.jdbc.table.AbstractJdbcRowDataAsyncLookupFunction;
+import org.apache.flink.connector.phoenix.dialect.JdbcDialect;
+import org.apache.flink.connector.phoenix.internal.connection.JdbcConnectionProvider;
+import org.apache.flink.connector.phoenix.internal.connection.PhoneixJdbcConnectionProvider;
+import org.apache.flink.connector.phoenix.internal.converter.JdbcRowConverter;
+import org.apache.flink.connector.phoenix.internal.options.JdbcLookupOptions;
+import org.apache.flink.connector.phoenix.internal.options.PhoenixJdbcOptions;
+import org.apache.flink.connector.phoenix.statement.FieldNamedPreparedStatement;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.functions.FunctionContext;
+import org.apache.flink.table.types.DataType;
+import org.apache.flink.table.types.logical.RowType;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/** An asynchronous lookup function for {@link PhoenixDynamicTableSource}. */
+@Internal
+public class PhoenixRowDataAsyncLookupFunction extends AbstractJdbcRowDataAsyncLookupFunction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final PhoenixJdbcOptions options;
+    private final RowType rowType;
+
+    private transient JdbcDialect jdbcDialect;
+    private transient JdbcRowConverter jdbcRowConverter;
+
+    public PhoenixRowDataAsyncLookupFunction(
+            PhoenixJdbcOptions options,
+            JdbcLookupOptions lookupOptions,
+            String[] fieldNames,
+            DataType[] fieldTypes,
+            String[] keyNames,
+            RowType rowType) {
+        super(
+                "phoenix",
+                checkNotNull(options, "No JdbcOptions supplied.").getTableName(),
+                fieldNames,
+                fieldTypes,
+                keyNames,
+                new String[0],
+                lookupOptions.getCacheMaxSize(),
+                lookupOptions.getCacheExpireMs(),
+                lookupOptions.isCacheMissingKey(),
+                lookupOptions.getMaxRetryTimes(),
+                lookupOptions.getAsyncMaxInFlight(),
+                lookupOptions.getAsyncBatchSize());
+        this.options = options;
+        this.rowType = rowType;
+    }
+
+    @Override
+    public void open(FunctionContext context) throws Exception {
+        this.jdbcDialect = options.getDialect();
+        this.jdbcRowConverter = jdbcDialect.getRowConverter(rowType);
+        super.open(context);
+    }
+
+    @Override
+    protected String quoteIdentifier(String identifier) {
+        return jdbcDialect.quoteIdentifier(identifier);
+    }
+
+    @Override
+    protected LookupConnection createConnection() {
+        JdbcConnectionProvider connectionProvider = new PhoneixJdbcConnectionProvider(
+                options, options.getNamespaceMappingEnabled(), options.getMapSystemTablesToNamespace());
+        return new LookupConnection() {
+
+            @Override
+            public Connection getOrEstablishConnection() throws SQLException, ClassNotFoundException {
+                return connectionProvider.getOrEstablishConnection();
+            }
+
+            @Override
+            public boolean isConnectionValid() throws SQLException {
+                return connectionProvider.isConnectionValid();
+            }
+
+            @Override
+            public void closeConnection() {
+                connectionProvider.closeConnection();
+            }
+        };
+    }
+
+    @Override
+    protected BatchStatement prepareBatchStatement(
+            Connection connection, String sql, String[] parameterNames, RowType parameterType) throws SQLException {
+        FieldNamedPreparedStatement statement =
+                FieldNamedPreparedStatement.prepareStatement(connection, sql, parameterNames);
+        JdbcRowConverter parameterConverter = jdbcDialect.getRowConverter(parameterType);
+        return new BatchStatement() {
+
+            @Override
+            public ResultSet executeQuery(RowData parameters) throws SQLException {
+                statement.clearParameters();
+                return parameterConverter.toExternal(parameters, statement).executeQuery();
+            }
+
+            @Override
+            public void close() throws SQLException {
+                statement.close();
+            }
+        };
+    }
+
+    @Override
+    protected RowData toInternal(ResultSet resultSet) throws SQLException {
+        return jdbcRowConverter.toInternal(resultSet);
+    }
+}
@@ -67,6 +67,7 @@ public class PhoenixRowDataLookupFunction extends TableFunction<RowData> {
     private final String[] keyNames;
     private final long cacheMaxSize;
     private final long cacheExpireMs;
+    private final boolean cacheMissingKey;
     private final int maxRetryTimes;
     private final JdbcDialect jdbcDialect;
     private final JdbcRowConverter jdbcRowConverter;
@@ -98,6 +99,7 @@ public class PhoenixRowDataLookupFunction extends TableFunction<RowData> {
                 .toArray(DataType[]::new);
         this.cacheMaxSize = lookupOptions.getCacheMaxSize();
         this.cacheExpireMs = lookupOptions.getCacheExpireMs();
+        this.cacheMissingKey = lookupOptions.isCacheMissingKey();
         this.maxRetryTimes = lookupOptions.getMaxRetryTimes();
         this.query = options.getDialect().getSelectFromStatement(options.getTableName(), fieldNames, keyNames);
         String dbURL = options.getDbURL();
@@ -159,7 +161,9 @@ public class PhoenixRowDataLookupFunction extends TableFunction<RowData> {
                             collect(row);
                         }
                         rows.trimToSize();
-                        cache.put(keyRow, rows);
+                        if (!rows.isEmpty() || cacheMissingKey) {
+                            cache.put(keyRow, rows);
+                        }
                     }
                 }
                 break;
@@ -0,0 +1,170 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.connector.pulsar;
+
+import org.dinky.connector.pulsar.util.PulsarSinkOptions;
+
+import org.apache.flink.api.common.functions.RuntimeContext;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.metrics.groups.UnregisteredMetricsGroup;
+import org.apache.pulsar.client.api.MessageId;
+import org.apache.pulsar.client.api.Producer;
+import org.apache.pulsar.client.api.TypedMessageBuilder;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Records per second through {@link PulsarSinkFunction}, one invocation sends a checkpoint interval of
+ * records and waits for their acknowledgements. The producer is mocked and acknowledges every message
+ * on a single broker thread, so the numbers are the overhead of the sink itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PulsarSinkFunctionBenchmark {
+
+    private static final int RECORDS_PER_CHECKPOINT = 100_000;
+
+    /** Whether the sink extracts a message key from every record. */
+    @Param({"false", "true"})
+    private boolean keyed;
+
+    private ExecutorService broker;
+
+    private PulsarSinkFunction<String> sink;
+
+    private String[] records;
+
+    @Setup
+    public void setup() throws Exception {
+        broker = Executors.newSingleThreadExecutor();
+        records = new String[RECORDS_PER_CHECKPOINT];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = "key" + (i % 10) + ",payload-" + i;
+        }
+        Producer<byte[]> producer = mockProducer();
+        sink =
+                new PulsarSinkFunction<String>(
+                        "topic",
+                        "pulsar://localhost:6650",
+                        new Properties(),
+                        new Properties(),
+                        value -> value.getBytes(StandardCharsets.UTF_8),
+                        PulsarSinkOptions.defaults(),
+                        keyed ? value -> value.substring(0, 4) : null) {
+                    @Override
+                    public Producer createReusedProducer() {
+                        return producer;
+                    }
+                };
+        sink.setRuntimeContext(mockRuntimeContext());
+        sink.open(new Configuration());
+        sink.setFlushOnCheckpoint(true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        broker.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS_PER_CHECKPOINT)
+    public long invokeAndCheckpoint() throws Exception {
+        for (String record : records) {
+            sink.invoke(record, null);
+        }
+        sink.snapshotState(null);
+        return sink.pendingRecords.get();
+    }
+
+    private static RuntimeContext mockRuntimeContext() {
+        return (RuntimeContext) Proxy.newProxyInstance(
+                RuntimeContext.class.getClassLoader(), new Class<?>[] {RuntimeContext.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getMetricGroup":
+                            return UnregisteredMetricsGroup.createOperatorMetricGroup();
+                        case "getIndexOfThisSubtask":
+                            return 0;
+                        case "getNumberOfParallelSubtasks":
+                            return 1;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    private Producer<byte[]> mockProducer() {
+        return (Producer<byte[]>) Proxy.newProxyInstance(
+                Producer.class.getClassLoader(), new Class<?>[] {Producer.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "newMessage":
+                            return mockMessageBuilder();
+                        case "flush":
+                            return null;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    private TypedMessageBuilder<byte[]> mockMessageBuilder() {
+        return (TypedMessageBuilder<byte[]>) Proxy.newProxyInstance(
+                TypedMessageBuilder.class.getClassLoader(),
+                new Class<?>[] {TypedMessageBuilder.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "key":
+                        case "value":
+                            return proxy;
+                        case "sendAsync":
+                            CompletableFuture<MessageId> future = new CompletableFuture<>();
+                            broker.execute(() -> future.complete(MessageId.earliest));
+                            return future;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
@@ -19,8 +19,11 @@
 
 package org.dinky.connector.pulsar;
 
+import static org.apache.flink.util.Preconditions.checkArgument;
 import static org.apache.flink.util.Preconditions.checkNotNull;
 
+import org.dinky.connector.pulsar.util.PulsarSinkOptions;
+
 import org.apache.flink.annotation.Internal;
 import org.apache.flink.api.common.serialization.SerializationSchema;
 import org.apache.flink.table.connector.ChangelogMode;
@@ -29,7 +32,10 @@ import org.apache.flink.table.connector.sink.DynamicTableSink;
 import org.apache.flink.table.connector.sink.SinkFunctionProvider;
 import org.apache.flink.table.data.RowData;
 import org.apache.flink.table.types.DataType;
+import org.apache.flink.table.types.logical.RowType;
 import org.apache.flink.types.RowKind;
+import org.apache.flink.util.StringUtils;
+import org.apache.flink.util.function.SerializableFunction;
 
 import java.util.Collections;
 import java.util.List;
@@ -83,6 +89,12 @@ public class PulsarDynamicSink implements DynamicTableSink {
     /** Properties for the Pulsar producer parallelism. */
     protected final Integer sinkParallelism;
 
+    /** Batching, compression and back pressure settings of the Pulsar producer. */
+    protected final PulsarSinkOptions sinkOptions;
+
+    /** Field used as message key. */
+    protected final String messageKeyField;
+
     public PulsarDynamicSink(
             DataType physicalDataType,
             EncodingFormat<SerializationSchema<RowData>> encodingFormat,
@@ -91,7 +103,9 @@ public class PulsarDynamicSink implements DynamicTableSink {
             String updateMode,
             Properties pulsarProducerProperties,
             Properties pulsarClientProperties,
-            Integer sinkParallelism) {
+            Integer sinkParallelism,
+            PulsarSinkOptions sinkOptions,
+            String messageKeyField) {
         // Format attributes
         this.physicalDataType = checkNotNull(physicalDataType, "Physical data type must not be null.");
         this.encodingFormat = encodingFormat;
@@ -105,6 +119,8 @@ public class PulsarDynamicSink implements DynamicTableSink {
                 checkNotNull(pulsarProducerProperties, "pulsarProducerProperties must not be null.");
         this.pulsarClientProperties = checkNotNull(pulsarClientProperties, "pulsarClientProperties must not be null.");
         this.sinkParallelism = sinkParallelism;
+        this.sinkOptions = checkNotNull(sinkOptions, "sinkOptions must not be null.");
+        this.messageKeyField = messageKeyField;
     }
 
     @Override
@@ -124,7 +140,13 @@ public class PulsarDynamicSink implements DynamicTableSink {
         SerializationSchema<RowData> runtimeEncoder = encodingFormat.createRuntimeEncoder(context, physicalDataType);
 
         PulsarSinkFunction<RowData> sinkFunction = new PulsarSinkFunction<>(
-                topic, serviceUrl, pulsarProducerProperties, pulsarClientProperties, runtimeEncoder);
+                topic,
+                serviceUrl,
+                pulsarProducerProperties,
+                pulsarClientProperties,
+                runtimeEncoder,
+                sinkOptions,
+                createKeyExtractor());
         // sink的并行度设置
         if (sinkParallelism != null) {
             return SinkFunctionProvider.of(sinkFunction, sinkParallelism);
@@ -143,11 +165,31 @@ public class PulsarDynamicSink implements DynamicTableSink {
                 updateMode,
                 pulsarProducerProperties,
                 pulsarClientProperties,
-                sinkParallelism);
+                sinkParallelism,
+                sinkOptions,
+                messageKeyField);
         copy.metadataKeys = metadataKeys;
         return copy;
     }
 
+    /**
+     * Reads the message key from the row itself, null if no key field is set. The factory already checked that the
+     * key field is a physical column.
+     */
+    private SerializableFunction<RowData, String> createKeyExtractor() {
+        if (StringUtils.isNullOrWhitespaceOnly(messageKeyField)) {
+            return null;
+        }
+        RowType rowType = (RowType) physicalDataType.getLogicalType();
+        int index = rowType.getFieldNames().indexOf(messageKeyField);
+        checkArgument(index >= 0, "The message key field %s is not a physical column", messageKeyField);
+        RowData.FieldGetter keyGetter = RowData.createFieldGetter(rowType.getTypeAt(index), index);
+        return row -> {
+            Object key = keyGetter.getFieldOrNull(row);
+            return key == null ? null : key.toString();
+        };
+    }
+
     @Override
     public String asSummaryString() {
         return "Pulsar table sink";
@@ -22,6 +22,14 @@ package org.dinky.connector.pulsar;
 import static org.dinky.connector.pulsar.util.PulsarConnectorOptions.ADMIN_URL;
 import static org.dinky.connector.pulsar.util.PulsarConnectorOptions.DERIVE_SCHEMA;
 import static org.dinky.connector.pulsar.util.PulsarConnectorOptions.SERVICE_URL;
+import static org.dinky.connector.pulsar.util.PulsarConnectorOptions.SINK_BATCHING_ENABLED;
+import static org.dinky.connector.pulsar.util.PulsarConnectorOptions.SINK_BATCHING_KEY_BASED;
+import static org.dinky.connector.pulsar.util.PulsarConnectorOptions.SINK_BATCHING_MAX_BYTES;
+import static org.dinky.connector.pulsar.util.PulsarConnectorOptions.SINK_BATCHING_MAX_MESSAGES;
+import static org.dinky.connector.pulsar.util.PulsarConnectorOptions.SINK_BATCHING_MAX_PUBLISH_DELAY;
+import static org.dinky.connector.pulsar.util.PulsarConnectorOptions.SINK_COMPRESSION_TYPE;
+import static org.dinky.connector.pulsar.util.PulsarConnectorOptions.SINK_MAX_PENDING_MESSAGES;
+import static org.dinky.connector.pulsar.util.PulsarConnectorOptions.SINK_MESSAGE_KEY_FIELD;
 import static org.dinky.connector.pulsar.util.PulsarConnectorOptions.SINK_PARALLELISM;
 import static org.dinky.connector.pulsar.util.PulsarConnectorOptions.SOURCE_PARALLELISM;
 import static org.dinky.connector.pulsar.util.PulsarConnectorOptions.SUBSCRIPTION_INITIAL_POSITION;
@@ -36,6 +44,8 @@ import static org.dinky.connector.pulsar.util.PulsarConnectorOptionsUtil.PROPERT
 import static org.dinky.connector.pulsar.util.PulsarConnectorOptionsUtil.PROPERTIES_PREFIX;
 import static org.dinky.connector.pulsar.util.PulsarConnectorOptionsUtil.getPulsarProperties;
 
+import org.dinky.connector.pulsar.util.PulsarSinkOptions;
+
 import org.apache.flink.annotation.Internal;
 import org.apache.flink.api.common.serialization.DeserializationSchema;
 import org.apache.flink.api.common.serialization.SerializationSchema;
@@ -57,9 +67,12 @@ import org.apache.flink.table.factories.FactoryUtil;
 import org.apache.flink.table.factories.FactoryUtil.TableFactoryHelper;
 import org.apache.flink.table.factories.SerializationFormatFactory;
 import org.apache.flink.table.types.DataType;
+import org.apache.flink.table.types.logical.RowType;
+import org.apache.flink.util.StringUtils;
 import org.apache.pulsar.client.api.SubscriptionType;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Properties;
 import java.util.Set;
 
@@ -107,6 +120,14 @@ public class PulsarDynamicTableFactory implements DynamicTableSourceFactory, Dyn
         options.add(UPDATE_MODE);
         options.add(SOURCE_PARALLELISM);
         options.add(SINK_PARALLELISM);
+        options.add(SINK_BATCHING_ENABLED);
+        options.add(SINK_BATCHING_MAX_MESSAGES);
+        options.add(SINK_BATCHING_MAX_BYTES);
+        options.add(SINK_BATCHING_MAX_PUBLISH_DELAY);
+        options.add(SINK_BATCHING_KEY_BASED);
+        options.add(SINK_COMPRESSION_TYPE);
+        options.add(SINK_MAX_PENDING_MESSAGES);
+        options.add(SINK_MESSAGE_KEY_FIELD);
         options.add(VERSION);
         options.add(DERIVE_SCHEMA);
 
@@ -177,6 +198,7 @@ public class PulsarDynamicTableFactory implements DynamicTableSourceFactory, Dyn
         // context.getCatalogTable(), encodingFormat);
 
         final DataType physicalDataType = context.getCatalogTable().getSchema().toPhysicalRowDataType();
+        validateMessageKeyField(tableOptions.get(SINK_MESSAGE_KEY_FIELD), physicalDataType);
 
         return createPulsarTableSink(
                 physicalDataType,
@@ -186,7 +208,33 @@ public class PulsarDynamicTableFactory implements DynamicTableSourceFactory, Dyn
                 update_mode,
                 getPulsarProperties(context.getCatalogTable().getOptions(), PROPERTIES_PREFIX),
                 getPulsarProperties(context.getCatalogTable().getOptions(), PROPERTIES_CLIENT_PREFIX),
-                sinkParallelism);
+                sinkParallelism,
+                getSinkOptions(tableOptions),
+                tableOptions.get(SINK_MESSAGE_KEY_FIELD));
+    }
+
+    private static PulsarSinkOptions getSinkOptions(ReadableConfig tableOptions) {
+        return new PulsarSinkOptions(
+                tableOptions.get(SINK_BATCHING_ENABLED),
+                tableOptions.get(SINK_BATCHING_MAX_MESSAGES),
+                (int) tableOptions.get(SINK_BATCHING_MAX_BYTES).getBytes(),
+                tableOptions.get(SINK_BATCHING_MAX_PUBLISH_DELAY).toMillis(),
+                tableOptions.get(SINK_BATCHING_KEY_BASED),
+                tableOptions.get(SINK_COMPRESSION_TYPE),
+                tableOptions.get(SINK_MAX_PENDING_MESSAGES));
+    }
+
+    // 校验消息 key 字段是否为表的物理列
+    private static void validateMessageKeyField(@Nullable String messageKeyField, DataType physicalDataType) {
+        if (StringUtils.isNullOrWhitespaceOnly(messageKeyField)) {
+            return;
+        }
+        List<String> fieldNames = ((RowType) physicalDataType.getLogicalType()).getFieldNames();
+        if (!fieldNames.contains(messageKeyField)) {
+            throw new ValidationException(String.format(
+                    "Invalid value for option '%s': field '%s' is not a physical column of the table, the columns are %s.",
+                    SINK_MESSAGE_KEY_FIELD.key(), messageKeyField, fieldNames));
+        }
     }
 
     // 校验sql建表时是否指定主键约束
@@ -219,7 +267,9 @@ public class PulsarDynamicTableFactory implements DynamicTableSourceFactory, Dyn
             String updateMode,
             Properties pulsarProducerProperties,
             Properties pulsarClientProperties,
-            Integer sinkParallelism) {
+            Integer sinkParallelism,
+            PulsarSinkOptions sinkOptions,
+            String messageKeyField) {
         return new PulsarDynamicSink(
                 physicalDataType,
                 encodingFormat,
@@ -228,6 +278,8 @@ public class PulsarDynamicTableFactory implements DynamicTableSourceFactory, Dyn
                 updateMode,
                 pulsarProducerProperties,
                 pulsarClientProperties,
-                sinkParallelism);
+                sinkParallelism,
+                sinkOptions,
+                messageKeyField);
     }
 }
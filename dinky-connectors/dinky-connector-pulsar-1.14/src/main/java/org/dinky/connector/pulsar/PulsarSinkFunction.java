@@ -21,12 +21,17 @@ package org.dinky.connector.pulsar;
 
 import org.dinky.connector.pulsar.util.PulsarConnectionHolder;
 import org.dinky.connector.pulsar.util.PulsarProducerHolder;
-import org.dinky.utils.JsonUtils;
+import org.dinky.connector.pulsar.util.PulsarSinkOptions;
 
 import org.apache.flink.annotation.Internal;
 import org.apache.flink.api.common.functions.RuntimeContext;
 import org.apache.flink.api.common.serialization.SerializationSchema;
 import org.apache.flink.configuration.Configuration;
+import org.apache.flink.metrics.Counter;
+import org.apache.flink.metrics.Gauge;
+import org.apache.flink.metrics.Histogram;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.runtime.metrics.DescriptiveStatisticsHistogram;
 import org.apache.flink.runtime.state.FunctionInitializationContext;
 import org.apache.flink.runtime.state.FunctionSnapshotContext;
 import org.apache.flink.streaming.api.checkpoint.CheckpointedFunction;
@@ -34,9 +39,10 @@ import org.apache.flink.streaming.api.functions.sink.RichSinkFunction;
 import org.apache.flink.streaming.api.operators.StreamingRuntimeContext;
 import org.apache.flink.util.ExceptionUtils;
 import org.apache.flink.util.SerializableObject;
+import org.apache.flink.util.function.SerializableFunction;
 import org.apache.pulsar.PulsarVersion;
+import org.apache.pulsar.client.api.BatcherBuilder;
 import org.apache.pulsar.client.api.ClientBuilder;
-import org.apache.pulsar.client.api.CompressionType;
 import org.apache.pulsar.client.api.HashingScheme;
 import org.apache.pulsar.client.api.MessageId;
 import org.apache.pulsar.client.api.Producer;
@@ -48,14 +54,15 @@ import org.apache.pulsar.client.impl.PulsarClientImpl;
 import java.io.IOException;
 import java.util.Map;
 import java.util.Properties;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 
+import javax.annotation.Nullable;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.fasterxml.jackson.databind.node.ObjectNode;
-
 /**
  * The sink function for Pulsar.
  *
@@ -65,14 +72,20 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 public class PulsarSinkFunction<T> extends RichSinkFunction<T> implements CheckpointedFunction {
 
     private static final long serialVersionUID = 1L;
+    private static final int LATENCY_WINDOW_SIZE = 1024;
     private final Logger log = LoggerFactory.getLogger(PulsarSinkFunction.class);
 
     private final String topic;
     private final String serviceUrl;
     private final Properties pulsarProducerProperties;
     private final Properties pulsarClientProperties;
+    private final PulsarSinkOptions sinkOptions;
+    /** Extracts the message key of a record, null if messages are sent without key. */
+    @Nullable
+    private final SerializableFunction<T, String> keyExtractor;
+
     private SerializationSchema<T> runtimeEncoder;
-    private transient Producer producer;
+    private transient Producer<byte[]> producer;
     private transient volatile boolean closed = false;
 
     /**
@@ -96,8 +109,13 @@ public class PulsarSinkFunction<T> extends RichSinkFunction<T> implements Checkp
     /** Lock for accessing the pending records. */
     protected final SerializableObject pendingRecordsLock = new SerializableObject();
 
-    /** Number of unacknowledged records. */
-    protected long pendingRecords;
+    /** Number of unacknowledged records, only the transition to zero takes the lock. */
+    protected final AtomicLong pendingRecords = new AtomicLong();
+
+    /** Milliseconds from sendAsync until the broker acknowledged the message. */
+    protected transient Histogram sendLatency;
+
+    protected transient Counter numSendErrors;
 
     public PulsarSinkFunction(
             String topic,
@@ -105,11 +123,31 @@ public class PulsarSinkFunction<T> extends RichSinkFunction<T> implements Checkp
             Properties pulsarProducerProperties,
             Properties pulsarClientProperties,
             SerializationSchema<T> runtimeEncoder) {
+        this(
+                topic,
+                serviceUrl,
+                pulsarProducerProperties,
+                pulsarClientProperties,
+                runtimeEncoder,
+                PulsarSinkOptions.defaults(),
+                null);
+    }
+
+    public PulsarSinkFunction(
+            String topic,
+            String serviceUrl,
+            Properties pulsarProducerProperties,
+            Properties pulsarClientProperties,
+            SerializationSchema<T> runtimeEncoder,
+            PulsarSinkOptions sinkOptions,
+            @Nullable SerializableFunction<T, String> keyExtractor) {
         this.topic = topic;
         this.serviceUrl = serviceUrl;
         this.pulsarProducerProperties = pulsarProducerProperties;
         this.pulsarClientProperties = pulsarClientProperties;
         this.runtimeEncoder = runtimeEncoder;
+        this.sinkOptions = sinkOptions;
+        this.keyExtractor = keyExtractor;
     }
 
     @Override
@@ -135,22 +173,34 @@ public class PulsarSinkFunction<T> extends RichSinkFunction<T> implements Checkp
             throw new RuntimeException("Cannot create connection to Pulsar.", ex);
         }
 
-        if (flushOnCheckpoint && !((StreamingRuntimeContext) this.getRuntimeContext()).isCheckpointingEnabled()) {
+        if (flushOnCheckpoint
+                && !(getRuntimeContext() instanceof StreamingRuntimeContext
+                        && ((StreamingRuntimeContext) getRuntimeContext()).isCheckpointingEnabled())) {
             log.warn("Flushing on checkpoint is enabled, but checkpointing is not enabled." + " Disabling flushing.");
             flushOnCheckpoint = false;
         }
 
+        MetricGroup metricGroup = getRuntimeContext().getMetricGroup();
+        this.sendLatency =
+                metricGroup.histogram("sendLatency", new DescriptiveStatisticsHistogram(LATENCY_WINDOW_SIZE));
+        this.numSendErrors = metricGroup.counter("numSendErrors");
+        metricGroup.gauge("pendingMessages", (Gauge<Long>) pendingRecords::get);
+
         if (logFailuresOnly) {
             this.sendCallback = (t, u) -> {
                 if (u != null) {
+                    numSendErrors.inc();
                     log.error("Error while sending message to Pulsar: {}", ExceptionUtils.stringifyException(u));
                 }
                 acknowledgeMessage();
             };
         } else {
             this.sendCallback = (t, u) -> {
-                if (asyncException == null && u != null) {
-                    asyncException = new Exception(u);
+                if (u != null) {
+                    numSendErrors.inc();
+                    if (asyncException == null) {
+                        asyncException = new Exception(u);
+                    }
                 }
                 acknowledgeMessage();
             };
@@ -160,26 +210,26 @@ public class PulsarSinkFunction<T> extends RichSinkFunction<T> implements Checkp
 
     @Override
     public void invoke(T value, Context context) throws Exception {
-        log.info("start to invoke, send pular message.");
-
         // propagate asynchronous errors
         checkErroneous();
 
-        byte[] serializeValue = runtimeEncoder.serialize(value);
-        String strValue = new String(serializeValue);
-        TypedMessageBuilder<byte[]> typedMessageBuilder = producer.newMessage();
-        typedMessageBuilder.value(serializeValue);
-        typedMessageBuilder.key(getKey(strValue));
-
-        if (flushOnCheckpoint) {
-            synchronized (pendingRecordsLock) {
-                pendingRecords++;
+        // the producer keeps the payload until it is acknowledged, so it is handed over as is
+        TypedMessageBuilder<byte[]> typedMessageBuilder = producer.newMessage().value(runtimeEncoder.serialize(value));
+        if (keyExtractor != null) {
+            String key = keyExtractor.apply(value);
+            if (key != null) {
+                typedMessageBuilder.key(key);
             }
         }
 
+        pendingRecords.incrementAndGet();
+        long sendTime = System.nanoTime();
+
         // 异步发送
-        CompletableFuture<MessageId> messageIdCompletableFuture = typedMessageBuilder.sendAsync();
-        messageIdCompletableFuture.whenComplete(sendCallback);
+        typedMessageBuilder.sendAsync().whenComplete((messageId, throwable) -> {
+            sendLatency.update(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sendTime));
+            sendCallback.accept(messageId, throwable);
+        });
     }
 
     @Override
@@ -192,22 +242,21 @@ public class PulsarSinkFunction<T> extends RichSinkFunction<T> implements Checkp
     @Override
     public void snapshotState(FunctionSnapshotContext context) throws Exception {
         if (flushOnCheckpoint) {
+            // 先发出未满的batch，再等待所有回调完成
+            flush();
             synchronized (pendingRecordsLock) {
-                if (pendingRecords != 0) {
-                    try {
-                        log.info("等待notify");
+                try {
+                    while (pendingRecords.get() != 0) {
                         pendingRecordsLock.wait();
-                        checkErroneous();
-                        flush();
-                        log.info("等待waite之后");
-                    } catch (InterruptedException e) {
-                        // this can be interrupted when the Task has been cancelled.
-                        // by throwing an exception, we ensure that this checkpoint doesn't get
-                        // confirmed
-                        throw new IllegalStateException("Flushing got interrupted while checkpointing", e);
                     }
+                } catch (InterruptedException e) {
+                    // this can be interrupted when the Task has been cancelled.
+                    // by throwing an exception, we ensure that this checkpoint doesn't get
+                    // confirmed
+                    throw new IllegalStateException("Flushing got interrupted while checkpointing", e);
                 }
             }
+            checkErroneous();
         }
     }
 
@@ -216,20 +265,13 @@ public class PulsarSinkFunction<T> extends RichSinkFunction<T> implements Checkp
         // nothing to do.
     }
 
-    public String getKey(String strValue) {
-        // JSONObject jsonObject = JSONObject.parseObject(strValue);
-        // JSONObject jsonObject = JSONUtil.parseObject(strValue);
-        // String key = jsonObject.getString("key");
-        ObjectNode jsonNodes = JsonUtils.parseObject(strValue);
-        String key = String.valueOf(jsonNodes.get("key"));
-        return key == null ? "" : key;
-    }
-
     // 获取Pulsar Producer
     public Producer createProducer() throws Exception {
         log.info("current pulsar version is {}", PulsarVersion.getVersion());
 
         ClientBuilder builder = PulsarClient.builder();
+        Map<String, Object> conf = sinkOptions.toProducerConf();
+        conf.putAll((Map) pulsarProducerProperties); // 实现配置透传功能
         ProducerBuilder producerBuilder = builder.serviceUrl(serviceUrl)
                 .maxNumberOfRejectedRequestPerConnection(50)
                 .loadConf((Map) pulsarClientProperties)
@@ -237,10 +279,11 @@ public class PulsarSinkFunction<T> extends RichSinkFunction<T> implements Checkp
                 .newProducer()
                 .topic(topic)
                 .blockIfQueueFull(Boolean.TRUE)
-                .compressionType(CompressionType.LZ4)
                 .hashingScheme(HashingScheme.JavaStringHash)
-                // .batchingMaxPublishDelay(100, TimeUnit.MILLISECONDS)
-                .loadConf((Map) pulsarProducerProperties); // 实现配置透传功能
+                .loadConf(conf);
+        if (sinkOptions.isKeyBasedBatching()) {
+            producerBuilder.batcherBuilder(BatcherBuilder.KEY_BASED);
+        }
         Producer producer = producerBuilder.create();
         return producer;
     }
@@ -252,7 +295,7 @@ public class PulsarSinkFunction<T> extends RichSinkFunction<T> implements Checkp
 
         log.info("current pulsar version is {} , topic is : {}", PulsarVersion.getVersion(), topic);
 
-        return PulsarProducerHolder.getProducer(topic, pulsarProducerProperties, client);
+        return PulsarProducerHolder.getProducer(topic, sinkOptions, pulsarProducerProperties, client);
     }
 
     /**
@@ -287,14 +330,9 @@ public class PulsarSinkFunction<T> extends RichSinkFunction<T> implements Checkp
     }
 
     private void acknowledgeMessage() {
-        if (flushOnCheckpoint) {
+        if (pendingRecords.decrementAndGet() == 0 && flushOnCheckpoint) {
             synchronized (pendingRecordsLock) {
-                log.info("pendingRecords：{}", pendingRecords);
-                pendingRecords--;
-                if (pendingRecords == 0) {
-                    pendingRecordsLock.notifyAll();
-                    log.info("notify完成");
-                }
+                pendingRecordsLock.notifyAll();
             }
         }
     }
@@ -25,9 +25,13 @@ import org.apache.flink.annotation.PublicEvolving;
 import org.apache.flink.configuration.ConfigOption;
 import org.apache.flink.configuration.ConfigOptions;
 import org.apache.flink.configuration.DescribedEnum;
+import org.apache.flink.configuration.MemorySize;
 import org.apache.flink.configuration.description.InlineElement;
+import org.apache.pulsar.client.api.CompressionType;
 import org.apache.pulsar.client.api.SubscriptionType;
 
+import java.time.Duration;
+
 /** * @version 1.0 * @Desc: */
 
 /** Options for the Pulsar connector. */
@@ -88,6 +92,53 @@ public class PulsarConnectorOptions {
             .noDefaultValue()
             .withDescription("Defines pulsar sink parallelism. ");
 
+    // --------------------------------------------------------------------------------------------
+    // Sink options
+    // --------------------------------------------------------------------------------------------
+    public static final ConfigOption<Boolean> SINK_BATCHING_ENABLED = ConfigOptions.key("sink.batching.enabled")
+            .booleanType()
+            .defaultValue(true)
+            .withDescription("Whether the producer packs messages into batches. ");
+
+    public static final ConfigOption<Integer> SINK_BATCHING_MAX_MESSAGES = ConfigOptions.key(
+                    "sink.batching.max-messages")
+            .intType()
+            .defaultValue(1000)
+            .withDescription("Max number of messages in one batch. ");
+
+    public static final ConfigOption<MemorySize> SINK_BATCHING_MAX_BYTES = ConfigOptions.key("sink.batching.max-bytes")
+            .memoryType()
+            .defaultValue(MemorySize.parse("128kb"))
+            .withDescription("Max size of one batch. ");
+
+    public static final ConfigOption<Duration> SINK_BATCHING_MAX_PUBLISH_DELAY = ConfigOptions.key(
+                    "sink.batching.max-publish-delay")
+            .durationType()
+            .defaultValue(Duration.ofMillis(10))
+            .withDescription("Max time a message waits for its batch to fill up before it is published. ");
+
+    public static final ConfigOption<Boolean> SINK_BATCHING_KEY_BASED = ConfigOptions.key("sink.batching.key-based")
+            .booleanType()
+            .defaultValue(false)
+            .withDescription(
+                    "Whether batches only hold messages of the same key, as Key_Shared subscriptions" + " require. ");
+
+    public static final ConfigOption<CompressionType> SINK_COMPRESSION_TYPE = ConfigOptions.key("sink.compression-type")
+            .enumType(CompressionType.class)
+            .defaultValue(CompressionType.LZ4)
+            .withDescription("Defines pulsar compression type of produced batches. ");
+
+    public static final ConfigOption<Integer> SINK_MAX_PENDING_MESSAGES = ConfigOptions.key("sink.max-pending-messages")
+            .intType()
+            .defaultValue(1000)
+            .withDescription("Max number of unacknowledged messages before the sink blocks. ");
+
+    public static final ConfigOption<String> SINK_MESSAGE_KEY_FIELD = ConfigOptions.key("sink.message-key.field")
+            .stringType()
+            .defaultValue("key")
+            .withDescription("Field used as message key, so that rows of the same key are routed to the same"
+                    + " partition. Rows without the field are sent without key. ");
+
     // 与老平台 1.14.3之前版本的sql进行兼容，但是并未使用的参数
     public static final ConfigOption<String> VERSION = ConfigOptions.key("connector.version")
             .stringType()
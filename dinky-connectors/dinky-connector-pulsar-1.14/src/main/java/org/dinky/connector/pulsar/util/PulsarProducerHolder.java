@@ -19,7 +19,7 @@
 
 package org.dinky.connector.pulsar.util;
 
-import org.apache.pulsar.client.api.CompressionType;
+import org.apache.pulsar.client.api.BatcherBuilder;
 import org.apache.pulsar.client.api.HashingScheme;
 import org.apache.pulsar.client.api.Producer;
 import org.apache.pulsar.client.api.ProducerBuilder;
@@ -27,6 +27,7 @@ import org.apache.pulsar.client.api.PulsarClient;
 
 import java.util.Map;
 import java.util.Properties;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -40,19 +41,27 @@ public class PulsarProducerHolder {
 
     public static Producer getProducer(String defaultTopicName, Properties properties, PulsarClient client)
             throws Exception {
-        return get(defaultTopicName, properties, client);
+        return getProducer(defaultTopicName, PulsarSinkOptions.defaults(), properties, client);
     }
 
-    private static Producer get(String defaultTopicName, Properties properties, PulsarClient client) throws Exception {
+    public static Producer getProducer(
+            String defaultTopicName, PulsarSinkOptions sinkOptions, Properties properties, PulsarClient client)
+            throws Exception {
+        return get(defaultTopicName, sinkOptions, properties, client);
+    }
+
+    private static Producer get(
+            String defaultTopicName, PulsarSinkOptions sinkOptions, Properties properties, PulsarClient client)
+            throws Exception {
         synchronized (PulsarProducerHolder.class) {
-            String pulsarProducerCacheKey = defaultTopicName;
+            String pulsarProducerCacheKey = cacheKey(defaultTopicName, sinkOptions, properties);
             Producer pulsarProducer = PULSAR_PRODUCER_MAP.get(pulsarProducerCacheKey);
             LOG.info("get pulsarProducer from map result is " + pulsarProducer);
             if (null != pulsarProducer) {
                 return pulsarProducer;
             }
 
-            Producer producer = createPulsarProducer(defaultTopicName, properties, client);
+            Producer producer = createPulsarProducer(defaultTopicName, sinkOptions, properties, client);
             Producer newPulsarProducer = PULSAR_PRODUCER_MAP.putIfAbsent(pulsarProducerCacheKey, producer);
             if (newPulsarProducer == null) {
                 return producer;
@@ -61,7 +70,16 @@ public class PulsarProducerHolder {
         }
     }
 
-    private static Producer createPulsarProducer(String defaultTopicName, Properties properties, PulsarClient client) {
+    /**
+     * Sinks of the same topic only share a producer when they configure it the same way, so the key has the sink
+     * options and the passed through properties next to the topic.
+     */
+    static String cacheKey(String defaultTopicName, PulsarSinkOptions sinkOptions, Properties properties) {
+        return defaultTopicName + "|" + sinkOptions + "|" + new TreeMap<>(properties);
+    }
+
+    private static Producer createPulsarProducer(
+            String defaultTopicName, PulsarSinkOptions sinkOptions, Properties properties, PulsarClient client) {
         try {
             LOG.info("create producer, and ID is "
                     + UUID.randomUUID()
@@ -70,17 +88,21 @@ public class PulsarProducerHolder {
             LOG.info("now defaultTopicName is "
                     + defaultTopicName
                     + ", and map content is "
-                    + PULSAR_PRODUCER_MAP.get(defaultTopicName));
+                    + PULSAR_PRODUCER_MAP.keySet());
+
+            // 表参数作为默认值，properties.* 透传的配置优先
+            Map<String, Object> conf = sinkOptions.toProducerConf();
+            conf.putAll((Map) properties);
 
             ProducerBuilder<byte[]> producerBuilder = client.newProducer();
             producerBuilder
                     .blockIfQueueFull(Boolean.TRUE)
-                    .compressionType(CompressionType.LZ4)
                     .topic(defaultTopicName)
                     .hashingScheme(HashingScheme.JavaStringHash)
-                    .
-                    // batchingMaxPublishDelay(100, TimeUnit.MILLISECONDS).
-                    loadConf((Map) properties);
+                    .loadConf(conf);
+            if (sinkOptions.isKeyBasedBatching()) {
+                producerBuilder.batcherBuilder(BatcherBuilder.KEY_BASED);
+            }
             Producer<byte[]> producer = producerBuilder.create();
             return producer;
         } catch (Exception e) {
@@ -0,0 +1,118 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.connector.pulsar.util;
+
+import org.apache.pulsar.client.api.CompressionType;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** Producer settings of the Pulsar sink, taken from the {@code sink.*} table options. */
+public class PulsarSinkOptions implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final boolean batchingEnabled;
+    private final int batchingMaxMessages;
+    private final int batchingMaxBytes;
+    private final long batchingMaxPublishDelayMs;
+    private final boolean keyBasedBatching;
+    private final CompressionType compressionType;
+    private final int maxPendingMessages;
+
+    public PulsarSinkOptions(
+            boolean batchingEnabled,
+            int batchingMaxMessages,
+            int batchingMaxBytes,
+            long batchingMaxPublishDelayMs,
+            boolean keyBasedBatching,
+            CompressionType compressionType,
+            int maxPendingMessages) {
+        this.batchingEnabled = batchingEnabled;
+        this.batchingMaxMessages = batchingMaxMessages;
+        this.batchingMaxBytes = batchingMaxBytes;
+        this.batchingMaxPublishDelayMs = batchingMaxPublishDelayMs;
+        this.keyBasedBatching = keyBasedBatching;
+        this.compressionType = compressionType;
+        this.maxPendingMessages = maxPendingMessages;
+    }
+
+    public boolean isBatchingEnabled() {
+        return batchingEnabled;
+    }
+
+    public int getBatchingMaxMessages() {
+        return batchingMaxMessages;
+    }
+
+    public int getBatchingMaxBytes() {
+        return batchingMaxBytes;
+    }
+
+    public long getBatchingMaxPublishDelayMs() {
+        return batchingMaxPublishDelayMs;
+    }
+
+    public boolean isKeyBasedBatching() {
+        return keyBasedBatching;
+    }
+
+    public CompressionType getCompressionType() {
+        return compressionType;
+    }
+
+    public int getMaxPendingMessages() {
+        return maxPendingMessages;
+    }
+
+    /**
+     * The settings as Pulsar producer configuration, so that {@code properties.*} passed through
+     * by the user can still override them.
+     */
+    public Map<String, Object> toProducerConf() {
+        Map<String, Object> conf = new HashMap<>();
+        conf.put("batchingEnabled", batchingEnabled);
+        conf.put("batchingMaxMessages", batchingMaxMessages);
+        conf.put("batchingMaxBytes", batchingMaxBytes);
+        conf.put("batchingMaxPublishDelayMicros", TimeUnit.MILLISECONDS.toMicros(batchingMaxPublishDelayMs));
+        conf.put("compressionType", compressionType);
+        conf.put("maxPendingMessages", maxPendingMessages);
+        return conf;
+    }
+
+    @Override
+    public String toString() {
+        return "PulsarSinkOptions{"
+                + "batchingEnabled=" + batchingEnabled
+                + ", batchingMaxMessages=" + batchingMaxMessages
+                + ", batchingMaxBytes=" + batchingMaxBytes
+                + ", batchingMaxPublishDelayMs=" + batchingMaxPublishDelayMs
+                + ", keyBasedBatching=" + keyBasedBatching
+                + ", compressionType=" + compressionType
+                + ", maxPendingMessages=" + maxPendingMessages
+                + '}';
+    }
+
+    public static PulsarSinkOptions defaults() {
+        return new PulsarSinkOptions(true, 1000, 128 * 1024, 10L, false, CompressionType.LZ4, 1000);
+    }
+}
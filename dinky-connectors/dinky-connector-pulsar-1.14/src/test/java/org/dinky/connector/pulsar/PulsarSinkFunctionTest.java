@@ -0,0 +1,209 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.connector.pulsar;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.dinky.connector.pulsar.util.PulsarSinkOptions;
+
+import org.apache.flink.api.common.functions.RuntimeContext;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.metrics.groups.UnregisteredMetricsGroup;
+import org.apache.flink.util.function.SerializableFunction;
+import org.apache.pulsar.client.api.MessageId;
+import org.apache.pulsar.client.api.Producer;
+import org.apache.pulsar.client.api.TypedMessageBuilder;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Tests {@link PulsarSinkFunction} against a mocked producer acknowledging on another thread. */
+public class PulsarSinkFunctionTest {
+
+    private ExecutorService broker;
+    private List<SentMessage> sent;
+    private volatile boolean failSends;
+
+    @Before
+    public void setUp() {
+        broker = Executors.newSingleThreadExecutor();
+        sent = Collections.synchronizedList(new ArrayList<>());
+        failSends = false;
+    }
+
+    @After
+    public void tearDown() {
+        broker.shutdownNow();
+    }
+
+    @Test
+    public void testKeyAndPayload() throws Exception {
+        PulsarSinkFunction<String> sink = openSink(value -> value.startsWith("k") ? value.substring(0, 2) : null);
+        sink.invoke("k1-a", null);
+        sink.invoke("x-b", null);
+        sink.snapshotState(null);
+
+        assertEquals(2, sent.size());
+        assertEquals("k1", sent.get(0).key);
+        assertArrayEquals("k1-a".getBytes(StandardCharsets.UTF_8), sent.get(0).value);
+        assertNull(sent.get(1).key);
+    }
+
+    @Test
+    public void testSnapshotWaitsForAcknowledgements() throws Exception {
+        PulsarSinkFunction<String> sink = openSink(null);
+        broker.execute(() -> sleep(200));
+        for (int i = 0; i < 100; i++) {
+            sink.invoke("v" + i, null);
+        }
+        assertTrue(sink.pendingRecords.get() > 0);
+
+        sink.snapshotState(null);
+
+        assertEquals(0, sink.pendingRecords.get());
+        assertEquals(100, sent.size());
+        assertEquals(100, sink.sendLatency.getCount());
+    }
+
+    @Test
+    public void testSendFailureFailsCheckpoint() throws Exception {
+        PulsarSinkFunction<String> sink = openSink(null);
+        failSends = true;
+        sink.invoke("v", null);
+        try {
+            sink.snapshotState(null);
+            fail("expected the send failure to be rethrown");
+        } catch (Exception e) {
+            assertTrue(e.getMessage().startsWith("Failed to send data to Pulsar"));
+        }
+        assertEquals(1, sink.numSendErrors.getCount());
+    }
+
+    private PulsarSinkFunction<String> openSink(SerializableFunction<String, String> keyExtractor) throws Exception {
+        Producer<byte[]> producer = mockProducer();
+        PulsarSinkFunction<String> sink =
+                new PulsarSinkFunction<String>(
+                        "topic",
+                        "pulsar://localhost:6650",
+                        new Properties(),
+                        new Properties(),
+                        value -> value.getBytes(StandardCharsets.UTF_8),
+                        PulsarSinkOptions.defaults(),
+                        keyExtractor) {
+                    @Override
+                    public Producer createReusedProducer() {
+                        return producer;
+                    }
+                };
+        sink.setRuntimeContext(mockRuntimeContext());
+        sink.open(new Configuration());
+        sink.setFlushOnCheckpoint(true);
+        return sink;
+    }
+
+    private static RuntimeContext mockRuntimeContext() {
+        return (RuntimeContext) Proxy.newProxyInstance(
+                RuntimeContext.class.getClassLoader(), new Class<?>[] {RuntimeContext.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getMetricGroup":
+                            return UnregisteredMetricsGroup.createOperatorMetricGroup();
+                        case "getIndexOfThisSubtask":
+                            return 0;
+                        case "getNumberOfParallelSubtasks":
+                            return 1;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    private Producer<byte[]> mockProducer() {
+        return (Producer<byte[]>) Proxy.newProxyInstance(
+                Producer.class.getClassLoader(), new Class<?>[] {Producer.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "newMessage":
+                            return mockMessageBuilder(new SentMessage());
+                        case "flush":
+                            return null;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    private TypedMessageBuilder<byte[]> mockMessageBuilder(SentMessage message) {
+        return (TypedMessageBuilder<byte[]>) Proxy.newProxyInstance(
+                TypedMessageBuilder.class.getClassLoader(),
+                new Class<?>[] {TypedMessageBuilder.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "key":
+                            message.key = (String) args[0];
+                            return proxy;
+                        case "value":
+                            message.value = (byte[]) args[0];
+                            return proxy;
+                        case "sendAsync":
+                            CompletableFuture<MessageId> future = new CompletableFuture<>();
+                            broker.execute(() -> {
+                                if (failSends) {
+                                    future.completeExceptionally(new IllegalStateException("broker unavailable"));
+                                } else {
+                                    sent.add(message);
+                                    future.complete(MessageId.earliest);
+                                }
+                            });
+                            return future;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class SentMessage {
+        private String key;
+        private byte[] value;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.connector.pulsar.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.apache.pulsar.client.api.CompressionType;
+
+import java.util.Properties;
+
+import org.junit.Test;
+
+/** Tests the producer cache key of {@link PulsarProducerHolder}. */
+public class PulsarProducerHolderTest {
+
+    @Test
+    public void testCacheKeyOfSameSettings() {
+        Properties first = new Properties();
+        first.setProperty("sendTimeoutMs", "3000");
+        first.setProperty("producerName", "dinky");
+        Properties second = new Properties();
+        second.setProperty("producerName", "dinky");
+        second.setProperty("sendTimeoutMs", "3000");
+
+        assertEquals(
+                PulsarProducerHolder.cacheKey("topic", PulsarSinkOptions.defaults(), first),
+                PulsarProducerHolder.cacheKey("topic", PulsarSinkOptions.defaults(), second));
+    }
+
+    @Test
+    public void testCacheKeyOfOtherSinkOptions() {
+        PulsarSinkOptions unbatched =
+                new PulsarSinkOptions(false, 1000, 128 * 1024, 10L, false, CompressionType.LZ4, 1000);
+        PulsarSinkOptions zstd = new PulsarSinkOptions(true, 1000, 128 * 1024, 10L, false, CompressionType.ZSTD, 1000);
+        String key = PulsarProducerHolder.cacheKey("topic", PulsarSinkOptions.defaults(), new Properties());
+
+        assertNotEquals(key, PulsarProducerHolder.cacheKey("topic", unbatched, new Properties()));
+        assertNotEquals(key, PulsarProducerHolder.cacheKey("topic", zstd, new Properties()));
+        assertNotEquals(key, PulsarProducerHolder.cacheKey("other", PulsarSinkOptions.defaults(), new Properties()));
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.connector.printnet;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Frames of the print net channel. The sink sends batches of serialized rows of one print table over a tcp
+ * stream, each frame is {@code magic, identifier, dropped, count, (length, bytes) * count}.
+ */
+public final class PrintNetProtocol {
+
+    private static final int MAGIC = 0x504E4554;
+    /** Upper bound of one row, guards the reader against a corrupt stream. */
+    public static final int MAX_ROW_BYTES = 16 * 1024 * 1024;
+    /** Upper bound of the rows of one frame, the largest {@code sink.batch.size}. */
+    public static final int MAX_BATCH_ROWS = 100_000;
+    /** The admin closes connections idle for this long, the sink reconnects before that. */
+    public static final int IDLE_TIMEOUT_MS = 5 * 60 * 1000;
+
+    private PrintNetProtocol() {}
+
+    public static void write(DataOutputStream out, String identifier, List<byte[]> rows, long dropped)
+            throws IOException {
+        out.writeInt(MAGIC);
+        out.writeUTF(identifier);
+        out.writeLong(dropped);
+        out.writeInt(rows.size());
+        for (byte[] row : rows) {
+            out.writeInt(row.length);
+            out.write(row);
+        }
+        out.flush();
+    }
+
+    public static Batch read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a print net frame");
+        }
+        String identifier = in.readUTF();
+        long dropped = in.readLong();
+        int count = in.readInt();
+        if (count < 0 || count > MAX_BATCH_ROWS) {
+            throw new IOException("Invalid print net row count: " + count);
+        }
+        // the rows are allocated as they arrive, not up front from the count
+        List<byte[]> rows = new ArrayList<>(Math.min(count, 1024));
+        for (int i = 0; i < count; i++) {
+            int length = in.readInt();
+            if (length < 0 || length > MAX_ROW_BYTES) {
+                throw new IOException("Invalid print net row length: " + length);
+            }
+            byte[] row = new byte[length];
+            in.readFully(row);
+            rows.add(row);
+        }
+        return new Batch(identifier, rows, dropped);
+    }
+
+    /** The rows of one print table, with the rows the sink skipped by rate limit or sampling since last batch. */
+    @Getter
+    @AllArgsConstructor
+    public static class Batch {
+        private final String identifier;
+        private final List<byte[]> rows;
+        private final long dropped;
+    }
+}
@@ -43,6 +43,10 @@ public class PrintNetDynamicTableSink implements DynamicTableSink, SupportsParti
     private String printIdentifier;
     private ObjectIdentifier objectIdentifier;
     private Map<String, String> staticPartitions = new LinkedHashMap<>();
+    private final int batchSize;
+    private final long batchIntervalMs;
+    private final int rateLimit;
+    private final double sampleRatio;
 
     public PrintNetDynamicTableSink(
             DataType type,
@@ -51,7 +55,11 @@ public class PrintNetDynamicTableSink implements DynamicTableSink, SupportsParti
             String hostname,
             int port,
             String printIdentifier,
-            ObjectIdentifier objectIdentifier) {
+            ObjectIdentifier objectIdentifier,
+            int batchSize,
+            long batchIntervalMs,
+            int rateLimit,
+            double sampleRatio) {
         this.hostname = hostname;
         this.port = port;
         this.encodingFormat = serializingFormat;
@@ -59,6 +67,10 @@ public class PrintNetDynamicTableSink implements DynamicTableSink, SupportsParti
         this.partitionKeys = partitionKeys;
         this.printIdentifier = printIdentifier;
         this.objectIdentifier = objectIdentifier;
+        this.batchSize = batchSize;
+        this.batchIntervalMs = batchIntervalMs;
+        this.rateLimit = rateLimit;
+        this.sampleRatio = sampleRatio;
     }
 
     @Override
@@ -83,14 +95,32 @@ public class PrintNetDynamicTableSink implements DynamicTableSink, SupportsParti
             printIdentifier += key + "=" + value;
         });
 
-        return SinkFunctionProvider.of(
-                new PrintNetSinkFunction(hostname, port, serializer, converter, printIdentifier));
+        return SinkFunctionProvider.of(new PrintNetSinkFunction(
+                hostname,
+                port,
+                serializer,
+                converter,
+                printIdentifier,
+                batchSize,
+                batchIntervalMs,
+                rateLimit,
+                sampleRatio));
     }
 
     @Override
     public DynamicTableSink copy() {
         return new PrintNetDynamicTableSink(
-                type, partitionKeys, encodingFormat, hostname, port, printIdentifier, objectIdentifier);
+                type,
+                partitionKeys,
+                encodingFormat,
+                hostname,
+                port,
+                printIdentifier,
+                objectIdentifier,
+                batchSize,
+                batchIntervalMs,
+                rateLimit,
+                sampleRatio);
     }
 
     @Override
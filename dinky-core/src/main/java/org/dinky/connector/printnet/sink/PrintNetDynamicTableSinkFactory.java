@@ -21,10 +21,13 @@ package org.dinky.connector.printnet.sink;
 
 import static org.apache.flink.configuration.ConfigOptions.key;
 
+import org.dinky.connector.printnet.PrintNetProtocol;
+
 import org.apache.flink.api.common.serialization.SerializationSchema;
 import org.apache.flink.configuration.ConfigOption;
 import org.apache.flink.configuration.ConfigOptions;
 import org.apache.flink.configuration.ReadableConfig;
+import org.apache.flink.table.api.ValidationException;
 import org.apache.flink.table.catalog.ObjectIdentifier;
 import org.apache.flink.table.connector.format.EncodingFormat;
 import org.apache.flink.table.connector.sink.DynamicTableSink;
@@ -33,6 +36,7 @@ import org.apache.flink.table.factories.DynamicTableSinkFactory;
 import org.apache.flink.table.factories.FactoryUtil;
 import org.apache.flink.table.factories.SerializationFormatFactory;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
@@ -54,6 +58,27 @@ public class PrintNetDynamicTableSinkFactory implements DynamicTableSinkFactory
             .noDefaultValue()
             .withDescription("Message that identify print and is prefixed to the output of the" + " value.");
 
+    public static final ConfigOption<Integer> BATCH_SIZE = key("sink.batch.size")
+            .intType()
+            .defaultValue(100)
+            .withDescription(
+                    "Max rows sent to the dinky admin in one batch, at most " + PrintNetProtocol.MAX_BATCH_ROWS + ".");
+
+    public static final ConfigOption<Duration> BATCH_INTERVAL = key("sink.batch.interval")
+            .durationType()
+            .defaultValue(Duration.ofMillis(200))
+            .withDescription("Max time a row waits in the batch before it is sent.");
+
+    public static final ConfigOption<Integer> RATE_LIMIT = key("sink.rate-limit")
+            .intType()
+            .defaultValue(1000)
+            .withDescription("Max rows per second of the table that are printed, 0 means no limit.");
+
+    public static final ConfigOption<Double> SAMPLE_RATIO = key("sink.sample-ratio")
+            .doubleType()
+            .defaultValue(1.0)
+            .withDescription("Ratio of the rows that are printed, between 0 and 1.");
+
     @Override
     public DynamicTableSink createDynamicTableSink(Context context) {
         final FactoryUtil.TableFactoryHelper helper = FactoryUtil.createTableFactoryHelper(this, context);
@@ -61,6 +86,12 @@ public class PrintNetDynamicTableSinkFactory implements DynamicTableSinkFactory
 
         ObjectIdentifier objectIdentifier = context.getObjectIdentifier();
         FactoryUtil.validateFactoryOptions(this, options);
+        int batchSize = options.get(BATCH_SIZE);
+        if (batchSize < 1 || batchSize > PrintNetProtocol.MAX_BATCH_ROWS) {
+            throw new ValidationException(String.format(
+                    "'%s' must be between 1 and %d, but is %d",
+                    BATCH_SIZE.key(), PrintNetProtocol.MAX_BATCH_ROWS, batchSize));
+        }
         EncodingFormat<SerializationSchema<RowData>> serializingFormat = null;
 
         try {
@@ -77,7 +108,11 @@ public class PrintNetDynamicTableSinkFactory implements DynamicTableSinkFactory
                 options.get(HOSTNAME),
                 options.get(PORT),
                 options.get(PRINT_IDENTIFIER),
-                objectIdentifier);
+                objectIdentifier,
+                batchSize,
+                options.get(BATCH_INTERVAL).toMillis(),
+                options.get(RATE_LIMIT),
+                options.get(SAMPLE_RATIO));
     }
 
     @Override
@@ -92,6 +127,7 @@ public class PrintNetDynamicTableSinkFactory implements DynamicTableSinkFactory
 
     @Override
     public Set<ConfigOption<?>> optionalOptions() {
-        return new HashSet<>(Arrays.asList(PRINT_IDENTIFIER, FactoryUtil.FORMAT));
+        return new HashSet<>(Arrays.asList(
+                PRINT_IDENTIFIER, FactoryUtil.FORMAT, BATCH_SIZE, BATCH_INTERVAL, RATE_LIMIT, SAMPLE_RATIO));
     }
 }
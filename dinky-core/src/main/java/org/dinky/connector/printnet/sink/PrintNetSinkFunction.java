@@ -19,39 +19,91 @@
 
 package org.dinky.connector.printnet.sink;
 
+import org.dinky.connector.printnet.PrintNetProtocol;
+
 import org.apache.flink.api.common.serialization.SerializationSchema;
 import org.apache.flink.configuration.Configuration;
 import org.apache.flink.streaming.api.functions.sink.RichSinkFunction;
 import org.apache.flink.table.connector.sink.DynamicTableSink;
 import org.apache.flink.table.data.RowData;
 
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
 import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Sends the rows of a print table to the dinky admin. Rows are batched by count or time and written as frames
+ * over a tcp stream. The rows per second of the table are limited and can be sampled, rows skipped that way are
+ * counted and reported with the next batch, so a fast table can not flood the admin.
+ *
+ * <p>Only the flusher thread talks to the admin, the task thread hands it full batches and never waits for the
+ * network. When the admin can not be reached the rows are skipped, and no connection is attempted for a while.
+ */
 @Slf4j
 public class PrintNetSinkFunction extends RichSinkFunction<RowData> {
+
+    private static final int CONNECT_TIMEOUT_MS = 3000;
+    private static final long RECONNECT_BACKOFF_MS = 10_000L;
+    private static final int MAX_PENDING_BATCHES = 4;
+    /** Reconnect well before the admin closes the idle connection. */
+    private static final long MAX_IDLE_MS = PrintNetProtocol.IDLE_TIMEOUT_MS / 2;
+
     private final int port;
     private final SerializationSchema<RowData> serializer;
     private final DynamicTableSink.DataStructureConverter converter;
-    private final byte[] printHeader;
-    private transient DatagramSocket socket;
+    private final String printIdentifier;
     private final InetAddress targetAddress;
+    private final int batchSize;
+    private final long batchIntervalMs;
+    private final int rateLimit;
+    private final double sampleRatio;
+
+    private transient Object lock;
+    private transient List<byte[]> batch;
+    private transient BlockingQueue<List<byte[]>> pendingBatches;
+    private transient ScheduledExecutorService flusher;
+    private transient Socket socket;
+    private transient DataOutputStream out;
+    private transient long reconnectAt;
+    private transient long lastWriteAt;
+    private transient int permitsPerSecond;
+    private transient long windowStart;
+    private transient int windowCount;
+    private transient long dropped;
 
     public PrintNetSinkFunction(
             String hostname,
             int port,
             SerializationSchema<RowData> serializer,
             DynamicTableSink.DataStructureConverter converter,
-            String printIdentifier) {
+            String printIdentifier,
+            int batchSize,
+            long batchIntervalMs,
+            int rateLimit,
+            double sampleRatio) {
         this.port = port;
         this.serializer = serializer;
         this.converter = converter;
-        printHeader = (printIdentifier + "\n").getBytes();
+        this.printIdentifier = printIdentifier;
+        this.batchSize = batchSize;
+        this.batchIntervalMs = batchIntervalMs;
+        this.rateLimit = rateLimit;
+        this.sampleRatio = sampleRatio;
 
         try {
             this.targetAddress = InetAddress.getByName(hostname);
@@ -68,26 +120,168 @@ public class PrintNetSinkFunction extends RichSinkFunction<RowData> {
             serializer.open(null);
         }
 
-        //        StreamingRuntimeContext context = (StreamingRuntimeContext) getRuntimeContext();
-        socket = new DatagramSocket();
+        lock = new Object();
+        batch = new ArrayList<>(batchSize);
+        pendingBatches = new ArrayBlockingQueue<>(MAX_PENDING_BATCHES);
+        // the rate limit is for the table, every subtask gets its share
+        permitsPerSecond =
+                rateLimit <= 0 ? 0 : Math.max(1, rateLimit / getRuntimeContext().getNumberOfParallelSubtasks());
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "print-net-flusher-" + printIdentifier);
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, batchIntervalMs, batchIntervalMs, TimeUnit.MILLISECONDS);
     }
 
     @Override
-    public void invoke(RowData value, Context context) throws IOException {
-        try {
-            byte[] buf = serializer != null
-                    ? serializer.serialize(value)
-                    : converter.toExternal(value).toString().getBytes();
+    public void invoke(RowData value, Context context) {
+        synchronized (lock) {
+            if (!acquire()) {
+                dropped++;
+                return;
+            }
+            batch.add(
+                    serializer != null
+                            ? serializer.serialize(value)
+                            : converter.toExternal(value).toString().getBytes(StandardCharsets.UTF_8));
+            if (batch.size() >= batchSize) {
+                if (!pendingBatches.offer(batch)) {
+                    // the admin is slower than the table, skip the batch rather than buffer without bound
+                    dropped += batch.size();
+                }
+                batch = new ArrayList<>(batchSize);
+                flusher.execute(this::flushQuietly);
+            }
+        }
+    }
 
-            byte[] target = new byte[printHeader.length + buf.length];
-            System.arraycopy(printHeader, 0, target, 0, printHeader.length);
-            System.arraycopy(buf, 0, target, printHeader.length, buf.length);
+    @Override
+    public void close() throws Exception {
+        boolean flusherStopped = true;
+        if (flusher != null) {
+            flusher.shutdownNow();
+            flusherStopped = flusher.awaitTermination(CONNECT_TIMEOUT_MS * 2L, TimeUnit.MILLISECONDS);
+        }
+        if (lock != null) {
+            if (flusherStopped) {
+                flush();
+            } else {
+                log.warn("The print rows flusher of {} did not stop, the last rows are skipped", printIdentifier);
+            }
+            closeSocket();
+        }
+        super.close();
+    }
 
-            DatagramPacket packet = new DatagramPacket(target, target.length, this.targetAddress, port);
-            socket.send(packet);
+    private boolean acquire() {
+        if (sampleRatio < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRatio) {
+            return false;
+        }
+        if (permitsPerSecond <= 0) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        if (now - windowStart >= 1000) {
+            windowStart = now;
+            windowCount = 0;
+        }
+        return windowCount++ < permitsPerSecond;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
         } catch (Exception e) {
-            log.error("Failed to send packet: {}", e.getMessage());
-            throw new RuntimeException(e);
+            log.warn("Failed to flush print rows of {}: {}", printIdentifier, e.getMessage());
+        }
+    }
+
+    /** Sends the full batches and then the current one, runs on the flusher thread or after it stopped. */
+    private void flush() {
+        List<byte[]> rows;
+        while ((rows = pendingBatches.poll()) != null) {
+            send(rows);
+        }
+        synchronized (lock) {
+            if (batch.isEmpty() && dropped == 0) {
+                return;
+            }
+            rows = batch;
+            batch = new ArrayList<>(batchSize);
+        }
+        send(rows);
+    }
+
+    private void send(List<byte[]> rows) {
+        long skipped;
+        synchronized (lock) {
+            skipped = dropped;
+            dropped = 0;
+        }
+        if (!write(rows, skipped)) {
+            // the admin is not reachable, skip the rows rather than fail the job
+            synchronized (lock) {
+                dropped += skipped + rows.size();
+            }
+        }
+    }
+
+    private boolean write(List<byte[]> rows, long skipped) {
+        if (out != null && System.currentTimeMillis() - lastWriteAt > MAX_IDLE_MS) {
+            // the admin may have reaped the connection, a write to it could be lost without an error
+            closeSocket();
+        }
+        for (int attempt = 0; attempt < 2; attempt++) {
+            if (out == null) {
+                long now = System.currentTimeMillis();
+                if (now < reconnectAt) {
+                    return false;
+                }
+                try {
+                    connect();
+                } catch (IOException e) {
+                    log.warn(
+                            "Failed to connect to {}:{} for print rows of {}, retry in {} ms: {}",
+                            targetAddress.getHostAddress(),
+                            port,
+                            printIdentifier,
+                            RECONNECT_BACKOFF_MS,
+                            e.getMessage());
+                    closeSocket();
+                    reconnectAt = now + RECONNECT_BACKOFF_MS;
+                    return false;
+                }
+            }
+            try {
+                PrintNetProtocol.write(out, printIdentifier, rows, skipped);
+                lastWriteAt = System.currentTimeMillis();
+                return true;
+            } catch (IOException e) {
+                log.warn("Failed to send print rows of {}: {}", printIdentifier, e.getMessage());
+                closeSocket();
+            }
+        }
+        return false;
+    }
+
+    private void connect() throws IOException {
+        Socket newSocket = new Socket();
+        socket = newSocket;
+        newSocket.setTcpNoDelay(true);
+        newSocket.connect(new InetSocketAddress(targetAddress, port), CONNECT_TIMEOUT_MS);
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 64 * 1024));
+    }
+
+    private void closeSocket() {
+        out = null;
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                log.debug("Failed to close print net socket", e);
+            }
+            socket = null;
         }
     }
 }
@@ -19,7 +19,11 @@
 
 package org.dinky.data.result;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import cn.hutool.cache.Cache;
 import cn.hutool.cache.impl.TimedCache;
@@ -33,16 +37,33 @@ public final class ResultPool {
 
     private ResultPool() {}
 
+    /** Size budget of the rows of one select preview. */
+    public static final long MAX_JOB_BYTES = 32L * 1024 * 1024;
+    /** Size budget of the rows of all select previews. */
+    public static final long MAX_TOTAL_BYTES = Runtime.getRuntime().maxMemory() / 8;
+
+    private static final AtomicLong TOTAL_BYTES = new AtomicLong();
+
     private static final Cache<Integer, IResult> COMMON_SQL_SEARCH_CACHE =
             new TimedCache<>(TimeUnit.MINUTES.toMillis(10));
-    private static final Cache<String, SelectResult> results = new TimedCache<>(TimeUnit.MINUTES.toMillis(10));
+    private static final TimedCache<String, ResultRowBuffer> results = new TimedCache<>(TimeUnit.MINUTES.toMillis(10));
+
+    static {
+        // expired previews give their rows back to the budget
+        results.setListener((key, buffer) -> buffer.release());
+        results.schedulePrune(TimeUnit.MINUTES.toMillis(1));
+    }
 
     public static boolean containsKey(String key) {
         return results.containsKey(key);
     }
 
-    public static void put(SelectResult result) {
-        results.put(result.getJobId(), result);
+    /** Creates the row buffer of a select preview, replacing an earlier one with the same id. */
+    public static ResultRowBuffer register(String key, int maxRows) {
+        remove(key);
+        ResultRowBuffer buffer = new ResultRowBuffer(key, maxRows, MAX_JOB_BYTES);
+        results.put(key, buffer);
+        return buffer;
     }
 
     public static void putCommonSqlCache(Integer taskId, IResult result) {
@@ -54,21 +75,58 @@ public final class ResultPool {
     }
 
     public static SelectResult get(String key) {
-        if (containsKey(key)) {
-            return results.get(key);
+        return get(key, 0, Integer.MAX_VALUE);
+    }
+
+    /** Returns up to {@code limit} rows of the preview starting at row {@code offset}. */
+    public static SelectResult get(String key, int offset, int limit) {
+        ResultRowBuffer buffer = results.get(key);
+        if (buffer == null) {
+            return SelectResult.buildDestruction(key);
+        }
+        SelectResult result;
+        synchronized (buffer) {
+            result = new SelectResult(
+                    key, buffer.page(Math.max(offset, 0), limit), new LinkedHashSet<>(buffer.getColumns()));
+            result.setTotal(buffer.size());
+            result.setCurrentCount(result.getRowData().size());
         }
-        return SelectResult.buildDestruction(key);
+        return result;
     }
 
     public static boolean remove(String key) {
-        if (results.containsKey(key)) {
+        ResultRowBuffer buffer = results.get(key, false);
+        if (buffer != null) {
             results.remove(key);
+            buffer.release();
             return true;
         }
         return false;
     }
 
     public static void clear() {
+        List<ResultRowBuffer> buffers = new ArrayList<>();
+        results.forEach(buffers::add);
         results.clear();
+        buffers.forEach(ResultRowBuffer::release);
+    }
+
+    static boolean reserve(long bytes) {
+        long total;
+        do {
+            total = TOTAL_BYTES.get();
+            if (total + bytes > MAX_TOTAL_BYTES) {
+                return false;
+            }
+        } while (!TOTAL_BYTES.compareAndSet(total, total + bytes));
+        return true;
+    }
+
+    static void release(long bytes) {
+        TOTAL_BYTES.addAndGet(-bytes);
+    }
+
+    public static long getTotalBytes() {
+        return TOTAL_BYTES.get();
     }
 }
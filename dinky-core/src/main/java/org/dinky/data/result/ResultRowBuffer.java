@@ -0,0 +1,239 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.data.result;
+
+import java.math.BigDecimal;
+import java.time.temporal.Temporal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The rows of one select preview.
+ *
+ * <p>Rows are kept as value arrays and the column names once, instead of a map per row. A retraction finds its
+ * row through a hash index on the row values, not by scanning the rows. The buffer is bounded by the row count,
+ * by an estimated size per job and by the global budget of {@link ResultPool}; when a bound is hit the oldest
+ * rows are dropped, like in a ring buffer. All methods are safe to call from the collector and the readers.
+ */
+public class ResultRowBuffer {
+
+    private static final int COMPACT_THRESHOLD = 64;
+
+    private final String id;
+    private final int maxRows;
+    private final long maxBytes;
+
+    private List<String> columns = Collections.emptyList();
+    /** Rows in arrival order, retracted and evicted rows leave a null until the next compaction. */
+    private final ArrayList<Object[]> rows = new ArrayList<>();
+    /** Positions of the live rows by row values, oldest first. */
+    private final Map<RowKey, ArrayDeque<Integer>> index = new HashMap<>();
+
+    private int head;
+    private int size;
+    private long bytes;
+    private long dropped;
+    private boolean released;
+
+    public ResultRowBuffer(String id, int maxRows, long maxBytes) {
+        this.id = id;
+        this.maxRows = maxRows;
+        this.maxBytes = maxBytes;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public synchronized List<String> getColumns() {
+        return columns;
+    }
+
+    public synchronized void setColumns(List<String> columns) {
+        this.columns = Collections.unmodifiableList(new ArrayList<>(columns));
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /** Rows dropped to stay within the bounds. */
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized void add(Object[] values) {
+        if (released) {
+            return;
+        }
+        long rowBytes = estimate(values);
+        while (size > 0 && (size >= maxRows || bytes + rowBytes > maxBytes || !ResultPool.reserve(rowBytes))) {
+            evictOldest();
+        }
+        if (size == 0 && (rowBytes > maxBytes || !ResultPool.reserve(rowBytes))) {
+            dropped++;
+            return;
+        }
+        index.computeIfAbsent(new RowKey(values), k -> new ArrayDeque<>(1)).addLast(rows.size());
+        rows.add(values);
+        size++;
+        bytes += rowBytes;
+    }
+
+    /**
+     * Removes the oldest live row with these values.
+     *
+     * @return false if there is no such row
+     */
+    public synchronized boolean retract(Object[] values) {
+        RowKey key = new RowKey(values);
+        ArrayDeque<Integer> positions = index.get(key);
+        if (positions == null) {
+            return false;
+        }
+        int position = positions.pollFirst();
+        if (positions.isEmpty()) {
+            index.remove(key);
+        }
+        remove(position);
+        compactIfSparse();
+        return true;
+    }
+
+    /** Returns up to {@code limit} live rows starting at the live row {@code offset}, as column maps. */
+    public synchronized List<Map<String, Object>> page(int offset, int limit) {
+        List<Map<String, Object>> page = new ArrayList<>(Math.max(0, Math.min(limit, size - offset)));
+        int skipped = 0;
+        for (int i = head; i < rows.size() && page.size() < limit; i++) {
+            Object[] values = rows.get(i);
+            if (values == null || skipped++ < offset) {
+                continue;
+            }
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (int j = 0; j < values.length && j < columns.size(); j++) {
+                map.put(columns.get(j), values[j]);
+            }
+            page.add(map);
+        }
+        return page;
+    }
+
+    /** Frees the rows and gives their bytes back to the global budget. */
+    public synchronized void release() {
+        if (released) {
+            return;
+        }
+        released = true;
+        ResultPool.release(bytes);
+        rows.clear();
+        index.clear();
+        head = 0;
+        size = 0;
+        bytes = 0;
+    }
+
+    private void evictOldest() {
+        while (rows.get(head) == null) {
+            head++;
+        }
+        Object[] values = rows.get(head);
+        RowKey key = new RowKey(values);
+        ArrayDeque<Integer> positions = index.get(key);
+        positions.pollFirst();
+        if (positions.isEmpty()) {
+            index.remove(key);
+        }
+        remove(head);
+        dropped++;
+        compactIfSparse();
+    }
+
+    private void remove(int position) {
+        long rowBytes = estimate(rows.get(position));
+        rows.set(position, null);
+        size--;
+        bytes -= rowBytes;
+        ResultPool.release(rowBytes);
+    }
+
+    private void compactIfSparse() {
+        int holes = rows.size() - size;
+        if (holes < COMPACT_THRESHOLD || holes < size) {
+            return;
+        }
+        ArrayList<Object[]> live = new ArrayList<>(size);
+        for (int i = head; i < rows.size(); i++) {
+            if (rows.get(i) != null) {
+                live.add(rows.get(i));
+            }
+        }
+        rows.clear();
+        index.clear();
+        head = 0;
+        for (Object[] values : live) {
+            index.computeIfAbsent(new RowKey(values), k -> new ArrayDeque<>(1)).addLast(rows.size());
+            rows.add(values);
+        }
+    }
+
+    static long estimate(Object[] values) {
+        long estimate = 16 + 4L * values.length;
+        for (Object value : values) {
+            if (value instanceof String) {
+                estimate += 40 + ((String) value).length();
+            } else if (value instanceof BigDecimal || value instanceof Temporal) {
+                estimate += 48;
+            } else if (value != null) {
+                estimate += 24;
+            }
+        }
+        return estimate;
+    }
+
+    private static final class RowKey {
+        private final Object[] values;
+        private final int hash;
+
+        private RowKey(Object[] values) {
+            this.values = values;
+            this.hash = Arrays.deepHashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof RowKey && hash == ((RowKey) o).hash && Arrays.deepEquals(values, ((RowKey) o).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -29,11 +29,7 @@ import org.apache.flink.types.RowKind;
 
 import java.time.Instant;
 import java.time.ZoneId;
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
 
 import com.google.common.collect.Streams;
 
@@ -53,7 +49,7 @@ public class ResultRunnable implements Runnable {
     private final Integer maxRowNum;
     private final boolean isChangeLog;
     private final boolean isAutoCancel;
-    private final String timeZone;
+    private final ZoneId zoneId;
 
     public ResultRunnable(
             TableResult tableResult,
@@ -67,21 +63,19 @@ public class ResultRunnable implements Runnable {
         this.maxRowNum = maxRowNum;
         this.isChangeLog = isChangeLog;
         this.isAutoCancel = isAutoCancel;
-        this.timeZone = timeZone;
+        this.zoneId = timeZone == null ? ZoneId.systemDefault() : ZoneId.of(timeZone);
     }
 
     @Override
     public void run() {
         try {
             tableResult.getJobClient().ifPresent(jobClient -> {
-                if (!ResultPool.containsKey(id)) {
-                    ResultPool.put(new SelectResult(id, new ArrayList<>(), new LinkedHashSet<>()));
-                }
+                ResultRowBuffer buffer = ResultPool.register(id, maxRowNum);
                 try {
                     if (isChangeLog) {
-                        catchChangLog(ResultPool.get(id));
+                        catchChangLog(buffer);
                     } else {
-                        catchData(ResultPool.get(id));
+                        catchData(buffer);
                     }
                 } catch (Exception e) {
                     log.error(String.format(e.toString()));
@@ -92,16 +86,16 @@ public class ResultRunnable implements Runnable {
         }
     }
 
-    private void catchChangLog(SelectResult selectResult) {
-        List<Map<String, Object>> rows = selectResult.getRowData();
+    private void catchChangLog(ResultRowBuffer buffer) {
         List<String> columns = FlinkUtil.catchColumn(tableResult);
 
         columns.add(0, FlinkConstant.OP);
-        selectResult.setColumns(new LinkedHashSet<>(columns));
+        buffer.setColumns(columns);
         Streams.stream(tableResult.collect()).limit(maxRowNum).forEach(row -> {
-            Map<String, Object> map = getFieldMap(columns.subList(1, columns.size()), row);
-            map.put(FlinkConstant.OP, row.getKind().shortString());
-            rows.add(map);
+            Object[] values = new Object[row.getArity() + 1];
+            values[0] = row.getKind().shortString();
+            fillFields(values, 1, row);
+            buffer.add(values);
         });
 
         if (isAutoCancel) {
@@ -109,41 +103,32 @@ public class ResultRunnable implements Runnable {
         }
     }
 
-    private void catchData(SelectResult selectResult) {
-        List<Map<String, Object>> rows = selectResult.getRowData();
-        List<String> columns = FlinkUtil.catchColumn(tableResult);
-
-        selectResult.setColumns(new LinkedHashSet<>(columns));
+    private void catchData(ResultRowBuffer buffer) {
+        buffer.setColumns(FlinkUtil.catchColumn(tableResult));
         Streams.stream(tableResult.collect()).limit(maxRowNum).forEach(row -> {
-            Map<String, Object> map = getFieldMap(columns, row);
+            Object[] values = new Object[row.getArity()];
+            fillFields(values, 0, row);
             if (RowKind.UPDATE_BEFORE == row.getKind() || RowKind.DELETE == row.getKind()) {
-                rows.remove(map);
+                buffer.retract(values);
             } else {
-                rows.add(map);
+                buffer.add(values);
             }
         });
     }
 
-    private Map<String, Object> getFieldMap(List<String> columns, Row row) {
-        Map<String, Object> map = new LinkedHashMap<>();
+    private void fillFields(Object[] values, int start, Row row) {
         for (int i = 0; i < row.getArity(); ++i) {
             Object field = row.getField(i);
-            String column = columns.get(i);
             if (field == null) {
-                map.put(column, nullColumn);
+                values[start + i] = nullColumn;
             } else if (field instanceof Instant) {
-                map.put(
-                        column,
-                        ((Instant) field)
-                                .atZone(ZoneId.of(timeZone))
-                                .toLocalDateTime()
-                                .toString());
+                values[start + i] =
+                        ((Instant) field).atZone(zoneId).toLocalDateTime().toString();
             } else if (field instanceof Boolean) {
-                map.put(column, field.toString());
+                values[start + i] = field.toString();
             } else {
-                map.put(column, field);
+                values[start + i] = field;
             }
         }
-        return map;
     }
 }
@@ -23,13 +23,34 @@ import org.dinky.assertion.Asserts;
 
 import org.apache.flink.table.api.TableResult;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import cn.hutool.core.thread.ThreadUtil;
+import lombok.extern.slf4j.Slf4j;
+
 /**
  * SelectBuilder
  *
  * @since 2021/5/25 16:03
  */
+@Slf4j
 public class SelectResultBuilder extends AbstractResultBuilder implements ResultBuilder {
 
+    /** Max select previews collecting at the same time, every collector blocks on its job until it ends. */
+    public static final int MAX_COLLECTORS = 64;
+
+    private static final ExecutorService COLLECTOR_POOL = new ThreadPoolExecutor(
+            0,
+            MAX_COLLECTORS,
+            60L,
+            TimeUnit.SECONDS,
+            new SynchronousQueue<>(),
+            ThreadUtil.newNamedThreadFactory("result-collector-", true));
+
     private final Integer maxRowNum;
     private final boolean isChangeLog;
     private final boolean isAutoCancel;
@@ -50,8 +71,13 @@ public class SelectResultBuilder extends AbstractResultBuilder implements Result
             String jobId = tableResult.getJobClient().get().getJobID().toHexString();
             ResultRunnable runnable =
                     new ResultRunnable(tableResult, id, maxRowNum, isChangeLog, isAutoCancel, timeZone);
-            Thread thread = new Thread(runnable, jobId);
-            thread.start();
+            try {
+                COLLECTOR_POOL.execute(runnable);
+            } catch (RejectedExecutionException e) {
+                log.warn("Too many select previews are running, cancel job {}", jobId);
+                tableResult.getJobClient().get().cancel();
+                return SelectResult.buildFailed();
+            }
             return SelectResult.buildSuccess(jobId);
         } else {
             return SelectResult.buildFailed();
@@ -346,6 +346,10 @@ public class JobManager {
         return ResultPool.get(jobId);
     }
 
+    public static SelectResult getJobData(String jobId, int offset, int limit) {
+        return ResultPool.get(jobId, offset, limit);
+    }
+
     public ExplainResult explainSql(String statement) {
         return Explainer.build(executor, useStatementSet, sqlSeparator, this)
                 .initialize(config, statement)
@@ -0,0 +1,142 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.connector.printnet.sink;
+
+import org.dinky.connector.printnet.PrintNetProtocol;
+
+import org.apache.flink.api.common.functions.RuntimeContext;
+import org.apache.flink.api.common.serialization.SerializationSchema;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+class PrintNetSinkFunctionTest {
+
+    private static final SerializationSchema<RowData> SERIALIZER =
+            row -> String.valueOf(row.getInt(0)).getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void testBatchesRows() throws Exception {
+        List<PrintNetProtocol.Batch> batches = send(25, 10, 0, 1.0);
+
+        Assertions.assertThat(batches)
+                .extracting(batch -> batch.getRows().size())
+                .containsExactly(10, 10, 5);
+        Assertions.assertThat(batches).allMatch(batch -> batch.getIdentifier().equals("print_orders"));
+        Assertions.assertThat(new String(batches.get(2).getRows().get(4), StandardCharsets.UTF_8))
+                .isEqualTo("24");
+    }
+
+    @Test
+    void testRateLimitCountsDroppedRows() throws Exception {
+        List<PrintNetProtocol.Batch> batches = send(20, 100, 5, 1.0);
+
+        Assertions.assertThat(batches).hasSize(1);
+        Assertions.assertThat(batches.get(0).getRows()).hasSize(5);
+        Assertions.assertThat(batches.get(0).getDropped()).isEqualTo(15);
+    }
+
+    @Test
+    void testUnreachableAdminDoesNotFailTheTask() throws Exception {
+        int port;
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            port = server.getLocalPort();
+        }
+        PrintNetSinkFunction sink = open(port, 1, 0, 1.0);
+        for (int i = 0; i < 1000; i++) {
+            sink.invoke(GenericRowData.of(i), null);
+        }
+        long start = System.currentTimeMillis();
+        sink.close();
+        Assertions.assertThat(System.currentTimeMillis() - start).isLessThan(5_000L);
+    }
+
+    @Test
+    void testFrameWithTooManyRowsIsRejected() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        PrintNetProtocol.write(out, "print_orders", new ArrayList<>(), 0);
+        byte[] frame = bytes.toByteArray();
+        // overwrite the row count, the last int of an empty frame
+        ByteBuffer.wrap(frame).putInt(frame.length - 4, Integer.MAX_VALUE);
+
+        Assertions.assertThatThrownBy(() -> PrintNetProtocol.read(new DataInputStream(new ByteArrayInputStream(frame))))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("row count");
+    }
+
+    private static List<PrintNetProtocol.Batch> send(int rows, int batchSize, int rateLimit, double sampleRatio)
+            throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            CompletableFuture<List<PrintNetProtocol.Batch>> received = CompletableFuture.supplyAsync(() -> {
+                List<PrintNetProtocol.Batch> batches = new ArrayList<>();
+                try (Socket socket = server.accept();
+                        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+                    while (true) {
+                        batches.add(PrintNetProtocol.read(in));
+                    }
+                } catch (EOFException e) {
+                    return batches;
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            PrintNetSinkFunction sink = open(server.getLocalPort(), batchSize, rateLimit, sampleRatio);
+            for (int i = 0; i < rows; i++) {
+                sink.invoke(GenericRowData.of(i), null);
+            }
+            sink.close();
+            return received.get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static PrintNetSinkFunction open(int port, int batchSize, int rateLimit, double sampleRatio)
+            throws Exception {
+        PrintNetSinkFunction sink = new PrintNetSinkFunction(
+                "127.0.0.1", port, SERIALIZER, null, "print_orders", batchSize, 60_000L, rateLimit, sampleRatio);
+        RuntimeContext context = Mockito.mock(RuntimeContext.class);
+        Mockito.when(context.getNumberOfParallelSubtasks()).thenReturn(1);
+        sink.setRuntimeContext(context);
+        sink.open(new Configuration());
+        return sink;
+    }
+}
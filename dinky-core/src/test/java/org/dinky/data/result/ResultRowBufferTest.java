@@ -0,0 +1,100 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.data.result;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ResultRowBufferTest {
+
+    @AfterEach
+    void tearDown() {
+        ResultPool.clear();
+    }
+
+    @Test
+    void testRetractByIndex() {
+        ResultRowBuffer buffer = ResultPool.register("retract", 100);
+        buffer.setColumns(Arrays.asList("id", "name"));
+        buffer.add(new Object[] {1, "a"});
+        buffer.add(new Object[] {2, "b"});
+        buffer.add(new Object[] {1, "a"});
+
+        Assertions.assertThat(buffer.retract(new Object[] {1, "a"})).isTrue();
+        Assertions.assertThat(buffer.retract(new Object[] {3, "c"})).isFalse();
+        buffer.add(new Object[] {3, "c"});
+
+        SelectResult result = ResultPool.get("retract");
+        Assertions.assertThat(result.getTotal()).isEqualTo(3);
+        Assertions.assertThat(result.getColumns()).containsExactly("id", "name");
+        Assertions.assertThat(result.getRowData())
+                .extracting(row -> row.get("id"))
+                .containsExactly(2, 1, 3);
+    }
+
+    @Test
+    void testPage() {
+        ResultRowBuffer buffer = ResultPool.register("page", 1000);
+        buffer.setColumns(Arrays.asList("id"));
+        for (int i = 0; i < 200; i++) {
+            buffer.add(new Object[] {i});
+        }
+        for (int i = 0; i < 200; i += 2) {
+            buffer.retract(new Object[] {i});
+        }
+
+        List<Map<String, Object>> page = ResultPool.get("page", 10, 3).getRowData();
+        Assertions.assertThat(page).extracting(row -> row.get("id")).containsExactly(21, 23, 25);
+        Assertions.assertThat(ResultPool.get("page", 99, 10).getRowData()).hasSize(1);
+    }
+
+    @Test
+    void testBoundsDropOldestRows() {
+        ResultRowBuffer buffer = ResultPool.register("bounded", 3);
+        buffer.setColumns(Arrays.asList("id"));
+        for (int i = 0; i < 5; i++) {
+            buffer.add(new Object[] {i});
+        }
+
+        Assertions.assertThat(buffer.size()).isEqualTo(3);
+        Assertions.assertThat(buffer.getDropped()).isEqualTo(2);
+        Assertions.assertThat(buffer.page(0, 10))
+                .extracting(row -> row.get("id"))
+                .containsExactly(2, 3, 4);
+        Assertions.assertThat(buffer.retract(new Object[] {0})).isFalse();
+    }
+
+    @Test
+    void testReleaseReturnsBudget() {
+        long before = ResultPool.getTotalBytes();
+        ResultRowBuffer buffer = ResultPool.register("release", 100);
+        buffer.add(new Object[] {1, "some value"});
+        Assertions.assertThat(ResultPool.getTotalBytes()).isGreaterThan(before);
+
+        Assertions.assertThat(ResultPool.remove("release")).isTrue();
+        Assertions.assertThat(ResultPool.getTotalBytes()).isEqualTo(before);
+        Assertions.assertThat(ResultPool.get("release").isDestroyed()).isTrue();
+    }
+}
@@ -24,6 +24,12 @@ public interface FlinkTaskConstant {
     /** 检测停顿时间 */
     int TIME_SLEEP = 1000 * 5;
 
+    /** 作业处于过渡状态时的检测间隔 */
+    int TRANSITION_TIME_SLEEP = 1000;
+
+    /** 作业状态未知或获取失败时，检测间隔按指数退避的上限 */
+    int MAX_ERROR_TIME_SLEEP = 1000 * 60;
+
     /** 启动线程轮询日志时间，用于设置work等信息 */
     int POLLING_GAP = 5000;
     /** 最小 */
@@ -19,7 +19,11 @@
 
 package org.dinky.daemon.entity;
 
-import org.dinky.daemon.task.DaemonTask;
+import org.dinky.daemon.constant.FlinkTaskConstant;
+import org.dinky.daemon.pool.DelayTaskQueue;
+import org.dinky.daemon.pool.DelayedDaemonTask;
+
+import java.util.concurrent.TimeUnit;
 
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
@@ -30,36 +34,46 @@ public class TaskWorker implements Runnable {
 
     private volatile boolean running = true;
 
-    private final TaskQueue<DaemonTask> queue;
+    private final DelayTaskQueue queue;
 
-    public TaskWorker(TaskQueue<DaemonTask> queue) {
+    public TaskWorker(DelayTaskQueue queue) {
         this.queue = queue;
     }
 
     /**
      * Perform tasks.
      * <p>
-     * This method is used to perform tasks. Continuously fetch tasks from the queue
-     * while the task is running (call the queue.dequeue() method). </p>
+     * This method is used to perform tasks. Continuously wait for the next due task from the queue
+     * while the worker is running (call the queue.poll() method), the worker sleeps until a task is due. </p>
      * <p>If the task is fetched, try to process the task (call the daemonTask.dealTask() method).</p>
      * <p>If the processing task does not complete (returns False),
-     * the task is put back into the queue again (call the queue.enqueue(daemonTask) method).
+     * the task is rescheduled after its next delay (call the queue.reschedule(delayedTask) method).
      * </p>
      */
     @Override
     public void run() {
         log.debug("TaskWorker run:" + Thread.currentThread().getName());
         while (running) {
-            DaemonTask daemonTask = queue.getNext();
-            if (daemonTask != null) {
-                try {
-                    boolean done = daemonTask.dealTask();
-                    if (done) {
-                        queue.removeByTask(daemonTask);
-                    }
-                } catch (Exception e) {
-                    log.error(e.getMessage(), e);
-                }
+            DelayedDaemonTask delayedTask;
+            try {
+                delayedTask = queue.poll(FlinkTaskConstant.POLLING_GAP, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                log.debug(Thread.currentThread().getName() + "TaskWorker interrupted");
+                continue;
+            }
+            if (delayedTask == null) {
+                continue;
+            }
+            boolean done = false;
+            try {
+                done = delayedTask.getTask().dealTask();
+            } catch (Exception e) {
+                log.error(e.getMessage(), e);
+            }
+            if (done) {
+                queue.complete(delayedTask);
+            } else {
+                queue.reschedule(delayedTask);
             }
         }
     }
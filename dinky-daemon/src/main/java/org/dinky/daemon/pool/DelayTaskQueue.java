@@ -0,0 +1,121 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.daemon.pool;
+
+import org.dinky.daemon.task.DaemonTask;
+import org.dinky.daemon.task.DaemonTaskConfig;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Deadline driven task queue.
+ * <p>
+ * Tasks are kept in a {@link DelayQueue} ordered by their due time, so workers only wake up when a task is
+ * actually due. Every task is also indexed by its {@link DaemonTaskConfig}, lookup and removal by config are O(1):
+ * a removed task is only marked as cancelled and is dropped when it reaches the head of the delay queue.
+ * </p>
+ */
+@Slf4j
+public class DelayTaskQueue {
+
+    private final DelayQueue<DelayedDaemonTask> delayQueue = new DelayQueue<>();
+
+    private final Map<DaemonTaskConfig, DelayedDaemonTask> tasks = new ConcurrentHashMap<>();
+
+    /**
+     * Add a task which is due immediately, a task with the same config is replaced.
+     */
+    public void addTask(DaemonTask task) {
+        addTask(task, 0);
+    }
+
+    public void addTask(DaemonTask task, long delayMillis) {
+        DelayedDaemonTask delayedTask = new DelayedDaemonTask(task, delayMillis);
+        DelayedDaemonTask previous = tasks.put(task.getConfig(), delayedTask);
+        if (previous != null) {
+            previous.cancel();
+        }
+        delayQueue.offer(delayedTask);
+    }
+
+    /**
+     * Wait for the next due task.
+     *
+     * @return the next due task, or null if no task is due within the timeout
+     */
+    public DelayedDaemonTask poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        long remaining = unit.toNanos(timeout);
+        while (remaining > 0) {
+            DelayedDaemonTask delayedTask = delayQueue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (delayedTask == null) {
+                return null;
+            }
+            if (!delayedTask.isCancelled()) {
+                return delayedTask;
+            }
+            remaining = deadline - System.nanoTime();
+        }
+        return null;
+    }
+
+    /**
+     * Put a dealt task back to the queue, it will be due after {@link DaemonTask#getNextDelay()}.
+     * A task that has been removed or replaced in the meantime is not rescheduled.
+     */
+    public void reschedule(DelayedDaemonTask delayedTask) {
+        if (delayedTask.isCancelled()) {
+            return;
+        }
+        delayedTask.delay(delayedTask.getTask().getNextDelay());
+        delayQueue.offer(delayedTask);
+    }
+
+    /**
+     * Remove a dealt task that has completed.
+     */
+    public void complete(DelayedDaemonTask delayedTask) {
+        delayedTask.cancel();
+        tasks.remove(delayedTask.getTask().getConfig(), delayedTask);
+    }
+
+    public DaemonTask getByTaskConfig(DaemonTaskConfig config) {
+        DelayedDaemonTask delayedTask = tasks.get(config);
+        return delayedTask == null ? null : delayedTask.getTask();
+    }
+
+    public DaemonTask removeByTaskConfig(DaemonTaskConfig config) {
+        DelayedDaemonTask delayedTask = tasks.remove(config);
+        if (delayedTask == null) {
+            return null;
+        }
+        delayedTask.cancel();
+        return delayedTask.getTask();
+    }
+
+    public int getTaskSize() {
+        return tasks.size();
+    }
+}
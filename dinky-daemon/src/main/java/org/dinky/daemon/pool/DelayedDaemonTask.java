@@ -0,0 +1,70 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.daemon.pool;
+
+import org.dinky.daemon.task.DaemonTask;
+
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+import lombok.Getter;
+
+/**
+ * A {@link DaemonTask} scheduled in the {@link DelayTaskQueue}, it is only handed to a worker once it is due.
+ * The due time is only changed while the task is out of the queue, so the heap order of the queue is kept.
+ */
+@Getter
+public class DelayedDaemonTask implements Delayed {
+
+    private final DaemonTask task;
+
+    private volatile long dueTime;
+
+    private volatile boolean cancelled = false;
+
+    public DelayedDaemonTask(DaemonTask task, long delayMillis) {
+        this.task = task;
+        delay(delayMillis);
+    }
+
+    void delay(long delayMillis) {
+        this.dueTime = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(delayMillis, 0));
+    }
+
+    void cancel() {
+        this.cancelled = true;
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+        return unit.convert(dueTime - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed o) {
+        if (o == this) {
+            return 0;
+        }
+        if (o instanceof DelayedDaemonTask) {
+            return Long.compare(dueTime, ((DelayedDaemonTask) o).dueTime);
+        }
+        return Long.compare(getDelay(TimeUnit.NANOSECONDS), o.getDelay(TimeUnit.NANOSECONDS));
+    }
+}
@@ -19,7 +19,6 @@
 
 package org.dinky.daemon.pool;
 
-import org.dinky.daemon.entity.TaskQueue;
 import org.dinky.daemon.entity.TaskWorker;
 import org.dinky.daemon.task.DaemonTask;
 import org.dinky.daemon.task.DaemonTaskConfig;
@@ -30,8 +29,7 @@ import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * @operate
- * @return
+ * Flink job monitoring pool, tasks are scheduled by their due time in a {@link DelayTaskQueue}.
  */
 public class FlinkJobThreadPool implements ThreadPool {
 
@@ -45,7 +43,7 @@ public class FlinkJobThreadPool implements ThreadPool {
 
     private volatile AtomicInteger workerNum = new AtomicInteger(0);
 
-    private final TaskQueue<DaemonTask> queue = new TaskQueue<>();
+    private final DelayTaskQueue queue = new DelayTaskQueue();
 
     private FlinkJobThreadPool() {
         addWorkers(DEFAULT_WORKER_NUM);
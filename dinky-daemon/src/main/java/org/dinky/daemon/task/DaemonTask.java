@@ -20,6 +20,7 @@
 package org.dinky.daemon.task;
 
 import org.dinky.assertion.Asserts;
+import org.dinky.daemon.constant.FlinkTaskConstant;
 import org.dinky.daemon.exception.DaemonTaskException;
 import org.dinky.data.enums.Status;
 
@@ -58,4 +59,13 @@ public interface DaemonTask {
     String getType();
 
     boolean dealTask();
+
+    /**
+     * The delay before the task is dealt again, called after each {@link #dealTask()} that has not completed.
+     *
+     * @return the delay in milliseconds
+     */
+    default long getNextDelay() {
+        return FlinkTaskConstant.TIME_SLEEP;
+    }
 }
@@ -24,6 +24,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -84,6 +85,15 @@ public class CustomStringJavaCompiler {
      * @return true:编译成功 false:编译失败
      */
     public boolean compilerToTmpPath(String tmpPath) {
+        return compilerToTmpPath(tmpPath, null);
+    }
+
+    /**
+     * 使用给定的 classpath 编译, 为空时使用 jvm 的 classpath
+     *
+     * @return true:编译成功 false:编译失败
+     */
+    public boolean compilerToTmpPath(String tmpPath, String classpath) {
         long startTime = System.currentTimeMillis();
         File codeFile =
                 FileUtil.writeUtf8String(sourceCode, tmpPath + StrUtil.replace(fullClassName, ".", "/") + ".java");
@@ -98,9 +108,10 @@ public class CustomStringJavaCompiler {
         Iterable<? extends JavaFileObject> javaFileObject =
                 standardFileManager.getJavaFileObjectsFromFiles(Collections.singletonList(codeFile));
 
+        List<String> options = StrUtil.isBlank(classpath) ? null : Arrays.asList("-classpath", classpath);
         // 获取一个编译任务
         JavaCompiler.CompilationTask task =
-                compiler.getTask(null, standardFileManager, diagnosticsCollector, null, null, javaFileObject);
+                compiler.getTask(null, standardFileManager, diagnosticsCollector, options, null, javaFileObject);
         // 设置编译耗时
         compilerTakeTime = System.currentTimeMillis() - startTime;
         return task.call();
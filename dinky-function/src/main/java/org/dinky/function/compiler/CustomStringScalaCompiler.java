@@ -21,6 +21,7 @@ package org.dinky.function.compiler;
 
 import org.dinky.function.constant.PathConstant;
 
+import cn.hutool.core.util.StrUtil;
 import lombok.extern.slf4j.Slf4j;
 import scala.runtime.AbstractFunction1;
 import scala.runtime.BoxedUnit;
@@ -41,11 +42,23 @@ public class CustomStringScalaCompiler {
     }
 
     public static IMain getInterpreter(Integer missionId) {
+        return getInterpreter(PathConstant.getUdfCompilerJavaPath(missionId));
+    }
+
+    public static IMain getInterpreter(String outputPath) {
+        return getInterpreter(outputPath, null);
+    }
+
+    /** An interpreter compiling against the jvm classpath and {@code classpath}. */
+    public static IMain getInterpreter(String outputPath, String classpath) {
 
         GenericRunnerSettings settings = new GenericRunnerSettings(new ErrorHandler());
 
         settings.usejavacp().tryToSetFromPropertyValue("true");
-        settings.Yreploutdir().tryToSetFromPropertyValue(PathConstant.getUdfCompilerJavaPath(missionId));
+        if (StrUtil.isNotBlank(classpath)) {
+            settings.classpath().tryToSetFromPropertyValue(classpath);
+        }
+        settings.Yreploutdir().tryToSetFromPropertyValue(outputPath);
         return new IMain(settings);
     }
 }
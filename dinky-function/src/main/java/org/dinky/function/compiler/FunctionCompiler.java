@@ -20,10 +20,12 @@
 package org.dinky.function.compiler;
 
 import org.dinky.assertion.Asserts;
+import org.dinky.function.constant.PathConstant;
 import org.dinky.function.data.model.UDF;
 import org.dinky.function.exception.UDFCompilerException;
 
 import org.apache.flink.configuration.ReadableConfig;
+import org.apache.flink.table.catalog.FunctionLanguage;
 
 import java.util.List;
 
@@ -80,7 +82,20 @@ public interface FunctionCompiler {
      * @param missionId 任务id
      */
     static void getCompiler(List<UDF> udfList, ReadableConfig conf, Integer missionId) {
+        // java 与 scala 通过编译缓存编译, 只有源码变化的 udf 会并行重新编译
+        UdfCompileCache.CompileResult result = UdfCompileCache.getInstance().compileAll(udfList);
+        if (!result.getFailed().isEmpty()) {
+            UDF udf = result.getFailed().get(0);
+            throw new UDFCompilerException(StrUtil.format(
+                    "codeLanguage:{} , className:{} 编译失败", udf.getFunctionLanguage(), udf.getClassName()));
+        }
+        String compilerPath = PathConstant.getUdfCompilerJavaPath(missionId);
+        result.getCompiled().values().forEach(compiled -> compiled.writeTo(compilerPath));
         for (UDF udf : udfList) {
+            if (udf.getFunctionLanguage() == FunctionLanguage.JAVA
+                    || udf.getFunctionLanguage() == FunctionLanguage.SCALA) {
+                continue;
+            }
             if (!getCompiler(udf, conf, missionId)) {
                 throw new UDFCompilerException(StrUtil.format(
                         "codeLanguage:{} , className:{} 编译失败", udf.getFunctionLanguage(), udf.getClassName()));
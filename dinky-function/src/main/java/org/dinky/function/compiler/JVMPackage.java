@@ -21,15 +21,10 @@ package org.dinky.function.compiler;
 
 import org.dinky.function.constant.PathConstant;
 import org.dinky.function.data.model.UDF;
-import org.dinky.function.util.ZipWriter;
+import org.dinky.function.exception.UDFCompilerException;
 
-import org.apache.flink.table.catalog.FunctionLanguage;
-
-import java.io.File;
-import java.io.InputStream;
-import java.nio.charset.Charset;
+import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.io.FileUtil;
@@ -40,36 +35,22 @@ public class JVMPackage implements FunctionPackage {
 
     @Override
     public String[] pack(List<UDF> udfList, Integer missionId) {
-        if (CollUtil.isEmpty(udfList)) {
-            return new String[0];
+        // 未缓存的 udf 并行编译
+        UdfCompileCache.CompileResult result = UdfCompileCache.getInstance().compileAll(udfList);
+        if (!result.getFailed().isEmpty()) {
+            UDF udf = result.getFailed().get(0);
+            throw new UDFCompilerException(StrUtil.format(
+                    "codeLanguage:{} , className:{} 编译失败", udf.getFunctionLanguage(), udf.getClassName()));
         }
-        List<String> classNameList = udfList.stream()
-                .filter(udf -> udf.getFunctionLanguage() == FunctionLanguage.JAVA
-                        || udf.getFunctionLanguage() == FunctionLanguage.SCALA)
-                .map(UDF::getClassName)
-                .collect(Collectors.toList());
-        String[] clazzs = new String[classNameList.size()];
-        InputStream[] fileInputStreams = new InputStream[classNameList.size()];
-        if (CollUtil.isEmpty(classNameList)) {
+        Collection<UdfCompileCache.CompiledUdf> compiledList =
+                result.getCompiled().values();
+        if (CollUtil.isEmpty(compiledList)) {
             return new String[0];
         }
 
-        for (int i = 0; i < classNameList.size(); i++) {
-            String className = classNameList.get(i);
-            String classFile = StrUtil.replace(className, ".", "/") + ".class";
-            String absoluteFilePath = PathConstant.getUdfCompilerJavaPath(missionId, classFile);
-
-            clazzs[i] = classFile;
-            fileInputStreams[i] = FileUtil.getInputStream(absoluteFilePath);
-        }
-
         String jarPath = PathConstant.getUdfPackagePath(missionId) + PathConstant.UDF_JAR_NAME;
-        // 编译好的文件打包jar
-        File file = FileUtil.file(jarPath);
-        FileUtil.del(file);
-        try (ZipWriter zipWriter = new ZipWriter(file, Charset.defaultCharset())) {
-            zipWriter.add(clazzs, fileInputStreams);
-        }
+        // 由缓存的 class 文件打包jar
+        UdfCompileCache.writeJar(compiledList, FileUtil.file(jarPath));
         return new String[] {jarPath};
     }
 }
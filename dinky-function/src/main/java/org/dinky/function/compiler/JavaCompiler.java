@@ -46,17 +46,13 @@ public class JavaCompiler implements FunctionCompiler {
     public boolean compiler(UDF udf, ReadableConfig conf, Integer missionId) {
         // TODO 改为ProcessStep注释
         log.info("正在编译 java 代码 , class: " + udf.getClassName());
-        CustomStringJavaCompiler compiler = new CustomStringJavaCompiler(udf.getCode());
-        boolean res = compiler.compilerToTmpPath(PathConstant.getUdfCompilerJavaPath(missionId));
-        String className = compiler.getFullClassName();
-        if (res) {
-            log.info("class编译成功:" + className);
-            log.info("compilerTakeTime：" + compiler.getCompilerTakeTime());
+        UdfCompileCache.CompiledUdf compiled = UdfCompileCache.getInstance().compile(udf);
+        if (compiled != null) {
+            compiled.writeTo(PathConstant.getUdfCompilerJavaPath(missionId));
+            log.info("class编译成功:" + udf.getClassName());
             return true;
         } else {
-            log.error("class编译失败:{}", className);
-            log.error("class编译失败:" + className);
-            log.error(compiler.getCompilerMessage());
+            log.error("class编译失败:" + udf.getClassName());
             return false;
         }
     }
@@ -19,6 +19,7 @@
 
 package org.dinky.function.compiler;
 
+import org.dinky.function.constant.PathConstant;
 import org.dinky.function.data.model.UDF;
 
 import org.apache.flink.configuration.ReadableConfig;
@@ -39,7 +40,9 @@ public class ScalaCompiler implements FunctionCompiler {
 
         String className = udf.getClassName();
         log.info("正在编译 scala 代码 , class: " + className);
-        if (CustomStringScalaCompiler.getInterpreter(missionId).compileString(udf.getCode())) {
+        UdfCompileCache.CompiledUdf compiled = UdfCompileCache.getInstance().compile(udf);
+        if (compiled != null) {
+            compiled.writeTo(PathConstant.getUdfCompilerJavaPath(missionId));
             log.info("scala class编译成功:" + className);
             return true;
         } else {
@@ -0,0 +1,363 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.function.compiler;
+
+import org.dinky.function.constant.PathConstant;
+import org.dinky.function.data.model.UDF;
+import org.dinky.function.exception.UDFCompilerException;
+import org.dinky.function.util.ZipWriter;
+
+import org.apache.flink.table.catalog.FunctionLanguage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.thread.ThreadUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.core.util.URLUtil;
+import cn.hutool.crypto.digest.MD5;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Content addressed cache of compiled jvm udf classes.
+ *
+ * <p>The key of an udf is the md5 of its language, its source and the compile classpath, so an unchanged udf reuses
+ * the bytecode of an earlier submit and only changed udfs are compiled. The compile classpath is the jvm classpath
+ * plus the jars of the context class loader, such as user jars added to a task, and it is passed to the compiler as
+ * well. Java udfs are compiled in parallel, scala udfs one at a time as the scala interpreter is not safe to run
+ * concurrently. Entries are kept in memory and in {@code tmp/udf/cache/<key>}, so the cache survives restarts, the
+ * least recently used entries beyond {@link #MAX_ENTRIES} are deleted.
+ */
+@Slf4j
+public class UdfCompileCache {
+
+    /** Compiled udfs kept in the cache directory. */
+    public static final int MAX_ENTRIES = 1024;
+
+    private static final UdfCompileCache INSTANCE = new UdfCompileCache(PathConstant.UDF_CACHE_PATH, MAX_ENTRIES);
+    private static final ExecutorService COMPILE_POOL = Executors.newFixedThreadPool(
+            Math.min(4, Runtime.getRuntime().availableProcessors()),
+            ThreadUtil.newNamedThreadFactory("udf-compile-", true));
+    private static final Object SCALA_LOCK = new Object();
+    /** Fixed entry time, the jar md5 only depends on the class files. */
+    private static final long ENTRY_TIME = 315532800000L;
+    /** Directories of compilations in progress, see {@link #doCompile}. */
+    private static final String TMP_DIR_SEPARATOR = "-";
+
+    private final String cachePath;
+    private final int maxEntries;
+    private final Map<String, CompiledUdf> cache = new ConcurrentHashMap<>();
+    private final Map<String, Object> compileLocks = new ConcurrentHashMap<>();
+
+    UdfCompileCache(String cachePath, int maxEntries) {
+        this.cachePath = cachePath;
+        this.maxEntries = maxEntries;
+    }
+
+    public static UdfCompileCache getInstance() {
+        return INSTANCE;
+    }
+
+    /** The cache key of the udf on the classpath of the current thread. */
+    public String key(UDF udf) {
+        return key(udf, Classpath.current());
+    }
+
+    private static String key(UDF udf, Classpath classpath) {
+        return MD5.create()
+                .digestHex(udf.getFunctionLanguage().name() + "\n" + classpath.getHash() + "\n" + udf.getCode());
+    }
+
+    /**
+     * Returns the compiled classes of the udf, compiling it only if its source or the classpath changed.
+     *
+     * @return the compiled udf, or null if the compilation failed
+     */
+    public CompiledUdf compile(UDF udf) {
+        return compile(udf, Classpath.current());
+    }
+
+    private CompiledUdf compile(UDF udf, Classpath classpath) {
+        String key = key(udf, classpath);
+        CompiledUdf compiled = load(key);
+        if (compiled != null) {
+            return compiled;
+        }
+        synchronized (compileLocks.computeIfAbsent(key, k -> new Object())) {
+            try {
+                compiled = load(key);
+                if (compiled == null) {
+                    compiled = doCompile(udf, key, classpath);
+                }
+                return compiled;
+            } finally {
+                compileLocks.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Compiles the java and scala udfs that are not cached yet in parallel, on the classpath of the calling thread.
+     * Other languages are skipped.
+     *
+     * @return the compiled udfs and the ones that failed to compile
+     */
+    public CompileResult compileAll(List<UDF> udfList) {
+        Classpath classpath = Classpath.current();
+        CompileResult result = new CompileResult();
+        Map<UDF, Future<CompiledUdf>> futures = new LinkedHashMap<>();
+        for (UDF udf : udfList) {
+            if (udf.getFunctionLanguage() != FunctionLanguage.JAVA
+                    && udf.getFunctionLanguage() != FunctionLanguage.SCALA) {
+                continue;
+            }
+            CompiledUdf cached = load(key(udf, classpath));
+            futures.put(
+                    udf,
+                    cached != null
+                            ? CompletableFuture.completedFuture(cached)
+                            : COMPILE_POOL.submit(() -> compile(udf, classpath)));
+        }
+        for (Map.Entry<UDF, Future<CompiledUdf>> entry : futures.entrySet()) {
+            UDF udf = entry.getKey();
+            CompiledUdf compiled;
+            try {
+                compiled = entry.getValue().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UDFCompilerException(e.getMessage());
+            } catch (Exception e) {
+                log.error("udf compile failed: {}", udf.getClassName(), e);
+                compiled = null;
+            }
+            if (compiled == null) {
+                result.failed.add(udf);
+            } else {
+                result.compiled.put(udf, compiled);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes the classes of the compiled udfs to a jar. Entries are sorted and carry a fixed time, so the same
+     * classes always give the same jar md5, and an identical jar on disk is left untouched.
+     *
+     * @return the md5 of the jar
+     */
+    public static String writeJar(Collection<CompiledUdf> compiledList, File jarFile) {
+        Map<String, byte[]> entries = new TreeMap<>();
+        compiledList.forEach(compiled -> entries.putAll(compiled.getClasses()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipWriter zipWriter = new ZipWriter(out, Charset.defaultCharset())) {
+            entries.forEach((path, bytes) -> zipWriter.add(path, new ByteArrayInputStream(bytes), ENTRY_TIME));
+        }
+        byte[] jar = out.toByteArray();
+        String md5 = MD5.create().digestHex(jar);
+        if (!jarFile.exists() || !md5.equals(MD5.create().digestHex(jarFile))) {
+            FileUtil.writeBytes(jar, jarFile);
+        }
+        return md5;
+    }
+
+    private CompiledUdf load(String key) {
+        File dir = new File(cachePath, key);
+        CompiledUdf compiled = cache.get(key);
+        if (compiled == null) {
+            if (!dir.isDirectory()) {
+                return null;
+            }
+            compiled = CompiledUdf.read(dir);
+            if (compiled == null) {
+                return null;
+            }
+            cache.put(key, compiled);
+        }
+        // the modification time orders the entries for eviction
+        if (!dir.setLastModified(System.currentTimeMillis())) {
+            log.debug("udf cache entry {} is no longer on disk", key);
+        }
+        return compiled;
+    }
+
+    private CompiledUdf doCompile(UDF udf, String key, Classpath classpath) {
+        File tmpDir = new File(cachePath, key + TMP_DIR_SEPARATOR + IdUtil.fastSimpleUUID());
+        String tmpPath = tmpDir.getAbsolutePath() + File.separator;
+        long start = System.currentTimeMillis();
+        boolean success;
+        if (udf.getFunctionLanguage() == FunctionLanguage.SCALA) {
+            synchronized (SCALA_LOCK) {
+                success = CustomStringScalaCompiler.getInterpreter(tmpPath, classpath.getEntries())
+                        .compileString(udf.getCode());
+            }
+        } else {
+            CustomStringJavaCompiler compiler = new CustomStringJavaCompiler(udf.getCode());
+            success = compiler.compilerToTmpPath(tmpPath, classpath.getEntries());
+            if (!success) {
+                log.error(compiler.getCompilerMessage());
+            }
+        }
+        if (!success) {
+            FileUtil.del(tmpDir);
+            return null;
+        }
+
+        File dir = new File(cachePath, key);
+        if (!tmpDir.renameTo(dir)) {
+            FileUtil.del(tmpDir);
+        }
+        CompiledUdf compiled = CompiledUdf.read(dir);
+        if (compiled != null) {
+            cache.put(key, compiled);
+            log.info(
+                    "udf {} compiled in {} ms, {} class files",
+                    udf.getClassName(),
+                    System.currentTimeMillis() - start,
+                    compiled.getClasses().size());
+            evict();
+        }
+        return compiled;
+    }
+
+    /** Deletes the least recently used entries beyond {@link #maxEntries}. */
+    private void evict() {
+        File[] dirs = new File(cachePath)
+                .listFiles(file -> file.isDirectory() && !file.getName().contains(TMP_DIR_SEPARATOR));
+        if (dirs == null || dirs.length <= maxEntries) {
+            return;
+        }
+        Arrays.sort(dirs, Comparator.comparingLong(File::lastModified));
+        for (int i = 0; i < dirs.length - maxEntries; i++) {
+            cache.remove(dirs[i].getName());
+            FileUtil.del(dirs[i]);
+        }
+        log.info("evicted {} udf cache entries", dirs.length - maxEntries);
+    }
+
+    /** The udfs compiled by {@link #compileAll}. */
+    @Getter
+    public static class CompileResult {
+
+        /** Compiled udfs in the order they were given. */
+        private final Map<UDF, CompiledUdf> compiled = new LinkedHashMap<>();
+
+        private final List<UDF> failed = new ArrayList<>();
+    }
+
+    /** The jvm classpath followed by the jars of the context class loader chain. */
+    @Getter
+    static class Classpath {
+
+        private final String entries;
+        private final String hash;
+
+        private Classpath(String entries, String hash) {
+            this.entries = entries;
+            this.hash = hash;
+        }
+
+        static Classpath current() {
+            Set<String> entries = new LinkedHashSet<>(
+                    StrUtil.split(System.getProperty("java.class.path", ""), File.pathSeparatorChar));
+            Deque<ClassLoader> loaders = new ArrayDeque<>();
+            for (ClassLoader loader = Thread.currentThread().getContextClassLoader();
+                    loader != null;
+                    loader = loader.getParent()) {
+                loaders.push(loader);
+            }
+            // parents first, in the order classes are resolved
+            for (ClassLoader loader : loaders) {
+                if (!(loader instanceof URLClassLoader)) {
+                    continue;
+                }
+                for (URL url : ((URLClassLoader) loader).getURLs()) {
+                    if ("file".equals(url.getProtocol())) {
+                        entries.add(FileUtil.file(URLUtil.toURI(url)).getAbsolutePath());
+                    }
+                }
+            }
+            entries.remove("");
+
+            StringBuilder sb = new StringBuilder(System.getProperty("java.version", ""));
+            for (String entry : entries) {
+                File file = new File(entry);
+                sb.append('\n')
+                        .append(entry)
+                        .append(':')
+                        .append(file.length())
+                        .append(':')
+                        .append(file.lastModified());
+            }
+            return new Classpath(
+                    String.join(File.pathSeparator, entries), MD5.create().digestHex(sb.toString()));
+        }
+    }
+
+    /** The class files of one compiled udf, by jar entry path. */
+    @Getter
+    public static class CompiledUdf {
+
+        private final Map<String, byte[]> classes;
+
+        CompiledUdf(Map<String, byte[]> classes) {
+            this.classes = Collections.unmodifiableMap(classes);
+        }
+
+        static CompiledUdf read(File dir) {
+            Map<String, byte[]> classes = new TreeMap<>();
+            String root = dir.getAbsolutePath() + File.separator;
+            for (File file : FileUtil.loopFiles(dir, file -> file.getName().endsWith(".class"))) {
+                String path = StrUtil.removePrefix(file.getAbsolutePath(), root);
+                classes.put(StrUtil.replace(path, File.separator, "/"), FileUtil.readBytes(file));
+            }
+            return classes.isEmpty() ? null : new CompiledUdf(classes);
+        }
+
+        /** Writes the class files below {@code path}, e.g. the compiler output path of a mission. */
+        public void writeTo(String path) {
+            classes.forEach((entry, bytes) -> FileUtil.writeBytes(bytes, FileUtil.file(path, entry)));
+        }
+    }
+}
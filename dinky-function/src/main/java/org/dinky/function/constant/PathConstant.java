@@ -38,6 +38,9 @@ public class PathConstant {
     /** udf路径 */
     public static final String UDF_PATH = TMP_PATH + "udf" + File.separator;
 
+    /** 编译缓存路径, 按 udf 源码与 classpath 的 md5 存放 class 文件 */
+    public static final String UDF_CACHE_PATH = UDF_PATH + "cache" + File.separator;
+
     public static final String COMPILER = "compiler";
     public static final String PACKAGE = "package";
     /** udf jar规则 */
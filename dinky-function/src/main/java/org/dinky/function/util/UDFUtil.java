@@ -29,7 +29,7 @@ import org.dinky.data.model.FlinkUdfManifest;
 import org.dinky.data.model.SystemConfiguration;
 import org.dinky.function.FunctionFactory;
 import org.dinky.function.compiler.CustomStringJavaCompiler;
-import org.dinky.function.compiler.CustomStringScalaCompiler;
+import org.dinky.function.compiler.UdfCompileCache;
 import org.dinky.function.constant.PathConstant;
 import org.dinky.function.data.model.UDF;
 import org.dinky.function.pool.UdfCodePool;
@@ -47,9 +47,7 @@ import org.apache.flink.table.functions.UserDefinedFunction;
 import org.apache.flink.table.functions.UserDefinedFunctionHelper;
 
 import java.io.File;
-import java.io.InputStream;
 import java.net.URL;
-import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -192,51 +190,32 @@ public class UDFUtil {
     public static Map<String, List<String>> buildJar(List<UDF> codeList) {
         List<String> successList = new ArrayList<>();
         List<String> failedList = new ArrayList<>();
-        String tmpPath = PathConstant.UDF_PATH;
-        String udfJarPath = PathConstant.UDF_JAR_TMP_PATH;
-        // 删除jar缓存
-        FileUtil.del(udfJarPath);
+        List<UdfCompileCache.CompiledUdf> compiledList = new ArrayList<>();
+        UdfCompileCache compileCache = UdfCompileCache.getInstance();
+        // 只编译源码变化的 udf, 其余复用缓存的 class 文件
+        UdfCompileCache.CompileResult result = compileCache.compileAll(codeList);
         codeList.forEach(udf -> {
-            if (udf.getFunctionLanguage() == FunctionLanguage.JAVA) {
-                CustomStringJavaCompiler compiler = new CustomStringJavaCompiler(udf.getCode());
-                boolean res = compiler.compilerToTmpPath(tmpPath);
-                String className = compiler.getFullClassName();
-                if (res) {
-                    log.info("class compile successful:{}", className);
-                    log.info("compilerTakeTime：" + compiler.getCompilerTakeTime());
-                    ClassPool.push(ClassEntity.build(className, udf.getCode()));
-                    successList.add(className);
-                } else {
-                    log.warn("class compile failed:{}", className);
-                    log.warn(compiler.getCompilerMessage());
-                    failedList.add(className);
-                }
-            } else if (udf.getFunctionLanguage() == FunctionLanguage.SCALA) {
-                String className = udf.getClassName();
-                if (CustomStringScalaCompiler.getInterpreter(null).compileString(udf.getCode())) {
-                    log.info("scala class compile successful:{}", className);
-                    ClassPool.push(ClassEntity.build(className, udf.getCode()));
-                    successList.add(className);
-                } else {
-                    log.warn("scala class compile failed:{}", className);
-                    failedList.add(className);
-                }
+            if (udf.getFunctionLanguage() != FunctionLanguage.JAVA
+                    && udf.getFunctionLanguage() != FunctionLanguage.SCALA) {
+                return;
             }
+            String className = udf.getFunctionLanguage() == FunctionLanguage.JAVA
+                    ? CustomStringJavaCompiler.getFullClassName(udf.getCode())
+                    : udf.getClassName();
+            UdfCompileCache.CompiledUdf compiled = result.getCompiled().get(udf);
+            if (compiled == null) {
+                log.warn("class compile failed:{}", className);
+                failedList.add(className);
+                return;
+            }
+            log.info("class compile successful:{}", className);
+            ClassPool.push(ClassEntity.build(className, udf.getCode()));
+            successList.add(className);
+            compiledList.add(compiled);
         });
 
-        String[] clazzs = successList.stream()
-                .map(className -> StrUtil.replace(className, ".", "/") + ".class")
-                .toArray(String[]::new);
-        InputStream[] fileInputStreams = successList.stream()
-                .map(className -> tmpPath + StrUtil.replace(className, ".", "/") + ".class")
-                .map(FileUtil::getInputStream)
-                .toArray(InputStream[]::new);
-
         // 编译好的文件打包jar
-        try (ZipWriter zipWriter = new ZipWriter(FileUtil.file(udfJarPath), Charset.defaultCharset())) {
-            zipWriter.add(clazzs, fileInputStreams);
-        }
-        String md5 = md5sum(udfJarPath);
+        String md5 = UdfCompileCache.writeJar(compiledList, FileUtil.file(PathConstant.UDF_JAR_TMP_PATH));
         return MapUtil.builder("success", successList)
                 .put("failed", failedList)
                 .put("md5", Collections.singletonList(md5))
@@ -0,0 +1,135 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.function.compiler;
+
+import org.dinky.function.data.model.UDF;
+
+import org.apache.flink.table.catalog.FunctionLanguage;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class UdfCompileCacheTest {
+
+    private static final String SOURCE = "package org.dinky.test;\n"
+            + "public class UpperUdf {\n"
+            + "    public String eval(String s) { return new Helper().upper(s); }\n"
+            + "    static class Helper { String upper(String s) { return s.toUpperCase(); } }\n"
+            + "}\n";
+
+    @TempDir
+    Path tempDir;
+
+    private static UDF udf(String code) {
+        return UDF.builder()
+                .name("upper")
+                .className("org.dinky.test.UpperUdf")
+                .functionLanguage(FunctionLanguage.JAVA)
+                .code(code)
+                .build();
+    }
+
+    @Test
+    void testCompileIsCachedBySource() {
+        UdfCompileCache cache = new UdfCompileCache(tempDir.toString(), UdfCompileCache.MAX_ENTRIES);
+        UdfCompileCache.CompiledUdf compiled = cache.compile(udf(SOURCE));
+
+        Assertions.assertThat(compiled.getClasses())
+                .containsOnlyKeys("org/dinky/test/UpperUdf.class", "org/dinky/test/UpperUdf$Helper.class");
+        Assertions.assertThat(cache.compile(udf(SOURCE))).isSameAs(compiled);
+        Assertions.assertThat(cache.key(udf(SOURCE + "// changed"))).isNotEqualTo(cache.key(udf(SOURCE)));
+
+        // a new instance picks the classes up from disk
+        UdfCompileCache restarted = new UdfCompileCache(tempDir.toString(), UdfCompileCache.MAX_ENTRIES);
+        Assertions.assertThat(restarted.compile(udf(SOURCE)).getClasses())
+                .containsOnlyKeys(compiled.getClasses().keySet());
+    }
+
+    @Test
+    void testCompileAllReportsFailures() {
+        UdfCompileCache cache = new UdfCompileCache(tempDir.toString(), UdfCompileCache.MAX_ENTRIES);
+        UDF broken = udf("package org.dinky.test;\npublic class Broken { int x = ; }\n");
+
+        UdfCompileCache.CompileResult result = cache.compileAll(Arrays.asList(udf(SOURCE), broken));
+        Assertions.assertThat(result.getFailed()).containsExactly(broken);
+        Assertions.assertThat(result.getCompiled().values()).containsExactly(cache.compile(udf(SOURCE)));
+        Assertions.assertThat(cache.compile(broken)).isNull();
+    }
+
+    @Test
+    void testKeyCoversContextClassLoaderJars() throws Exception {
+        UdfCompileCache cache = new UdfCompileCache(tempDir.toString(), UdfCompileCache.MAX_ENTRIES);
+        String key = cache.key(udf(SOURCE));
+        File jar = tempDir.resolve("user.jar").toFile();
+        UdfCompileCache.writeJar(Collections.singletonList(cache.compile(udf(SOURCE))), jar);
+
+        Thread thread = Thread.currentThread();
+        ClassLoader original = thread.getContextClassLoader();
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {jar.toURI().toURL()}, original)) {
+            thread.setContextClassLoader(loader);
+            Assertions.assertThat(cache.key(udf(SOURCE))).isNotEqualTo(key);
+        } finally {
+            thread.setContextClassLoader(original);
+        }
+        Assertions.assertThat(cache.key(udf(SOURCE))).isEqualTo(key);
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntriesAreEvicted() throws Exception {
+        UdfCompileCache cache = new UdfCompileCache(tempDir.toString(), 2);
+        UDF first = udf(SOURCE + "// 1");
+        cache.compile(first);
+        cache.compile(udf(SOURCE + "// 2"));
+        Thread.sleep(1100);
+        // a hit marks the entry as used
+        cache.compile(first);
+        Thread.sleep(1100);
+        cache.compile(udf(SOURCE + "// 3"));
+
+        Assertions.assertThat(tempDir.resolve(cache.key(first))).isDirectory();
+        Assertions.assertThat(tempDir.resolve(cache.key(udf(SOURCE + "// 2")))).doesNotExist();
+        Assertions.assertThat(tempDir.resolve(cache.key(udf(SOURCE + "// 3")))).isDirectory();
+    }
+
+    @Test
+    void testWriteJarIsDeterministic() throws Exception {
+        UdfCompileCache cache = new UdfCompileCache(tempDir.toString(), UdfCompileCache.MAX_ENTRIES);
+        UdfCompileCache.CompiledUdf compiled = cache.compile(udf(SOURCE));
+        File first = tempDir.resolve("first.jar").toFile();
+        File second = tempDir.resolve("second.jar").toFile();
+
+        String md5 = UdfCompileCache.writeJar(Collections.singletonList(compiled), first);
+        Thread.sleep(1100);
+        Assertions.assertThat(UdfCompileCache.writeJar(Collections.singletonList(compiled), second))
+                .isEqualTo(md5);
+        long lastModified = first.lastModified();
+        Thread.sleep(1100);
+        UdfCompileCache.writeJar(Collections.singletonList(compiled), first);
+        Assertions.assertThat(first.lastModified()).isEqualTo(lastModified);
+    }
+}
@@ -61,54 +61,61 @@ public class YarnApplicationGateway extends YarnGateway {
         if (Asserts.isNull(yarnClient)) {
             init();
         }
+        try {
+            AppConfig appConfig = config.getAppConfig();
+            configuration.set(PipelineOptions.JARS, Collections.singletonList(appConfig.getUserJarPath()));
+            configuration.setString(
+                    "python.files",
+                    udfPathContextHolder.getPyUdfFile().stream()
+                            .map(File::getName)
+                            .collect(Collectors.joining(",")));
 
-        AppConfig appConfig = config.getAppConfig();
-        configuration.set(PipelineOptions.JARS, Collections.singletonList(appConfig.getUserJarPath()));
-        configuration.setString(
-                "python.files",
-                udfPathContextHolder.getPyUdfFile().stream().map(File::getName).collect(Collectors.joining(",")));
+            String[] userJarParas =
+                    Asserts.isNotNull(appConfig.getUserJarParas()) ? appConfig.getUserJarParas() : new String[0];
 
-        String[] userJarParas =
-                Asserts.isNotNull(appConfig.getUserJarParas()) ? appConfig.getUserJarParas() : new String[0];
+            ClusterSpecification.ClusterSpecificationBuilder clusterSpecificationBuilder =
+                    createClusterSpecificationBuilder();
+            ApplicationConfiguration applicationConfiguration =
+                    new ApplicationConfiguration(userJarParas, appConfig.getUserJarMainAppClass());
 
-        ClusterSpecification.ClusterSpecificationBuilder clusterSpecificationBuilder =
-                createClusterSpecificationBuilder();
-        ApplicationConfiguration applicationConfiguration =
-                new ApplicationConfiguration(userJarParas, appConfig.getUserJarMainAppClass());
+            YarnResult result = YarnResult.build(getType());
+            try (YarnClusterDescriptor yarnClusterDescriptor =
+                    createYarnClusterDescriptorWithJar(udfPathContextHolder)) {
+                ClusterClientProvider<ApplicationId> clusterClientProvider =
+                        yarnClusterDescriptor.deployApplicationCluster(
+                                clusterSpecificationBuilder.createClusterSpecification(), applicationConfiguration);
+                ClusterClient<ApplicationId> clusterClient = clusterClientProvider.getClusterClient();
+                Collection<JobStatusMessage> jobStatusMessages =
+                        clusterClient.listJobs().get();
 
-        YarnResult result = YarnResult.build(getType());
-        try (YarnClusterDescriptor yarnClusterDescriptor = createYarnClusterDescriptorWithJar(udfPathContextHolder)) {
-            ClusterClientProvider<ApplicationId> clusterClientProvider = yarnClusterDescriptor.deployApplicationCluster(
-                    clusterSpecificationBuilder.createClusterSpecification(), applicationConfiguration);
-            ClusterClient<ApplicationId> clusterClient = clusterClientProvider.getClusterClient();
-            Collection<JobStatusMessage> jobStatusMessages =
-                    clusterClient.listJobs().get();
+                int counts = SystemConfiguration.getInstances().getJobIdWait();
+                while (jobStatusMessages.size() == 0 && counts > 0) {
+                    Thread.sleep(1000);
+                    counts--;
+                    jobStatusMessages = clusterClient.listJobs().get();
+                    if (jobStatusMessages.size() > 0) {
+                        break;
+                    }
+                }
 
-            int counts = SystemConfiguration.getInstances().getJobIdWait();
-            while (jobStatusMessages.size() == 0 && counts > 0) {
-                Thread.sleep(1000);
-                counts--;
-                jobStatusMessages = clusterClient.listJobs().get();
                 if (jobStatusMessages.size() > 0) {
-                    break;
+                    List<String> jobIds = new ArrayList<>();
+                    for (JobStatusMessage jobStatusMessage : jobStatusMessages) {
+                        jobIds.add(jobStatusMessage.getJobId().toHexString());
+                    }
+                    result.setJids(jobIds);
                 }
-            }
 
-            if (jobStatusMessages.size() > 0) {
-                List<String> jobIds = new ArrayList<>();
-                for (JobStatusMessage jobStatusMessage : jobStatusMessages) {
-                    jobIds.add(jobStatusMessage.getJobId().toHexString());
-                }
-                result.setJids(jobIds);
+                ApplicationId applicationId = clusterClient.getClusterId();
+                result.setId(applicationId.toString());
+                result.setWebURL(clusterClient.getWebInterfaceURL());
+                result.success();
+            } catch (Exception e) {
+                result.fail(LogUtil.getError(e));
             }
-
-            ApplicationId applicationId = clusterClient.getClusterId();
-            result.setId(applicationId.toString());
-            result.setWebURL(clusterClient.getWebInterfaceURL());
-            result.success();
-        } catch (Exception e) {
-            result.fail(LogUtil.getError(e));
+            return result;
+        } finally {
+            releaseYarnClient();
         }
-        return result;
     }
 }
@@ -0,0 +1,238 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.gateway.yarn;
+
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.configuration.SecurityOptions;
+import org.apache.flink.runtime.security.SecurityConfiguration;
+import org.apache.flink.runtime.security.SecurityUtils;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.hadoop.yarn.api.records.ApplicationId;
+import org.apache.hadoop.yarn.api.records.ApplicationReport;
+import org.apache.hadoop.yarn.client.api.YarnClient;
+import org.apache.hadoop.yarn.conf.YarnConfiguration;
+import org.apache.hadoop.yarn.exceptions.YarnException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import cn.hutool.cache.impl.TimedCache;
+import cn.hutool.core.util.StrUtil;
+
+/**
+ * Pool of started {@link YarnClient}s keyed by the hadoop config path of the cluster and the kerberos principal and
+ * keytab they authenticate with.
+ * <p>
+ * Building a yarn client parses the hadoop xml files and starts a new RM connection, so the clients are shared by
+ * all the gateways of the same cluster and identity. Every {@link #borrow} installs the kerberos credentials of the
+ * caller and must be paired with {@link PooledYarnClient#release()}. A client that is idle for {@link #IDLE_TIMEOUT}
+ * is evicted, and stopped once the last borrower released it. All the clients are stopped on shutdown.
+ * </p>
+ */
+public class YarnClientPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(YarnClientPool.class);
+
+    private static final long IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(30);
+
+    /** Max age of the application reports shared by the status polls of one cluster. */
+    private static final long REPORTS_TIMEOUT = TimeUnit.SECONDS.toMillis(1);
+
+    private static final Set<String> APPLICATION_TYPES = new HashSet<>(Arrays.asList("Apache Flink", "Dinky Flink"));
+
+    private static final TimedCache<String, PooledYarnClient> CLIENTS = new TimedCache<>(IDLE_TIMEOUT);
+
+    static {
+        CLIENTS.setListener((key, client) -> client.retire());
+        CLIENTS.schedulePrune(TimeUnit.MINUTES.toMillis(1));
+        Runtime.getRuntime().addShutdownHook(new Thread(YarnClientPool::close));
+    }
+
+    private YarnClientPool() {}
+
+    /**
+     * Installs the kerberos credentials of {@code configuration} and borrows the client of the cluster for them.
+     */
+    public static PooledYarnClient borrow(String hadoopConfigPath, Configuration configuration) {
+        installSecurity(configuration);
+        String key = StrUtil.join(
+                "|",
+                hadoopConfigPath,
+                configuration.getString(SecurityOptions.KERBEROS_LOGIN_PRINCIPAL),
+                configuration.getString(SecurityOptions.KERBEROS_LOGIN_KEYTAB));
+        while (true) {
+            PooledYarnClient client = CLIENTS.get(key, () -> new PooledYarnClient(hadoopConfigPath));
+            if (client.retain()) {
+                return client;
+            }
+            // evicted while we got it, drop it so that the next attempt starts a new one
+            synchronized (CLIENTS) {
+                if (CLIENTS.get(key, false) == client) {
+                    CLIENTS.remove(key);
+                }
+            }
+        }
+    }
+
+    /** Logs in with the kerberos keytab of {@code configuration}, if it has one. */
+    public static void installSecurity(Configuration configuration) {
+        if (!configuration.containsKey(SecurityOptions.KERBEROS_LOGIN_KEYTAB.key())) {
+            return;
+        }
+        try {
+            SecurityUtils.install(new SecurityConfiguration(configuration));
+            UserGroupInformation currentUser = UserGroupInformation.getCurrentUser();
+            logger.info("安全认证结束，用户和认证方式:" + currentUser.toString());
+        } catch (Exception e) {
+            logger.error("安全认证失败: {}", e.getMessage(), e);
+        }
+    }
+
+    public static void close() {
+        List<PooledYarnClient> clients = new ArrayList<>();
+        CLIENTS.forEach(clients::add);
+        CLIENTS.clear();
+        clients.forEach(PooledYarnClient::retire);
+    }
+
+    /**
+     * A started yarn client with the application reports of the cluster fetched in one RM call.
+     */
+    public static class PooledYarnClient {
+
+        private final String hadoopConfigPath;
+        private final YarnConfiguration yarnConfiguration;
+        private final YarnClient yarnClient;
+
+        private volatile Map<ApplicationId, ApplicationReport> reports = new HashMap<>();
+        private volatile long reportsTime = 0;
+
+        /** Borrowers that did not release the client yet. */
+        private int references = 0;
+        /** Evicted from the pool, stopped once no borrower holds it. */
+        private boolean retired = false;
+
+        private PooledYarnClient(String hadoopConfigPath) {
+            this.hadoopConfigPath = hadoopConfigPath;
+            this.yarnConfiguration = createYarnConfiguration(hadoopConfigPath);
+            this.yarnClient = YarnClient.createYarnClient();
+            yarnClient.init(yarnConfiguration);
+            yarnClient.start();
+        }
+
+        public YarnConfiguration getYarnConfiguration() {
+            return yarnConfiguration;
+        }
+
+        public YarnClient getYarnClient() {
+            return yarnClient;
+        }
+
+        /**
+         * Get the report of an application. The reports of all the flink applications of the cluster are
+         * fetched at most once per {@link #REPORTS_TIMEOUT} and shared by the status polls of every job.
+         */
+        public ApplicationReport getApplicationReport(ApplicationId applicationId) throws YarnException, IOException {
+            ApplicationReport report = getApplicationReports().get(applicationId);
+            if (report == null) {
+                // The application type is not a flink one, request it alone.
+                report = yarnClient.getApplicationReport(applicationId);
+            }
+            return report;
+        }
+
+        public Map<ApplicationId, ApplicationReport> getApplicationReports() throws YarnException, IOException {
+            if (System.currentTimeMillis() - reportsTime >= REPORTS_TIMEOUT) {
+                synchronized (this) {
+                    if (System.currentTimeMillis() - reportsTime >= REPORTS_TIMEOUT) {
+                        Map<ApplicationId, ApplicationReport> applicationReports = new HashMap<>();
+                        for (ApplicationReport report : yarnClient.getApplications(APPLICATION_TYPES)) {
+                            applicationReports.put(report.getApplicationId(), report);
+                        }
+                        reports = applicationReports;
+                        reportsTime = System.currentTimeMillis();
+                    }
+                }
+            }
+            return reports;
+        }
+
+        private synchronized boolean retain() {
+            if (retired) {
+                return false;
+            }
+            references++;
+            return true;
+        }
+
+        /** Gives the client back to the pool, every borrow has to release it exactly once. */
+        public synchronized void release() {
+            if (references > 0) {
+                references--;
+            }
+            if (retired && references == 0) {
+                stop();
+            }
+        }
+
+        private synchronized void retire() {
+            if (retired) {
+                return;
+            }
+            retired = true;
+            if (references == 0) {
+                stop();
+            }
+        }
+
+        private void stop() {
+            logger.info("Stop idle yarn client of {}", hadoopConfigPath);
+            try {
+                yarnClient.stop();
+            } catch (Exception e) {
+                logger.error("Stop yarn client of {} failed: {}", hadoopConfigPath, e.getMessage());
+            }
+        }
+    }
+
+    public static YarnConfiguration createYarnConfiguration(String hadoopConfigPath) {
+        YarnConfiguration yarnConfiguration = new YarnConfiguration();
+        yarnConfiguration.addResource(getYanConfigFilePath(hadoopConfigPath, "yarn-site.xml"));
+        yarnConfiguration.addResource(getYanConfigFilePath(hadoopConfigPath, "core-site.xml"));
+        yarnConfiguration.addResource(getYanConfigFilePath(hadoopConfigPath, "hdfs-site.xml"));
+        return yarnConfiguration;
+    }
+
+    private static Path getYanConfigFilePath(String hadoopConfigPath, String path) {
+        return new Path(URI.create(hadoopConfigPath + "/" + path));
+    }
+}
@@ -36,16 +36,11 @@ import org.apache.flink.client.deployment.ClusterRetrieveException;
 import org.apache.flink.client.program.ClusterClient;
 import org.apache.flink.configuration.DeploymentOptions;
 import org.apache.flink.configuration.GlobalConfiguration;
-import org.apache.flink.configuration.SecurityOptions;
-import org.apache.flink.runtime.security.SecurityConfiguration;
-import org.apache.flink.runtime.security.SecurityUtils;
 import org.apache.flink.yarn.YarnClientYarnClusterInformationRetriever;
 import org.apache.flink.yarn.YarnClusterClientFactory;
 import org.apache.flink.yarn.YarnClusterDescriptor;
 import org.apache.flink.yarn.configuration.YarnConfigOptions;
 import org.apache.flink.yarn.configuration.YarnLogConfigUtil;
-import org.apache.hadoop.fs.Path;
-import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.hadoop.service.Service;
 import org.apache.hadoop.yarn.api.records.ApplicationId;
 import org.apache.hadoop.yarn.api.records.ApplicationReport;
@@ -57,7 +52,6 @@ import org.apache.hadoop.yarn.exceptions.YarnException;
 
 import java.io.File;
 import java.io.IOException;
-import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -74,6 +68,7 @@ public abstract class YarnGateway extends AbstractGateway {
 
     protected YarnConfiguration yarnConfiguration;
     protected YarnClient yarnClient;
+    private YarnClientPool.PooledYarnClient pooledYarnClient;
 
     public YarnGateway() {}
 
@@ -107,17 +102,6 @@ public abstract class YarnGateway extends AbstractGateway {
             configuration.setString(HADOOP_CONFIG, clusterConfig.getHadoopConfigPath());
         }
 
-        if (configuration.containsKey(SecurityOptions.KERBEROS_LOGIN_KEYTAB.key())) {
-            try {
-                SecurityUtils.install(new SecurityConfiguration(configuration));
-                UserGroupInformation currentUser = UserGroupInformation.getCurrentUser();
-                logger.info("安全认证结束，用户和认证方式:" + currentUser.toString());
-            } catch (Exception e) {
-                logger.error(e.getMessage());
-                e.printStackTrace();
-            }
-        }
-
         if (getType().isApplicationMode()) {
             configuration.set(YarnConfigOptions.APPLICATION_TYPE, "Dinky Flink");
             resetCheckpointInApplicationMode(flinkConfig.getJobName());
@@ -126,55 +110,61 @@ public abstract class YarnGateway extends AbstractGateway {
         YarnLogConfigUtil.setLogConfigFileInConfig(configuration, clusterConfig.getFlinkConfigPath());
     }
 
+    /** Borrows the pooled client of the cluster, the operation that called {@link #init()} releases it. */
     private void initYarnClient() {
-        yarnConfiguration = new YarnConfiguration();
-        yarnConfiguration.addResource(getYanConfigFilePath("yarn-site.xml"));
-        yarnConfiguration.addResource(getYanConfigFilePath("core-site.xml"));
-        yarnConfiguration.addResource(getYanConfigFilePath("hdfs-site.xml"));
-
-        yarnClient = YarnClient.createYarnClient();
-        yarnClient.init(yarnConfiguration);
-        yarnClient.start();
+        pooledYarnClient = YarnClientPool.borrow(config.getClusterConfig().getHadoopConfigPath(), configuration);
+        yarnConfiguration = pooledYarnClient.getYarnConfiguration();
+        yarnClient = pooledYarnClient.getYarnClient();
     }
 
-    private Path getYanConfigFilePath(String path) {
-        return new Path(URI.create(config.getClusterConfig().getHadoopConfigPath() + "/" + path));
+    /** Gives the client back to the pool, a later operation borrows it again. */
+    protected void releaseYarnClient() {
+        if (pooledYarnClient != null) {
+            pooledYarnClient.release();
+            pooledYarnClient = null;
+            yarnClient = null;
+        }
     }
 
     public SavePointResult savepointCluster(String savePoint) {
         if (Asserts.isNull(yarnClient)) {
             init();
         }
-
-        ApplicationId applicationId = getApplicationId();
-        YarnClusterDescriptor clusterDescriptor = createInitYarnClusterDescriptor();
-        return runClusterSavePointResult(savePoint, applicationId, clusterDescriptor);
+        try {
+            ApplicationId applicationId = getApplicationId();
+            YarnClusterDescriptor clusterDescriptor = createInitYarnClusterDescriptor();
+            return runClusterSavePointResult(savePoint, applicationId, clusterDescriptor);
+        } finally {
+            releaseYarnClient();
+        }
     }
 
     public SavePointResult savepointJob(String savePoint) {
-        if (Asserts.isNull(yarnClient)) {
-            init();
-        }
-
         if (Asserts.isNull(config.getFlinkConfig().getJobId())) {
             throw new GatewayException(
                     "No job id was specified. Please specify a job to which you would like to" + " savepont.");
         }
-
-        ApplicationId applicationId = getApplicationId();
-        YarnClusterDescriptor clusterDescriptor = createInitYarnClusterDescriptor();
-        SavePointResult result = runSavePointResult(savePoint, applicationId, clusterDescriptor);
-
-        if (ActionType.CANCEL == config.getFlinkConfig().getAction()
-                || SavePointType.CANCEL.equals(config.getFlinkConfig().getSavePointType())) {
-            try {
-                autoCancelCluster(clusterDescriptor.retrieve(applicationId).getClusterClient());
-            } catch (ClusterRetrieveException e) {
-                logger.error(e.getMessage());
-            }
+        if (Asserts.isNull(yarnClient)) {
+            init();
         }
+        try {
+            ApplicationId applicationId = getApplicationId();
+            YarnClusterDescriptor clusterDescriptor = createInitYarnClusterDescriptor();
+            SavePointResult result = runSavePointResult(savePoint, applicationId, clusterDescriptor);
+
+            if (ActionType.CANCEL == config.getFlinkConfig().getAction()
+                    || SavePointType.CANCEL.equals(config.getFlinkConfig().getSavePointType())) {
+                try {
+                    autoCancelCluster(clusterDescriptor.retrieve(applicationId).getClusterClient());
+                } catch (ClusterRetrieveException e) {
+                    logger.error(e.getMessage());
+                }
+            }
 
-        return result;
+            return result;
+        } finally {
+            releaseYarnClient();
+        }
     }
 
     private void autoCancelCluster(ClusterClient<ApplicationId> clusterClient) {
@@ -198,9 +188,14 @@ public abstract class YarnGateway extends AbstractGateway {
             return TestResult.fail("测试 Flink 配置失败：" + e.getMessage());
         }
 
+        // Test with a new client instead of the pooled one, the configuration may have changed.
+        YarnClientPool.installSecurity(configuration);
+        YarnClient testYarnClient = YarnClient.createYarnClient();
         try {
-            initYarnClient();
-            if (yarnClient.isInState(Service.STATE.STARTED)) {
+            testYarnClient.init(YarnClientPool.createYarnConfiguration(
+                    config.getClusterConfig().getHadoopConfigPath()));
+            testYarnClient.start();
+            if (testYarnClient.isInState(Service.STATE.STARTED)) {
                 logger.info("配置连接测试成功");
                 return TestResult.success();
             } else {
@@ -210,6 +205,8 @@ public abstract class YarnGateway extends AbstractGateway {
         } catch (Exception e) {
             logger.error("测试 Yarn 配置失败：" + e.getMessage());
             return TestResult.fail("测试 Yarn 配置失败：" + e.getMessage());
+        } finally {
+            testYarnClient.stop();
         }
     }
 
@@ -228,11 +225,12 @@ public abstract class YarnGateway extends AbstractGateway {
     @Override
     public JobStatus getJobStatusById(String id) {
         if (Asserts.isNull(yarnClient)) {
+            // the kerberos settings of the flink configuration select the pooled client
             init();
         }
         config.getClusterConfig().setAppId(id);
         try {
-            ApplicationReport applicationReport = yarnClient.getApplicationReport(getApplicationId());
+            ApplicationReport applicationReport = pooledYarnClient.getApplicationReport(getApplicationId());
             YarnApplicationState yarnApplicationState = applicationReport.getYarnApplicationState();
             FinalApplicationStatus finalApplicationStatus = applicationReport.getFinalApplicationStatus();
             switch (yarnApplicationState) {
@@ -262,6 +260,8 @@ public abstract class YarnGateway extends AbstractGateway {
         } catch (YarnException | IOException e) {
             logger.error(e.getMessage());
             return JobStatus.UNKNOWN;
+        } finally {
+            releaseYarnClient();
         }
     }
 
@@ -275,6 +275,8 @@ public abstract class YarnGateway extends AbstractGateway {
             yarnClient.killApplication(getApplicationId());
         } catch (YarnException | IOException e) {
             logger.error(e.getMessage());
+        } finally {
+            releaseYarnClient();
         }
     }
 
@@ -60,46 +60,49 @@ public class YarnPerJobGateway extends YarnGateway {
         if (Asserts.isNull(yarnClient)) {
             init();
         }
+        try {
+            if (Asserts.isNotNull(config.getJarPaths())) {
+                jobGraph.addJars(Arrays.stream(config.getJarPaths())
+                        .map(path -> URLUtil.getURL(FileUtil.file(path)))
+                        .collect(Collectors.toList()));
+            }
 
-        if (Asserts.isNotNull(config.getJarPaths())) {
-            jobGraph.addJars(Arrays.stream(config.getJarPaths())
-                    .map(path -> URLUtil.getURL(FileUtil.file(path)))
-                    .collect(Collectors.toList()));
-        }
-
-        ClusterSpecification.ClusterSpecificationBuilder clusterSpecificationBuilder =
-                createClusterSpecificationBuilder();
+            ClusterSpecification.ClusterSpecificationBuilder clusterSpecificationBuilder =
+                    createClusterSpecificationBuilder();
 
-        YarnResult result = YarnResult.build(getType());
-        try (YarnClusterDescriptor yarnClusterDescriptor = createInitYarnClusterDescriptor()) {
-            ClusterClientProvider<ApplicationId> clusterClientProvider = yarnClusterDescriptor.deployJobCluster(
-                    clusterSpecificationBuilder.createClusterSpecification(), jobGraph, true);
-            ClusterClient<ApplicationId> clusterClient = clusterClientProvider.getClusterClient();
-            ApplicationId applicationId = clusterClient.getClusterId();
-            result.setId(applicationId.toString());
-            result.setWebURL(clusterClient.getWebInterfaceURL());
-            Collection<JobStatusMessage> jobStatusMessages =
-                    clusterClient.listJobs().get();
-            int counts = SystemConfiguration.getInstances().getJobIdWait();
-            while (jobStatusMessages.size() == 0 && counts > 0) {
-                Thread.sleep(1000);
-                counts--;
-                jobStatusMessages = clusterClient.listJobs().get();
-                if (jobStatusMessages.size() > 0) {
-                    break;
+            YarnResult result = YarnResult.build(getType());
+            try (YarnClusterDescriptor yarnClusterDescriptor = createInitYarnClusterDescriptor()) {
+                ClusterClientProvider<ApplicationId> clusterClientProvider = yarnClusterDescriptor.deployJobCluster(
+                        clusterSpecificationBuilder.createClusterSpecification(), jobGraph, true);
+                ClusterClient<ApplicationId> clusterClient = clusterClientProvider.getClusterClient();
+                ApplicationId applicationId = clusterClient.getClusterId();
+                result.setId(applicationId.toString());
+                result.setWebURL(clusterClient.getWebInterfaceURL());
+                Collection<JobStatusMessage> jobStatusMessages =
+                        clusterClient.listJobs().get();
+                int counts = SystemConfiguration.getInstances().getJobIdWait();
+                while (jobStatusMessages.size() == 0 && counts > 0) {
+                    Thread.sleep(1000);
+                    counts--;
+                    jobStatusMessages = clusterClient.listJobs().get();
+                    if (jobStatusMessages.size() > 0) {
+                        break;
+                    }
                 }
-            }
-            if (jobStatusMessages.size() > 0) {
-                List<String> jids = new ArrayList<>();
-                for (JobStatusMessage jobStatusMessage : jobStatusMessages) {
-                    jids.add(jobStatusMessage.getJobId().toHexString());
+                if (jobStatusMessages.size() > 0) {
+                    List<String> jids = new ArrayList<>();
+                    for (JobStatusMessage jobStatusMessage : jobStatusMessages) {
+                        jids.add(jobStatusMessage.getJobId().toHexString());
+                    }
+                    result.setJids(jids);
                 }
-                result.setJids(jids);
+                result.success();
+            } catch (Exception e) {
+                result.fail(LogUtil.getError(e));
             }
-            result.success();
-        } catch (Exception e) {
-            result.fail(LogUtil.getError(e));
+            return result;
+        } finally {
+            releaseYarnClient();
         }
-        return result;
     }
 }
@@ -49,22 +49,26 @@ public class YarnSessionGateway extends YarnGateway {
         if (Asserts.isNull(yarnClient)) {
             init();
         }
+        try {
+            ClusterSpecification.ClusterSpecificationBuilder clusterSpecificationBuilder =
+                    createClusterSpecificationBuilder();
 
-        ClusterSpecification.ClusterSpecificationBuilder clusterSpecificationBuilder =
-                createClusterSpecificationBuilder();
-
-        YarnResult result = YarnResult.build(getType());
-        try (YarnClusterDescriptor yarnClusterDescriptor = createYarnClusterDescriptorWithJar(udfPathContextHolder)) {
-            ClusterClientProvider<ApplicationId> clusterClientProvider = yarnClusterDescriptor.deploySessionCluster(
-                    clusterSpecificationBuilder.createClusterSpecification());
-            ClusterClient<ApplicationId> clusterClient = clusterClientProvider.getClusterClient();
-            ApplicationId applicationId = clusterClient.getClusterId();
-            result.setId(applicationId.toString());
-            result.setWebURL(clusterClient.getWebInterfaceURL());
-            result.success();
-        } catch (Exception e) {
-            result.fail(LogUtil.getError(e));
+            YarnResult result = YarnResult.build(getType());
+            try (YarnClusterDescriptor yarnClusterDescriptor =
+                    createYarnClusterDescriptorWithJar(udfPathContextHolder)) {
+                ClusterClientProvider<ApplicationId> clusterClientProvider = yarnClusterDescriptor.deploySessionCluster(
+                        clusterSpecificationBuilder.createClusterSpecification());
+                ClusterClient<ApplicationId> clusterClient = clusterClientProvider.getClusterClient();
+                ApplicationId applicationId = clusterClient.getClusterId();
+                result.setId(applicationId.toString());
+                result.setWebURL(clusterClient.getWebInterfaceURL());
+                result.success();
+            } catch (Exception e) {
+                result.fail(LogUtil.getError(e));
+            }
+            return result;
+        } finally {
+            releaseYarnClient();
         }
-        return result;
     }
 }
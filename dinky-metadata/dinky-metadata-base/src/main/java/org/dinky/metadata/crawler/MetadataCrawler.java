@@ -0,0 +1,126 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.metadata.crawler;
+
+import org.dinky.data.model.Schema;
+import org.dinky.data.model.Table;
+import org.dinky.metadata.driver.Driver;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 元数据采集。加载树时只查询库、表清单，不查询字段；表字段在打开时按需查询，由调用方缓存。
+ * 表的 DDL 时间（没有时取 CREATE_TIME）用于判断表结构是否变化，UPDATE_TIME 随数据写入变化，不作为依据；
+ * 数据源不提供这两个时间时无法判断，缓存的字段不可复用。
+ */
+@Slf4j
+public class MetadataCrawler {
+
+    private final Driver driver;
+
+    public MetadataCrawler(Driver driver) {
+        this.driver = driver;
+    }
+
+    /**
+     * 采集新快照，只包含库、表清单
+     *
+     * @param previous 上一版快照，没有时传 null
+     * @return 新快照，表清单及表结构都没有变化时版本号不变
+     */
+    public MetadataSnapshot crawl(MetadataSnapshot previous) {
+        long start = System.currentTimeMillis();
+        List<Schema> schemas = driver.getSchemasAndTables();
+        Map<String, Table> previousTables = indexTables(previous);
+
+        int tableCount = 0;
+        int changed = 0;
+        for (Schema schema : schemas) {
+            for (Table table : schema.getTables()) {
+                tableCount++;
+                table.setColumns(null);
+                Table previousTable = previousTables.get(schema.getName() + "." + table.getName());
+                if (previousTable == null || !Objects.equals(ddlTime(previousTable), ddlTime(table))) {
+                    changed++;
+                }
+            }
+        }
+
+        boolean modified = previous == null || changed > 0 || tableCount != previousTables.size();
+        MetadataSnapshot snapshot = new MetadataSnapshot();
+        snapshot.setVersion(previous == null ? 1 : previous.getVersion() + (modified ? 1 : 0));
+        snapshot.setCreateTime(System.currentTimeMillis());
+        snapshot.setTableCount(tableCount);
+        snapshot.setChangedTableCount(changed);
+        snapshot.setSchemas(schemas);
+        log.info(
+                "Crawled metadata of {}: {} schemas, {} tables, {} changed, version {}, {} ms",
+                driver.getName(),
+                schemas.size(),
+                tableCount,
+                changed,
+                snapshot.getVersion(),
+                snapshot.getCreateTime() - start);
+        return snapshot;
+    }
+
+    /**
+     * 查询一张表的字段
+     *
+     * @param schemaName 库名
+     * @param table 快照中的表
+     * @return 带字段的表副本，查询失败时字段为 null
+     */
+    public Table crawlColumns(String schemaName, Table table) {
+        Table copy = (Table) table.clone();
+        copy.setColumns(null);
+        driver.fillColumns(Collections.singletonMap(schemaName, Collections.singletonList(copy)));
+        return copy;
+    }
+
+    /** 两次采集之间表结构没有变化，数据源不提供 DDL 时间或创建时间时视为有变化 */
+    public static boolean isUnchanged(Table previous, Table current) {
+        Date ddlTime = ddlTime(current);
+        return previous != null && ddlTime != null && Objects.equals(ddlTime(previous), ddlTime);
+    }
+
+    private static Date ddlTime(Table table) {
+        return table.getDdlTime() != null ? table.getDdlTime() : table.getCreateTime();
+    }
+
+    private static Map<String, Table> indexTables(MetadataSnapshot snapshot) {
+        Map<String, Table> tables = new HashMap<>();
+        if (snapshot != null) {
+            for (Schema schema : snapshot.getSchemas()) {
+                for (Table table : schema.getTables()) {
+                    tables.put(schema.getName() + "." + table.getName(), table);
+                }
+            }
+        }
+        return tables;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.metadata.crawler;
+
+import org.dinky.data.model.Schema;
+import org.dinky.data.model.Table;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * 数据源元数据快照：所有库、表，不含表字段。表清单或表结构有变化时版本号加一
+ */
+@Data
+public class MetadataSnapshot implements Serializable {
+
+    private static final long serialVersionUID = -6571043315240176402L;
+
+    private long version;
+
+    /** 采集完成时间 */
+    private long createTime;
+
+    private int tableCount;
+
+    /** 与上一版本相比新增或表结构变化的表数量 */
+    private int changedTableCount;
+
+    private List<Schema> schemas = new ArrayList<>();
+
+    public Table findTable(String schemaName, String tableName) {
+        for (Schema schema : schemas) {
+            if (schema.getName().equals(schemaName)) {
+                for (Table table : schema.getTables()) {
+                    if (table.getName().equals(tableName)) {
+                        return table;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+}
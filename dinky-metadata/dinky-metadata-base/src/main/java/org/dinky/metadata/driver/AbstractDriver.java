@@ -28,6 +28,7 @@ import org.dinky.metadata.config.IConnectConfig;
 import org.dinky.metadata.convert.ITypeConvert;
 import org.dinky.metadata.query.IDBQuery;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -61,10 +62,9 @@ public abstract class AbstractDriver<T extends IConnectConfig> implements Driver
     }
 
     public List<Table> getTablesAndColumns(String schema) {
-        return listTables(schema).stream()
-                .peek(table -> table.setColumns(listColumns(schema, table.getName())))
-                .sorted()
-                .collect(Collectors.toList());
+        List<Table> tables = listTables(schema);
+        fillColumns(Collections.singletonMap(schema, tables));
+        return tables.stream().sorted().collect(Collectors.toList());
     }
 
     @Override
@@ -19,7 +19,6 @@
 
 package org.dinky.metadata.driver;
 
-import static org.dinky.utils.SplitUtil.contains;
 import static org.dinky.utils.SplitUtil.getReValue;
 import static org.dinky.utils.SplitUtil.isSplit;
 
@@ -49,6 +48,7 @@ import java.sql.Statement;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -57,7 +57,14 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import com.alibaba.druid.pool.DruidDataSource;
@@ -66,6 +73,7 @@ import com.alibaba.druid.sql.SQLUtils;
 import com.alibaba.druid.sql.ast.SQLStatement;
 
 import cn.hutool.core.text.CharSequenceUtil;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -81,6 +89,9 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
     private DruidDataSource dataSource;
     protected String validationQuery = "select 1";
 
+    /** 一个库内待查字段的表达到该数量时，改为整库一次查询 */
+    private static final int SCHEMA_COLUMNS_THRESHOLD = 8;
+
     abstract String getDriverClass();
 
     @Override
@@ -277,6 +288,9 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
                     if (columnList.contains(dbQuery.updateTime())) {
                         tableInfo.setUpdateTime(results.getTimestamp(dbQuery.updateTime()));
                     }
+                    if (columnList.contains(dbQuery.ddlTime())) {
+                        tableInfo.setDdlTime(results.getTimestamp(dbQuery.ddlTime()));
+                    }
                     tableList.add(tableInfo);
                 }
             }
@@ -290,6 +304,16 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
 
     @Override
     public List<Column> listColumns(String schemaName, String tableName) {
+        try {
+            return queryColumns(schemaName, tableName);
+        } catch (SQLException e) {
+            log.error("ListColumns error", e);
+            return new ArrayList<>();
+        }
+    }
+
+    /** 查询表字段，失败时抛出异常，由调用方决定是否忽略 */
+    protected List<Column> queryColumns(String schemaName, String tableName) throws SQLException {
         List<Column> columns = new ArrayList<>();
         PreparedStatement preparedStatement = null;
         ResultSet results = null;
@@ -298,88 +322,227 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
         try {
             preparedStatement = conn.get().prepareStatement(tableFieldsSql);
             results = preparedStatement.executeQuery();
-            ResultSetMetaData metaData = results.getMetaData();
-            List<String> columnList = new ArrayList<>();
-            for (int i = 1; i <= metaData.getColumnCount(); i++) {
-                columnList.add(metaData.getColumnLabel(i));
+            List<String> columnList = getColumnLabels(results);
+            while (results.next()) {
+                columns.add(readColumn(results, columnList, dbQuery));
             }
+        } finally {
+            close(preparedStatement, results);
+        }
+        return columns;
+    }
+
+    /**
+     * 一次查询取回整个库的表字段，按表名分组；数据源不支持时返回 null
+     *
+     * @param schemaName 库名
+     * @return 表名 -> 字段
+     * @throws SQLException 查询失败，不返回不完整的结果
+     */
+    public Map<String, List<Column>> listColumnsBySchema(String schemaName) throws SQLException {
+        IDBQuery dbQuery = getDBQuery();
+        String sql = dbQuery.schemaColumnsSql(schemaName);
+        if (Asserts.isNullString(sql)) {
+            return null;
+        }
+        Map<String, List<Column>> columns = new LinkedHashMap<>();
+        PreparedStatement preparedStatement = null;
+        ResultSet results = null;
+        try {
+            preparedStatement = conn.get().prepareStatement(sql);
+            results = preparedStatement.executeQuery();
+            List<String> columnList = getColumnLabels(results);
             while (results.next()) {
-                Column field = new Column();
-                String columnName = results.getString(dbQuery.columnName());
-                if (columnList.contains(dbQuery.columnKey())) {
-                    String key = results.getString(dbQuery.columnKey());
-                    field.setKeyFlag(Asserts.isNotNullString(key) && Asserts.isEqualsIgnoreCase(dbQuery.isPK(), key));
-                }
-                field.setName(columnName);
-                if (columnList.contains(dbQuery.columnType())) {
-                    String columnType = results.getString(dbQuery.columnType());
-                    if (columnType.contains("(")) {
-                        String type = columnType.replaceAll("\\(.*\\)", "");
-                        if (!columnType.contains(",")) {
-                            Integer length = Integer.valueOf(columnType.replaceAll("\\D", ""));
-                            field.setLength(length);
-                        } else {
-                            // some database does not have precision
-                            if (dbQuery.precision() != null) {
-                                // 例如浮点类型的长度和精度是一样的，decimal(10,2)
-                                field.setLength(results.getInt(dbQuery.precision()));
-                            }
-                        }
-                        field.setType(type);
-                    } else {
-                        field.setType(columnType);
+                String tableName = results.getString(dbQuery.tableName());
+                columns.computeIfAbsent(tableName, k -> new ArrayList<>())
+                        .add(readColumn(results, columnList, dbQuery));
+            }
+        } finally {
+            close(preparedStatement, results);
+        }
+        return columns;
+    }
+
+    private List<String> getColumnLabels(ResultSet results) throws SQLException {
+        ResultSetMetaData metaData = results.getMetaData();
+        List<String> columnList = new ArrayList<>();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            columnList.add(metaData.getColumnLabel(i));
+        }
+        return columnList;
+    }
+
+    private Column readColumn(ResultSet results, List<String> columnList, IDBQuery dbQuery) throws SQLException {
+        Column field = new Column();
+        String columnName = results.getString(dbQuery.columnName());
+        if (columnList.contains(dbQuery.columnKey())) {
+            String key = results.getString(dbQuery.columnKey());
+            field.setKeyFlag(Asserts.isNotNullString(key) && Asserts.isEqualsIgnoreCase(dbQuery.isPK(), key));
+        }
+        field.setName(columnName);
+        if (columnList.contains(dbQuery.columnType())) {
+            String columnType = results.getString(dbQuery.columnType());
+            if (columnType.contains("(")) {
+                String type = columnType.replaceAll("\\(.*\\)", "");
+                if (!columnType.contains(",")) {
+                    Integer length = Integer.valueOf(columnType.replaceAll("\\D", ""));
+                    field.setLength(length);
+                } else {
+                    // some database does not have precision
+                    if (dbQuery.precision() != null) {
+                        // 例如浮点类型的长度和精度是一样的，decimal(10,2)
+                        field.setLength(results.getInt(dbQuery.precision()));
                     }
                 }
-                if (columnList.contains(dbQuery.columnComment())
-                        && Asserts.isNotNull(results.getString(dbQuery.columnComment()))) {
-                    String columnComment =
-                            results.getString(dbQuery.columnComment()).replaceAll("\"|'", "");
-                    field.setComment(columnComment);
-                }
-                if (columnList.contains(dbQuery.columnLength())) {
-                    int length = results.getInt(dbQuery.columnLength());
-                    if (!results.wasNull()) {
-                        field.setLength(length);
+                field.setType(type);
+            } else {
+                field.setType(columnType);
+            }
+        }
+        if (columnList.contains(dbQuery.columnComment())
+                && Asserts.isNotNull(results.getString(dbQuery.columnComment()))) {
+            String columnComment = results.getString(dbQuery.columnComment()).replaceAll("\"|'", "");
+            field.setComment(columnComment);
+        }
+        if (columnList.contains(dbQuery.columnLength())) {
+            int length = results.getInt(dbQuery.columnLength());
+            if (!results.wasNull()) {
+                field.setLength(length);
+            }
+        }
+        if (columnList.contains(dbQuery.isNullable())) {
+            field.setNullable(
+                    Asserts.isEqualsIgnoreCase(results.getString(dbQuery.isNullable()), dbQuery.nullableValue()));
+        }
+        if (columnList.contains(dbQuery.characterSet())) {
+            field.setCharacterSet(results.getString(dbQuery.characterSet()));
+        }
+        if (columnList.contains(dbQuery.collation())) {
+            field.setCollation(results.getString(dbQuery.collation()));
+        }
+        if (columnList.contains(dbQuery.columnPosition())) {
+            field.setPosition(results.getInt(dbQuery.columnPosition()));
+        }
+        if (columnList.contains(dbQuery.precision())) {
+            field.setPrecision(results.getInt(dbQuery.precision()));
+        }
+        if (columnList.contains(dbQuery.scale())) {
+            field.setScale(results.getInt(dbQuery.scale()));
+        }
+        if (columnList.contains(dbQuery.defaultValue())) {
+            field.setDefaultValue(results.getString(dbQuery.defaultValue()));
+        }
+        if (columnList.contains(dbQuery.autoIncrement())) {
+            field.setAutoIncrement(
+                    Asserts.isEqualsIgnoreCase(results.getString(dbQuery.autoIncrement()), "auto_increment"));
+        }
+        if (columnList.contains(dbQuery.defaultValue())) {
+            field.setDefaultValue(results.getString(dbQuery.defaultValue()));
+        }
+        field.setJavaType(getTypeConvert().convert(field, config));
+        return field;
+    }
+
+    /** 各库的表清单并行查询，每个工作线程使用连接池中的独立连接 */
+    @Override
+    public List<Schema> getSchemasAndTables() {
+        List<Schema> schemas = listSchemas();
+        List<List<Table>> tables = parallelMap(schemas, schema -> listTables(schema.getName()));
+        for (int i = 0; i < schemas.size(); i++) {
+            schemas.get(i).setTables(tables.get(i));
+        }
+        return schemas.stream().sorted().collect(Collectors.toList());
+    }
+
+    /**
+     * 支持整库字段查询且库内待查表较多时每个库一次查询，其余逐表查询，全部并行执行。
+     * 查询失败的表字段置为 null，视为未加载，下次采集时重新查询
+     */
+    @Override
+    public void fillColumns(Map<String, List<Table>> tablesBySchema) {
+        List<Runnable> tasks = new ArrayList<>();
+        tablesBySchema.forEach((schemaName, tables) -> {
+            if (tables.size() >= SCHEMA_COLUMNS_THRESHOLD
+                    && Asserts.isNotNullString(getDBQuery().schemaColumnsSql(schemaName))) {
+                tasks.add(() -> {
+                    try {
+                        Map<String, List<Column>> columns = listColumnsBySchema(schemaName);
+                        tables.forEach(
+                                table -> table.setColumns(columns.getOrDefault(table.getName(), new ArrayList<>())));
+                    } catch (SQLException e) {
+                        log.error("ListColumnsBySchema error, columns of {} will be queried again", schemaName, e);
+                        tables.forEach(table -> table.setColumns(null));
                     }
-                }
-                if (columnList.contains(dbQuery.isNullable())) {
-                    field.setNullable(Asserts.isEqualsIgnoreCase(
-                            results.getString(dbQuery.isNullable()), dbQuery.nullableValue()));
-                }
-                if (columnList.contains(dbQuery.characterSet())) {
-                    field.setCharacterSet(results.getString(dbQuery.characterSet()));
-                }
-                if (columnList.contains(dbQuery.collation())) {
-                    field.setCollation(results.getString(dbQuery.collation()));
-                }
-                if (columnList.contains(dbQuery.columnPosition())) {
-                    field.setPosition(results.getInt(dbQuery.columnPosition()));
-                }
-                if (columnList.contains(dbQuery.precision())) {
-                    field.setPrecision(results.getInt(dbQuery.precision()));
-                }
-                if (columnList.contains(dbQuery.scale())) {
-                    field.setScale(results.getInt(dbQuery.scale()));
-                }
-                if (columnList.contains(dbQuery.defaultValue())) {
-                    field.setDefaultValue(results.getString(dbQuery.defaultValue()));
-                }
-                if (columnList.contains(dbQuery.autoIncrement())) {
-                    field.setAutoIncrement(
-                            Asserts.isEqualsIgnoreCase(results.getString(dbQuery.autoIncrement()), "auto_increment"));
-                }
-                if (columnList.contains(dbQuery.defaultValue())) {
-                    field.setDefaultValue(results.getString(dbQuery.defaultValue()));
-                }
-                field.setJavaType(getTypeConvert().convert(field, config));
-                columns.add(field);
+                });
+            } else {
+                tables.forEach(table -> tasks.add(() -> {
+                    try {
+                        table.setColumns(queryColumns(schemaName, table.getName()));
+                    } catch (SQLException e) {
+                        log.error(
+                                "ListColumns error, columns of {}.{} will be queried again",
+                                schemaName,
+                                table.getName(),
+                                e);
+                        table.setColumns(null);
+                    }
+                }));
             }
-        } catch (SQLException e) {
-            log.error("ListColumns error", e);
+        });
+        parallelMap(tasks, task -> {
+            task.run();
+            return task;
+        });
+    }
+
+    /** 元数据并行查询的线程数，给调用线程留一个连接 */
+    protected int getMetadataParallelism() {
+        return dataSource == null ? 1 : Math.max(1, dataSource.getMaxActive() - 1);
+    }
+
+    /**
+     * 在工作线程上依次处理元素，每个工作线程先建立自己的连接，结束后归还；结果与输入顺序一致
+     */
+    @SuppressWarnings("unchecked")
+    protected <T, R> List<R> parallelMap(List<T> items, Function<T, R> action) {
+        int parallelism = Math.min(items.size(), getMetadataParallelism());
+        if (parallelism <= 1) {
+            return items.stream().map(action).collect(Collectors.toList());
+        }
+        Object[] results = new Object[items.size()];
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(
+                parallelism,
+                ThreadFactoryBuilder.create()
+                        .setNamePrefix("metadata-" + config.getName() + "-")
+                        .setDaemon(true)
+                        .build());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < parallelism; i++) {
+                futures.add(executor.submit(() -> {
+                    connect();
+                    try {
+                        for (int index = next.getAndIncrement(); index < items.size(); index = next.getAndIncrement()) {
+                            results[index] = action.apply(items.get(index));
+                        }
+                    } finally {
+                        close();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
         } finally {
-            close(preparedStatement, results);
+            executor.shutdownNow();
         }
-        return columns;
+        return (List<R>) Arrays.asList(results);
     }
 
     @Override
@@ -726,73 +889,67 @@ public abstract class AbstractJdbcDriver extends AbstractDriver<AbstractJdbcConf
         Set<Table> set = new HashSet<>();
         List<Map<String, String>> schemaList = getSplitSchemaList();
         IDBQuery dbQuery = getDBQuery();
+        // 每张表去掉分库分表后缀后的 库名.表名，只计算一次
+        List<String> reNames = schemaList.stream()
+                .map(x -> getReValue(x.get(dbQuery.schemaName()), splitConfig)
+                        + "."
+                        + getReValue(x.get(dbQuery.tableName()), splitConfig))
+                .collect(Collectors.toList());
 
         for (String table : tableRegList) {
             String[] split = table.split("\\\\.");
-            String database = split[0];
-            String tableName = split[1];
-            // 匹配对应的表
-            List<Map<String, String>> mapList = schemaList.stream()
-                    // 过滤不匹配的表
-                    .filter(x -> contains(database, x.get(dbQuery.schemaName()))
-                            && contains(tableName, x.get(dbQuery.tableName())))
-                    .collect(Collectors.toList());
-            List<Table> tableList = mapList.stream()
-                    // 去重
-                    .collect(Collectors.collectingAndThen(
-                            Collectors.toCollection(() -> new TreeSet<>(
-                                    Comparator.comparing(x -> getReValue(x.get(dbQuery.schemaName()), splitConfig)
-                                            + "."
-                                            + getReValue(x.get(dbQuery.tableName()), splitConfig)))),
-                            ArrayList::new))
-                    .stream()
-                    .map(x -> {
-                        Table tableInfo = new Table();
-                        tableInfo.setName(getReValue(x.get(dbQuery.tableName()), splitConfig));
-                        tableInfo.setComment(x.get(dbQuery.tableComment()));
-                        tableInfo.setSchema(getReValue(x.get(dbQuery.schemaName()), splitConfig));
-                        tableInfo.setType(x.get(dbQuery.tableType()));
-                        tableInfo.setCatalog(x.get(dbQuery.catalogName()));
-                        tableInfo.setEngine(x.get(dbQuery.engine()));
-                        tableInfo.setOptions(x.get(dbQuery.options()));
-                        tableInfo.setRows(Long.valueOf(x.get(dbQuery.rows())));
-                        try {
-                            tableInfo.setCreateTime(
-                                    SimpleDateFormat.getDateInstance().parse(x.get(dbQuery.createTime())));
-                            String updateTime = x.get(dbQuery.updateTime());
-                            if (Asserts.isNotNullString(updateTime)) {
-                                tableInfo.setUpdateTime(
-                                        SimpleDateFormat.getDateInstance().parse(updateTime));
-                            }
-                        } catch (ParseException ignored) {
-                            log.warn("set date fail");
-                        }
-                        TableType tableType = TableType.type(
-                                isSplit(x.get(dbQuery.schemaName()), splitConfig),
-                                isSplit(x.get(dbQuery.tableName()), splitConfig));
-                        tableInfo.setTableType(tableType);
-
-                        if (tableType != TableType.SINGLE_DATABASE_AND_TABLE) {
-                            String currentSchemaName = getReValue(x.get(dbQuery.schemaName()), splitConfig)
-                                    + "."
-                                    + getReValue(x.get(dbQuery.tableName()), splitConfig);
-                            List<String> schemaTableNameList = mapList.stream()
-                                    .filter(y -> (getReValue(y.get(dbQuery.schemaName()), splitConfig)
-                                                    + "."
-                                                    + getReValue(y.get(dbQuery.tableName()), splitConfig))
-                                            .equals(currentSchemaName))
-                                    .map(y -> y.get(dbQuery.schemaName()) + "." + y.get(dbQuery.tableName()))
-                                    .collect(Collectors.toList());
-                            tableInfo.setSchemaTableNameList(schemaTableNameList);
-                        } else {
-                            tableInfo.setSchemaTableNameList(Collections.singletonList(
-                                    x.get(dbQuery.schemaName()) + "." + x.get(dbQuery.tableName())));
-                        }
-                        return tableInfo;
-                    })
-                    .collect(Collectors.toList());
-            set.addAll(tableList);
+            Pattern databasePattern = Pattern.compile(split[0]);
+            Pattern tablePattern = Pattern.compile(split[1]);
+            // 匹配对应的表，按去掉后缀后的名称分组去重
+            Map<String, List<Map<String, String>>> matched = new TreeMap<>();
+            for (int i = 0; i < schemaList.size(); i++) {
+                Map<String, String> x = schemaList.get(i);
+                if (databasePattern.matcher(x.get(dbQuery.schemaName())).matches()
+                        && tablePattern.matcher(x.get(dbQuery.tableName())).matches()) {
+                    matched.computeIfAbsent(reNames.get(i), k -> new ArrayList<>())
+                            .add(x);
+                }
+            }
+            matched.values().forEach(group -> set.add(buildSplitTable(group, splitConfig, dbQuery)));
         }
         return set;
     }
+
+    /**
+     * 由同一逻辑表的所有分表构建表信息，以第一张分表为准
+     */
+    private Table buildSplitTable(List<Map<String, String>> group, Map<String, String> splitConfig, IDBQuery dbQuery) {
+        Map<String, String> x = group.get(0);
+        Table tableInfo = new Table();
+        tableInfo.setName(getReValue(x.get(dbQuery.tableName()), splitConfig));
+        tableInfo.setComment(x.get(dbQuery.tableComment()));
+        tableInfo.setSchema(getReValue(x.get(dbQuery.schemaName()), splitConfig));
+        tableInfo.setType(x.get(dbQuery.tableType()));
+        tableInfo.setCatalog(x.get(dbQuery.catalogName()));
+        tableInfo.setEngine(x.get(dbQuery.engine()));
+        tableInfo.setOptions(x.get(dbQuery.options()));
+        tableInfo.setRows(Long.valueOf(x.get(dbQuery.rows())));
+        try {
+            tableInfo.setCreateTime(SimpleDateFormat.getDateInstance().parse(x.get(dbQuery.createTime())));
+            String updateTime = x.get(dbQuery.updateTime());
+            if (Asserts.isNotNullString(updateTime)) {
+                tableInfo.setUpdateTime(SimpleDateFormat.getDateInstance().parse(updateTime));
+            }
+        } catch (ParseException ignored) {
+            log.warn("set date fail");
+        }
+        TableType tableType = TableType.type(
+                isSplit(x.get(dbQuery.schemaName()), splitConfig), isSplit(x.get(dbQuery.tableName()), splitConfig));
+        tableInfo.setTableType(tableType);
+
+        if (tableType != TableType.SINGLE_DATABASE_AND_TABLE) {
+            tableInfo.setSchemaTableNameList(group.stream()
+                    .map(y -> y.get(dbQuery.schemaName()) + "." + y.get(dbQuery.tableName()))
+                    .collect(Collectors.toList()));
+        } else {
+            tableInfo.setSchemaTableNameList(
+                    Collections.singletonList(x.get(dbQuery.schemaName()) + "." + x.get(dbQuery.tableName())));
+        }
+        return tableInfo;
+    }
 }
@@ -177,6 +177,16 @@ public interface Driver extends AutoCloseable {
 
     List<Table> getTablesAndColumns(String schemaName);
 
+    /**
+     * 批量填充表字段，实现应将查询失败的表字段置为 null，下次采集时重新查询
+     *
+     * @param tablesBySchema 按库分组的表
+     */
+    default void fillColumns(Map<String, List<Table>> tablesBySchema) {
+        tablesBySchema.forEach((schemaName, tables) ->
+                tables.forEach(table -> table.setColumns(listColumns(schemaName, table.getName()))));
+    }
+
     Table getTable(String schemaName, String tableName);
 
     boolean existTable(Table table);
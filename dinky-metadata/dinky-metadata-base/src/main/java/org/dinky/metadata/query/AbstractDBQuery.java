@@ -95,6 +95,11 @@ public abstract class AbstractDBQuery implements IDBQuery {
         return "UPDATE_TIME";
     }
 
+    @Override
+    public String ddlTime() {
+        return "DDL_TIME";
+    }
+
     @Override
     public String columnName() {
         return "COLUMN_NAME";
@@ -35,6 +35,14 @@ public interface IDBQuery {
     /** 表字段信息查询 SQL */
     String columnsSql(String schemaName, String tableName);
 
+    /**
+     * 整个库的表字段信息查询 SQL，一次取回库下所有表的字段。结果需带有 {@link #tableName()} 列，并按表内字段序号排序；
+     * 不支持时返回 null，此时逐表查询
+     */
+    default String schemaColumnsSql(String schemaName) {
+        return null;
+    }
+
     /** 建表 SQL */
     String createTableSql(String schemaName, String tableName);
 
@@ -74,6 +82,9 @@ public interface IDBQuery {
     /** 更新时间 */
     String updateTime();
 
+    /** 最近一次 DDL 时间 */
+    String ddlTime();
+
     /** 字段名称 */
     String columnName();
 
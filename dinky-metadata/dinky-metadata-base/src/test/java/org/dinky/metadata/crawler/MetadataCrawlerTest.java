@@ -0,0 +1,171 @@
+/*
+ *
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.dinky.metadata.crawler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.dinky.data.model.Column;
+import org.dinky.data.model.Schema;
+import org.dinky.data.model.Table;
+import org.dinky.metadata.driver.Driver;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+class MetadataCrawlerTest {
+
+    /** schema.table -> ddl time, the driver reports these tables */
+    private final Map<String, Long> tables = new LinkedHashMap<>();
+
+    /** schema.table of every table whose columns were queried */
+    private final List<String> fetched = new ArrayList<>();
+
+    /** schema.table of the tables whose column query fails */
+    private final Set<String> failing = new HashSet<>();
+
+    @SuppressWarnings("unchecked")
+    private Driver driver() {
+        return (Driver) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] {Driver.class}, (p, m, a) -> {
+            switch (m.getName()) {
+                case "getName":
+                    return "test";
+                case "getSchemasAndTables":
+                    Map<String, Schema> schemas = new TreeMap<>();
+                    tables.forEach((name, ddlTime) -> {
+                        String[] split = name.split("\\.");
+                        Table table = Table.build(split[1], split[0]);
+                        table.setCreateTime(new Date(0));
+                        table.setDdlTime(ddlTime == null ? null : new Date(ddlTime));
+                        // changes with every write, never a reason to query the columns again
+                        table.setUpdateTime(new Date());
+                        schemas.computeIfAbsent(split[0], Schema::new)
+                                .getTables()
+                                .add(table);
+                    });
+                    return new ArrayList<>(schemas.values());
+                case "fillColumns":
+                    ((Map<String, List<Table>>) a[0])
+                            .forEach((schema, list) -> list.forEach(table -> {
+                                fetched.add(schema + "." + table.getName());
+                                table.setColumns(
+                                        failing.contains(schema + "." + table.getName())
+                                                ? null
+                                                : Collections.singletonList(Column.builder()
+                                                        .name("c")
+                                                        .build()));
+                            }));
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(m.getName());
+            }
+        });
+    }
+
+    @Test
+    void testCrawlListsTablesWithoutColumns() {
+        tables.put("db1.a", 1L);
+        tables.put("db1.b", 1L);
+        tables.put("db2.c", 1L);
+        MetadataCrawler crawler = new MetadataCrawler(driver());
+
+        MetadataSnapshot first = crawler.crawl(null);
+        assertThat(first.getVersion()).isEqualTo(1);
+        assertThat(first.getTableCount()).isEqualTo(3);
+        assertThat(first.findTable("db2", "c").getColumns()).isNull();
+        assertThat(fetched).isEmpty();
+
+        MetadataSnapshot unchanged = crawler.crawl(first);
+        assertThat(unchanged.getVersion()).isEqualTo(1);
+        assertThat(unchanged.getChangedTableCount()).isZero();
+
+        tables.put("db1.b", 2L);
+        tables.put("db2.d", 1L);
+        MetadataSnapshot changed = crawler.crawl(unchanged);
+        assertThat(changed.getVersion()).isEqualTo(2);
+        assertThat(changed.getChangedTableCount()).isEqualTo(2);
+
+        tables.remove("db2.d");
+        MetadataSnapshot removed = crawler.crawl(changed);
+        assertThat(removed.getVersion()).isEqualTo(3);
+        assertThat(removed.findTable("db2", "d")).isNull();
+        assertThat(fetched).isEmpty();
+    }
+
+    @Test
+    void testColumnsAreReusedUntilTheDdlTimeChanges() {
+        tables.put("db1.a", 1L);
+        MetadataCrawler crawler = new MetadataCrawler(driver());
+
+        MetadataSnapshot first = crawler.crawl(null);
+        Table loaded = crawler.crawlColumns("db1", first.findTable("db1", "a"));
+        assertThat(fetched).containsExactly("db1.a");
+        assertThat(loaded.getColumns()).hasSize(1);
+        assertThat(first.findTable("db1", "a").getColumns()).isNull();
+
+        MetadataSnapshot second = crawler.crawl(first);
+        assertThat(MetadataCrawler.isUnchanged(loaded, second.findTable("db1", "a")))
+                .isTrue();
+
+        tables.put("db1.a", 2L);
+        MetadataSnapshot third = crawler.crawl(second);
+        assertThat(MetadataCrawler.isUnchanged(loaded, third.findTable("db1", "a")))
+                .isFalse();
+    }
+
+    @Test
+    void testFailedColumnsAreLeftUnloaded() {
+        tables.put("db1.a", 1L);
+        failing.add("db1.a");
+        MetadataCrawler crawler = new MetadataCrawler(driver());
+
+        MetadataSnapshot snapshot = crawler.crawl(null);
+        assertThat(crawler.crawlColumns("db1", snapshot.findTable("db1", "a")).getColumns())
+                .isNull();
+    }
+
+    @Test
+    void testTablesWithoutTimesAreNeverReused() {
+        Table previous = Table.build("a", "db1");
+        previous.setColumns(new ArrayList<>());
+        assertThat(MetadataCrawler.isUnchanged(previous, Table.build("a", "db1")))
+                .isFalse();
+    }
+
+    @Test
+    void testCreateTimeIsUsedWithoutDdlTime() {
+        Table previous = Table.build("a", "db1");
+        previous.setCreateTime(new Date(1));
+        previous.setUpdateTime(new Date(1));
+        Table current = Table.build("a", "db1");
+        current.setCreateTime(new Date(1));
+        current.setUpdateTime(new Date(2));
+        assertThat(MetadataCrawler.isUnchanged(previous, current)).isTrue();
+    }
+}
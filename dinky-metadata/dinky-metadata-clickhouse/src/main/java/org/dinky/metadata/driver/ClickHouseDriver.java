@@ -171,7 +171,7 @@ public class ClickHouseDriver extends AbstractJdbcDriver {
     }
 
     @Override
-    public List<Column> listColumns(String schemaName, String tableName) {
+    protected List<Column> queryColumns(String schemaName, String tableName) throws SQLException {
         List<Column> columns = new ArrayList<>();
         PreparedStatement preparedStatement = null;
         ResultSet results = null;
@@ -256,8 +256,6 @@ public class ClickHouseDriver extends AbstractJdbcDriver {
                 field.setJavaType(getTypeConvert().convert(field, config));
                 columns.add(field);
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         } finally {
             close(preparedStatement, results);
         }
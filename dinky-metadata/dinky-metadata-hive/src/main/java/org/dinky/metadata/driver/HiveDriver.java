@@ -142,7 +142,7 @@ public class HiveDriver extends AbstractJdbcDriver implements Driver {
     }
 
     @Override
-    public List<Column> listColumns(String schemaName, String tableName) {
+    protected List<Column> queryColumns(String schemaName, String tableName) throws SQLException {
         List<Column> columns = new ArrayList<>();
         PreparedStatement preparedStatement = null;
         ResultSet results = null;
@@ -180,8 +180,6 @@ public class HiveDriver extends AbstractJdbcDriver implements Driver {
                 }
                 columns.add(field);
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         } finally {
             close(preparedStatement, results);
         }
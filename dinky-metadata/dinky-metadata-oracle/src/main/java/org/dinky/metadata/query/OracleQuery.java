@@ -33,7 +33,11 @@ public class OracleQuery extends AbstractDBQuery {
 
     @Override
     public String tablesSql(String schemaName) {
-        return "SELECT * FROM ALL_TAB_COMMENTS WHERE OWNER='" + schemaName + "'";
+        return "SELECT A.*, O.LAST_DDL_TIME DDL_TIME FROM ALL_TAB_COMMENTS A LEFT JOIN ALL_OBJECTS O"
+                + " ON O.OWNER = A.OWNER AND O.OBJECT_NAME = A.TABLE_NAME AND O.OBJECT_TYPE = A.TABLE_TYPE"
+                + " WHERE A.OWNER='"
+                + schemaName
+                + "'";
     }
 
     @Override
@@ -154,7 +154,7 @@ public class PrestoDriver extends AbstractJdbcDriver implements Driver {
     }
 
     @Override
-    public List<Column> listColumns(String schemaName, String tableName) {
+    protected List<Column> queryColumns(String schemaName, String tableName) throws SQLException {
         List<Column> columns = new ArrayList<>();
         PreparedStatement preparedStatement = null;
         ResultSet results = null;
@@ -192,8 +192,6 @@ public class PrestoDriver extends AbstractJdbcDriver implements Driver {
                 }
                 columns.add(field);
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         } finally {
             close(preparedStatement, results);
         }
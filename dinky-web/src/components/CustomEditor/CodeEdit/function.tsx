@@ -159,6 +159,28 @@ const mappingKind = (kind: number) => {
   }
 };
 
+/**
+ * whether the word at the cursor follows a dot, e.g. `db.` or `tbl.col`, these are completed by the
+ * server from the qualifier left of the dot
+ * @param model ITextModel
+ * @param position monaco.Position
+ */
+export const isMemberCompletion = (model: ITextModel, position: monaco.Position) => {
+  const word = model.getWordUntilPosition(position);
+  if (word.startColumn <= 1) {
+    return false;
+  }
+  const before = model.getValueInRange(
+    new monaco.Range(
+      position.lineNumber,
+      word.startColumn - 1,
+      position.lineNumber,
+      word.startColumn
+    )
+  );
+  return before === '.';
+};
+
 /**
  * build all suggestions to editor
  * @param model ITextModel
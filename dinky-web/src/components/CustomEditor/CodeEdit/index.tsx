@@ -20,9 +20,13 @@
 import * as monaco from 'monaco-editor';
 import { editor, languages, Position } from 'monaco-editor';
 
-import { buildAllSuggestionsToEditor } from '@/components/CustomEditor/CodeEdit/function';
+import {
+  buildAllSuggestionsToEditor,
+  isMemberCompletion
+} from '@/components/CustomEditor/CodeEdit/function';
 import { handleInitEditorAndLanguageOnBeforeMount } from '@/components/CustomEditor/function';
 import { StateType } from '@/pages/DataStudio/model';
+import { querySuggestionsBySqlStatement } from '@/pages/DataStudio/RightContainer/JobConfig/service';
 import { MonacoEditorOptions } from '@/types/Public/data';
 import { convertCodeEditTheme } from '@/utils/function';
 import { Editor, Monaco, OnChange } from '@monaco-editor/react';
@@ -89,9 +93,17 @@ const CodeEdit = (props: CodeEditFormProps & connect) => {
   const monacoInstance = useRef<Monaco | undefined>(monacoRef);
 
   /**
-   * build all suggestions
+   * build all suggestions, members of a database or table are completed by the server
    */
-  const buildAllSuggestions = (model: ITextModel, position: monaco.Position) => {
+  const buildAllSuggestions = async (model: ITextModel, position: monaco.Position) => {
+    if (isMemberCompletion(model, position)) {
+      const members = await querySuggestionsBySqlStatement({
+        enableSchemaSuggestion: true,
+        sqlStatement: model.getValue(),
+        position: model.getOffsetAt(position)
+      });
+      return buildAllSuggestionsToEditor(model, position, members ?? []);
+    }
     return buildAllSuggestionsToEditor(model, position, suggestionsData);
   };
 
@@ -99,7 +111,7 @@ const CodeEdit = (props: CodeEditFormProps & connect) => {
     async (model: ITextModel, position: monaco.Position) => {
       return buildAllSuggestions(model, position);
     },
-    [code, activeKey]
+    [code, activeKey, suggestionsData]
   );
 
   // memo
@@ -108,6 +120,7 @@ const CodeEdit = (props: CodeEditFormProps & connect) => {
   function reloadCompilation(monacoIns: Monaco) {
     provider.dispose();
     provider = monacoIns.languages.registerCompletionItemProvider(language, {
+      triggerCharacters: ['.'],
       provideCompletionItems: (
         model: editor.ITextModel,
         position: Position,
@@ -48,8 +48,105 @@ export interface ProcessStep extends DataNode {
   log: string;
   lastUpdateStep: ProcessStep;
   children: ProcessStep[];
+  seq: number;
 }
 
+/**
+ * A change of the process, the sequence number increases by one per change
+ */
+type ProcessDelta = {
+  seq: number;
+  processKey: string;
+  type: 'PROCESS' | 'STEP' | 'LOG';
+  process?: ProcessStep;
+  step?: ProcessStep;
+  parentKey?: string;
+  stepKey?: string;
+  global: boolean;
+  log?: string;
+};
+
+const LINE_SEP = '\n';
+
+const findNode = (node: ProcessStep, key: Key): ProcessStep | undefined => {
+  if (node.key == key) {
+    return node;
+  }
+  for (const child of node.children ?? []) {
+    const found = findNode(child, key);
+    if (found) {
+      return found;
+    }
+  }
+  return undefined;
+};
+
+/**
+ * Copy the path to the node of the key and replace the node, other nodes are shared with the old tree
+ */
+const updateNode = (
+  node: ProcessStep,
+  key: Key | undefined,
+  update: (node: ProcessStep) => ProcessStep
+): ProcessStep => {
+  if (node.key == key) {
+    return update(node);
+  }
+  let changed = false;
+  const children = (node.children ?? []).map((child) => {
+    const updated = updateNode(child, key, update);
+    changed = changed || updated !== child;
+    return updated;
+  });
+  return changed ? { ...node, children } : node;
+};
+
+const applyDelta = (process: ProcessStep | undefined, delta: ProcessDelta): ProcessStep => {
+  switch (delta.type) {
+    case 'PROCESS':
+      if (!process || process.key != delta.processKey) {
+        return { ...delta.process!, log: '', children: [], seq: delta.seq };
+      }
+      return {
+        ...process,
+        status: delta.process!.status,
+        endTime: delta.process!.endTime,
+        time: delta.process!.time,
+        seq: delta.seq
+      };
+    case 'STEP': {
+      const step = delta.step!;
+      if (findNode(process!, step.key)) {
+        const updated = updateNode(process!, step.key, (node) => ({
+          ...node,
+          status: step.status,
+          endTime: step.endTime,
+          time: step.time
+        }));
+        return { ...updated, seq: delta.seq };
+      }
+      const newStep = { ...step, log: '', children: [] };
+      const parentKey = delta.parentKey ?? process!.key;
+      const updated = updateNode(process!, parentKey, (node) => ({
+        ...node,
+        children: [...node.children, newStep]
+      }));
+      return { ...updated, seq: delta.seq };
+    }
+    case 'LOG': {
+      const line = delta.log + LINE_SEP;
+      let updated = process!;
+      if (delta.stepKey) {
+        updated = updateNode(updated, delta.stepKey, (node) => ({ ...node, log: node.log + line }));
+      }
+      if (delta.global) {
+        updated = { ...updated, log: updated.log + line };
+      }
+      return { ...updated, seq: delta.seq };
+    }
+  }
+};
+
 const buildExpandKeys = (node: ProcessStep) => {
   const keys: Key[] = [];
   keys.push(node.key);
@@ -65,9 +162,13 @@ const ConsoleContent = (props: ConsoleProps) => {
   const { tab } = props;
   const refObject = useRef<HTMLDivElement>(null);
 
-  const [selectNode, setSelectNode] = useState<ProcessStep>();
+  const [selectKey, setSelectKey] = useState<Key>();
   const [processNode, setProcessNode] = useState<ProcessStep>();
   const [expandedKeys, setExpandedKeys] = useState<Key[]>([]);
+  const processRef = useRef<ProcessStep>();
+  const refreshingRef = useRef(false);
+  // changes received while the process is fetched
+  const pendingRef = useRef<ProcessDelta[]>([]);
 
   const process = `FlinkSubmit/${tab.params.taskId}`;
   const topic = `${SSE_TOPIC.PROCESS_CONSOLE}/${process}`;
@@ -75,37 +176,61 @@ const ConsoleContent = (props: ConsoleProps) => {
     subscribeTopic: model.subscribeTopic
   }));
 
-  const onUpdate = (data: ProcessStep) => {
-    setProcessNode((prevState: any) => {
-      //如果key不一致代表重新提交了任务，清空旧状态
-      if (prevState && prevState.key != data.key) {
-        setSelectNode(undefined);
-      }
-      return data;
-    });
-    setSelectNode((prevState: any) => {
-      if (prevState && prevState.key == data.lastUpdateStep.key) {
-        //更新当前节点
-        return data.lastUpdateStep;
-      } else if (!prevState || prevState.key == data.key) {
-        //未选择节点状态下选择根节点
-        return data;
-      }
-      return prevState;
-    });
+  const setProcess = (data: ProcessStep | undefined) => {
+    //如果key不一致代表重新提交了任务，清空旧状态
+    if (processRef.current?.key != data?.key) {
+      setSelectKey(undefined);
+    }
+    processRef.current = data;
+    setProcessNode(data);
   };
 
-  useRequest(
+  const { run: refresh } = useRequest(
     { url: API_CONSTANTS.PROCESS_LOG, params: { processName: process } },
-    { onSuccess: async (res) => onUpdate(res) }
+    {
+      onBefore: () => (refreshingRef.current = true),
+      onSuccess: async (res) => setProcess(res ?? undefined),
+      onError: () => (pendingRef.current = []),
+      onFinally: () => {
+        refreshingRef.current = false;
+        // replay the changes newer than the fetched process, older ones are skipped by their seq
+        const pending = pendingRef.current.sort((a, b) => a.seq - b.seq);
+        pendingRef.current = [];
+        pending.forEach((delta) => onDelta(delta));
+      }
+    }
   );
-  useEffect(() => subscribeTopic([topic], (data: SseData) => onUpdate(data.data)), []);
+
+  const onDelta = (delta: ProcessDelta) => {
+    if (refreshingRef.current) {
+      // the fetched process may be older than this change, apply it once the fetch is done
+      pendingRef.current.push(delta);
+      return;
+    }
+    const current = processRef.current;
+    const sameProcess = current?.key == delta.processKey;
+    if (sameProcess && delta.seq <= current!.seq) {
+      return;
+    }
+    const expectedSeq = sameProcess ? current!.seq + 1 : 1;
+    if (delta.seq != expectedSeq) {
+      // some changes were missed, fetch the whole process again
+      refresh();
+      return;
+    }
+    setProcess(applyDelta(current, delta));
+  };
+
+  useEffect(() => subscribeTopic([topic], (data: SseData) => onDelta(data.data)), []);
   const onSelect = (
     _selectedKeys: Key[],
     info: {
       node: ProcessStep;
     }
-  ) => setSelectNode(info.node);
+  ) => setSelectKey(info.node.key);
+
+  const selectNode =
+    processNode && selectKey ? findNode(processNode, selectKey) ?? processNode : processNode;
 
   const renderTitle = (node: any) => {
     const startDate = new Date(node.startTime);
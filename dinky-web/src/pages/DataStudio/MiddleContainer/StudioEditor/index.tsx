@@ -54,7 +54,7 @@ const StudioEditor: React.FC<EditorProps & connect> = (props) => {
     dispatch({
       type: STUDIO_MODEL_ASYNC.querySuggestions,
       payload: {
-        enableSchemaSuggestions: false
+        enableSchemaSuggestion: false
       }
     });
   }, []);
@@ -33,6 +33,10 @@ export function getFlinkConfigs() {
   return queryDataByParams('/api/flinkConf/configOptions');
 }
 
-export function querySuggessionData(params: any) {
-  return getDataByParams('/api/suggestion/queryAllSuggestions', params);
+export function queryChangedSuggestions(params: any) {
+  return getDataByParams('/api/suggestion/queryChangedSuggestions', params);
+}
+
+export function querySuggestionsBySqlStatement(params: any) {
+  return getDataByParams('/api/suggestion/queryAllSuggestionsBySqlStatement', params);
 }
@@ -21,10 +21,10 @@ import { getFooterValue, isDataStudioTabsItemType } from '@/pages/DataStudio/fun
 import { getTaskData } from '@/pages/DataStudio/LeftContainer/Project/service';
 import {
   getFlinkConfigs,
-  querySuggessionData
+  queryChangedSuggestions
 } from '@/pages/DataStudio/RightContainer/JobConfig/service';
 import { QueryParams } from '@/pages/RegCenter/DataSource/components/DataSourceDetail/RightTagsRouter/data';
-import { SuggestionInfo } from '@/types/Public/data';
+import { SuggestionDelta, SuggestionInfo } from '@/types/Public/data';
 import { Cluster, DataSources } from '@/types/RegCenter/data';
 import { l } from '@/utils/intl';
 import { createModelTypes } from '@/utils/modelUtils';
@@ -292,6 +292,8 @@ export type StateType = {
   bottomContainerContent: BottomContainerContent;
   footContainer: FooterType;
   suggestions: SuggestionInfo[];
+  // version of the suggestions held, -1 before the first load
+  suggestionVersion: number;
 };
 
 export type ModelType = {
@@ -398,7 +400,8 @@ const Model: ModelType = {
         runningLog: ''
       }
     },
-    suggestions: []
+    suggestions: [],
+    suggestionVersion: -1
   },
   effects: {
     *queryProject({ payload }, { call, put }) {
@@ -415,8 +418,15 @@ const Model: ModelType = {
         payload: response
       });
     },
-    *querySuggestions({ payload }, { call, put }) {
-      const response: SuggestionInfo[] = yield call(querySuggessionData, payload);
+    *querySuggestions({ payload }, { call, put, select }) {
+      const version: number = yield select((state: any) => state.Studio.suggestionVersion);
+      const response: SuggestionDelta = yield call(queryChangedSuggestions, {
+        ...payload,
+        version
+      });
+      if (!response) {
+        return;
+      }
       yield put({
         type: 'updateSuggestions',
         payload: response
@@ -855,10 +865,20 @@ const Model: ModelType = {
         }
       };
     },
+    /**
+     * 应用建议的增量, full 时替换全部
+     */
     updateSuggestions(state, { payload }) {
+      const delta: SuggestionDelta = payload;
+      const changedKeys = new Set([
+        ...delta.removedKeys,
+        ...delta.suggestions.map((item) => item.key)
+      ]);
+      const kept = delta.full ? [] : state.suggestions.filter((item) => !changedKeys.has(item.key));
       return {
         ...state,
-        suggestions: payload
+        suggestions: [...kept, ...delta.suggestions],
+        suggestionVersion: delta.version
       };
     }
   }
@@ -275,6 +275,7 @@ export enum API_CONSTANTS {
 
   // flink
   FLINK_PROXY = '/api/flink',
+  FLINK_WEB = '/api/flink_web',
   FLINK_TABLE_DATA = '/api/subscribe/print',
 
   // resource
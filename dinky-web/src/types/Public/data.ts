@@ -65,3 +65,15 @@ export type SuggestionInfo = {
   insertText: string;
   detail?: string;
 };
+
+/**
+ * changes of the suggestions since the version the editor holds,
+ * see /api/suggestion/queryChangedSuggestions
+ */
+export type SuggestionDelta = {
+  version: number;
+  // suggestions is the full set, drop what is held
+  full: boolean;
+  suggestions: SuggestionInfo[];
+  removedKeys: (string | number)[];
+};